@@ -0,0 +1,156 @@
+package com.borodkir.teamjob;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hashes and checks passwords on a small pool of its own threads instead of the request threads, so a burst of logins
+ * occupies at most that many cores and the rest of the application keeps responding.
+ * <ul>
+ *   <li>Requests wait for a hashing thread in a queue of limited capacity. If the queue is full, or a request waited
+ *   longer than the timeout, a {@link PasswordHashingRejectedException} is thrown at once.</li>
+ *   <li>{@link #upgradeEncoding} reports hashes of a lower cost than the current one, so they are re-hashed at the next
+ *   successful login. While the queue is more than half full re-hashing is postponed, it must not fail the login.
+ *   If the re-hash following {@link #upgradeEncoding} on the same thread is rejected all the same, {@link #encode}
+ *   returns the current hash and the upgrade is skipped.</li>
+ * </ul>
+ * The queue depth is published as {@code password.hashing.queue.size}, the busy threads as
+ * {@code password.hashing.active}, the time waited in the queue as {@code password.hashing.queue.wait}, the hashing time
+ * as {@code password.hashing.duration} per operation and the rejected requests as {@code password.hashing.rejected}.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder, AutoCloseable {
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final int queueCapacity;
+    private final long timeoutMillis;
+
+    private final Timer queueWait;
+    private final Timer encodeDuration;
+    private final Timer matchesDuration;
+    private final Counter rejected;
+
+    /**
+     * The hash reported by {@link #upgradeEncoding} until the login thread re-hashes the password.
+     */
+    private final ThreadLocal<String> upgrading = new ThreadLocal<>();
+
+    /**
+     * @param threads       the number of hashing threads
+     * @param queueCapacity the number of requests that may wait for a thread
+     * @param timeoutMillis the longest time a request waits for its result
+     */
+    public BoundedPasswordEncoder(PasswordEncoder delegate, MeterRegistry meterRegistry, int threads, int queueCapacity, long timeoutMillis) {
+        this.delegate = delegate;
+        this.queueCapacity = queueCapacity;
+        this.timeoutMillis = timeoutMillis;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.queueWait = Timer.builder("password.hashing.queue.wait")
+                .description("Time a password waited for a hashing thread").register(meterRegistry);
+        this.encodeDuration = Timer.builder("password.hashing.duration").tag("operation", "encode")
+                .description("Time to hash a password").register(meterRegistry);
+        this.matchesDuration = Timer.builder("password.hashing.duration").tag("operation", "matches")
+                .description("Time to check a password").register(meterRegistry);
+        this.rejected = Counter.builder("password.hashing.rejected")
+                .description("Passwords not hashed because all hashing threads were busy").register(meterRegistry);
+        Gauge.builder("password.hashing.queue.size", executor, pool -> pool.getQueue().size())
+                .description("Passwords waiting for a hashing thread").register(meterRegistry);
+        Gauge.builder("password.hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Hashing threads at work").register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        String current = upgrading.get();
+        upgrading.remove();
+        try {
+            return submit(encodeDuration, () -> delegate.encode(rawPassword));
+        } catch (PasswordHashingRejectedException e) {
+            if (current == null) {
+                throw e;
+            }
+            // The password was already checked against the current hash, keep it until the next login
+            return current;
+        }
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        upgrading.remove();
+        return submit(matchesDuration, () -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (executor.getQueue().size() * 2 > queueCapacity || !delegate.upgradeEncoding(encodedPassword)) {
+            return false;
+        }
+        upgrading.set(encodedPassword);
+        return true;
+    }
+
+    /**
+     * @return the number of passwords waiting for a hashing thread
+     */
+    int queueSize() {
+        return executor.getQueue().size();
+    }
+
+    private <T> T submit(Timer duration, Callable<T> hashing) {
+        long queuedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                queueWait.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+                return duration.recordCallable(hashing);
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new PasswordHashingRejectedException("Too many logins at once, please try again");
+        }
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(false);
+            executor.remove((Runnable) future);
+            rejected.increment();
+            throw new PasswordHashingRejectedException("Too many logins at once, please try again");
+        } catch (InterruptedException e) {
+            future.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new PasswordHashingRejectedException("Interrupted while waiting for the password to be hashed");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,97 @@
+package com.borodkir.teamjob;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits the requests in progress to a multiple of the database connections when requests run on virtual threads.
+ * <p>
+ * The platform thread pool of Tomcat bounds the concurrent requests by itself. Virtual threads do not, thousands of
+ * requests would queue for the few connections of the Hikari pool, each holding its memory and running into the
+ * connection timeout. Instead, requests wait here in arrival order for one of
+ * {@code spring.datasource.hikari.maximum-pool-size} &times; {@code testing.app.virtual-threads.requests-per-connection}
+ * permits, and are answered with 503 Service Unavailable after {@code testing.app.virtual-threads.acquire-timeout-ms}.
+ * <ul>
+ *   <li>Inactive without {@code spring.threads.virtual.enabled}.</li>
+ *   <li>Static resources and the actuator endpoints do not need a permit.</li>
+ *   <li>A permit is returned when the request thread returns, asynchronous responses like the exports keep streaming
+ *   without one.</li>
+ * </ul>
+ * The waiting requests are published as {@code db.request.limit.waiting}, the free permits as
+ * {@code db.request.limit.available} and the rejected requests as {@code db.request.limit.rejected}.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class ConnectionPoolLimitFilter extends OncePerRequestFilter {
+
+    private static final List<String> UNLIMITED_PATHS = List.of("/css/", "/js/", "/images/", "/actuator/");
+
+    private final Semaphore permits;
+    private final long acquireTimeoutMillis;
+    private final Counter rejected;
+
+    public ConnectionPoolLimitFilter(MeterRegistry meterRegistry,
+                                     @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+                                     @Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize,
+                                     @Value("${testing.app.virtual-threads.requests-per-connection:2}") int requestsPerConnection,
+                                     @Value("${testing.app.virtual-threads.acquire-timeout-ms:5000}") long acquireTimeoutMillis) {
+        this.permits = virtualThreads && requestsPerConnection > 0
+                ? new Semaphore(Math.max(1, poolSize * requestsPerConnection), true)
+                : null;
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+        this.rejected = Counter.builder("db.request.limit.rejected")
+                .description("Requests rejected because no database permit became free in time").register(meterRegistry);
+        if (permits != null) {
+            Gauge.builder("db.request.limit.waiting", permits, Semaphore::getQueueLength)
+                    .description("Requests waiting for a database permit").register(meterRegistry);
+            Gauge.builder("db.request.limit.available", permits, Semaphore::availablePermits)
+                    .description("Free database permits").register(meterRegistry);
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        String path = request.getRequestURI();
+        if (permits == null || UNLIMITED_PATHS.stream().anyMatch(path::startsWith)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            rejected.increment();
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            return;
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            permits.release();
+        }
+    }
+}
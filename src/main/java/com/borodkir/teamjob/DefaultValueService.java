@@ -10,6 +10,7 @@ import com.borodkir.teamjob.data.repositories.RoomRepository;
 import com.borodkir.teamjob.data.repositories.UserRepository;
 import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -20,13 +21,13 @@ import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.temporal.TemporalAdjusters;
 import java.util.*;
-import java.util.Optional;
 
 import static java.util.Collections.singleton;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 @Service
+@DependsOn("eventIdSequenceInitializer")
 public class DefaultValueService {
     private static final Logger logger = LoggerFactory.getLogger(DefaultValueService.class);
     private final RoleRepository roleRepository;
@@ -291,10 +292,10 @@ public class DefaultValueService {
                         event.setTags(getRandomTags(SAMPLE_EVENT_TAGS, 2));
 
                         // Check for overlapping events
-                        boolean hasOverlap = eventRepository.findOverlappingEventsInRoom(
+                        boolean hasOverlap = eventRepository.existsBookingInRoom(
+                                event.getRoom().getId(),
                                 event.getStartTime(),
-                                event.getEndTime(),
-                                Optional.of(event.getRoom()));
+                                event.getEndTime());
                         
                         if (!hasOverlap) {
                             Event savedEvent = eventRepository.save(event);
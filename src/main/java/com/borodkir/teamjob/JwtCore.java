@@ -1,25 +1,100 @@
 package com.borodkir.teamjob;
 
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import jakarta.servlet.http.Cookie;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Issues and verifies the JWTs of the users.
+ * <ul>
+ *   <li>The signing key and the parser are built once, both are immutable and shared by all requests.</li>
+ *   <li>Every token that passed verification is remembered by its SHA-256 digest together with its subject and expiry,
+ *   so the same cookie arriving again skips the signature check and the JSON parsing until the token expires.
+ *   The tokens themselves are never kept.</li>
+ *   <li>At most {@code testing.app.jwt.cache-size} tokens are remembered. When full, expired tokens are dropped,
+ *   and if all are still valid the cache starts over.</li>
+ *   <li>Besides the username a token carries the user id ({@value #USER_ID_CLAIM}), the role names
+ *   ({@value #ROLES_CLAIM}) and the role version ({@value #ROLE_VERSION_CLAIM}) of the user, so with
+ *   {@code testing.app.jwt.stateless} the token filter authenticates requests without loading the user.</li>
+ * </ul>
+ */
 @Component
 public class JwtCore {
-    @Value("${testing.app.secret}")
-    private String secret;
+    private static final Logger logger = LoggerFactory.getLogger(JwtCore.class);
 
-    @Value("${testing.app.lifetime}")
-    private int lifetime;
+    /**
+     * SHA-256 digest of a token, compared by value.
+     */
+    private record TokenDigest(long a, long b, long c, long d) {
+    }
+
+    static final String USER_ID_CLAIM = "uid";
+    static final String ROLES_CLAIM = "roles";
+    static final String ROLE_VERSION_CLAIM = "rv";
 
-    private SecretKey key;
+    /**
+     * The verified content of a token.
+     *
+     * @param userId null for tokens issued without the user claims, e.g. before they were introduced
+     * @param roles  the role names, empty if not in the token
+     */
+    public record TokenClaims(String subject, Long userId, List<String> roles, int roleVersion, long expiresAtMillis) {
+
+        /**
+         * @return the user as far as known from the token, without email and password
+         */
+        public UserDetailsImpl toUserDetails() {
+            List<GrantedAuthority> authorities = new ArrayList<>(roles.size());
+            for (String role : roles) {
+                authorities.add(new SimpleGrantedAuthority(role));
+            }
+            return new UserDetailsImpl(userId, subject, null, null, authorities, roleVersion);
+        }
+    }
+
+    private final int lifetime;
+    private final int cacheSize;
+    private final SecretKey key;
+    private final JwtParser parser;
+    private final MessageDigest digestPrototype;
+    private final Map<TokenDigest, TokenClaims> verifiedTokens = new ConcurrentHashMap<>();
+
+    public JwtCore(@Value("${testing.app.secret}") String secret,
+                   @Value("${testing.app.lifetime}") int lifetime,
+                   @Value("${testing.app.jwt.cache-size:10000}") int cacheSize) {
+        this.lifetime = lifetime;
+        this.cacheSize = cacheSize;
+        this.key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parser().verifyWith(key).build();
+        try {
+            this.digestPrototype = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform supports SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
 
     /**
      * Generates a JWT token for the authenticated user.
@@ -28,42 +103,142 @@ public class JwtCore {
      * @return the generated JWT token
      */
     public String generateToken(Authentication authentication) {
-        UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
+        return generateToken((UserDetailsImpl) authentication.getPrincipal());
+    }
+
+    /**
+     * Generates a JWT token carrying the id, roles and role version of the user.
+     *
+     * @param userDetails the user as loaded from the database
+     * @return the generated JWT token
+     */
+    public String generateToken(UserDetailsImpl userDetails) {
         LocalDateTime now = LocalDateTime.now();
         Date issuedAt = Date.from(now.atZone(ZoneId.systemDefault()).toInstant());
         Date expiration = Date.from(now.plusSeconds(lifetime).atZone(ZoneId.systemDefault()).toInstant());
+        List<String> roles = userDetails.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList();
 
-        key = Keys.hmacShaKeyFor(secret.getBytes());
-
-        return Jwts.builder()
+        String token = Jwts.builder()
                 .subject(userDetails.getUsername())
+                .claim(USER_ID_CLAIM, userDetails.getId())
+                .claim(ROLES_CLAIM, roles)
+                .claim(ROLE_VERSION_CLAIM, userDetails.getRoleVersion())
                 .issuedAt(issuedAt)
                 .expiration(expiration)
                 .signWith(key)
                 .compact();
+
+        // The browser sends the token with its next request
+        remember(digest(token), new TokenClaims(userDetails.getUsername(), userDetails.getId(), roles,
+                userDetails.getRoleVersion(), expiration.getTime()));
+        return token;
     }
 
     /**
      * Extracts the username (subject) from a given JWT token using the modern JJWT API.
      *
      * @param token the JWT token from which to extract the username
-     * @return the username.
+     * @return the username, or null if the token is invalid or expired
      */
     public String getNameFromJwtToken(String token) {
-        key = Keys.hmacShaKeyFor(secret.getBytes());
+        TokenClaims claims = verify(token);
+        return claims != null ? claims.subject() : null;
+    }
+
+    /**
+     * Verifies a token and reads its claims.
+     *
+     * @param token the JWT token
+     * @return the claims, or null if the token is invalid or expired
+     */
+    public TokenClaims verify(String token) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+        TokenDigest digest = digest(token);
+        TokenClaims verified = verifiedTokens.get(digest);
+        if (verified != null) {
+            if (System.currentTimeMillis() < verified.expiresAtMillis()) {
+                return verified;
+            }
+            verifiedTokens.remove(digest, verified);
+        }
 
         try {
-            return Jwts.parser()
-                    .verifyWith(key)
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload()
-                    .getSubject();
+            Claims claims = parser.parseSignedClaims(token).getPayload();
+            long expiresAtMillis = claims.getExpiration() != null ? claims.getExpiration().getTime() : Long.MAX_VALUE;
+            TokenClaims tokenClaims = new TokenClaims(claims.getSubject(), claims.get(USER_ID_CLAIM, Long.class),
+                    roles(claims), roleVersion(claims), expiresAtMillis);
+            if (claims.getExpiration() != null) {
+                remember(digest, tokenClaims);
+            }
+            return tokenClaims;
         } catch (Exception e) {
-            System.err.println("Error parsing JWT token: " + e.getMessage());
+            logger.debug("Error parsing JWT token: {}", e.getMessage());
             return null;
         }
+    }
+
+    /**
+     * Creates the cookie the browser sends the token with.
+     */
+    public static Cookie createCookie(String jwt) {
+        Cookie cookie = new Cookie("jwt", jwt);
+        cookie.setHttpOnly(true);     // Makes cookie inaccessible to JavaScript
+        cookie.setSecure(true);       // Only sent over HTTPS
+        cookie.setPath("/");          // Cookie is valid for all paths
+        cookie.setMaxAge(86400);      // Cookie expires in 1 day
+
+        return cookie;
+    }
+
+    /**
+     * @return the number of remembered tokens
+     */
+    int cachedTokens() {
+        return verifiedTokens.size();
+    }
+
+    private static List<String> roles(Claims claims) {
+        if (!(claims.get(ROLES_CLAIM) instanceof List<?> values)) {
+            return List.of();
+        }
+        List<String> roles = new ArrayList<>(values.size());
+        for (Object value : values) {
+            roles.add(String.valueOf(value));
+        }
+        return List.copyOf(roles);
+    }
 
+    private static int roleVersion(Claims claims) {
+        Integer roleVersion = claims.get(ROLE_VERSION_CLAIM, Integer.class);
+        return roleVersion != null ? roleVersion : 0;
     }
 
-}
\ No newline at end of file
+    private void remember(TokenDigest digest, TokenClaims verified) {
+        if (cacheSize <= 0) {
+            return;
+        }
+        if (verifiedTokens.size() >= cacheSize) {
+            long now = System.currentTimeMillis();
+            verifiedTokens.values().removeIf(token -> token.expiresAtMillis() <= now);
+            if (verifiedTokens.size() >= cacheSize) {
+                verifiedTokens.clear();
+            }
+        }
+        verifiedTokens.put(digest, verified);
+    }
+
+    private TokenDigest digest(String token) {
+        MessageDigest sha256;
+        try {
+            // Cheaper than looking up the provider again, a digest instance is not thread-safe
+            sha256 = (MessageDigest) digestPrototype.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException(e);
+        }
+        // Tokens only consist of base64url characters and dots
+        ByteBuffer hash = ByteBuffer.wrap(sha256.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        return new TokenDigest(hash.getLong(), hash.getLong(), hash.getLong(), hash.getLong());
+    }
+}
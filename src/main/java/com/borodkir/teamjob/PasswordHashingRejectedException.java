@@ -0,0 +1,11 @@
+package com.borodkir.teamjob;
+
+/**
+ * Thrown if a password cannot be hashed because all hashing threads are busy and the queue is full,
+ * answered with 503 Service Unavailable.
+ */
+public class PasswordHashingRejectedException extends RuntimeException {
+    public PasswordHashingRejectedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,46 @@
+package com.borodkir.teamjob;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+/**
+ * Marks the requests whose detailed trace is logged, see {@link RequestTraceFilter}.
+ * <p>
+ * Hot paths check {@link #isActive()} before building any log line, so untraced requests pay for one thread-local read.
+ * Trace lines are written at INFO to the logger {@code trace.<class name>}, independent of the level of the class itself,
+ * and carry the trace id in the MDC key {@value #MDC_KEY}.
+ */
+public final class RequestTrace {
+
+    public static final String MDC_KEY = "requestTrace";
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private RequestTrace() {
+    }
+
+    /**
+     * @return true if the current request is traced
+     */
+    public static boolean isActive() {
+        return CURRENT.get() != null;
+    }
+
+    /**
+     * @return the logger for the trace lines of the given class
+     */
+    public static Logger logger(Class<?> type) {
+        return LoggerFactory.getLogger("trace." + type.getName());
+    }
+
+    static void start(String traceId) {
+        CURRENT.set(traceId);
+        MDC.put(MDC_KEY, traceId);
+    }
+
+    static void stop() {
+        CURRENT.remove();
+        MDC.remove(MDC_KEY);
+    }
+}
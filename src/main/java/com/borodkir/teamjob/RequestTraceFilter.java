@@ -0,0 +1,73 @@
+package com.borodkir.teamjob;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decides for every request whether its detailed trace is logged, see {@link RequestTrace}.
+ * <ul>
+ *   <li>One in {@code testing.app.trace.sample-rate} requests is traced at random, 0 traces none, 1 traces all.</li>
+ *   <li>A request is always traced if its {@value #TRACE_HEADER} header equals {@code testing.app.trace.header-token}.
+ *   Without a token the header is ignored, so clients cannot make the server log more.</li>
+ * </ul>
+ * Runs before the security filters, so the token filter is traced as well. A traced request gets its trace id
+ * in the {@value #TRACE_HEADER} response header to find its lines in the log.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RequestTraceFilter extends OncePerRequestFilter {
+
+    public static final String TRACE_HEADER = "X-Debug-Trace";
+
+    private final int sampleRate;
+    private final byte[] headerToken;
+
+    public RequestTraceFilter(@Value("${testing.app.trace.sample-rate:0}") int sampleRate,
+                              @Value("${testing.app.trace.header-token:}") String headerToken) {
+        this.sampleRate = sampleRate;
+        this.headerToken = headerToken.isEmpty() ? null : headerToken.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        if (!isTraced(request)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        String traceId = UUID.randomUUID().toString().substring(0, 8);
+        RequestTrace.start(traceId);
+        try {
+            response.setHeader(TRACE_HEADER, traceId);
+            filterChain.doFilter(request, response);
+        } finally {
+            RequestTrace.stop();
+        }
+    }
+
+    boolean isTraced(HttpServletRequest request) {
+        if (headerToken != null) {
+            String header = request.getHeader(TRACE_HEADER);
+            // Constant time, the token must not be guessable from response times
+            if (header != null && MessageDigest.isEqual(headerToken, header.getBytes(StandardCharsets.UTF_8))) {
+                return true;
+            }
+        }
+        return sampleRate > 0 && (sampleRate == 1 || ThreadLocalRandom.current().nextInt(sampleRate) == 0);
+    }
+}
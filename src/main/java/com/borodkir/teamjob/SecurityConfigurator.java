@@ -1,6 +1,7 @@
 package com.borodkir.teamjob;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -34,9 +35,17 @@ public class SecurityConfigurator {
         this.tokenFilter = tokenFilter;
     }
 
+    /**
+     * BCrypt on a bounded pool of hashing threads, with 0 threads half the processors.
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(MeterRegistry meterRegistry,
+                                           @Value("${testing.app.password-hashing.bcrypt-strength:10}") int strength,
+                                           @Value("${testing.app.password-hashing.threads:0}") int threads,
+                                           @Value("${testing.app.password-hashing.queue-capacity:64}") int queueCapacity,
+                                           @Value("${testing.app.password-hashing.timeout-ms:5000}") long timeoutMillis) {
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(strength), meterRegistry, poolSize, queueCapacity, timeoutMillis);
     }
 
     @Bean
@@ -97,10 +106,14 @@ public class SecurityConfigurator {
                         .requestMatchers("/", "/login", "/signup", "/signin", "/signout", "/error").permitAll()
                         .requestMatchers("/css/**", "/js/**", "/images/**").permitAll()
                         .requestMatchers("/auth/**").permitAll()
+                        .requestMatchers("/actuator/metrics/**").hasRole("ADMIN")
                         .requestMatchers("/actuator/**").permitAll()
                         // Event management - restricted to CONFIG and ADMIN roles
                         .requestMatchers("/api/v1/addevents").hasAnyRole("CONFIG", "ADMIN")
                         .requestMatchers("/api/v1/deleteevents/**").hasAnyRole("CONFIG", "ADMIN")
+                        .requestMatchers("/api/v1/events/bulk").hasAnyRole("CONFIG", "ADMIN")
+                        .requestMatchers("/api/v1/events/export").hasAnyRole("CONFIG", "ADMIN")
+                        .requestMatchers("/api/v1/events/import").hasAnyRole("CONFIG", "ADMIN")
                         // Room management - restricted to CONFIG and ADMIN roles
                         .requestMatchers("/api/v1/addrooms").hasAnyRole("CONFIG", "ADMIN")
                         .requestMatchers("/api/v1/deleterooms/**").hasAnyRole("CONFIG", "ADMIN")
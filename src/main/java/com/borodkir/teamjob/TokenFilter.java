@@ -1,5 +1,6 @@
 package com.borodkir.teamjob;
 
+import com.borodkir.teamjob.services.IRoleVersionService;
 import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -7,7 +8,6 @@ import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -22,15 +22,17 @@ import java.util.List;
 
 @Component
 public class TokenFilter extends OncePerRequestFilter {
-    private static final Logger logger = LoggerFactory.getLogger(TokenFilter.class);
+    private static final Logger traceLogger = RequestTrace.logger(TokenFilter.class);
 
     private final JwtCore jwtCore;
     private final UserDetailsService userDetailsService;
+    private final IRoleVersionService roleVersionService;
     private final List<String> PUBLIC_PATHS = Arrays.asList("/actuator/health", "/login", "/auth/", "/css/", "/js/", "/images/", "/signup", "/signin", "/signout", "/error");
 
-    public TokenFilter(JwtCore jwtCore, UserDetailsService userDetailsService) {
+    public TokenFilter(JwtCore jwtCore, UserDetailsService userDetailsService, IRoleVersionService roleVersionService) {
         this.jwtCore = jwtCore;
         this.userDetailsService = userDetailsService;
+        this.roleVersionService = roleVersionService;
     }
 
     @Override
@@ -44,56 +46,74 @@ public class TokenFilter extends OncePerRequestFilter {
             filterChain.doFilter(request, response);
             return;
         }
-        logger.debug("TokenFilter: doFilterInternal() called for path: {}", path);
-        logger.debug("Request method: {}", request.getMethod());
-        logger.debug("Request headers: {}", request.getHeaderNames());
-        logger.debug("Request cookies: {}",  Arrays.toString(request.getCookies()));
+        // Only traced requests are logged, the token itself and the cookies are never logged
+        boolean trace = RequestTrace.isActive();
+        if (trace) {
+            traceLogger.info("{} {}", request.getMethod(), path);
+        }
 
         try {
-            String jwt = extractTokenFromHeader(request);
-            if (jwt == null) {
-                jwt = extractTokenFromCookies(request);
-            }
-            logger.debug("Extracted JWT: {}", jwt);
+            String jwt = extractToken(request);
 
-            if (jwt != null && processToken(jwt)) {
+            if (jwt != null && processToken(jwt, response, trace)) {
                 filterChain.doFilter(request, response);
                 return;
             }
 
-            logger.debug("JWT token is null or authentication failed");
+            if (trace) {
+                traceLogger.info(jwt == null ? "No JWT token" : "Authentication failed");
+            }
 
             // Handle missing token
             handleAuthenticationFailure(request, response, "Missing JWT token");
 
         } catch (JwtException e) {
             // Handle invalid token
-            logger.debug("Invalid JWT token: {}", e.getMessage());
+            if (trace) {
+                traceLogger.info("Invalid JWT token: {}", e.getMessage());
+            }
             handleAuthenticationFailure(request, response, "Invalid JWT token: " + e.getMessage());
         }
     }
 
 
     /**
-     * Process the JWT token and set up authentication
+     * Process the JWT token and set up authentication.
+     * In stateless mode the user is taken from the claims of the token. Only if the roles of the user changed since the
+     * token was issued, or the token has no claims yet, the user is loaded and the token re-issued.
      *
      * @return true if authentication was successful
      */
-    private boolean processToken(String jwt) {
-        String username = jwtCore.getNameFromJwtToken(jwt);
+    private boolean processToken(String jwt, HttpServletResponse response, boolean trace) {
+        JwtCore.TokenClaims claims = jwtCore.verify(jwt);
+        String username = claims != null ? claims.subject() : null;
 
         if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+            UserDetails userDetails;
+            if (!roleVersionService.isStateless()) {
+                userDetails = userDetailsService.loadUserByUsername(username);
+            } else if (roleVersionService.isCurrent(claims.userId(), claims.roleVersion())) {
+                userDetails = claims.toUserDetails();
+            } else {
+                userDetails = userDetailsService.loadUserByUsername(username);
+                if (userDetails instanceof UserDetailsImpl user) {
+                    response.addCookie(JwtCore.createCookie(jwtCore.generateToken(user)));
+                    if (trace) {
+                        traceLogger.info("Re-issued the token of user {} with role version {}", username, user.getRoleVersion());
+                    }
+                }
+            }
             UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken(
                     userDetails,
                     null,
                     userDetails.getAuthorities()
             );
             SecurityContextHolder.getContext().setAuthentication(auth);
-            logger.debug("Authentication successful for user: {}", username);
+            if (trace) {
+                traceLogger.info("Authenticated user {}", username);
+            }
             return true;
         }
-        logger.debug("Authentication failed for user: {}", username);
         return false;
     }
 
@@ -122,7 +142,15 @@ public class TokenFilter extends OncePerRequestFilter {
         return PUBLIC_PATHS.stream().anyMatch(path::startsWith);
     }
 
-    private String extractTokenFromHeader(HttpServletRequest request) {
+    /**
+     * @return the token of the Authorization header, or else of the jwt cookie, or null
+     */
+    public static String extractToken(HttpServletRequest request) {
+        String jwt = extractTokenFromHeader(request);
+        return jwt != null ? jwt : extractTokenFromCookies(request);
+    }
+
+    private static String extractTokenFromHeader(HttpServletRequest request) {
         String headerAuth = request.getHeader("Authorization");
         if (headerAuth != null && headerAuth.startsWith("Bearer ")) {
             return headerAuth.substring(7);
@@ -130,7 +158,7 @@ public class TokenFilter extends OncePerRequestFilter {
         return null;
     }
 
-    private String extractTokenFromCookies(HttpServletRequest request) {
+    private static String extractTokenFromCookies(HttpServletRequest request) {
         Cookie[] cookies = request.getCookies();
         if (cookies != null) {
             for (Cookie cookie : cookies) {
@@ -0,0 +1,85 @@
+package com.borodkir.teamjob.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Adds the booking period of events to the PostgreSQL schema, which Hibernate cannot generate:
+ * <ul>
+ *   <li>'period': a stored generated {@code tsrange} of 'start_time' and 'end_time', inclusive on both ends
+ *   like the overlap checks of the application.</li>
+ *   <li>'idx_events_period': a GiST index on 'period', used by
+ *   {@link com.borodkir.teamjob.data.repositories.EventRepositoryCustom#existsBookingInRoom}.</li>
+ *   <li>'events_room_no_overlap': an exclusion constraint rejecting overlapping single events in the same room,
+ *   so concurrent bookings cannot both pass the check in '/api/v1/addevents'. Recurring events are still only
+ *   checked by the application.</li>
+ * </ul>
+ * All statements are idempotent. Nothing is done on other databases or if {@code testing.app.booking-period.enabled} is false,
+ * conflict checks then compare 'start_time' and 'end_time'.
+ */
+@Component
+public class BookingPeriodInitializer {
+    private static final Logger logger = LoggerFactory.getLogger(BookingPeriodInitializer.class);
+
+    private static final String CONSTRAINT = "events_room_no_overlap";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${testing.app.booking-period.enabled:true}")
+    private boolean enabled;
+
+    private volatile boolean active;
+
+    public BookingPeriodInitializer(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * @return true once the 'period' column and its index exist
+     */
+    public boolean isActive() {
+        return active;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void createBookingPeriod() {
+        if (!enabled || !isPostgreSql()) {
+            return;
+        }
+        try {
+            jdbcTemplate.execute("CREATE EXTENSION IF NOT EXISTS btree_gist");
+            jdbcTemplate.execute("ALTER TABLE events ADD COLUMN IF NOT EXISTS period tsrange " +
+                    "GENERATED ALWAYS AS (tsrange(start_time, end_time, '[]')) STORED");
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_events_period ON events USING gist (period)");
+            active = true;
+        } catch (DataAccessException e) {
+            logger.warn("Could not create the booking period column, room conflicts are checked without it", e);
+            return;
+        }
+
+        Integer existing = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM pg_constraint WHERE conname = ?", Integer.class, CONSTRAINT);
+        if (existing != null && existing > 0) {
+            return;
+        }
+        try {
+            jdbcTemplate.execute("ALTER TABLE events ADD CONSTRAINT " + CONSTRAINT +
+                    " EXCLUDE USING gist (room_id WITH =, period WITH &&) WHERE (NOT is_recurring)");
+            logger.info("Created exclusion constraint {}", CONSTRAINT);
+        } catch (DataAccessException e) {
+            // Overlapping bookings stored before the constraint existed have to be resolved by hand
+            logger.warn("Could not create exclusion constraint {}, overlapping bookings already exist", CONSTRAINT, e);
+        }
+    }
+
+    private boolean isPostgreSql() {
+        String product = jdbcTemplate.execute((ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        return "PostgreSQL".equalsIgnoreCase(product);
+    }
+}
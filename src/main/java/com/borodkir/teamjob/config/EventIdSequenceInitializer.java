@@ -0,0 +1,41 @@
+package com.borodkir.teamjob.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Moves the 'events_seq' sequence past the highest stored event id on PostgreSQL.
+ * Events created before the ids came from this sequence were numbered by the identity column, and the sequence
+ * created by the schema update would start again at 1. Runs before any event is inserted at startup,
+ * see {@link com.borodkir.teamjob.DefaultValueService}.
+ */
+@Component
+public class EventIdSequenceInitializer {
+    private static final Logger logger = LoggerFactory.getLogger(EventIdSequenceInitializer.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * @param entityManagerFactory only required so that the schema, including the sequence, exists first
+     */
+    public EventIdSequenceInitializer(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void alignSequence() {
+        String product = jdbcTemplate.execute((ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        if (!"PostgreSQL".equalsIgnoreCase(product)) {
+            return;
+        }
+        // With the pooled optimizer the next block starts right after the returned value
+        Long value = jdbcTemplate.queryForObject("SELECT setval('events_seq', GREATEST(" +
+                "(SELECT COALESCE(MAX(id), 1) FROM events), (SELECT last_value FROM events_seq)))", Long.class);
+        logger.debug("Event id sequence at {}", value);
+    }
+}
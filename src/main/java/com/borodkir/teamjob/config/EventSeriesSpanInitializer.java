@@ -0,0 +1,39 @@
+package com.borodkir.teamjob.config;
+
+import com.borodkir.teamjob.data.Event;
+import com.borodkir.teamjob.data.repositories.EventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Fills seriesStart and seriesEnd of events stored before these columns existed,
+ * so that they are found by {@link EventRepository#findOverlappingEvents}.
+ */
+@Component
+public class EventSeriesSpanInitializer {
+    private static final Logger logger = LoggerFactory.getLogger(EventSeriesSpanInitializer.class);
+
+    private final EventRepository eventRepository;
+
+    public EventSeriesSpanInitializer(EventRepository eventRepository) {
+        this.eventRepository = eventRepository;
+    }
+
+    @Transactional
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillSeriesSpans() {
+        List<Event> events = eventRepository.findAllBySeriesStartIsNull();
+        if (events.isEmpty()) {
+            return;
+        }
+        events.forEach(Event::updateSeriesSpan);
+        eventRepository.saveAll(events);
+        logger.info("Computed series span for {} events", events.size());
+    }
+}
@@ -0,0 +1,12 @@
+package com.borodkir.teamjob.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables scheduled jobs, e.g. rolling materialized event occurrences forward every night.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
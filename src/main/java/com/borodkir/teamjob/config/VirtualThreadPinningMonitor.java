@@ -0,0 +1,95 @@
+package com.borodkir.teamjob.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.StringJoiner;
+
+/**
+ * Reports virtual threads pinned to their carrier thread, e.g. by blocking inside a {@code synchronized} block,
+ * which on Java 21 keeps the carrier from running other virtual threads.
+ * <p>
+ * With {@code testing.app.virtual-threads.pinning-diagnostics} the JFR event {@code jdk.VirtualThreadPinned} is
+ * streamed in-process. Every pinning longer than {@code testing.app.virtual-threads.pinning-threshold-ms} is logged
+ * as a warning with the frames of this application, or else the top frames, and recorded as
+ * {@code jvm.threads.virtual.pinned}.
+ */
+@Component
+public class VirtualThreadPinningMonitor {
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+
+    static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final String APPLICATION_PACKAGE = "com.borodkir.teamjob.";
+    private static final int MAX_FRAMES = 8;
+
+    private final boolean enabled;
+    private final long thresholdMillis;
+    private final Timer pinned;
+    private RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(MeterRegistry meterRegistry,
+                                       @Value("${testing.app.virtual-threads.pinning-diagnostics:false}") boolean enabled,
+                                       @Value("${testing.app.virtual-threads.pinning-threshold-ms:20}") long thresholdMillis) {
+        this.enabled = enabled;
+        this.thresholdMillis = thresholdMillis;
+        this.pinned = Timer.builder("jvm.threads.virtual.pinned")
+                .description("Time virtual threads were pinned to their carrier thread").register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (!enabled || stream != null) {
+            return;
+        }
+        stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(Duration.ofMillis(thresholdMillis)).withStackTrace();
+        stream.onEvent(PINNED_EVENT, this::onPinned);
+        stream.startAsync();
+        logger.info("Reporting virtual threads pinned longer than {} ms", thresholdMillis);
+    }
+
+    void onPinned(RecordedEvent event) {
+        pinned.record(event.getDuration());
+        logger.warn("Virtual thread pinned for {} ms at {}", event.getDuration().toMillis(), describe(event.getStackTrace()));
+    }
+
+    /**
+     * @return the frames of this application, or the top frames if there are none
+     */
+    static String describe(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return "unknown location";
+        }
+        List<RecordedFrame> frames = stackTrace.getFrames();
+        List<RecordedFrame> own = frames.stream()
+                .filter(frame -> frame.getMethod().getType().getName().startsWith(APPLICATION_PACKAGE))
+                .limit(MAX_FRAMES)
+                .toList();
+        StringJoiner joiner = new StringJoiner(" <- ");
+        for (RecordedFrame frame : own.isEmpty() ? frames.stream().limit(MAX_FRAMES).toList() : own) {
+            joiner.add(frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber());
+        }
+        return joiner.toString();
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        if (stream != null) {
+            stream.close();
+            stream = null;
+        }
+    }
+}
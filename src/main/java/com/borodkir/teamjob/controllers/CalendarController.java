@@ -2,12 +2,18 @@ package com.borodkir.teamjob.controllers;
 
 
 import com.borodkir.teamjob.services.ICalendarService;
+import com.borodkir.teamjob.services.ICalendarVersionService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.web.csrf.CsrfToken;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
@@ -16,9 +22,11 @@ import java.time.LocalTime;
 @RequestMapping("/calendar")
 public class CalendarController {
     private final ICalendarService calendarService;
+    private final ICalendarVersionService calendarVersionService;
 
-    public CalendarController(ICalendarService calendarService) {
+    public CalendarController(ICalendarService calendarService, ICalendarVersionService calendarVersionService) {
         this.calendarService = calendarService;
+        this.calendarVersionService = calendarVersionService;
     }
 
     @GetMapping({"", "/"})
@@ -29,8 +37,14 @@ public class CalendarController {
             @RequestParam(required = false) String roomTags,
             @RequestParam(required = false) String eventTags,
             @RequestParam(required = false) String userTags,
-            Model model
+            Model model,
+            HttpServletRequest request,
+            HttpServletResponse response
     ) {
+        String eTag = calendarVersionService.getWeekETag(date, userIds, roomIds, roomTags, eventTags, userTags, csrfToken(request));
+        if (isNotModified(eTag, request, response)) {
+            return null;
+        }
         calendarService.setupModelForWeekCalendar(model, date, userIds, roomIds, roomTags, eventTags, userTags);
 
         return "calendar";
@@ -44,8 +58,14 @@ public class CalendarController {
             @RequestParam(required = false) String roomTags,
             @RequestParam(required = false) String eventTags,
             @RequestParam(required = false) String userTags,
-            Model model
+            Model model,
+            HttpServletRequest request,
+            HttpServletResponse response
     ) {
+        String eTag = calendarVersionService.getDayETag(date, userIds, roomIds, roomTags, eventTags, userTags, csrfToken(request));
+        if (isNotModified(eTag, request, response)) {
+            return null;
+        }
         calendarService.setupModelForDayCalendar(model, date, userIds, roomIds, roomTags, eventTags, userTags);
 
         return "calendar-day";
@@ -65,4 +85,24 @@ public class CalendarController {
         return "findAvailable";
     }
 
+    /**
+     * Sends the ETag and answers 304 if the browser already shows this version of the page.
+     * The page may be stored but has to be revalidated on every load, by default Spring Security forbids storing it.
+     */
+    private static boolean isNotModified(String eTag, HttpServletRequest request, HttpServletResponse response) {
+        if (eTag == null) {
+            return false;
+        }
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+        return new ServletWebRequest(request, response).checkNotModified(eTag);
+    }
+
+    /**
+     * The forms of the page contain the CSRF token, so a page with an outdated token must not be reused.
+     */
+    private static String csrfToken(HttpServletRequest request) {
+        CsrfToken token = (CsrfToken) request.getAttribute(CsrfToken.class.getName());
+        return token != null ? token.getToken() : null;
+    }
+
 }
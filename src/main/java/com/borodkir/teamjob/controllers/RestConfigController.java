@@ -5,19 +5,34 @@ import com.borodkir.teamjob.data.*;
 import com.borodkir.teamjob.data.repositories.EventRepository;
 import com.borodkir.teamjob.data.repositories.RoomRepository;
 import com.borodkir.teamjob.data.repositories.UserRepository;
+import com.borodkir.teamjob.services.IBookingService;
+import com.borodkir.teamjob.services.IBulkEventService;
+import com.borodkir.teamjob.services.IEventExportService;
+import com.borodkir.teamjob.services.IIcsImportService;
+import com.borodkir.teamjob.services.IOccurrenceService;
+import com.borodkir.teamjob.services.IRoomIntervalIndex;
+import com.borodkir.teamjob.services.implementations.RecurrenceRuleCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.time.format.DateTimeFormatter;
-import java.util.Arrays;
-import java.util.HashSet;
-import java.util.Set;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/v1")
@@ -25,6 +40,13 @@ public class RestConfigController {
     private RoomRepository roomRepository;
     private EventRepository eventRepository;
     private UserRepository userRepository;
+    private RecurrenceRuleCache recurrenceRuleCache;
+    private IOccurrenceService occurrenceService;
+    private IRoomIntervalIndex roomIntervalIndex;
+    private IBookingService bookingService;
+    private IBulkEventService bulkEventService;
+    private IEventExportService eventExportService;
+    private IIcsImportService icsImportService;
     private static final Logger logger = LoggerFactory.getLogger(RestConfigController.class);
 
 
@@ -38,6 +60,41 @@ public class RestConfigController {
         this.eventRepository = eventRepository;
     }
 
+    @Autowired
+    public void setRecurrenceRuleCache(RecurrenceRuleCache recurrenceRuleCache) {
+        this.recurrenceRuleCache = recurrenceRuleCache;
+    }
+
+    @Autowired
+    public void setOccurrenceService(IOccurrenceService occurrenceService) {
+        this.occurrenceService = occurrenceService;
+    }
+
+    @Autowired
+    public void setRoomIntervalIndex(IRoomIntervalIndex roomIntervalIndex) {
+        this.roomIntervalIndex = roomIntervalIndex;
+    }
+
+    @Autowired
+    public void setBookingService(IBookingService bookingService) {
+        this.bookingService = bookingService;
+    }
+
+    @Autowired
+    public void setBulkEventService(IBulkEventService bulkEventService) {
+        this.bulkEventService = bulkEventService;
+    }
+
+    @Autowired
+    public void setEventExportService(IEventExportService eventExportService) {
+        this.eventExportService = eventExportService;
+    }
+
+    @Autowired
+    public void setIcsImportService(IIcsImportService icsImportService) {
+        this.icsImportService = icsImportService;
+    }
+
 
     @PostMapping("/validateJWT")
     public ResponseEntity<?> validateJWT() {
@@ -64,12 +121,12 @@ public class RestConfigController {
 
     @PostMapping("/checkavailability")
     public Boolean checkAvailability(@RequestBody RoomAvailabilityRequest roomAvailabilityRequest) {
-        if (roomRepository.findById(roomAvailabilityRequest.getRoomId()).isPresent()) {
-            // Invert the result since true from repository means there IS a conflict
-            return !eventRepository.findOverlappingEventsInRoom(
+        if (roomRepository.existsById(roomAvailabilityRequest.getRoomId())) {
+            // Invert the result since true from the index means there IS a conflict
+            return !roomIntervalIndex.hasConflict(
+                    roomAvailabilityRequest.getRoomId(),
                     roomAvailabilityRequest.getStartTime(),
-                    roomAvailabilityRequest.getEndTime(),
-                    roomRepository.findById(roomAvailabilityRequest.getRoomId()));
+                    roomAvailabilityRequest.getEndTime());
         }
         return false;
     }
@@ -77,91 +134,96 @@ public class RestConfigController {
     @PostMapping("/addevents")
     public ResponseEntity<Event> addEvents(@RequestBody EventRequest eventRequest) {
         logger.debug("Starting to process event request");
-        //First check if the room isn't already booked
-        if (eventRepository.findOverlappingEventsInRoom
-                (
-                        eventRequest.getStartTime(),
-                        eventRequest.getEndTime(),
-                        roomRepository.findById(eventRequest.getRoomId())
-                )
-        ) {
-            logger.warn("Room is already booked for requested time slot");
-            return new ResponseEntity<>(HttpStatus.CONFLICT);
-        }
-        logger.debug("Room availability check passed");
+        Optional<Room> room = roomRepository.findById(eventRequest.getRoomId());
 
-        Event event = new Event();
         //Check if the user exists
+        User user = null;
         if (eventRequest.getUserId() != null) {
             logger.debug("Setting user for event with ID: {}", eventRequest.getUserId());
-            event.setUser(userRepository.findById(eventRequest.getUserId())
+            user = userRepository.findById(eventRequest.getUserId())
                     .orElseThrow(
                             () -> new IllegalArgumentException("User not found with ID: " + eventRequest.getUserId())
-                    )
-            );
+                    );
         }
 
-        logger.debug("Setting basic event details");
-        event.setTitle(eventRequest.getTitle());
-        event.setDescription(eventRequest.getDescription());
-        event.setRoom(roomRepository.findById(eventRequest.getRoomId()).orElse(null));
+        Event event = eventRequest.toEvent(room.orElse(null), user);
 
-        if (eventRequest.getTags() != null) {
-            logger.debug("Processing event tags");
-            Set<String> tags = new HashSet<>(Arrays.asList(eventRequest.getTags().split(",")));
-            event.setTags(tags);
+        logger.debug("Saving event to database");
+        //The room is checked and booked atomically, so concurrent requests cannot double-book it
+        Optional<Event> booked = bookingService.book(event);
+        if (booked.isEmpty()) {
+            logger.warn("Room is already booked for requested time slot");
+            return new ResponseEntity<>(HttpStatus.CONFLICT);
+        }
+        Event savedEvent = booked.get();
+        logger.debug("Event successfully saved with ID: {}", savedEvent.getId());
+        return ResponseEntity.ok(savedEvent);
+    }
 
+    @PostMapping(value = "/events/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<BulkEventResult>> addEventsInBulk(@RequestBody List<EventRequest> eventRequests) {
+        logger.debug("Starting to process bulk request with {} events", eventRequests.size());
+        return ResponseEntity.ok(bulkEventService.importEvents(eventRequests));
+    }
+
+    @PostMapping(value = "/events/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<List<BulkEventResult>> addEventsInBulkFromNdjson(InputStream body) {
+        try {
+            return ResponseEntity.ok(bulkEventService.importNdjson(body));
+        } catch (IOException e) {
+            logger.warn("Could not read bulk request: {}", e.getMessage());
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
         }
+    }
 
-        event.setStartTime(eventRequest.getStartTime());
-        event.setEndTime(eventRequest.getEndTime());
-
-        logger.debug("Handling recurrence settings");
-        // Handle recurrence
-        boolean hasValidRrule = eventRequest.getRrule() != null && !eventRequest.getRrule().isEmpty();
-        event.setRecurring(eventRequest.isRecurring() && hasValidRrule);
-
-        if (event.isRecurring()) {
-            logger.debug("Processing recurring event settings");
-            // Build RRULE string
-            StringBuilder rrule = new StringBuilder(eventRequest.getRrule());
-            if (!rrule.isEmpty()) {
-                // Add interval if specified
-                String interval = eventRequest.getInterval();
-                if (interval != null && !interval.isEmpty()) {
-                    logger.debug("Adding interval: {}", interval);
-                    rrule.append(";INTERVAL=").append(interval);
-                }
-
-                // Add end date if specified
-                if (eventRequest.getRecurrenceEndDate() != null) {
-                    logger.debug("Adding recurrence end date");
-                    rrule.append(";UNTIL=").append(eventRequest.getRecurrenceEndDate().format(DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'")));
-                }
-
-                // Add BYDAY for weekly recurrence
-                if (rrule.toString().startsWith("FREQ=WEEKLY") && eventRequest.getWeekdays() != null && !eventRequest.getWeekdays().isEmpty()) {
-                    logger.debug("Adding weekdays for weekly recurrence");
-                    rrule.append(";BYDAY=").append(String.join(",", eventRequest.getWeekdays()));
-                }
-            }
-            event.setRrule(rrule.toString());
-            event.setRecurrenceEndDate(eventRequest.getRecurrenceEndDate());
-            event.setExdate(eventRequest.getExdate());
-            event.setRdate(eventRequest.getRdate());
-        } else {
-            logger.debug("Clearing recurrence fields for non-recurring event");
-            // Clear recurrence-related fields if not recurring
-            event.setRrule(null);
-            event.setRecurrenceEndDate(null);
-            event.setExdate(null);
-            event.setRdate(null);
+    /**
+     * Imports the VEVENTs of an iCalendar file sent as the request body. Events without an ORGANIZER belong to the uploader.
+     */
+    @PostMapping(value = "/events/import", consumes = "text/calendar")
+    public ResponseEntity<IcsImportReport> importIcs(InputStream body, Authentication authentication) {
+        try {
+            return ResponseEntity.ok(icsImportService.importIcs(body, authentication.getName()));
+        } catch (IOException e) {
+            logger.warn("Could not read iCalendar import: {}", e.getMessage());
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
         }
+    }
 
-        logger.debug("Saving event to database");
-        Event savedEvent = eventRepository.save(event);
-        logger.debug("Event successfully saved with ID: {}", savedEvent.getId());
-        return ResponseEntity.ok(savedEvent);
+    @PostMapping(value = "/events/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<IcsImportReport> importIcsFile(@RequestParam("file") MultipartFile file, Authentication authentication) {
+        try (InputStream ics = file.getInputStream()) {
+            return importIcs(ics, authentication);
+        } catch (IOException e) {
+            logger.warn("Could not read uploaded iCalendar file: {}", e.getMessage());
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    /**
+     * Streams all events overlapping the days from..to, both inclusive, as NDJSON or CSV.
+     */
+    @GetMapping("/events/export")
+    public ResponseEntity<StreamingResponseBody> exportEvents(
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate from,
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate to,
+            @RequestParam(defaultValue = "ndjson") String format) {
+        if (to.isBefore(from)) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        LocalDateTime start = from.atStartOfDay();
+        LocalDateTime end = to.plusDays(1).atStartOfDay();
+        String fileName = "events-" + from + "-" + to;
+        return switch (format.toLowerCase()) {
+            case "ndjson" -> ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_NDJSON)
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + ".ndjson\"")
+                    .body(out -> eventExportService.writeNdjson(start, end, out));
+            case "csv" -> ResponseEntity.ok()
+                    .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + ".csv\"")
+                    .body(out -> eventExportService.writeCsv(start, end, out));
+            default -> new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        };
     }
 
     @DeleteMapping("/deleterooms/{id}")
@@ -179,6 +241,8 @@ public class RestConfigController {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
         eventRepository.deleteById(id);
+        recurrenceRuleCache.evict(id);
+        occurrenceService.remove(id);
         return new ResponseEntity<>(HttpStatus.OK);
     }
 
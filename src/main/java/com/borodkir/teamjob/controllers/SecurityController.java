@@ -2,6 +2,9 @@ package com.borodkir.teamjob.controllers;
 
 import com.borodkir.teamjob.DefaultValueService;
 import com.borodkir.teamjob.JwtCore;
+import com.borodkir.teamjob.PasswordHashingRejectedException;
+import com.borodkir.teamjob.TokenFilter;
+import com.borodkir.teamjob.UserDetailsImpl;
 import com.borodkir.teamjob.data.Role;
 import com.borodkir.teamjob.data.SigninRequest;
 import com.borodkir.teamjob.data.SignupRequest;
@@ -10,8 +13,10 @@ import com.borodkir.teamjob.data.repositories.RoleRepository;
 import com.borodkir.teamjob.data.repositories.UserRepository;
 import io.jsonwebtoken.ExpiredJwtException;
 import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -19,6 +24,9 @@ import org.springframework.security.authentication.UsernamePasswordAuthenticatio
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
@@ -31,6 +39,7 @@ public class SecurityController {
     private AuthenticationManager authenticationManager;
     private RoleRepository roleRepository;
     private JwtCore jwtCore;
+    private UserDetailsService userDetailsService;
 
     @Autowired
     public void setUserRepository(UserRepository userRepository) {
@@ -57,11 +66,23 @@ public class SecurityController {
         this.jwtCore = jwtCore;
     }
 
+    @Autowired
+    public void setUserDetailsService(UserDetailsService userDetailsService) {
+        this.userDetailsService = userDetailsService;
+    }
+
     @ExceptionHandler(ExpiredJwtException.class)
     public ResponseEntity<String> handleExpiredJwtException(ExpiredJwtException e) {
         return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Token expired" + e.getLocalizedMessage());
     }
 
+    @ExceptionHandler(PasswordHashingRejectedException.class)
+    public ResponseEntity<String> handlePasswordHashingRejectedException(PasswordHashingRejectedException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(e.getMessage());
+    }
+
     @PostMapping("/signin")
     ResponseEntity<?> signin(@RequestBody SigninRequest signinRequest,
                              HttpServletResponse response) {
@@ -78,19 +99,31 @@ public class SecurityController {
         String jwt = jwtCore.generateToken(authentication);
 
         // Create secure cookie with JWT token
-        response.addCookie(getCookie(jwt));
+        response.addCookie(JwtCore.createCookie(jwt));
 
         return ResponseEntity.ok().build();
     }
 
-    private static Cookie getCookie(String jwt) {
-        Cookie cookie = new Cookie("jwt", jwt);
-        cookie.setHttpOnly(true);     // Makes cookie inaccessible to JavaScript
-        cookie.setSecure(true);       // Only sent over HTTPS
-        cookie.setPath("/");          // Cookie is valid for all paths
-        cookie.setMaxAge(86400);      // Cookie expires in 1 day
+    /**
+     * Issues a new token with the current roles of the user of a valid token.
+     */
+    @PostMapping("/refresh")
+    ResponseEntity<?> refresh(HttpServletRequest request, HttpServletResponse response) {
+        JwtCore.TokenClaims claims = jwtCore.verify(TokenFilter.extractToken(request));
+        if (claims == null) {
+            return new ResponseEntity<>("Invalid or expired token", HttpStatus.UNAUTHORIZED);
+        }
+        UserDetails userDetails;
+        try {
+            userDetails = userDetailsService.loadUserByUsername(claims.subject());
+        } catch (UsernameNotFoundException e) {
+            return new ResponseEntity<>("Invalid or expired token", HttpStatus.UNAUTHORIZED);
+        }
 
-        return cookie;
+        String jwt = jwtCore.generateToken((UserDetailsImpl) userDetails);
+        response.addCookie(JwtCore.createCookie(jwt));
+
+        return ResponseEntity.ok().build();
     }
 
     @PostMapping("/signup")
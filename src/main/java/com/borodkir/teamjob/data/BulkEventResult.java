@@ -0,0 +1,30 @@
+package com.borodkir.teamjob.data;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Represents the outcome of one event of a bulk import, at the same position as its request.
+ */
+@Data
+@AllArgsConstructor
+public class BulkEventResult {
+    public enum Status {CREATED, CONFLICT, INVALID}
+
+    private int index;
+    private Status status;
+    private Long eventId; // Only set for CREATED
+    private String message;
+
+    public static BulkEventResult created(int index, Long eventId) {
+        return new BulkEventResult(index, Status.CREATED, eventId, null);
+    }
+
+    public static BulkEventResult conflict(int index) {
+        return new BulkEventResult(index, Status.CONFLICT, null, "Room is already booked for requested time slot");
+    }
+
+    public static BulkEventResult invalid(int index, String message) {
+        return new BulkEventResult(index, Status.INVALID, null, message);
+    }
+}
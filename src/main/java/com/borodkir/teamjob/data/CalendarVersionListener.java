@@ -0,0 +1,29 @@
+package com.borodkir.teamjob.data;
+
+import com.borodkir.teamjob.services.ICalendarVersionService;
+import jakarta.persistence.PostRemove;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Counts deleted {@link Event}s for the ETags of the calendar views. Saved events need no listener,
+ * they raise the lastModifiedDate the ETags are read from.
+ * Does nothing if no such service exists in the context, e.g. in repository tests.
+ */
+public class CalendarVersionListener {
+
+    private ObjectProvider<ICalendarVersionService> calendarVersionService;
+
+    @Autowired
+    public void setCalendarVersionService(ObjectProvider<ICalendarVersionService> calendarVersionService) {
+        this.calendarVersionService = calendarVersionService;
+    }
+
+    @PostRemove
+    public void onRemove(Event event) {
+        ICalendarVersionService service = calendarVersionService != null ? calendarVersionService.getIfAvailable() : null;
+        if (service != null) {
+            AfterCommit.run(service::eventDeleted);
+        }
+    }
+}
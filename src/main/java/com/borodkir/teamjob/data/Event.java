@@ -4,7 +4,10 @@ import jakarta.persistence.*;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
+import org.hibernate.annotations.BatchSize;
 
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.Set;
@@ -20,23 +23,37 @@ import java.util.Set;
  *   <li>endTime: LocalDateTime.</li>
  *   <li>location: In format ... </li>
  *   <li>isRecurring</li>
+ *   <li>seriesStart/seriesEnd: The span covered by all occurrences, maintained on save</li>
  * </ul>
+ * The entity graph {@value #CALENDAR_GRAPH} loads the room, user and tags together with the events for the calendar views,
+ * the tags of rooms and users and the roles are then loaded in batches.
  * This entity includes auditing fields (createdDate, createdBy, lastModifiedDate, lastModifiedBy)
  * inherited from the Auditable base class.
  */
 @Data
 @Entity
-@Table(name = "events")
+@NamedEntityGraph(name = Event.CALENDAR_GRAPH, attributeNodes = {
+        @NamedAttributeNode("room"),
+        @NamedAttributeNode("user"),
+        @NamedAttributeNode("tags")
+})
+@EntityListeners({RoomIntervalIndexListener.class, TagIndexListener.class, CalendarVersionListener.class, WeekModelCacheListener.class})
+@Table(name = "events", indexes = {
+        @Index(name = "idx_events_series_span", columnList = "series_start, series_end")
+})
 @ToString(exclude = {"tags"})
 @EqualsAndHashCode(callSuper = true)
 public class Event extends Auditable {
 
+    public static final String CALENDAR_GRAPH = "Event.calendar";
+
     /**
      * The primary key of the 'events' table.
-     * This value is automatically generated by the database.
+     * This value is taken from the 'events_seq' sequence in blocks of 50, so inserts can be sent in JDBC batches.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "events_seq")
+    @SequenceGenerator(name = "events_seq", sequenceName = "events_seq", allocationSize = 50)
     private Long id;
 
     /**
@@ -94,11 +111,56 @@ public class Event extends Auditable {
     @Column(nullable = false)
     private LocalDateTime endTime;
 
+    /**
+     * The start of the first occurrence, equal to startTime.
+     * Computed on save, used together with seriesEnd to find series overlapping a time range.
+     */
+    @Column(name = "series_start")
+    private LocalDateTime seriesStart;
+
+    /**
+     * The end of the last occurrence.
+     * Computed on save, null for recurring events without UNTIL or recurrenceEndDate.
+     */
+    @Column(name = "series_end")
+    private LocalDateTime seriesEnd;
+
     /**
      * The tags associated with the event.
      */
     @ElementCollection
+    @BatchSize(size = 100)
     @CollectionTable(name = "event_tags", joinColumns = @JoinColumn(name = "event_id"))
     @Column(name = "tag")
     private Set<String> tags = new HashSet<>();
-}
\ No newline at end of file
+
+    /**
+     * Recomputes seriesStart and seriesEnd from the start/end time and the recurrence fields.
+     * Called automatically before the event is inserted or updated.
+     */
+    @PrePersist
+    @PreUpdate
+    public void updateSeriesSpan() {
+        seriesStart = startTime;
+        if (startTime == null || endTime == null || !isRecurring) {
+            seriesEnd = endTime;
+            return;
+        }
+
+        RecurrenceRule rule = RecurrenceRule.compile(this);
+        if (rule.isValid() && rule.untilEpochDay() == Long.MAX_VALUE) {
+            // Open-ended series
+            seriesEnd = null;
+            return;
+        }
+
+        long lastDay = startTime.toLocalDate().toEpochDay();
+        if (rule.isValid()) {
+            lastDay = Math.max(lastDay, rule.untilEpochDay());
+        }
+        if (rule.rdates().length > 0) {
+            lastDay = Math.max(lastDay, rule.rdates()[rule.rdates().length - 1]);
+        }
+        seriesEnd = LocalDate.ofEpochDay(lastDay).atTime(startTime.toLocalTime()).plus(Duration.between(startTime, endTime));
+    }
+}
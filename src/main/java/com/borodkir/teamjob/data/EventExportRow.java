@@ -0,0 +1,12 @@
+package com.borodkir.teamjob.data;
+
+import java.time.LocalDateTime;
+
+/**
+ * The exported columns of an event together with the name of its room and user.
+ * Read as a projection, so exported events never enter the persistence context.
+ */
+public record EventExportRow(Long id, String title, String description, LocalDateTime startTime, LocalDateTime endTime,
+                             boolean recurring, String rrule, String exdate, String rdate,
+                             Long roomId, String roomName, Long userId, String username) {
+}
@@ -5,14 +5,18 @@ import lombok.Data;
 
 import java.time.LocalDateTime;
 
+/**
+ * The part of an occurrence shown on one day of the calendar views.
+ * Holds summaries instead of the room and user entities, so it can be cached and shared between requests.
+ */
 @Data
 @AllArgsConstructor
 public class EventInADay {
     private Long id;
     private String title;
     private String description;
-    private Room room;
-    private User user;
+    private RoomSummary room;
+    private UserSummary user;
     private boolean isRecurring;
     private LocalDateTime isRecurringEndDate;
     private double durationInADay;
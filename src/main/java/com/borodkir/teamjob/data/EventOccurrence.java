@@ -0,0 +1,56 @@
+package com.borodkir.teamjob.data;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Represents one materialized occurrence of an event, mapped to the 'event_occurrences' table.
+ * <ul>
+ *   <li>eventId: The id of the event this occurrence was expanded from.</li>
+ *   <li>roomId/userId: Copied from the event so that occurrences can be range scanned per room or user.</li>
+ *   <li>startTime/endTime: The start and end of this occurrence.</li>
+ * </ul>
+ * Rows are derived data, written when an event is saved and rolled forward to a configurable horizon.
+ */
+@Data
+@Entity
+@NoArgsConstructor
+@Table(name = "event_occurrences", indexes = {
+        @Index(name = "idx_event_occurrences_room_start", columnList = "room_id, start_time"),
+        @Index(name = "idx_event_occurrences_user_start", columnList = "user_id, start_time"),
+        @Index(name = "idx_event_occurrences_start", columnList = "start_time"),
+        @Index(name = "idx_event_occurrences_event", columnList = "event_id")
+})
+public class EventOccurrence {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "event_id", nullable = false)
+    private Long eventId;
+
+    @Column(name = "room_id")
+    private Long roomId;
+
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "start_time", nullable = false)
+    private LocalDateTime startTime;
+
+    @Column(name = "end_time", nullable = false)
+    private LocalDateTime endTime;
+
+    public EventOccurrence(Occurrence occurrence) {
+        Event event = occurrence.event();
+        this.eventId = event.getId();
+        this.roomId = event.getRoom() != null ? event.getRoom().getId() : null;
+        this.userId = event.getUser() != null ? event.getUser().getId() : null;
+        this.startTime = occurrence.start();
+        this.endTime = occurrence.end();
+    }
+}
@@ -3,6 +3,9 @@ package com.borodkir.teamjob.data;
 import lombok.Data;
 
 import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 
 @Data
@@ -21,4 +24,55 @@ public class EventRequest {
     private String interval; // Interval for recurrence
     private List<String> weekdays; // Weekdays for weekly recurrence
     private String description;
+
+    /**
+     * Creates a new, unsaved event from the request.
+     * The RRULE is completed with the interval, the recurrence end date and the weekdays of the request.
+     *
+     * @param room the room with the id roomId, or null
+     * @param user the user with the id userId, or null
+     */
+    public Event toEvent(Room room, User user) {
+        Event event = new Event();
+        event.setUser(user);
+        event.setTitle(title);
+        event.setDescription(description);
+        event.setRoom(room);
+
+        if (tags != null) {
+            event.setTags(new HashSet<>(Arrays.asList(tags.split(","))));
+        }
+
+        event.setStartTime(startTime);
+        event.setEndTime(endTime);
+
+        // Handle recurrence
+        boolean hasValidRrule = rrule != null && !rrule.isEmpty();
+        event.setRecurring(isRecurring && hasValidRrule);
+
+        if (event.isRecurring()) {
+            // Build RRULE string
+            StringBuilder fullRrule = new StringBuilder(rrule);
+            // Add interval if specified
+            if (interval != null && !interval.isEmpty()) {
+                fullRrule.append(";INTERVAL=").append(interval);
+            }
+
+            // Add end date if specified
+            if (recurrenceEndDate != null) {
+                fullRrule.append(";UNTIL=").append(recurrenceEndDate.format(DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'")));
+            }
+
+            // Add BYDAY for weekly recurrence
+            if (fullRrule.toString().startsWith("FREQ=WEEKLY") && weekdays != null && !weekdays.isEmpty()) {
+                fullRrule.append(";BYDAY=").append(String.join(",", weekdays));
+            }
+            event.setRrule(fullRrule.toString());
+            event.setRecurrenceEndDate(recurrenceEndDate);
+            event.setExdate(exdate);
+            event.setRdate(rdate);
+        }
+        // Recurrence fields of non-recurring events stay null
+        return event;
+    }
 }
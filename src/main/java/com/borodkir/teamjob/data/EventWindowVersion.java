@@ -0,0 +1,12 @@
+package com.borodkir.teamjob.data;
+
+import java.time.LocalDateTime;
+
+/**
+ * The latest modification and the number of events overlapping a time range, read with one aggregate query.
+ * Any insert, update or move of an event in the range changes at least one of them.
+ *
+ * @param lastModified the latest lastModifiedDate, or createdDate if never modified, null if there are no events
+ */
+public record EventWindowVersion(LocalDateTime lastModified, long count) {
+}
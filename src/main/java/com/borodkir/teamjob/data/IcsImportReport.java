@@ -0,0 +1,30 @@
+package com.borodkir.teamjob.data;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Represents the outcome of an iCalendar import: how many VEVENTs were read, created and rejected, and how fast.
+ * Only the first {@link #MAX_REJECTIONS} rejections are listed with their reason.
+ */
+@Data
+public class IcsImportReport {
+    public static final int MAX_REJECTIONS = 100;
+
+    private long read;
+    private long created;
+    private long conflicts;
+    private long rejected;
+    private long durationMillis;
+    private double eventsPerSecond;
+    private List<String> rejections = new ArrayList<>();
+
+    public void reject(int number, String uid, String reason) {
+        rejected++;
+        if (rejections.size() < MAX_REJECTIONS) {
+            rejections.add("VEVENT " + number + (uid != null ? " (" + uid + ")" : "") + ": " + reason);
+        }
+    }
+}
@@ -0,0 +1,300 @@
+package com.borodkir.teamjob.data;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Immutable set of half-open time intervals {@code [start, end)} in epoch minutes.
+ * <p>
+ * The intervals are stored as one sorted {@code long[]} of start/end pairs and are always normalized:
+ * non-empty, disjoint and not touching. All set operations run in linear time and allocate only the result array,
+ * so the scheduling core can work on this type and {@link TimeFromTo} objects are only created for the views.
+ * Times are rounded outwards to whole minutes when building busy intervals, see {@link Builder#add(LocalDateTime, LocalDateTime)}.
+ */
+public final class IntervalSet {
+
+    public static final IntervalSet EMPTY = new IntervalSet(new long[0]);
+
+    /**
+     * Receives the intervals of a set in ascending order.
+     */
+    @FunctionalInterface
+    public interface SlotConsumer {
+        void accept(long start, long end);
+    }
+
+    private final long[] bounds;
+
+    private IntervalSet(long[] bounds) {
+        this.bounds = bounds;
+    }
+
+    /**
+     * @return the set containing the single interval, empty if end is not after start
+     */
+    public static IntervalSet of(long start, long end) {
+        return end > start ? new IntervalSet(new long[]{start, end}) : EMPTY;
+    }
+
+    /**
+     * @return the whole minutes inside the time range, start rounded up and end rounded down
+     */
+    public static IntervalSet within(LocalDateTime startTime, LocalDateTime endTime) {
+        return of(toEpochMinuteCeil(startTime), toEpochMinute(endTime));
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Collects unsorted, possibly overlapping intervals and normalizes them once in {@link #build()}.
+     */
+    public static final class Builder {
+        private long[] starts = new long[4];
+        private long[] ends = new long[4];
+        private int size;
+
+        public Builder add(long start, long end) {
+            if (end <= start) {
+                return this;
+            }
+            if (size == starts.length) {
+                starts = Arrays.copyOf(starts, size * 2);
+                ends = Arrays.copyOf(ends, size * 2);
+            }
+            starts[size] = start;
+            ends[size] = end;
+            size++;
+            return this;
+        }
+
+        /**
+         * Adds the minutes touched by the time range, start rounded down and end rounded up.
+         */
+        public Builder add(LocalDateTime startTime, LocalDateTime endTime) {
+            return add(toEpochMinute(startTime), toEpochMinuteCeil(endTime));
+        }
+
+        /**
+         * Merges the collected intervals with one sweep over the separately sorted starts and ends.
+         */
+        public IntervalSet build() {
+            if (size == 0) {
+                return EMPTY;
+            }
+            long[] sortedStarts = Arrays.copyOf(starts, size);
+            long[] sortedEnds = Arrays.copyOf(ends, size);
+            Arrays.sort(sortedStarts);
+            Arrays.sort(sortedEnds);
+
+            long[] result = new long[size * 2];
+            int count = 0;
+            int active = 0;
+            int i = 0;
+            int j = 0;
+            while (j < size) {
+                // Starts are handled before ends at the same minute, so touching intervals are merged
+                if (i < size && sortedStarts[i] <= sortedEnds[j]) {
+                    if (active++ == 0) {
+                        result[count++] = sortedStarts[i];
+                    }
+                    i++;
+                } else {
+                    if (--active == 0) {
+                        result[count++] = sortedEnds[j];
+                    }
+                    j++;
+                }
+            }
+            return new IntervalSet(count == result.length ? result : Arrays.copyOf(result, count));
+        }
+    }
+
+    public int size() {
+        return bounds.length / 2;
+    }
+
+    public boolean isEmpty() {
+        return bounds.length == 0;
+    }
+
+    public long start(int index) {
+        return bounds[index * 2];
+    }
+
+    public long end(int index) {
+        return bounds[index * 2 + 1];
+    }
+
+    public long totalMinutes() {
+        long total = 0;
+        for (int i = 0; i < bounds.length; i += 2) {
+            total += bounds[i + 1] - bounds[i];
+        }
+        return total;
+    }
+
+    /**
+     * @return the minutes contained in this or the other set
+     */
+    public IntervalSet union(IntervalSet other) {
+        if (other.isEmpty()) {
+            return this;
+        }
+        if (isEmpty()) {
+            return other;
+        }
+        long[] a = bounds;
+        long[] b = other.bounds;
+        long[] result = new long[a.length + b.length];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.length || j < b.length) {
+            long start;
+            long end;
+            if (j >= b.length || (i < a.length && a[i] <= b[j])) {
+                start = a[i];
+                end = a[i + 1];
+                i += 2;
+            } else {
+                start = b[j];
+                end = b[j + 1];
+                j += 2;
+            }
+            if (count > 0 && start <= result[count - 1]) {
+                result[count - 1] = Math.max(result[count - 1], end);
+            } else {
+                result[count++] = start;
+                result[count++] = end;
+            }
+        }
+        return new IntervalSet(Arrays.copyOf(result, count));
+    }
+
+    /**
+     * @return the minutes contained in both this and the other set
+     */
+    public IntervalSet intersect(IntervalSet other) {
+        long[] a = bounds;
+        long[] b = other.bounds;
+        long[] result = new long[a.length + b.length];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.length && j < b.length) {
+            long start = Math.max(a[i], b[j]);
+            long end = Math.min(a[i + 1], b[j + 1]);
+            if (start < end) {
+                result[count++] = start;
+                result[count++] = end;
+            }
+            if (a[i + 1] < b[j + 1]) {
+                i += 2;
+            } else {
+                j += 2;
+            }
+        }
+        return count == 0 ? EMPTY : new IntervalSet(Arrays.copyOf(result, count));
+    }
+
+    /**
+     * @return the minutes of {@code [from, to)} that are not contained in this set
+     */
+    public IntervalSet complement(long from, long to) {
+        if (to <= from) {
+            return EMPTY;
+        }
+        long[] result = new long[bounds.length + 2];
+        int count = 0;
+        long cursor = from;
+        for (int i = 0; i < bounds.length && bounds[i] < to; i += 2) {
+            if (bounds[i] > cursor) {
+                result[count++] = cursor;
+                result[count++] = bounds[i];
+            }
+            cursor = Math.max(cursor, bounds[i + 1]);
+        }
+        if (cursor < to) {
+            result[count++] = cursor;
+            result[count++] = to;
+        }
+        return count == 0 ? EMPTY : new IntervalSet(Arrays.copyOf(result, count));
+    }
+
+    /**
+     * @return the minutes of the window that are not contained in this set
+     */
+    public IntervalSet complement(IntervalSet window) {
+        if (window.isEmpty()) {
+            return EMPTY;
+        }
+        return window.intersect(complement(window.bounds[0], window.bounds[window.bounds.length - 1]));
+    }
+
+    /**
+     * @return the intervals that are at least the given number of minutes long
+     */
+    public IntervalSet withMinLength(long minutes) {
+        long[] result = new long[bounds.length];
+        int count = 0;
+        for (int i = 0; i < bounds.length; i += 2) {
+            if (bounds[i + 1] - bounds[i] >= minutes) {
+                result[count++] = bounds[i];
+                result[count++] = bounds[i + 1];
+            }
+        }
+        if (count == bounds.length) {
+            return this;
+        }
+        return count == 0 ? EMPTY : new IntervalSet(Arrays.copyOf(result, count));
+    }
+
+    public void forEach(SlotConsumer consumer) {
+        for (int i = 0; i < bounds.length; i += 2) {
+            consumer.accept(bounds[i], bounds[i + 1]);
+        }
+    }
+
+    /**
+     * Converts the set for the views.
+     */
+    public ArrayList<TimeFromTo> toTimeFromTo() {
+        ArrayList<TimeFromTo> result = new ArrayList<>(size());
+        forEach((start, end) -> result.add(new TimeFromTo(toDateTime(start), toDateTime(end))));
+        return result;
+    }
+
+    public static long toEpochMinute(LocalDateTime time) {
+        return Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), 60);
+    }
+
+    public static long toEpochMinuteCeil(LocalDateTime time) {
+        long minute = toEpochMinute(time);
+        return time.getSecond() == 0 && time.getNano() == 0 ? minute : minute + 1;
+    }
+
+    public static LocalDateTime toDateTime(long epochMinute) {
+        return LocalDateTime.ofEpochSecond(epochMinute * 60, 0, ZoneOffset.UTC);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof IntervalSet other && Arrays.equals(bounds, other.bounds);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(bounds);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("IntervalSet[");
+        forEach((start, end) -> builder.append(builder.length() > 12 ? ", " : "").append(toDateTime(start)).append('/').append(toDateTime(end)));
+        return builder.append(']').toString();
+    }
+}
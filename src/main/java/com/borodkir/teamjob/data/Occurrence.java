@@ -0,0 +1,14 @@
+package com.borodkir.teamjob.data;
+
+import java.time.LocalDateTime;
+
+/**
+ * A single instance of an event. For non-recurring events this is the event itself,
+ * for recurring events one expanded instance of the series.
+ *
+ * @param event the event the instance belongs to
+ * @param start the start of this instance
+ * @param end   the end of this instance
+ */
+public record Occurrence(Event event, LocalDateTime start, LocalDateTime end) {
+}
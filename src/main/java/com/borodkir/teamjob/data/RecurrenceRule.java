@@ -0,0 +1,194 @@
+package com.borodkir.teamjob.data;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Compiled form of an RFC 5545 recurrence rule together with the exception and additional dates of an event.
+ * <ul>
+ *   <li>frequency: DAILY, WEEKLY, MONTHLY, YEARLY or NONE for unparseable/missing rules</li>
+ *   <li>interval: INTERVAL, at least 1</li>
+ *   <li>byDayMask: BYDAY as a bitmask, bit (dayOfWeek - 1) is set for every listed day, 0 if absent</li>
+ *   <li>untilEpochDay: last day an occurrence may start on, the earlier of UNTIL and recurrenceEndDate,
+ *   {@link Long#MAX_VALUE} when the series is open-ended</li>
+ *   <li>exdates: sorted epoch days from EXDATE</li>
+ *   <li>rdates: sorted epoch days from RDATE</li>
+ * </ul>
+ * Built once per event version by {@link #compile(Event)} so that the rule strings are not re-parsed
+ * for every rendered day.
+ */
+public record RecurrenceRule(Frequency frequency, int interval, int byDayMask, long untilEpochDay, long[] exdates,
+                             long[] rdates) {
+
+    public enum Frequency {
+        DAILY, WEEKLY, MONTHLY, YEARLY, NONE
+    }
+
+    private static final long[] NO_DATES = new long[0];
+
+    /**
+     * Compiles the rrule, exdate, rdate and recurrenceEndDate of the given event.
+     *
+     * @param event the event to compile the rule for
+     * @return the compiled rule, with frequency NONE if the event has no rrule
+     */
+    public static RecurrenceRule compile(Event event) {
+        return parse(event.getRrule(), event.getExdate(), event.getRdate(), event.getRecurrenceEndDate());
+    }
+
+    /**
+     * Parses the RRULE, EXDATE and RDATE strings.
+     *
+     * @param rrule             the recurrence rule, e.g. "FREQ=WEEKLY;INTERVAL=2;BYDAY=MO,WE"
+     * @param exdate            comma separated exception dates in format yyyyMMdd, optionally followed by a time
+     * @param rdate             comma separated additional dates in the same format as exdate
+     * @param recurrenceEndDate the end of the recurrence stored on the event, can be null
+     * @return the compiled rule
+     */
+    public static RecurrenceRule parse(String rrule, String exdate, String rdate, LocalDateTime recurrenceEndDate) {
+        Frequency frequency = Frequency.NONE;
+        int interval = 1;
+        int byDayMask = 0;
+        long until = recurrenceEndDate != null ? recurrenceEndDate.toLocalDate().toEpochDay() : Long.MAX_VALUE;
+
+        if (rrule != null) {
+            for (String part : rrule.split(";")) {
+                if (part.startsWith("FREQ=")) {
+                    frequency = parseFrequency(part.substring(5));
+                } else if (part.startsWith("INTERVAL=")) {
+                    interval = Math.max(1, Integer.parseInt(part.substring(9).trim()));
+                } else if (part.startsWith("BYDAY=")) {
+                    for (String day : part.substring(6).split(",")) {
+                        DayOfWeek dayOfWeek = parseDayOfWeek(day.trim());
+                        if (dayOfWeek != null) {
+                            byDayMask |= 1 << (dayOfWeek.getValue() - 1);
+                        }
+                    }
+                } else if (part.startsWith("UNTIL=")) {
+                    // UNTIL is either yyyyMMdd or yyyyMMddTHHmmssZ, only the date is relevant here
+                    until = Math.min(until, parseDate(part.substring(6)).toEpochDay());
+                }
+            }
+        }
+
+        return new RecurrenceRule(frequency, interval, byDayMask, until, parseDates(exdate), parseDates(rdate));
+    }
+
+    /**
+     * Parses a comma separated list of RFC 5545 dates into sorted epoch days.
+     *
+     * @param dates the dates in format yyyyMMdd, optionally followed by a time
+     * @return the sorted epoch days, empty if the input is null or blank
+     */
+    public static long[] parseDates(String dates) {
+        if (dates == null || dates.isBlank()) {
+            return NO_DATES;
+        }
+        return Arrays.stream(dates.split(","))
+                .map(String::trim)
+                .filter(d -> !d.isEmpty())
+                .mapToLong(d -> parseDate(d).toEpochDay())
+                .sorted()
+                .distinct()
+                .toArray();
+    }
+
+    private static LocalDate parseDate(String value) {
+        return LocalDate.of(
+                Integer.parseInt(value.substring(0, 4)),
+                Integer.parseInt(value.substring(4, 6)),
+                Integer.parseInt(value.substring(6, 8)));
+    }
+
+    private static Frequency parseFrequency(String value) {
+        try {
+            return Frequency.valueOf(value.trim());
+        } catch (IllegalArgumentException e) {
+            return Frequency.NONE;
+        }
+    }
+
+    private static DayOfWeek parseDayOfWeek(String code) {
+        // BYDAY entries may carry an ordinal prefix like "1MO" or "-1FR", the weekday is always the last two letters
+        if (code.length() < 2) {
+            return null;
+        }
+        return switch (code.substring(code.length() - 2)) {
+            case "MO" -> DayOfWeek.MONDAY;
+            case "TU" -> DayOfWeek.TUESDAY;
+            case "WE" -> DayOfWeek.WEDNESDAY;
+            case "TH" -> DayOfWeek.THURSDAY;
+            case "FR" -> DayOfWeek.FRIDAY;
+            case "SA" -> DayOfWeek.SATURDAY;
+            case "SU" -> DayOfWeek.SUNDAY;
+            default -> null;
+        };
+    }
+
+    /**
+     * @return true if the rule could be parsed and has a known frequency
+     */
+    public boolean isValid() {
+        return frequency != Frequency.NONE;
+    }
+
+    /**
+     * @return true if BYDAY was specified
+     */
+    public boolean hasByDay() {
+        return byDayMask != 0;
+    }
+
+    /**
+     * @return true if the given day is listed in BYDAY
+     */
+    public boolean includesDay(DayOfWeek dayOfWeek) {
+        return (byDayMask & (1 << (dayOfWeek.getValue() - 1))) != 0;
+    }
+
+    /**
+     * @return true if the given epoch day lies after UNTIL or the recurrence end date
+     */
+    public boolean isAfterUntil(long epochDay) {
+        return epochDay > untilEpochDay;
+    }
+
+    /**
+     * @return true if the given epoch day is listed in EXDATE
+     */
+    public boolean isExcluded(long epochDay) {
+        return exdates.length > 0 && Arrays.binarySearch(exdates, epochDay) >= 0;
+    }
+
+    /**
+     * Compares the exception and additional dates by content, the generated record equality would compare the arrays
+     * by identity.
+     */
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof RecurrenceRule other
+                && frequency == other.frequency
+                && interval == other.interval
+                && byDayMask == other.byDayMask
+                && untilEpochDay == other.untilEpochDay
+                && Arrays.equals(exdates, other.exdates)
+                && Arrays.equals(rdates, other.rdates);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Objects.hash(frequency, interval, byDayMask, untilEpochDay);
+        result = 31 * result + Arrays.hashCode(exdates);
+        return 31 * result + Arrays.hashCode(rdates);
+    }
+
+    @Override
+    public String toString() {
+        return "RecurrenceRule[frequency=" + frequency + ", interval=" + interval + ", byDayMask=" + byDayMask
+                + ", untilEpochDay=" + untilEpochDay + ", exdates=" + Arrays.toString(exdates)
+                + ", rdates=" + Arrays.toString(rdates) + "]";
+    }
+}
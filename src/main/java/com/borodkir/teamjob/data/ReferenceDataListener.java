@@ -0,0 +1,32 @@
+package com.borodkir.teamjob.data;
+
+import com.borodkir.teamjob.services.IReferenceDataService;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Invalidates the cached room and user pickers whenever a {@link Room} or {@link User} is saved or deleted.
+ * Does nothing if no such cache exists in the context, e.g. in repository tests.
+ */
+public class ReferenceDataListener {
+
+    private ObjectProvider<IReferenceDataService> referenceDataService;
+
+    @Autowired
+    public void setReferenceDataService(ObjectProvider<IReferenceDataService> referenceDataService) {
+        this.referenceDataService = referenceDataService;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(Object entity) {
+        IReferenceDataService service = referenceDataService != null ? referenceDataService.getIfAvailable() : null;
+        if (service != null) {
+            AfterCommit.run(service::invalidate);
+        }
+    }
+}
@@ -5,6 +5,7 @@ import lombok.Data;
 
 @Entity
 @Data
+@EntityListeners(UserDetailsCacheListener.class)
 @Table(name = "roles")
 public class Role {
     @Id
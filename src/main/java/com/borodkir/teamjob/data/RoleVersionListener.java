@@ -0,0 +1,45 @@
+package com.borodkir.teamjob.data;
+
+import com.borodkir.teamjob.services.IRoleVersionService;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Passes the role version of a saved {@link User} to the role versions, so tokens with the previous roles
+ * are re-issued, and marks deleted users so their tokens are rejected.
+ * Does nothing if no such service exists in the context, e.g. in repository tests.
+ */
+public class RoleVersionListener {
+
+    private ObjectProvider<IRoleVersionService> roleVersionService;
+
+    @Autowired
+    public void setRoleVersionService(ObjectProvider<IRoleVersionService> roleVersionService) {
+        this.roleVersionService = roleVersionService;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(User user) {
+        IRoleVersionService service = roleVersionService != null ? roleVersionService.getIfAvailable() : null;
+        if (service == null) {
+            return;
+        }
+        Long userId = user.getId();
+        int roleVersion = user.getRoleVersion();
+        AfterCommit.run(() -> service.roleVersionChanged(userId, roleVersion));
+    }
+
+    @PostRemove
+    public void onRemove(User user) {
+        IRoleVersionService service = roleVersionService != null ? roleVersionService.getIfAvailable() : null;
+        if (service == null) {
+            return;
+        }
+        Long userId = user.getId();
+        AfterCommit.run(() -> service.userRemoved(userId));
+    }
+}
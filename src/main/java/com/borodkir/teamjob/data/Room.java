@@ -4,12 +4,15 @@ import jakarta.persistence.*;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
+import org.hibernate.annotations.BatchSize;
 
 import java.util.HashSet;
 import java.util.Set;
 
 @Data
 @Entity
+@BatchSize(size = 100)
+@EntityListeners({TagIndexListener.class, ReferenceDataListener.class, WeekModelCacheListener.class})
 @Table(name = "rooms")
 @ToString(exclude = {"tags"})
 @EqualsAndHashCode(callSuper = true)
@@ -37,6 +40,7 @@ public class Room extends Auditable {
     private String description;
 
     @ElementCollection
+    @BatchSize(size = 100)
     @CollectionTable(name = "room_tags", joinColumns = @JoinColumn(name = "room_id"))
     @Column(name = "tag")
     private Set<String> tags = new HashSet<>();
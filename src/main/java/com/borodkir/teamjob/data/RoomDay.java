@@ -8,6 +8,6 @@ import java.util.List;
 @Data
 @AllArgsConstructor
 public class RoomDay {
-    private final Room room;
+    private final RoomSummary room;
     private List<EventInADay> events;
 }
\ No newline at end of file
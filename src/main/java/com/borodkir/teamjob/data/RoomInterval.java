@@ -0,0 +1,14 @@
+package com.borodkir.teamjob.data;
+
+import java.time.LocalDateTime;
+
+/**
+ * The time an event occupies its room, as stored on the event.
+ * Lean projection of {@link Event} used to build the in-memory room booking index.
+ */
+public record RoomInterval(Long eventId, Long roomId, LocalDateTime start, LocalDateTime end) {
+
+    public static RoomInterval of(Event event) {
+        return new RoomInterval(event.getId(), event.getRoom() != null ? event.getRoom().getId() : null, event.getStartTime(), event.getEndTime());
+    }
+}
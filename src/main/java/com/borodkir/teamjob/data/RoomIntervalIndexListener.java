@@ -0,0 +1,46 @@
+package com.borodkir.teamjob.data;
+
+import com.borodkir.teamjob.services.IRoomIntervalIndex;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Keeps the room booking index in sync with every write of an {@link Event}, no matter which code path saved
+ * or deleted it. Changes are applied after the transaction commits so rolled back writes never reach the index.
+ * Does nothing if no index exists in the context, e.g. in repository tests.
+ */
+public class RoomIntervalIndexListener {
+
+    private ObjectProvider<IRoomIntervalIndex> roomIntervalIndex;
+
+    @Autowired
+    public void setRoomIntervalIndex(ObjectProvider<IRoomIntervalIndex> roomIntervalIndex) {
+        this.roomIntervalIndex = roomIntervalIndex;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(Event event) {
+        IRoomIntervalIndex index = index();
+        if (index != null) {
+            RoomInterval interval = RoomInterval.of(event);
+            AfterCommit.run(() -> index.put(interval));
+        }
+    }
+
+    @PostRemove
+    public void onRemove(Event event) {
+        IRoomIntervalIndex index = index();
+        if (index != null) {
+            Long eventId = event.getId();
+            AfterCommit.run(() -> index.remove(eventId));
+        }
+    }
+
+    private IRoomIntervalIndex index() {
+        return roomIntervalIndex != null ? roomIntervalIndex.getIfAvailable() : null;
+    }
+}
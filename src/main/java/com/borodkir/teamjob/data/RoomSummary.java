@@ -0,0 +1,22 @@
+package com.borodkir.teamjob.data;
+
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+import java.util.Set;
+
+/**
+ * The fields of a room needed by the filter pickers and forms of the calendar views.
+ * The tags are those of the 'room_tags' table, empty where a room is only shown and not filtered.
+ */
+@Value
+@AllArgsConstructor
+public class RoomSummary {
+    Long id;
+    String name;
+    Set<String> tags;
+
+    public RoomSummary(Long id, String name) {
+        this(id, name, Set.of());
+    }
+}
@@ -0,0 +1,7 @@
+package com.borodkir.teamjob.data;
+
+/**
+ * A single row of the 'room_tags', 'user_tags' or 'event_tags' table: the id of the owning entity and one of its tags.
+ */
+public record TagAssignment(Long ownerId, String tag) {
+}
@@ -0,0 +1,10 @@
+package com.borodkir.teamjob.data;
+
+import java.util.Map;
+
+/**
+ * All distinct tags of rooms, users and events with their usage counts, sorted by tag.
+ * The version identifies the state of the tags the catalog was read from.
+ */
+public record TagCatalog(long version, Map<String, Long> roomTags, Map<String, Long> userTags, Map<String, Long> eventTags) {
+}
@@ -0,0 +1,109 @@
+package com.borodkir.teamjob.data;
+
+import com.borodkir.teamjob.services.ITagCatalogService;
+import com.borodkir.teamjob.services.ITagIndex;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Patches the tag index whenever a {@link Room}, {@link User} or {@link Event} is saved or deleted,
+ * and invalidates the tag catalog if the tags actually changed.
+ * Tags that were never loaded cannot have changed and are left as they are in the index.
+ * Does nothing if no index exists in the context, e.g. in repository tests.
+ */
+public class TagIndexListener {
+
+    private ObjectProvider<ITagIndex> tagIndex;
+    private ObjectProvider<ITagCatalogService> tagCatalogService;
+
+    @Autowired
+    public void setTagIndex(ObjectProvider<ITagIndex> tagIndex) {
+        this.tagIndex = tagIndex;
+    }
+
+    @Autowired
+    public void setTagCatalogService(ObjectProvider<ITagCatalogService> tagCatalogService) {
+        this.tagCatalogService = tagCatalogService;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(Object entity) {
+        ITagIndex index = index();
+        ITagIndex.Kind kind = kindOf(entity);
+        if (index == null || kind == null) {
+            return;
+        }
+        Set<String> tags = tagsOf(entity);
+        if (tags != null && !Hibernate.isInitialized(tags)) {
+            return;
+        }
+        Long id = idOf(entity);
+        List<String> snapshot = tags != null ? List.copyOf(tags) : List.of();
+        AfterCommit.run(() -> {
+            if (index.put(kind, id, snapshot)) {
+                invalidateCatalog();
+            }
+        });
+    }
+
+    @PostRemove
+    public void onRemove(Object entity) {
+        ITagIndex index = index();
+        ITagIndex.Kind kind = kindOf(entity);
+        if (index == null || kind == null) {
+            return;
+        }
+        Long id = idOf(entity);
+        AfterCommit.run(() -> {
+            if (index.remove(kind, id)) {
+                invalidateCatalog();
+            }
+        });
+    }
+
+    private ITagIndex index() {
+        return tagIndex != null ? tagIndex.getIfAvailable() : null;
+    }
+
+    private void invalidateCatalog() {
+        ITagCatalogService catalog = tagCatalogService != null ? tagCatalogService.getIfAvailable() : null;
+        if (catalog != null) {
+            catalog.invalidate();
+        }
+    }
+
+    private static ITagIndex.Kind kindOf(Object entity) {
+        return switch (entity) {
+            case Room room -> ITagIndex.Kind.ROOM;
+            case User user -> ITagIndex.Kind.USER;
+            case Event event -> ITagIndex.Kind.EVENT;
+            default -> null;
+        };
+    }
+
+    private static Long idOf(Object entity) {
+        return switch (entity) {
+            case Room room -> room.getId();
+            case User user -> user.getId();
+            case Event event -> event.getId();
+            default -> null;
+        };
+    }
+
+    private static Set<String> tagsOf(Object entity) {
+        return switch (entity) {
+            case Room room -> room.getTags();
+            case User user -> user.getTags();
+            case Event event -> event.getTags();
+            default -> null;
+        };
+    }
+}
@@ -0,0 +1,7 @@
+package com.borodkir.teamjob.data;
+
+/**
+ * A distinct tag and the number of rooms, users or events carrying it.
+ */
+public record TagUsage(String tag, long count) {
+}
@@ -4,6 +4,7 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 
 @Data
 @AllArgsConstructor
@@ -12,7 +13,7 @@ public class TimeFromTo {
     LocalDateTime endTime;
 
     public int getDurationInMinutes() {
-        return (int) java.time.Duration.between(startTime, endTime).toMinutes();
+        return (int) ChronoUnit.MINUTES.between(startTime, endTime);
     }
 }
 
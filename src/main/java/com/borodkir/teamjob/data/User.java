@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
+import org.hibernate.annotations.BatchSize;
 
 import java.util.HashSet;
 import java.util.Set;
@@ -16,12 +17,15 @@ import java.util.Set;
  *   <li>email</li>
  *   <li>password: Hashed password</li>
  *   <li>roles: A set of roles associated with the user.</li>
+ *   <li>roleVersion: Counts the changes of the roles, tokens issued for an older version are re-issued</li>
  * </ul>
  * This entity includes auditing fields (createdDate, createdBy, lastModifiedDate, lastModifiedBy)
  * inherited from the Auditable base class.
  */
 @Data
 @Entity
+@BatchSize(size = 100)
+@EntityListeners({TagIndexListener.class, ReferenceDataListener.class, WeekModelCacheListener.class, UserDetailsCacheListener.class, RoleVersionListener.class})
 @Table(name = "users")
 @ToString(exclude = {"tags"})
 @EqualsAndHashCode(callSuper = true)
@@ -57,19 +61,43 @@ public class User extends Auditable {
     private String password;
 
     @ManyToMany(fetch = FetchType.EAGER)
+    @BatchSize(size = 100)
     @JoinTable(
             name = "user_roles",
             joinColumns = @JoinColumn(name = "user_id"),
             inverseJoinColumns = @JoinColumn(name = "role_id"))
     private Set<Role> roles = new HashSet<>();
 
+    /**
+     * Incremented whenever the roles are changed through {@link #addRole} or {@link #setRoles}.
+     * Nullable, so the column can be added to existing tables, null is version 0.
+     */
+    @Column(name = "role_version")
+    private Integer roleVersion;
+
     @ElementCollection
+    @BatchSize(size = 100)
     @CollectionTable(name = "user_tags", joinColumns = @JoinColumn(name = "user_id"))
     @Column(name = "tag")
     private Set<String> tags = new HashSet<>();
 
 
     public void addRole(Role userRole) {
-        this.roles.add(userRole);
+        if (this.roles.add(userRole)) {
+            rolesChanged();
+        }
+    }
+
+    public void setRoles(Set<Role> roles) {
+        this.roles = roles;
+        rolesChanged();
+    }
+
+    public int getRoleVersion() {
+        return roleVersion != null ? roleVersion : 0;
+    }
+
+    private void rolesChanged() {
+        this.roleVersion = getRoleVersion() + 1;
     }
 }
\ No newline at end of file
@@ -0,0 +1,40 @@
+package com.borodkir.teamjob.data;
+
+import com.borodkir.teamjob.services.IUserDetailsCache;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Removes a saved or deleted {@link User} from the cached user details, and all users if a {@link Role} changes,
+ * so changed roles and passwords apply to the next request.
+ * Does nothing if no such cache exists in the context, e.g. in repository tests.
+ */
+public class UserDetailsCacheListener {
+
+    private ObjectProvider<IUserDetailsCache> userDetailsCache;
+
+    @Autowired
+    public void setUserDetailsCache(ObjectProvider<IUserDetailsCache> userDetailsCache) {
+        this.userDetailsCache = userDetailsCache;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(Object entity) {
+        IUserDetailsCache cache = userDetailsCache != null ? userDetailsCache.getIfAvailable() : null;
+        if (cache == null) {
+            return;
+        }
+        if (entity instanceof User user) {
+            Long userId = user.getId();
+            String username = user.getUsername();
+            AfterCommit.run(() -> cache.invalidateUser(userId, username));
+        } else if (entity instanceof Role) {
+            AfterCommit.run(cache::invalidateAll);
+        }
+    }
+}
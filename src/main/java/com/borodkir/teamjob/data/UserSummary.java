@@ -0,0 +1,23 @@
+package com.borodkir.teamjob.data;
+
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+import java.util.Set;
+
+/**
+ * The fields of a user needed by the filter pickers and forms of the calendar views,
+ * without the password hash and roles.
+ * The tags are those of the 'user_tags' table, empty where a user is only shown and not filtered.
+ */
+@Value
+@AllArgsConstructor
+public class UserSummary {
+    Long id;
+    String username;
+    Set<String> tags;
+
+    public UserSummary(Long id, String username) {
+        this(id, username, Set.of());
+    }
+}
@@ -0,0 +1,83 @@
+package com.borodkir.teamjob.data;
+
+import com.borodkir.teamjob.services.IWeekModelCache;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Invalidates the cached weeks affected by a saved or deleted {@link Event}, {@link Room} or {@link User}
+ * after the transaction commits. The time and recurrence of a saved event are copied right away, the entity
+ * may change again before the commit.
+ * Does nothing if no such cache exists in the context, e.g. in repository tests.
+ */
+public class WeekModelCacheListener {
+
+    private ObjectProvider<IWeekModelCache> weekModelCache;
+
+    @Autowired
+    public void setWeekModelCache(ObjectProvider<IWeekModelCache> weekModelCache) {
+        this.weekModelCache = weekModelCache;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(Object entity) {
+        IWeekModelCache cache = cache();
+        if (cache == null) {
+            return;
+        }
+        if (entity instanceof Event event) {
+            Long eventId = event.getId();
+            Event times = copyTimes(event);
+            AfterCommit.run(() -> cache.invalidateEvent(eventId, times));
+        } else {
+            onChange(cache, entity);
+        }
+    }
+
+    @PostRemove
+    public void onRemove(Object entity) {
+        IWeekModelCache cache = cache();
+        if (cache == null) {
+            return;
+        }
+        if (entity instanceof Event event) {
+            Long eventId = event.getId();
+            AfterCommit.run(() -> cache.invalidateEvent(eventId, null));
+        } else {
+            onChange(cache, entity);
+        }
+    }
+
+    private static void onChange(IWeekModelCache cache, Object entity) {
+        if (entity instanceof Room room) {
+            Long roomId = room.getId();
+            AfterCommit.run(() -> cache.invalidateRoom(roomId));
+        } else if (entity instanceof User user) {
+            Long userId = user.getId();
+            AfterCommit.run(() -> cache.invalidateUser(userId));
+        }
+    }
+
+    private static Event copyTimes(Event event) {
+        Event copy = new Event();
+        copy.setId(event.getId());
+        copy.setStartTime(event.getStartTime());
+        copy.setEndTime(event.getEndTime());
+        copy.setRecurring(event.isRecurring());
+        copy.setRrule(event.getRrule());
+        copy.setExdate(event.getExdate());
+        copy.setRdate(event.getRdate());
+        copy.setRecurrenceEndDate(event.getRecurrenceEndDate());
+        copy.setSeriesStart(event.getSeriesStart());
+        copy.setSeriesEnd(event.getSeriesEnd());
+        return copy;
+    }
+
+    private IWeekModelCache cache() {
+        return weekModelCache != null ? weekModelCache.getIfAvailable() : null;
+    }
+}
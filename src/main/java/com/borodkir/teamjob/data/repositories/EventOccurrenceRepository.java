@@ -0,0 +1,43 @@
+package com.borodkir.teamjob.data.repositories;
+
+import com.borodkir.teamjob.data.EventOccurrence;
+import com.borodkir.teamjob.data.Occurrence;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface EventOccurrenceRepository extends JpaRepository<EventOccurrence, Long> {
+
+    @Query("SELECT new com.borodkir.teamjob.data.Occurrence(e, o.startTime, o.endTime) FROM EventOccurrence o JOIN Event e ON e.id = o.eventId " +
+            "WHERE o.startTime < :endTime AND (o.endTime > :startTime OR (o.endTime = o.startTime AND o.startTime >= :startTime)) ORDER BY o.startTime")
+    List<Occurrence> findOccurrences(@Param("startTime") LocalDateTime startTime, @Param("endTime") LocalDateTime endTime);
+
+    @Query("SELECT new com.borodkir.teamjob.data.Occurrence(e, o.startTime, o.endTime) FROM EventOccurrence o JOIN Event e ON e.id = o.eventId " +
+            "WHERE o.roomId IN :roomIds AND o.startTime < :endTime AND (o.endTime > :startTime OR (o.endTime = o.startTime AND o.startTime >= :startTime)) ORDER BY o.startTime")
+    List<Occurrence> findOccurrencesInRooms(@Param("roomIds") Collection<Long> roomIds, @Param("startTime") LocalDateTime startTime, @Param("endTime") LocalDateTime endTime);
+
+    @Query("SELECT new com.borodkir.teamjob.data.Occurrence(e, o.startTime, o.endTime) FROM EventOccurrence o JOIN Event e ON e.id = o.eventId " +
+            "WHERE o.userId IN :userIds AND o.startTime < :endTime AND (o.endTime > :startTime OR (o.endTime = o.startTime AND o.startTime >= :startTime)) ORDER BY o.startTime")
+    List<Occurrence> findOccurrencesOfUsers(@Param("userIds") Collection<Long> userIds, @Param("startTime") LocalDateTime startTime, @Param("endTime") LocalDateTime endTime);
+
+    /**
+     * @return pairs of event id and the start of its last materialized occurrence
+     */
+    @Query("SELECT o.eventId, MAX(o.startTime) FROM EventOccurrence o GROUP BY o.eventId")
+    List<Object[]> findLastMaterializedStarts();
+
+    @Modifying
+    @Query("DELETE FROM EventOccurrence o WHERE o.eventId = :eventId")
+    int deleteByEventId(@Param("eventId") Long eventId);
+
+    @Modifying
+    @Query("DELETE FROM EventOccurrence o WHERE NOT EXISTS (SELECT e.id FROM Event e WHERE e.id = o.eventId)")
+    int deleteOrphans();
+}
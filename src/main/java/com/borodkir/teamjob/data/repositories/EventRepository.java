@@ -1,18 +1,29 @@
 package com.borodkir.teamjob.data.repositories;
 
 import com.borodkir.teamjob.data.Event;
+import com.borodkir.teamjob.data.EventExportRow;
+import com.borodkir.teamjob.data.EventWindowVersion;
 import com.borodkir.teamjob.data.Room;
+import com.borodkir.teamjob.data.RoomInterval;
+import com.borodkir.teamjob.data.TagAssignment;
+import com.borodkir.teamjob.data.TagUsage;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface EventRepository extends JpaRepository<Event, Long> {
+public interface EventRepository extends JpaRepository<Event, Long>, EventRepositoryCustom {
 
     @SuppressWarnings("unused")
     Optional<Event> findByStartTime(LocalDateTime startTime);
@@ -29,9 +40,37 @@ public interface EventRepository extends JpaRepository<Event, Long> {
     @SuppressWarnings("unused")
     List<Event> findAllByTitle(String title);
 
-    @Query("SELECT e FROM Event e WHERE (e.startTime <= :endTime AND e.endTime >= :startTime)")
+    /**
+     * Finds single events overlapping the time range and recurring events whose whole series span covers it.
+     * The occurrences inside the range still have to be expanded from the returned series.
+     * Compares the series span, which the booking 'period' only covers for single events, see idx_events_series_span.
+     * Room, user and tags are fetched in the same query, see {@link Event#CALENDAR_GRAPH}.
+     */
+    @EntityGraph(value = Event.CALENDAR_GRAPH, type = EntityGraph.EntityGraphType.LOAD)
+    @Query("SELECT e FROM Event e WHERE e.seriesStart <= :endTime AND (e.seriesEnd IS NULL OR e.seriesEnd >= :startTime)")
     List<Event> findOverlappingEvents(@Param("startTime") LocalDateTime startTime, @Param("endTime") LocalDateTime endTime);
 
+    /**
+     * Reads the version of the events {@link #findOverlappingEvents} would return, without loading them.
+     */
+    @Query("SELECT new com.borodkir.teamjob.data.EventWindowVersion(MAX(COALESCE(e.lastModifiedDate, e.createdDate)), COUNT(e)) " +
+            "FROM Event e WHERE e.seriesStart <= :endTime AND (e.seriesEnd IS NULL OR e.seriesEnd >= :startTime)")
+    EventWindowVersion findWindowVersion(@Param("startTime") LocalDateTime startTime, @Param("endTime") LocalDateTime endTime);
+
+    /**
+     * Same as {@link #findWindowVersion}, restricted to events in the rooms.
+     */
+    @Query("SELECT new com.borodkir.teamjob.data.EventWindowVersion(MAX(COALESCE(e.lastModifiedDate, e.createdDate)), COUNT(e)) " +
+            "FROM Event e WHERE e.room.id IN :roomIds AND e.seriesStart <= :endTime AND (e.seriesEnd IS NULL OR e.seriesEnd >= :startTime)")
+    EventWindowVersion findWindowVersionInRooms(@Param("roomIds") Collection<Long> roomIds, @Param("startTime") LocalDateTime startTime, @Param("endTime") LocalDateTime endTime);
+
+    /**
+     * Same as {@link #findWindowVersion}, restricted to events of the users.
+     */
+    @Query("SELECT new com.borodkir.teamjob.data.EventWindowVersion(MAX(COALESCE(e.lastModifiedDate, e.createdDate)), COUNT(e)) " +
+            "FROM Event e WHERE e.user.id IN :userIds AND e.seriesStart <= :endTime AND (e.seriesEnd IS NULL OR e.seriesEnd >= :startTime)")
+    EventWindowVersion findWindowVersionOfUsers(@Param("userIds") Collection<Long> userIds, @Param("startTime") LocalDateTime startTime, @Param("endTime") LocalDateTime endTime);
+
     @Query("SELECT COUNT(e) > 0 FROM Event e WHERE (e.startTime <= :endTime AND e.endTime >= :startTime) AND e.room = :room")
     Boolean findOverlappingEventsInRoom(@Param("startTime") LocalDateTime startTime, @Param("endTime") LocalDateTime endTime, @Param("room") Optional<Room> room);
 
@@ -39,8 +78,54 @@ public interface EventRepository extends JpaRepository<Event, Long> {
     @Query("SELECT e FROM Event e WHERE (e.startTime <= :endTime AND e.endTime >= :startTime) AND e.room = :room")
     List<Event> findAllOverlappingEventsInRoom(LocalDateTime startTime, LocalDateTime endTime, Optional<Room> room);
 
+    List<Event> findAllBySeriesStartIsNull();
+
+    /**
+     * Loads the booked time of every event that has a room, without loading the events themselves.
+     */
+    @Query("SELECT new com.borodkir.teamjob.data.RoomInterval(e.id, e.room.id, e.startTime, e.endTime) FROM Event e WHERE e.room IS NOT NULL")
+    List<RoomInterval> findAllRoomIntervals();
+
+    @Query("SELECT e FROM Event e WHERE NOT EXISTS (SELECT o.id FROM EventOccurrence o WHERE o.eventId = e.id)")
+    List<Event> findAllWithoutOccurrences();
+
     @SuppressWarnings({"SqlResolve", "unused"})
     @Query("SELECT e FROM Event e JOIN e.tags t WHERE t IN :tags")
     List<Event> findByTagsAnyMatch(@Param("tags") List<String> tags);
 
-}
\ No newline at end of file
+    /**
+     * Streams the events of {@link #findOverlappingEvents} ordered by id, as projections read with a database cursor.
+     * Must be consumed within a transaction and closed.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.borodkir.teamjob.data.EventExportRow(e.id, e.title, e.description, e.startTime, e.endTime, e.isRecurring, " +
+            "e.rrule, e.exdate, e.rdate, r.id, r.name, u.id, u.username) FROM Event e LEFT JOIN e.room r LEFT JOIN e.user u " +
+            "WHERE e.seriesStart <= :endTime AND (e.seriesEnd IS NULL OR e.seriesEnd >= :startTime) ORDER BY e.id")
+    Stream<EventExportRow> streamExportRows(@Param("startTime") LocalDateTime startTime, @Param("endTime") LocalDateTime endTime);
+
+    /**
+     * Streams the tags of the events of {@link #streamExportRows}, in the same order.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.borodkir.teamjob.data.TagAssignment(e.id, t) FROM Event e JOIN e.tags t " +
+            "WHERE e.seriesStart <= :endTime AND (e.seriesEnd IS NULL OR e.seriesEnd >= :startTime) ORDER BY e.id, t")
+    Stream<TagAssignment> streamTagAssignments(@Param("startTime") LocalDateTime startTime, @Param("endTime") LocalDateTime endTime);
+
+    /**
+     * Reads the 'event_tags' table without loading the events.
+     */
+    @Query("SELECT new com.borodkir.teamjob.data.TagAssignment(e.id, t) FROM Event e JOIN e.tags t")
+    List<TagAssignment> findAllTagAssignments();
+
+    /**
+     * Counts the events per distinct tag in the 'event_tags' table.
+     */
+    @Query("SELECT new com.borodkir.teamjob.data.TagUsage(t, COUNT(e)) FROM Event e JOIN e.tags t GROUP BY t ORDER BY t")
+    List<TagUsage> findTagUsage();
+}
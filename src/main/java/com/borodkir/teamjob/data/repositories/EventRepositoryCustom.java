@@ -0,0 +1,30 @@
+package com.borodkir.teamjob.data.repositories;
+
+import com.borodkir.teamjob.data.Event;
+import com.borodkir.teamjob.data.RoomInterval;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Queries of {@link EventRepository} whose SQL depends on the database, see {@link EventRepositoryCustomImpl}.
+ */
+public interface EventRepositoryCustom {
+
+    /**
+     * Checks if an event of the room overlaps the time range, with {@code startTime <= endTime && endTime >= startTime}.
+     */
+    boolean existsBookingInRoom(Long roomId, LocalDateTime startTime, LocalDateTime endTime);
+
+    /**
+     * Loads the booked time of the events with a room overlapping the time range, with the same overlap rule as
+     * {@link #existsBookingInRoom}, without loading the events themselves.
+     */
+    List<RoomInterval> findRoomIntervalsBetween(LocalDateTime startTime, LocalDateTime endTime);
+
+    /**
+     * Inserts new events in JDBC batches, flushing and detaching every batchSize events.
+     * Must be called within a transaction.
+     */
+    void insertAll(List<Event> events, int batchSize);
+}
@@ -0,0 +1,100 @@
+package com.borodkir.teamjob.data.repositories;
+
+import com.borodkir.teamjob.config.BookingPeriodInitializer;
+import com.borodkir.teamjob.data.Event;
+import com.borodkir.teamjob.data.RoomInterval;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Checks and loads room bookings with the range operator {@code &&} on the GiST indexed 'period' column on PostgreSQL,
+ * see {@link BookingPeriodInitializer}. On other databases, e.g. H2 in tests, and until the column exists,
+ * the same queries compare 'start_time' and 'end_time'.
+ * <p>
+ * Inserts many events at once with batched statements, see {@code hibernate.jdbc.batch_size}.
+ */
+public class EventRepositoryCustomImpl implements EventRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final ObjectProvider<BookingPeriodInitializer> bookingPeriod;
+
+    public EventRepositoryCustomImpl(ObjectProvider<BookingPeriodInitializer> bookingPeriod) {
+        this.bookingPeriod = bookingPeriod;
+    }
+
+    private boolean isPeriodActive() {
+        BookingPeriodInitializer period = bookingPeriod.getIfAvailable();
+        return period != null && period.isActive();
+    }
+
+    @Override
+    public boolean existsBookingInRoom(Long roomId, LocalDateTime startTime, LocalDateTime endTime) {
+        if (isPeriodActive()) {
+            Object result = entityManager.createNativeQuery(
+                            "SELECT EXISTS (SELECT 1 FROM events WHERE room_id = :roomId AND period && tsrange(:startTime, :endTime, '[]'))")
+                    .setParameter("roomId", roomId)
+                    .setParameter("startTime", startTime)
+                    .setParameter("endTime", endTime)
+                    .getSingleResult();
+            return Boolean.TRUE.equals(result);
+        }
+        return entityManager.createQuery(
+                        "SELECT COUNT(e) > 0 FROM Event e WHERE e.room.id = :roomId AND e.startTime <= :endTime AND e.endTime >= :startTime", Boolean.class)
+                .setParameter("roomId", roomId)
+                .setParameter("startTime", startTime)
+                .setParameter("endTime", endTime)
+                .getSingleResult();
+    }
+
+    @Override
+    public List<RoomInterval> findRoomIntervalsBetween(LocalDateTime startTime, LocalDateTime endTime) {
+        if (isPeriodActive()) {
+            @SuppressWarnings("unchecked")
+            List<Object[]> rows = entityManager.createNativeQuery(
+                            "SELECT id, room_id, start_time, end_time FROM events " +
+                                    "WHERE room_id IS NOT NULL AND period && tsrange(:startTime, :endTime, '[]')")
+                    .setParameter("startTime", startTime)
+                    .setParameter("endTime", endTime)
+                    .getResultList();
+            List<RoomInterval> intervals = new ArrayList<>(rows.size());
+            for (Object[] row : rows) {
+                intervals.add(new RoomInterval(((Number) row[0]).longValue(), ((Number) row[1]).longValue(),
+                        toLocalDateTime(row[2]), toLocalDateTime(row[3])));
+            }
+            return intervals;
+        }
+        return entityManager.createQuery(
+                        "SELECT new com.borodkir.teamjob.data.RoomInterval(e.id, e.room.id, e.startTime, e.endTime) FROM Event e " +
+                                "WHERE e.room IS NOT NULL AND e.startTime <= :endTime AND e.endTime >= :startTime", RoomInterval.class)
+                .setParameter("startTime", startTime)
+                .setParameter("endTime", endTime)
+                .getResultList();
+    }
+
+    private static LocalDateTime toLocalDateTime(Object value) {
+        // The JDBC driver may return timestamp columns of native queries as either type
+        return value instanceof Timestamp timestamp ? timestamp.toLocalDateTime() : (LocalDateTime) value;
+    }
+
+    @Override
+    public void insertAll(List<Event> events, int batchSize) {
+        for (int i = 0; i < events.size(); i++) {
+            entityManager.persist(events.get(i));
+            if ((i + 1) % batchSize == 0) {
+                // Sends the batch and keeps the persistence context from growing with every event
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+}
@@ -1,6 +1,8 @@
 package com.borodkir.teamjob.data.repositories;
 
 import com.borodkir.teamjob.data.Room;
+import com.borodkir.teamjob.data.TagAssignment;
+import com.borodkir.teamjob.data.TagUsage;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -12,6 +14,13 @@ import java.util.Optional;
 
 @Repository
 public interface RoomRepository extends JpaRepository<Room, Long> {
+
+    interface NameView {
+        Long getId();
+
+        String getName();
+    }
+
     Optional<Room> findByName(String name);
 
 
@@ -25,5 +34,18 @@ public interface RoomRepository extends JpaRepository<Room, Long> {
     @Query("SELECT DISTINCT r FROM Room r JOIN Event e ON e.room = r WHERE (e.startTime < :endTime AND e.endTime > :startTime)")
     List<Room> findAllOccupiedByStartTimeAndEndTime(@Param("startTime") LocalDateTime startTime, @Param("endTime") LocalDateTime endTime);
 
-}
+    /**
+     * Reads the 'room_tags' table without loading the rooms.
+     */
+    @Query("SELECT new com.borodkir.teamjob.data.TagAssignment(r.id, t) FROM Room r JOIN r.tags t")
+    List<TagAssignment> findAllTagAssignments();
+
+    /**
+     * Counts the rooms per distinct tag in the 'room_tags' table.
+     */
+    @Query("SELECT new com.borodkir.teamjob.data.TagUsage(t, COUNT(r)) FROM Room r JOIN r.tags t GROUP BY t ORDER BY t")
+    List<TagUsage> findTagUsage();
 
+    @Query("SELECT r.id AS id, r.name AS name FROM Room r ORDER BY r.id")
+    List<NameView> findAllNames();
+}
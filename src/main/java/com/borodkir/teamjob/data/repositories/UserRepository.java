@@ -1,6 +1,8 @@
 package com.borodkir.teamjob.data.repositories;
 
 import com.borodkir.teamjob.data.User;
+import com.borodkir.teamjob.data.TagAssignment;
+import com.borodkir.teamjob.data.TagUsage;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -12,6 +14,19 @@ import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
+
+    interface NameView {
+        Long getId();
+
+        String getUsername();
+    }
+
+    interface RoleVersionView {
+        Long getId();
+
+        Integer getRoleVersion();
+    }
+
     Optional<User> findByUsername(String username);
 
     Boolean existsByUsername(String username);
@@ -19,7 +34,7 @@ public interface UserRepository extends JpaRepository<User, Long> {
     @SuppressWarnings("unused")
     Boolean existsByEmail(String email);
 
-    Optional<Object> findByEmail(String attr0);
+    Optional<User> findByEmail(String email);
 
     @SuppressWarnings({"SqlResolve", "unused"})
     @Query(value = "SELECT * FROM users WHERE tags && CAST(:tags AS text[])", nativeQuery = true)
@@ -28,4 +43,31 @@ public interface UserRepository extends JpaRepository<User, Long> {
     @SuppressWarnings({"SqlResolve", "unused"})
     @Query("SELECT DISTINCT e.user FROM Event e WHERE e.user IS NOT NULL AND e.startTime <= :endTime AND e.endTime >= :startTime")
     List<User> findAllOccupiedByStartTimeAndEndTime(@Param("startTime") LocalDateTime startTime, @Param("endTime") LocalDateTime endTime);
+
+    /**
+     * Reads the 'user_tags' table without loading the users.
+     */
+    @Query("SELECT new com.borodkir.teamjob.data.TagAssignment(u.id, t) FROM User u JOIN u.tags t")
+    List<TagAssignment> findAllTagAssignments();
+
+    /**
+     * Counts the users per distinct tag in the 'user_tags' table.
+     */
+    @Query("SELECT new com.borodkir.teamjob.data.TagUsage(t, COUNT(u)) FROM User u JOIN u.tags t GROUP BY t ORDER BY t")
+    List<TagUsage> findTagUsage();
+
+    @Query("SELECT u.id AS id, u.username AS username FROM User u ORDER BY u.id")
+    List<NameView> findAllNames();
+
+    /**
+     * Reads the role versions of all users whose roles were ever changed.
+     */
+    @Query("SELECT u.id AS id, u.roleVersion AS roleVersion FROM User u WHERE u.roleVersion > 0")
+    List<RoleVersionView> findAllRoleVersions();
+
+    /**
+     * Reads the role versions of the users changed since the given time, a role change always changes the user.
+     */
+    @Query("SELECT u.id AS id, u.roleVersion AS roleVersion FROM User u WHERE u.roleVersion > 0 AND u.lastModifiedDate >= :since")
+    List<RoleVersionView> findRoleVersionsModifiedSince(@Param("since") LocalDateTime since);
 }
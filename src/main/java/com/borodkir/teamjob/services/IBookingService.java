@@ -0,0 +1,12 @@
+package com.borodkir.teamjob.services;
+
+import com.borodkir.teamjob.data.Event;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface IBookingService {
+    Optional<Event> book(Event event);
+
+    List<Optional<Event>> bookAll(List<Event> events);
+}
@@ -0,0 +1,14 @@
+package com.borodkir.teamjob.services;
+
+import com.borodkir.teamjob.data.BulkEventResult;
+import com.borodkir.teamjob.data.EventRequest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+public interface IBulkEventService {
+    List<BulkEventResult> importEvents(List<EventRequest> eventRequests);
+
+    List<BulkEventResult> importNdjson(InputStream ndjson) throws IOException;
+}
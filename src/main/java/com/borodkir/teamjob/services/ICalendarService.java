@@ -16,6 +16,8 @@ public interface ICalendarService {
 
     List<EventInADay> convertToDayEvents(List<Event> allEvents, LocalDate currentDate, String userIds, String roomIds, String roomTags, String eventTags, String userTags);
 
+    List<List<EventInADay>> convertToDays(List<Event> allEvents, LocalDate firstDay, int days, String userIds, String roomIds, String roomTags, String eventTags, String userTags);
+
     List<SearchResult> generateSearchResults(AvailableTimeRequest request, LocalDate date);
 
     void setupModelForWeekCalendar(Model model, LocalDate date, String userIds, String roomIds, String roomTags, String eventTags, String userTags);
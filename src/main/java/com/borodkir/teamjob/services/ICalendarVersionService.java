@@ -0,0 +1,11 @@
+package com.borodkir.teamjob.services;
+
+import java.time.LocalDate;
+
+public interface ICalendarVersionService {
+    String getWeekETag(LocalDate date, String userIds, String roomIds, String roomTags, String eventTags, String userTags, String csrfToken);
+
+    String getDayETag(LocalDate date, String userIds, String roomIds, String roomTags, String eventTags, String userTags, String csrfToken);
+
+    void eventDeleted();
+}
@@ -0,0 +1,11 @@
+package com.borodkir.teamjob.services;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+
+public interface IEventExportService {
+    long writeNdjson(LocalDateTime from, LocalDateTime to, OutputStream out) throws IOException;
+
+    long writeCsv(LocalDateTime from, LocalDateTime to, OutputStream out) throws IOException;
+}
@@ -0,0 +1,10 @@
+package com.borodkir.teamjob.services;
+
+import com.borodkir.teamjob.data.IcsImportReport;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface IIcsImportService {
+    IcsImportReport importIcs(InputStream ics, String uploader) throws IOException;
+}
@@ -0,0 +1,21 @@
+package com.borodkir.teamjob.services;
+
+import com.borodkir.teamjob.data.Event;
+
+import java.time.LocalDateTime;
+
+public interface IOccurrenceService {
+    boolean isEnabled();
+
+    LocalDateTime getHorizon();
+
+    LocalDateTime getMaterializedHorizon();
+
+    void materialize(Event event);
+
+    void remove(Long eventId);
+
+    void materializeMissing();
+
+    void rollForward();
+}
@@ -0,0 +1,16 @@
+package com.borodkir.teamjob.services;
+
+import com.borodkir.teamjob.data.RoomSummary;
+import com.borodkir.teamjob.data.UserSummary;
+
+import java.util.List;
+
+public interface IReferenceDataService {
+    List<RoomSummary> getRooms();
+
+    List<UserSummary> getUsers();
+
+    void invalidate();
+
+    long getVersion();
+}
@@ -0,0 +1,11 @@
+package com.borodkir.teamjob.services;
+
+public interface IRoleVersionService {
+    boolean isStateless();
+
+    boolean isCurrent(Long userId, int roleVersion);
+
+    void roleVersionChanged(Long userId, int roleVersion);
+
+    void userRemoved(Long userId);
+}
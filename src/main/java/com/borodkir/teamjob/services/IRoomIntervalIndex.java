@@ -0,0 +1,19 @@
+package com.borodkir.teamjob.services;
+
+import com.borodkir.teamjob.data.RoomInterval;
+
+import java.time.LocalDateTime;
+
+public interface IRoomIntervalIndex {
+    boolean isReady();
+
+    boolean hasConflict(Long roomId, LocalDateTime startTime, LocalDateTime endTime);
+
+    void put(RoomInterval interval);
+
+    void remove(Long eventId);
+
+    void rebuild();
+
+    boolean isConsistent();
+}
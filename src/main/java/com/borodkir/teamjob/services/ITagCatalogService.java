@@ -0,0 +1,11 @@
+package com.borodkir.teamjob.services;
+
+import com.borodkir.teamjob.data.TagCatalog;
+
+public interface ITagCatalogService {
+    TagCatalog getCatalog();
+
+    void invalidate();
+
+    long getVersion();
+}
@@ -0,0 +1,23 @@
+package com.borodkir.teamjob.services;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Set;
+
+public interface ITagIndex {
+    enum Kind {
+        ROOM, USER, EVENT
+    }
+
+    boolean isReady();
+
+    int intern(String tag);
+
+    BitSet findAnyTag(Kind kind, Set<String> tags);
+
+    boolean put(Kind kind, Long ownerId, Collection<String> tags);
+
+    boolean remove(Kind kind, Long ownerId);
+
+    void rebuild();
+}
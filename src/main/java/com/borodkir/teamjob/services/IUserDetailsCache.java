@@ -0,0 +1,13 @@
+package com.borodkir.teamjob.services;
+
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.function.Function;
+
+public interface IUserDetailsCache {
+    UserDetails get(String username, Function<String, UserDetails> loader);
+
+    void invalidateUser(Long userId, String username);
+
+    void invalidateAll();
+}
@@ -0,0 +1,18 @@
+package com.borodkir.teamjob.services;
+
+import com.borodkir.teamjob.data.Event;
+import com.borodkir.teamjob.data.EventInADay;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Supplier;
+
+public interface IWeekModelCache {
+    List<List<EventInADay>> getWeek(LocalDate weekStart, String userIds, String roomIds, String roomTags, String eventTags, String userTags, Supplier<List<List<EventInADay>>> loader);
+
+    void invalidateEvent(Long eventId, Event event);
+
+    void invalidateRoom(Long roomId);
+
+    void invalidateUser(Long userId);
+}
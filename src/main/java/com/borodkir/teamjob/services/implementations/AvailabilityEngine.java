@@ -0,0 +1,57 @@
+package com.borodkir.teamjob.services.implementations;
+
+import com.borodkir.teamjob.data.Event;
+import com.borodkir.teamjob.data.IntervalSet;
+import com.borodkir.teamjob.data.Occurrence;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Computes the free time of many resources (rooms or users) inside a window.
+ * <p>
+ * The occurrences are grouped by resource in a single pass into one {@link IntervalSet} per resource, which merges
+ * overlapping and nested occurrences with one sweep. The free time is the complement of that set within the window,
+ * without the gaps shorter than the requested duration. Busy times are widened and the window is narrowed to
+ * whole minutes.
+ */
+public final class AvailabilityEngine {
+
+    private AvailabilityEngine() {
+    }
+
+    /**
+     * Groups the occurrences by the resource they occupy.
+     *
+     * @param occurrences the occurrences to group
+     * @param resourceId  extracts the id of the resource from an event, null if the event occupies none
+     * @return the busy time per resource id
+     */
+    public static Map<Long, IntervalSet> groupByResource(List<Occurrence> occurrences, Function<Event, Long> resourceId) {
+        Map<Long, IntervalSet.Builder> builders = new HashMap<>();
+        for (Occurrence occurrence : occurrences) {
+            Long id = resourceId.apply(occurrence.event());
+            if (id != null) {
+                builders.computeIfAbsent(id, key -> IntervalSet.builder()).add(occurrence.start(), occurrence.end());
+            }
+        }
+        Map<Long, IntervalSet> busyTimes = new HashMap<>(builders.size() * 2);
+        builders.forEach((id, builder) -> busyTimes.put(id, builder.build()));
+        return busyTimes;
+    }
+
+    /**
+     * Finds the free time of a resource inside the window.
+     *
+     * @param busy              the busy time of the resource, null if it has none
+     * @param window            the window to search in
+     * @param durationInMinutes the minimum duration of a free interval
+     * @return the free intervals
+     */
+    public static IntervalSet freeTime(IntervalSet busy, IntervalSet window, int durationInMinutes) {
+        IntervalSet free = busy != null ? busy.complement(window) : window;
+        return free.withMinLength(durationInMinutes);
+    }
+}
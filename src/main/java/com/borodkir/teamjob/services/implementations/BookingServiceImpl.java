@@ -0,0 +1,215 @@
+package com.borodkir.teamjob.services.implementations;
+
+import com.borodkir.teamjob.data.Event;
+import com.borodkir.teamjob.data.RoomInterval;
+import com.borodkir.teamjob.data.repositories.EventRepository;
+import com.borodkir.teamjob.services.IBookingService;
+import com.borodkir.teamjob.services.IOccurrenceService;
+import com.borodkir.teamjob.services.IRoomIntervalIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Saves events so that no two events of the same room overlap.
+ * <ul>
+ *   <li>Bookings of the same room are serialized by a lock, chosen from a fixed number of stripes by the room id,
+ *   so bookings of different rooms mostly run in parallel.</li>
+ *   <li>The conflict check and the insert run in one transaction, and the lock is held until it has committed.
+ *   The room booking index is updated on commit, so the next booking of the room already sees this one.</li>
+ *   <li>Across several application instances the exclusion constraint of {@link com.borodkir.teamjob.config.BookingPeriodInitializer}
+ *   rejects the losing insert, which is reported as a conflict as well.</li>
+ *   <li>{@link #bookAll} locks the rooms of all events, checks them against one query of the bookings in their time window
+ *   and against each other in memory, and inserts the free ones in JDBC batches.</li>
+ * </ul>
+ */
+@Service
+public class BookingServiceImpl implements IBookingService {
+    private static final Logger logger = LoggerFactory.getLogger(BookingServiceImpl.class);
+
+    /**
+     * SQLSTATE of PostgreSQL for a violated exclusion constraint.
+     */
+    private static final String EXCLUSION_VIOLATION = "23P01";
+
+    private final EventRepository eventRepository;
+    private final IRoomIntervalIndex roomIntervalIndex;
+    private final RecurrenceRuleCache recurrenceRuleCache;
+    private final IOccurrenceService occurrenceService;
+    private final TransactionTemplate transactionTemplate;
+    private final ReentrantLock[] stripes;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:100}")
+    private int batchSize = 100;
+
+    public BookingServiceImpl(EventRepository eventRepository, IRoomIntervalIndex roomIntervalIndex, RecurrenceRuleCache recurrenceRuleCache,
+                              IOccurrenceService occurrenceService, PlatformTransactionManager transactionManager,
+                              @Value("${testing.app.booking.lock-stripes:64}") int stripeCount) {
+        this.eventRepository = eventRepository;
+        this.roomIntervalIndex = roomIntervalIndex;
+        this.recurrenceRuleCache = recurrenceRuleCache;
+        this.occurrenceService = occurrenceService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // A power of two, so the stripe is a mask of the spread hash
+        this.stripes = new ReentrantLock[Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Saves the event unless its room is already booked at an overlapping time.
+     *
+     * @param event the new event, with or without a room
+     * @return the saved event, or empty if the room is already booked
+     */
+    @Override
+    public Optional<Event> book(Event event) {
+        Long roomId = event.getRoom() != null ? event.getRoom().getId() : null;
+        if (roomId == null) {
+            return Optional.of(transactionTemplate.execute(status -> save(event)));
+        }
+        ReentrantLock lock = stripeOf(roomId);
+        lock.lock();
+        try {
+            return Optional.ofNullable(transactionTemplate.execute(status -> {
+                if (roomIntervalIndex.hasConflict(roomId, event.getStartTime(), event.getEndTime())) {
+                    return null;
+                }
+                return save(event);
+            }));
+        } catch (DataIntegrityViolationException e) {
+            if (!isExclusionViolation(e)) {
+                throw e;
+            }
+            logger.warn("Room {} was booked concurrently by another instance", roomId);
+            return Optional.empty();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Saves all events whose room is free, in one transaction. An event conflicts with the stored events and with the
+     * events before it in the list.
+     *
+     * @param events new events, all with a room
+     * @return for every event the saved event, or empty if its room is already booked
+     */
+    @Override
+    public List<Optional<Event>> bookAll(List<Event> events) {
+        int[] locked = events.stream()
+                .map(event -> event.getRoom() != null ? event.getRoom().getId() : null)
+                .filter(Objects::nonNull)
+                .mapToInt(this::stripeIndex)
+                .distinct()
+                .sorted()
+                .toArray();
+        // Always locked in ascending order, so two bulk bookings cannot deadlock
+        for (int stripe : locked) {
+            stripes[stripe].lock();
+        }
+        try {
+            return transactionTemplate.execute(status -> bookAllLocked(events));
+        } catch (DataIntegrityViolationException e) {
+            if (!isExclusionViolation(e)) {
+                throw e;
+            }
+            logger.warn("Rooms were booked concurrently by another instance, no event of the bulk booking was saved");
+            return events.stream().map(event -> Optional.<Event>empty()).toList();
+        } finally {
+            for (int i = locked.length - 1; i >= 0; i--) {
+                stripes[locked[i]].unlock();
+            }
+        }
+    }
+
+    private List<Optional<Event>> bookAllLocked(List<Event> events) {
+        LocalDateTime windowStart = null;
+        LocalDateTime windowEnd = null;
+        for (Event event : events) {
+            if (windowStart == null || event.getStartTime().isBefore(windowStart)) {
+                windowStart = event.getStartTime();
+            }
+            if (windowEnd == null || event.getEndTime().isAfter(windowEnd)) {
+                windowEnd = event.getEndTime();
+            }
+        }
+        Map<Long, IntervalTree> booked = new HashMap<>();
+        if (windowStart != null) {
+            for (RoomInterval interval : eventRepository.findRoomIntervalsBetween(windowStart, windowEnd)) {
+                booked.computeIfAbsent(interval.roomId(), id -> new IntervalTree())
+                        .insert(interval.eventId(), toKey(interval.start()), toKey(interval.end()));
+            }
+        }
+
+        List<Optional<Event>> results = new ArrayList<>(events.size());
+        List<Event> accepted = new ArrayList<>();
+        for (int i = 0; i < events.size(); i++) {
+            Event event = events.get(i);
+            IntervalTree room = booked.computeIfAbsent(event.getRoom().getId(), id -> new IntervalTree());
+            long start = toKey(event.getStartTime());
+            long end = toKey(event.getEndTime());
+            if (room.overlaps(start, end)) {
+                results.add(Optional.empty());
+                continue;
+            }
+            // Negative ids cannot collide with stored events
+            room.insert(-(i + 1L), start, end);
+            accepted.add(event);
+            results.add(Optional.of(event));
+        }
+
+        eventRepository.insertAll(accepted, batchSize);
+        for (Event event : accepted) {
+            recurrenceRuleCache.evict(event.getId());
+            occurrenceService.materialize(event);
+        }
+        return results;
+    }
+
+    private Event save(Event event) {
+        Event saved = eventRepository.save(event);
+        recurrenceRuleCache.evict(saved.getId());
+        occurrenceService.materialize(saved);
+        return saved;
+    }
+
+    private ReentrantLock stripeOf(long roomId) {
+        return stripes[stripeIndex(roomId)];
+    }
+
+    private int stripeIndex(long roomId) {
+        int hash = Long.hashCode(roomId);
+        hash ^= hash >>> 16;
+        return hash & (stripes.length - 1);
+    }
+
+    private static long toKey(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static boolean isExclusionViolation(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sqlException && EXCLUSION_VIOLATION.equals(sqlException.getSQLState())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
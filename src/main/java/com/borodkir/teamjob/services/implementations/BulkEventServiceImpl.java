@@ -0,0 +1,186 @@
+package com.borodkir.teamjob.services.implementations;
+
+import com.borodkir.teamjob.data.BulkEventResult;
+import com.borodkir.teamjob.data.Event;
+import com.borodkir.teamjob.data.EventRequest;
+import com.borodkir.teamjob.data.Room;
+import com.borodkir.teamjob.data.User;
+import com.borodkir.teamjob.data.repositories.RoomRepository;
+import com.borodkir.teamjob.data.repositories.UserRepository;
+import com.borodkir.teamjob.services.IBookingService;
+import com.borodkir.teamjob.services.IBulkEventService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Creates many events at once, e.g. the timetable of a term, for '/api/v1/events/bulk'.
+ * <ul>
+ *   <li>Requests are processed in chunks of {@code testing.app.bulk.lookup-chunk-size}. NDJSON bodies are read one line
+ *   at a time and only the current chunk is held in memory.</li>
+ *   <li>Rooms and users are looked up with one query per chunk instead of one per event.</li>
+ *   <li>The valid events of a chunk are booked together by {@link IBookingService#bookAll}, which checks them against one
+ *   query of the bookings in their time window and inserts them in JDBC batches. The next chunk is only read once
+ *   the previous one is committed, so it is checked against it as well.</li>
+ * </ul>
+ * Every request gets a result, invalid requests and conflicts do not stop the others.
+ */
+@Service
+public class BulkEventServiceImpl implements IBulkEventService {
+    private static final Logger logger = LoggerFactory.getLogger(BulkEventServiceImpl.class);
+
+    private final RoomRepository roomRepository;
+    private final UserRepository userRepository;
+    private final IBookingService bookingService;
+    private final ObjectMapper objectMapper;
+
+    @Value("${testing.app.bulk.lookup-chunk-size:1000}")
+    private int chunkSize = 1000;
+
+    public BulkEventServiceImpl(RoomRepository roomRepository, UserRepository userRepository, IBookingService bookingService, ObjectMapper objectMapper) {
+        this.roomRepository = roomRepository;
+        this.userRepository = userRepository;
+        this.bookingService = bookingService;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * @param eventRequests the events to create
+     * @return one result per request, in the order of the requests
+     */
+    @Override
+    public List<BulkEventResult> importEvents(List<EventRequest> eventRequests) {
+        List<BulkEventResult> results = new ArrayList<>(eventRequests.size());
+        for (int from = 0; from < eventRequests.size(); from += chunkSize) {
+            importChunk(eventRequests.subList(from, Math.min(from + chunkSize, eventRequests.size())), results);
+        }
+        logImported(results);
+        return results;
+    }
+
+    /**
+     * Reads and imports the events of an NDJSON body, one event per line, without reading the whole body first.
+     * A line that is not a valid event ends the import: the events before it are imported, the line gets an INVALID result.
+     *
+     * @param ndjson the request body
+     * @return one result per line read, in the order of the lines
+     * @throws IOException if the body cannot be read
+     */
+    @Override
+    public List<BulkEventResult> importNdjson(InputStream ndjson) throws IOException {
+        List<BulkEventResult> results = new ArrayList<>();
+        List<EventRequest> chunk = new ArrayList<>(chunkSize);
+        try (MappingIterator<EventRequest> lines = objectMapper.readerFor(EventRequest.class).readValues(ndjson)) {
+            while (lines.hasNextValue()) {
+                chunk.add(lines.nextValue());
+                if (chunk.size() >= chunkSize) {
+                    importChunk(chunk, results);
+                    chunk.clear();
+                }
+            }
+            importChunk(chunk, results);
+            chunk.clear();
+        } catch (JsonProcessingException e) {
+            importChunk(chunk, results);
+            results.add(BulkEventResult.invalid(results.size(), "Unreadable event: " + e.getOriginalMessage()));
+            logger.warn("Stopped reading bulk request at event {}: {}", results.size() - 1, e.getOriginalMessage());
+        }
+        logImported(results);
+        return results;
+    }
+
+    /**
+     * Imports the requests of one chunk and appends their results, the first request has the index results.size().
+     */
+    private void importChunk(List<EventRequest> chunk, List<BulkEventResult> results) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        int firstIndex = results.size();
+        Set<Long> roomIds = new HashSet<>();
+        Set<Long> userIds = new HashSet<>();
+        for (EventRequest request : chunk) {
+            if (request == null) {
+                continue;
+            }
+            if (request.getRoomId() != null) {
+                roomIds.add(request.getRoomId());
+            }
+            if (request.getUserId() != null) {
+                userIds.add(request.getUserId());
+            }
+        }
+        Map<Long, Room> rooms = roomRepository.findAllById(roomIds).stream().collect(Collectors.toMap(Room::getId, Function.identity()));
+        Map<Long, User> users = userRepository.findAllById(userIds).stream().collect(Collectors.toMap(User::getId, Function.identity()));
+
+        BulkEventResult[] chunkResults = new BulkEventResult[chunk.size()];
+        List<Event> events = new ArrayList<>();
+        List<Integer> eventPositions = new ArrayList<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            EventRequest request = chunk.get(i);
+            String error = validate(request, rooms, users);
+            if (error != null) {
+                chunkResults[i] = BulkEventResult.invalid(firstIndex + i, error);
+                continue;
+            }
+            events.add(request.toEvent(rooms.get(request.getRoomId()), users.get(request.getUserId())));
+            eventPositions.add(i);
+        }
+
+        List<Optional<Event>> booked = events.isEmpty() ? List.of() : bookingService.bookAll(events);
+        for (int i = 0; i < booked.size(); i++) {
+            int position = eventPositions.get(i);
+            Optional<Event> event = booked.get(i);
+            chunkResults[position] = event.isPresent()
+                    ? BulkEventResult.created(firstIndex + position, event.get().getId())
+                    : BulkEventResult.conflict(firstIndex + position);
+        }
+        results.addAll(Arrays.asList(chunkResults));
+    }
+
+    private static void logImported(List<BulkEventResult> results) {
+        long created = results.stream().filter(result -> result.getStatus() == BulkEventResult.Status.CREATED).count();
+        logger.info("Bulk import created {} of {} events", created, results.size());
+    }
+
+    /**
+     * @return the reason the request cannot be created, or null if it is valid
+     */
+    private static String validate(EventRequest request, Map<Long, Room> rooms, Map<Long, User> users) {
+        if (request == null) {
+            return "Empty event";
+        }
+        if (request.getTitle() == null || request.getTitle().isBlank()) {
+            return "Title is required";
+        }
+        if (request.getStartTime() == null || request.getEndTime() == null) {
+            return "Start and end time are required";
+        }
+        if (request.getEndTime().isBefore(request.getStartTime())) {
+            return "End time is before start time";
+        }
+        if (request.getRoomId() == null || !rooms.containsKey(request.getRoomId())) {
+            return "Room not found with ID: " + request.getRoomId();
+        }
+        if (request.getUserId() == null || !users.containsKey(request.getUserId())) {
+            return "User not found with ID: " + request.getUserId();
+        }
+        return null;
+    }
+}
@@ -1,14 +1,19 @@
 package com.borodkir.teamjob.services.implementations;
 
 import com.borodkir.teamjob.data.*;
+import com.borodkir.teamjob.data.repositories.EventOccurrenceRepository;
 import com.borodkir.teamjob.data.repositories.EventRepository;
 import com.borodkir.teamjob.data.repositories.RoomRepository;
 import com.borodkir.teamjob.data.repositories.UserRepository;
 import com.borodkir.teamjob.services.ICalendarService;
-import org.slf4j.LoggerFactory;
+import com.borodkir.teamjob.services.IOccurrenceService;
+import com.borodkir.teamjob.services.IReferenceDataService;
+import com.borodkir.teamjob.services.ITagCatalogService;
+import com.borodkir.teamjob.services.ITagIndex;
+import com.borodkir.teamjob.services.IWeekModelCache;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.ui.Model;
-import org.slf4j.Logger;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.GrantedAuthority;
@@ -21,7 +26,6 @@ import java.time.format.TextStyle;
 import java.time.temporal.TemporalAdjusters;
 import java.util.*;
 import java.util.stream.Collectors;
-import java.time.format.DateTimeFormatter;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
@@ -36,16 +40,64 @@ import static java.util.Collections.disjoint;
  */
 @Service
 public class CalendarServiceImpl implements ICalendarService {
-    private static final Logger logger = LoggerFactory.getLogger(CalendarServiceImpl.class);
 
     private final EventRepository eventRepository;
     private final UserRepository userRepository;
     private final RoomRepository roomRepository;
+    private final EventOccurrenceRepository eventOccurrenceRepository;
+    private final IOccurrenceService occurrenceService;
+    private final RecurrenceRuleCache recurrenceRuleCache;
+    private final ITagIndex tagIndex;
+    private final ITagCatalogService tagCatalogService;
+    private final IReferenceDataService referenceDataService;
+    private final IWeekModelCache weekModelCache;
 
-    public CalendarServiceImpl(EventRepository eventRepository, UserRepository userRepository, RoomRepository roomRepository) {
+    /**
+     * Whether occurrences are read from the materialized 'event_occurrences' table instead of being expanded from events.
+     */
+    @Value("${testing.app.occurrences.materialized:false}")
+    private boolean readMaterializedOccurrences;
+
+    public CalendarServiceImpl(EventRepository eventRepository, UserRepository userRepository, RoomRepository roomRepository, EventOccurrenceRepository eventOccurrenceRepository, IOccurrenceService occurrenceService, RecurrenceRuleCache recurrenceRuleCache, ITagIndex tagIndex, ITagCatalogService tagCatalogService, IReferenceDataService referenceDataService, IWeekModelCache weekModelCache) {
         this.eventRepository = eventRepository;
         this.userRepository = userRepository;
         this.roomRepository = roomRepository;
+        this.eventOccurrenceRepository = eventOccurrenceRepository;
+        this.occurrenceService = occurrenceService;
+        this.recurrenceRuleCache = recurrenceRuleCache;
+        this.tagIndex = tagIndex;
+        this.tagCatalogService = tagCatalogService;
+        this.referenceDataService = referenceDataService;
+        this.weekModelCache = weekModelCache;
+    }
+
+    /**
+     * Finds all occurrences overlapping the time range. Reads the materialized occurrences by indexed room or user
+     * ranges if enabled and the time range ends before the materialized horizon, otherwise expands the events
+     * overlapping the time range, since recurring events are only stored up to the horizon.
+     *
+     * @param startTime the inclusive start of the time range
+     * @param endTime   the exclusive end of the time range
+     * @param roomIds   ids of the rooms to restrict the result to, null for all rooms
+     * @param userIds   ids of the users to restrict the result to, null for all users
+     * @return the occurrences overlapping the time range, possibly including other rooms or users
+     */
+    private List<Occurrence> findOccurrences(LocalDateTime startTime, LocalDateTime endTime, Set<Long> roomIds, Set<Long> userIds) {
+        if (readMaterializedOccurrences && isMaterialized(endTime)) {
+            if (roomIds != null) {
+                return eventOccurrenceRepository.findOccurrencesInRooms(roomIds, startTime, endTime);
+            }
+            if (userIds != null) {
+                return eventOccurrenceRepository.findOccurrencesOfUsers(userIds, startTime, endTime);
+            }
+            return eventOccurrenceRepository.findOccurrences(startTime, endTime);
+        }
+        return OccurrenceExpander.expandAll(eventRepository.findOverlappingEvents(startTime, endTime), recurrenceRuleCache, startTime, endTime);
+    }
+
+    private boolean isMaterialized(LocalDateTime endTime) {
+        LocalDateTime horizon = occurrenceService.getMaterializedHorizon();
+        return horizon != null && !endTime.isAfter(horizon);
     }
 
     /**
@@ -64,21 +116,21 @@ public class CalendarServiceImpl implements ICalendarService {
         // Create a base request with the provided parameters
         AvailableTimeRequest request = new AvailableTimeRequest(startTime, endTime, type);
 
-        // Get all events that overlap with the specified time range
-        List<Event> allEvents = eventRepository.findOverlappingEvents(startTime, endTime);
+        // Get all occurrences that overlap with the specified time range
+        List<Occurrence> allOccurrences = findOccurrences(startTime, endTime, null, null);
 
         switch (type) {
             case "rooms":
                 // Process room availabilities
                 List<Room> filteredRooms = filterRoomsByTags(roomRepository.findAll(), tags);
-                List<RoomAvailability> roomAvailabilities = calculateRoomAvailabilities(filteredRooms, allEvents, startTime, endTime, durationInMinutes);
+                List<RoomAvailability> roomAvailabilities = calculateRoomAvailabilities(filteredRooms, allOccurrences, startTime, endTime, durationInMinutes);
                 request.setRoomAvailabilities(roomAvailabilities);
                 break;
 
             case "users":
                 // Process user availabilities
                 List<User> filteredUsers = filterUsersByTags(userRepository.findAll(), tags);
-                List<UserAvailability> userAvailabilities = calculateUserAvailabilities(filteredUsers, allEvents, startTime, endTime, durationInMinutes);
+                List<UserAvailability> userAvailabilities = calculateUserAvailabilities(filteredUsers, allOccurrences, startTime, endTime, durationInMinutes);
                 request.setUserAvailabilities(userAvailabilities);
                 break;
 
@@ -102,7 +154,8 @@ public class CalendarServiceImpl implements ICalendarService {
             return rooms;
         }
 
-        return rooms.stream().filter(room -> room.getTags() != null && !disjoint(room.getTags(), tags)).toList();
+        BitSet taggedRooms = tagIndex.findAnyTag(ITagIndex.Kind.ROOM, tags);
+        return rooms.stream().filter(room -> hasAnyTag(room.getId(), room.getTags(), taggedRooms, tags)).toList();
     }
 
     /**
@@ -117,34 +170,45 @@ public class CalendarServiceImpl implements ICalendarService {
             return users;
         }
 
-        return users.stream().filter(user -> user.getTags() != null && !disjoint(user.getTags(), tags)).toList();
+        BitSet taggedUsers = tagIndex.findAnyTag(ITagIndex.Kind.USER, tags);
+        return users.stream().filter(user -> hasAnyTag(user.getId(), user.getTags(), taggedUsers, tags)).toList();
+    }
+
+    /**
+     * Checks if an owner carries at least one of the tags. Uses the owners found by the tag index if available,
+     * otherwise compares the tags of the owner.
+     *
+     * @param ownerId   the id of the room, user or event, null if there is none
+     * @param ownerTags the tags of the owner, only read without the index
+     * @param owners    the owners carrying any of the tags according to the tag index, null if unavailable
+     * @param tags      the tags to match
+     * @return true if the owner carries any of the tags
+     */
+    static boolean hasAnyTag(Long ownerId, Set<String> ownerTags, BitSet owners, Set<String> tags) {
+        if (owners != null && ownerId != null) {
+            return ownerId <= Integer.MAX_VALUE && owners.get(ownerId.intValue());
+        }
+        return ownerTags != null && !disjoint(ownerTags, tags);
     }
 
     /**
      * Calculates room availabilities based on the provided rooms, events, and time constraints.
      *
      * @param rooms             the list of rooms to calculate availabilities for
-     * @param allEvents         all events that might affect room availability
+     * @param allOccurrences    all occurrences that might affect room availability
      * @param startTime         the start time of the time range to analyze
      * @param endTime           the end time of the time range to analyze
      * @param durationInMinutes the minimum duration required for an available time slot
      * @return a list of room availabilities with their unoccupied time slots
      */
-    private List<RoomAvailability> calculateRoomAvailabilities(List<Room> rooms, List<Event> allEvents, LocalDateTime startTime, LocalDateTime endTime, int durationInMinutes) {
-
-        List<RoomAvailability> roomAvailabilities = new ArrayList<>();
+    private List<RoomAvailability> calculateRoomAvailabilities(List<Room> rooms, List<Occurrence> allOccurrences, LocalDateTime startTime, LocalDateTime endTime, int durationInMinutes) {
+        // Group the occurrences by room once instead of filtering all of them for every room
+        Map<Long, IntervalSet> busyTimesByRoom = AvailabilityEngine.groupByResource(allOccurrences, event -> event.getRoom() != null ? event.getRoom().getId() : null);
 
+        IntervalSet window = IntervalSet.within(startTime, endTime);
+        List<RoomAvailability> roomAvailabilities = new ArrayList<>(rooms.size());
         for (Room room : rooms) {
-            // Get events for this room
-            List<Event> eventsForRoom = allEvents.stream().filter(event -> event.getRoom() != null && event.getRoom().getId().equals(room.getId())).toList();
-
-            // Create occupied time slots for this room
-            ArrayList<TimeFromTo> occupiedTimes = createOccupiedTimeSlots(eventsForRoom);
-
-            // Calculate unoccupied time slots for this room
-            ArrayList<TimeFromTo> unoccupiedTimes = calculateUnoccupiedTimesFromOccupied(startTime, endTime, durationInMinutes, occupiedTimes);
-
-            // Add room availability to the list
+            ArrayList<TimeFromTo> unoccupiedTimes = AvailabilityEngine.freeTime(busyTimesByRoom.get(room.getId()), window, durationInMinutes).toTimeFromTo();
             roomAvailabilities.add(new RoomAvailability(room, unoccupiedTimes));
         }
 
@@ -155,111 +219,26 @@ public class CalendarServiceImpl implements ICalendarService {
      * Calculates user availabilities based on the provided users, events, and time constraints.
      *
      * @param users             the list of users to calculate availabilities for
-     * @param allEvents         all events that might affect user availability
+     * @param allOccurrences    all occurrences that might affect user availability
      * @param startTime         the start time of the time range to analyze
      * @param endTime           the end time of the time range to analyze
      * @param durationInMinutes the minimum duration required for an available time slot
      * @return a list of user availabilities with their unoccupied time slots
      */
-    private List<UserAvailability> calculateUserAvailabilities(List<User> users, List<Event> allEvents, LocalDateTime startTime, LocalDateTime endTime, int durationInMinutes) {
-
-        List<UserAvailability> userAvailabilities = new ArrayList<>();
+    private List<UserAvailability> calculateUserAvailabilities(List<User> users, List<Occurrence> allOccurrences, LocalDateTime startTime, LocalDateTime endTime, int durationInMinutes) {
+        // Group the occurrences by user once instead of filtering all of them for every user
+        Map<Long, IntervalSet> busyTimesByUser = AvailabilityEngine.groupByResource(allOccurrences, event -> event.getUser() != null ? event.getUser().getId() : null);
 
+        IntervalSet window = IntervalSet.within(startTime, endTime);
+        List<UserAvailability> userAvailabilities = new ArrayList<>(users.size());
         for (User user : users) {
-            // Get events for this user
-            List<Event> eventsForUser = allEvents.stream().filter(event -> event.getUser() != null && event.getUser().getId().equals(user.getId())).toList();
-
-            // Create occupied time slots for this user
-            ArrayList<TimeFromTo> occupiedTimes = createOccupiedTimeSlots(eventsForUser);
-
-            // Calculate unoccupied time slots for this user
-            ArrayList<TimeFromTo> unoccupiedTimes = calculateUnoccupiedTimesFromOccupied(startTime, endTime, durationInMinutes, occupiedTimes);
-
-            // Add user availability to the list
+            ArrayList<TimeFromTo> unoccupiedTimes = AvailabilityEngine.freeTime(busyTimesByUser.get(user.getId()), window, durationInMinutes).toTimeFromTo();
             userAvailabilities.add(new UserAvailability(user, unoccupiedTimes));
         }
 
         return userAvailabilities;
     }
 
-    /**
-     * Creates a list of occupied time slots from a list of events.
-     *
-     * @param events the list of events to create occupied time slots from
-     * @return a list of occupied time slots
-     */
-    private ArrayList<TimeFromTo> createOccupiedTimeSlots(List<Event> events) {
-        ArrayList<TimeFromTo> occupiedTimes = new ArrayList<>();
-
-        for (Event event : events) {
-            TimeFromTo time = new TimeFromTo(event.getStartTime(), event.getEndTime());
-            occupiedTimes.add(time);
-        }
-
-        return occupiedTimes;
-    }
-
-
-    /**
-     * Calculates the unoccupied time intervals within a given time range, based on a list
-     * of occupied time intervals. The resulting unoccupied intervals are filtered by a
-     * minimum duration and sorted.
-     *
-     * @param startTime         the start time of the range to be checked for unoccupied intervals
-     * @param endTime           the end time of the range to be checked for unoccupied intervals
-     * @param durationInMinutes the minimum duration (in minutes) of an unoccupied interval
-     *                          to be included in the result
-     * @param occupied          a list of occupied time intervals represented by {@link TimeFromTo} objects
-     * @return an ArrayList of unoccupied intervals represented by {@link TimeFromTo} objects,
-     * sorted by start time and filtered by the specified minimum duration
-     */
-    private ArrayList<TimeFromTo> calculateUnoccupiedTimesFromOccupied(LocalDateTime startTime, LocalDateTime endTime, int durationInMinutes, ArrayList<TimeFromTo> occupied) {
-        // Sort the occupied time by start time
-        occupied.sort(Comparator.comparing(TimeFromTo::getStartTime));
-        // Remove overlapping occupied times
-        removeOverlaps(occupied);
-
-
-        ArrayList<TimeFromTo> unoccupiedTimes = new ArrayList<>();
-        LocalDateTime currentStartTimeEvent = startTime;
-        for (TimeFromTo occupiedTime : occupied) {
-            if (currentStartTimeEvent.isBefore(occupiedTime.getStartTime())) {
-                unoccupiedTimes.add(new TimeFromTo(currentStartTimeEvent, occupiedTime.getStartTime()));
-            }
-            currentStartTimeEvent = occupiedTime.getEndTime();
-        }
-        if (currentStartTimeEvent.isBefore(endTime)) {
-            unoccupiedTimes.add(new TimeFromTo(currentStartTimeEvent, endTime));
-        }
-        // Filter unoccupied times by duration
-        unoccupiedTimes = unoccupiedTimes.stream().filter(time -> time.getDurationInMinutes() >= durationInMinutes).collect(Collectors.toCollection(ArrayList::new));
-        // Sort the unoccupied times by start time
-        unoccupiedTimes.sort(Comparator.comparing(TimeFromTo::getStartTime));
-        // Remove overlapping unoccupied times
-        removeOverlaps(unoccupiedTimes);
-
-        return unoccupiedTimes;
-    }
-
-    /**
-     * Removes overlapping time intervals from the provided list of TimeFromTo objects.
-     * If two intervals overlap, they are merged into one interval that extends to the later end time.
-     * The method modifies the input list in place.
-     *
-     * @param timeFromTo the list of TimeFromTo objects representing time intervals to process.
-     *                   The intervals must be sorted in ascending order by their start time
-     *                   before invoking this method for it to work correctly.
-     */
-    private void removeOverlaps(ArrayList<TimeFromTo> timeFromTo) {
-        for (int i = 0; i < timeFromTo.size() - 1; i++) {
-            if (timeFromTo.get(i).getEndTime().isAfter(timeFromTo.get(i + 1).getStartTime())) {
-                timeFromTo.get(i).setEndTime(timeFromTo.get(i + 1).getEndTime());
-                timeFromTo.remove(i + 1);
-                i--;
-            }
-        }
-    }
-
     /**
      * Generates a list of SearchResult objects based on the provided AvailableTimeRequest.
      *
@@ -314,12 +293,14 @@ public class CalendarServiceImpl implements ICalendarService {
         LocalDate targetDate = (date != null) ? date : LocalDate.now();
         LocalDate firstDayOfWeek = targetDate.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
 
-        List<WeekDay> weekDays = new ArrayList<>();
-        List<Event> allEvents = eventRepository.findOverlappingEvents(firstDayOfWeek.atStartOfDay(), firstDayOfWeek.plusDays(7).atStartOfDay());
+        List<List<EventInADay>> eventsPerDay = weekModelCache.getWeek(firstDayOfWeek, userIds, roomIds, roomTags, eventTags, userTags,
+                () -> computeWeek(firstDayOfWeek, userIds, roomIds, roomTags, eventTags, userTags));
 
+        // Built for every request, the cached events do not know which day is today
+        List<WeekDay> weekDays = new ArrayList<>();
         for (int i = 0; i < 7; i++) {
             LocalDate currentDate = firstDayOfWeek.plusDays(i);
-            List<EventInADay> dayEvents = convertToDayEvents(allEvents, currentDate, userIds, roomIds, userTags, roomTags, eventTags);
+            List<EventInADay> dayEvents = eventsPerDay.get(i);
 
             weekDays.add(new WeekDay(currentDate, currentDate.getDayOfWeek().getDisplayName(TextStyle.FULL, Locale.getDefault()), currentDate.equals(LocalDate.now()), dayEvents, dayEvents.size()));
         }
@@ -328,7 +309,7 @@ public class CalendarServiceImpl implements ICalendarService {
         LocalDate nextWeek = firstDayOfWeek.plusWeeks(1);
         List<Integer> hours = IntStream.rangeClosed(0, 23).boxed().collect(Collectors.toList());
 
-        AddRepositories(model, eventRepository, userRepository, roomRepository);
+        addReferenceData(model);
         gatherAllTags(model);
         model.addAttribute("weekDays", weekDays);
         model.addAttribute("currentWeekStart", firstDayOfWeek);
@@ -341,27 +322,42 @@ public class CalendarServiceImpl implements ICalendarService {
     }
 
 
+    /**
+     * Loads the occurrences of the week once and splits them into the filtered events of each day in one pass.
+     */
+    private List<List<EventInADay>> computeWeek(LocalDate firstDayOfWeek, String userIds, String roomIds, String roomTags, String eventTags, String userTags) {
+        List<Occurrence> weekOccurrences = findOccurrences(firstDayOfWeek.atStartOfDay(), firstDayOfWeek.plusDays(7).atStartOfDay(), parseIds(roomIds), parseIds(userIds));
+
+        return new DayRangeBuilder(tagIndex, userIds, roomIds, roomTags, eventTags, userTags).build(weekOccurrences, firstDayOfWeek, 7);
+    }
+
+
     @Override
     public void setupModelForDayCalendar(Model model, LocalDate date, String userIds, String roomIds, String roomTags, String eventTags, String userTags) {
 
-        List<Event> allEvents = eventRepository.findOverlappingEvents(date.atStartOfDay(), date.plusDays(1).atStartOfDay());
-        List<EventInADay> dayEvents = convertToDayEvents(allEvents, date, userIds, roomIds, userTags, roomTags, eventTags);
+        List<Occurrence> dayOccurrences = findOccurrences(date.atStartOfDay(), date.plusDays(1).atStartOfDay(), parseIds(roomIds), parseIds(userIds));
+        List<EventInADay> dayEvents = new DayRangeBuilder(tagIndex, userIds, roomIds, roomTags, eventTags, userTags).build(dayOccurrences, date, 1).getFirst();
         List<RoomDay> roomDays = new ArrayList<>();
-        List<Room> rooms = roomRepository.findAll();
 
-        //Filter rooms that have events on this day
-        List<Room> filteredRooms = rooms.stream().filter(room -> dayEvents.stream().anyMatch(event -> event.getRoom() != null && Objects.equals(event.getRoom().getId(), room.getId()))).toList();
+        //Rooms that have events on this day, taken from the events instead of loading every room
+        Map<Long, RoomSummary> roomsById = new TreeMap<>();
+        for (EventInADay event : dayEvents) {
+            if (event.getRoom() != null && event.getRoom().getId() != null) {
+                roomsById.putIfAbsent(event.getRoom().getId(), event.getRoom());
+            }
+        }
+        Collection<RoomSummary> filteredRooms = roomsById.values();
 
         LocalDate previousDay = date.minusDays(1);
         LocalDate nextDay = date.plusDays(1);
 
-        for (Room room : filteredRooms) {
+        for (RoomSummary room : filteredRooms) {
             List<EventInADay> roomEvents = dayEvents.stream().filter(event -> event.getRoom() != null && Objects.equals(event.getRoom().getId(), room.getId())).collect(Collectors.toList());
             roomDays.add(new RoomDay(room, roomEvents));
         }
         List<Integer> hours = IntStream.rangeClosed(0, 23).boxed().collect(Collectors.toList());
         model.addAttribute("hours", hours);
-        CalendarServiceImpl.AddRepositories(model, eventRepository, userRepository, roomRepository);
+        addReferenceData(model);
         model.addAttribute("roomDays", roomDays);
         model.addAttribute("currentDay", date);
         model.addAttribute("previousDay", previousDay);
@@ -427,157 +423,69 @@ public class CalendarServiceImpl implements ICalendarService {
         model.addAttribute("searchType", searchType);
     }
 
+    /**
+     * Adds the distinct room, user and event tags and their usage counts for the filter dropdowns to the model.
+     */
     public void gatherAllTags(Model model) {
-        Set<String> roomTags = new HashSet<>();
-        roomRepository.findAll().forEach(room -> {
-            if (room.getTags() != null) {
-                roomTags.addAll(room.getTags());
-            }
-        });
-        Set<String> userTags = new HashSet<>();
-        userRepository.findAll().forEach(user -> {
-            if (user.getTags() != null) {
-                userTags.addAll(user.getTags());
-            }
-        });
-        Set<String> eventTags = new HashSet<>();
-        eventRepository.findAll().forEach(event -> {
-            if (event.getTags() != null) {
-                eventTags.addAll(event.getTags());
-            }
-        });
+        TagCatalog catalog = tagCatalogService.getCatalog();
 
-        model.addAttribute("roomTags", roomTags);
-        model.addAttribute("userTags", userTags);
-        model.addAttribute("eventTags", eventTags);
+        model.addAttribute("roomTags", catalog.roomTags().keySet());
+        model.addAttribute("userTags", catalog.userTags().keySet());
+        model.addAttribute("eventTags", catalog.eventTags().keySet());
+        model.addAttribute("roomTagCounts", catalog.roomTags());
+        model.addAttribute("userTagCounts", catalog.userTags());
+        model.addAttribute("eventTagCounts", catalog.eventTags());
     }
 
-    private Set<String> parseCommaDelimitedString(String input) {
+    static Set<String> parseCommaDelimitedString(String input) {
         if (input == null || input.trim().isEmpty()) {
             return null;
         }
         return Stream.of(input.split(",")).map(String::trim).filter(s -> !s.isEmpty()).collect(Collectors.toSet());
     }
 
-    public List<EventInADay> convertToDayEvents(List<Event> allEvents, LocalDate currentDate, String userIds, String roomIds, String userTags, String roomTags, String eventTags) {
-        // --- LOGGING: Show the initial filter criteria ---
-        logger.debug("--- Starting event conversion for date: {} ---", currentDate);
-
-        // Prepare filters (assuming the robust parseCommaDelimitedString method)
-        Set<String> userIdSet = parseCommaDelimitedString(userIds);
-        Set<String> roomIdSet = parseCommaDelimitedString(roomIds);
-        Set<String> userTagSet = parseCommaDelimitedString(userTags);
-        Set<String> roomTagSet = parseCommaDelimitedString(roomTags);
-        Set<String> eventTagSet = parseCommaDelimitedString(eventTags);
-
-        // --- LOGGING: Display the parsed filter sets ---
-        logger.debug("[FILTERS] User IDs: {}", userIdSet);
-        logger.debug("[FILTERS] Room IDs: {}", roomIdSet);
-        logger.debug("[FILTERS] User Tags: {}", userTagSet);
-        logger.debug("[FILTERS] Room Tags: {}", roomTagSet);
-        logger.debug("[FILTERS] Event Tags: {}", eventTagSet);
-        logger.debug("----------------------------------------------------");
-
-        List<EventInADay> result = new ArrayList<>();
-        for (Event event : allEvents) {
-            // --- LOGGING: Announce which event is being processed ---
-            logger.debug("\n[PROCESSING] Event ID: {} ('{}')", event.getId(), event.getTitle());
-
-            // 1. Exclude if exdate contains the current date
-            if (isExcludedByExdate(event, currentDate)) {
-                logger.debug("[FILTER] Skipping Event ID {}: Excluded by EXDATE on {}", event.getId(), currentDate);
-                continue;
-            }
-
-            // 2. Check if the event occurs on this date
-            boolean occursToday = false;
-            if (isEventOnDate(event, currentDate)) {
-                occursToday = true;
-            } else if (event.isRecurring() && event.getRrule() != null) {
-                occursToday = isRecurringEventOnDate(event, currentDate);
-            }
-            if (!occursToday) {
-                logger.debug("[FILTER] Skipping Event ID {}: Event does not occur on {}", event.getId(), currentDate);
-                continue;
-            }
-
-            // 3. Apply user filter
-            if (userIdSet != null && (event.getUser() == null || !userIdSet.contains(String.valueOf(event.getUser().getId())))) {
-                String eventUserId = (event.getUser() != null) ? String.valueOf(event.getUser().getId()) : "null";
-                logger.debug("[FILTER] Skipping Event ID {} due to User ID mismatch. Filter: {}, Event's User ID: {}", event.getId(), userIdSet, eventUserId);
-                continue;
-            }
-
-            // 4. Apply room filter
-            if (roomIdSet != null && (event.getRoom() == null || !roomIdSet.contains(String.valueOf(event.getRoom().getId())))) {
-                String eventRoomId = (event.getRoom() != null) ? String.valueOf(event.getRoom().getId()) : "null";
-                logger.debug("[FILTER] Skipping Event ID {} due to Room ID mismatch. Filter: {}, Event's Room ID: {}", event.getId(), roomIdSet, eventRoomId);
-                continue;
-            }
-
-            // 5. Apply room tags filter
-            if (roomTagSet != null && !roomTagSet.isEmpty()) {
-                Set<String> actualRoomTags = (event.getRoom() != null) ? event.getRoom().getTags() : null;
-                if (actualRoomTags == null || Collections.disjoint(actualRoomTags, roomTagSet)) {
-                    logger.debug("[FILTER] Skipping Event ID {} due to Room Tag mismatch. Filter: {}, Event's Room Tags: {}", event.getId(), roomTagSet, actualRoomTags);
-                    continue;
-                }
-            }
-
-            // 6. Apply event tags filter
-            if (eventTagSet != null && !eventTagSet.isEmpty()) {
-                Set<String> actualEventTags = event.getTags();
-                if (actualEventTags == null || Collections.disjoint(actualEventTags, eventTagSet)) {
-                    logger.debug("[FILTER] Skipping Event ID {} due to Event Tag mismatch. Filter: {}, Event's Tags: {}", event.getId(), eventTagSet, actualEventTags);
-                    continue;
-                }
-            }
-
-            // 7. Apply user tags filter
-            if (userTagSet != null && !userTagSet.isEmpty()) {
-                Set<String> actualUserTags = (event.getUser() != null) ? event.getUser().getTags() : null;
-                if (actualUserTags == null || Collections.disjoint(actualUserTags, userTagSet)) {
-                    logger.debug("[FILTER] Skipping Event ID {} due to User Tag mismatch. Filter: {}, Event's User Tags: {}", event.getId(), userTagSet, actualUserTags);
-                    continue;
-                }
-            }
-
-            // --- LOGGING: Announce that the event has passed all filters ---
-            logger.debug("[SUCCESS] Event ID {} passed all filters. Adding to results.", event.getId());
-
-            // 8. Calculate start/end times for this day
-            LocalDateTime eventStart = event.getStartTime();
-            LocalDateTime eventEnd = event.getEndTime();
-
-            if (event.isRecurring() && event.getRrule() != null) {
-                long daysBetween = java.time.temporal.ChronoUnit.DAYS.between(event.getStartTime().toLocalDate(), currentDate);
-                eventStart = event.getStartTime().plusDays(daysBetween);
-                eventEnd = event.getEndTime().plusDays(daysBetween);
-            }
+    /**
+     * Parses a comma delimited list of ids.
+     *
+     * @return the ids, or null if the input is empty or contains anything but numbers
+     */
+    private Set<Long> parseIds(String input) {
+        Set<String> values = parseCommaDelimitedString(input);
+        if (values == null) {
+            return null;
+        }
+        try {
+            return values.stream().map(Long::valueOf).collect(Collectors.toSet());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
 
-            double startTimeToUse = eventStart.toLocalDate().isBefore(currentDate) ? 0.0 : eventStart.getHour() + (eventStart.getMinute() / 60.0);
-            double endTimeToUse = eventEnd.toLocalDate().isAfter(currentDate) ? 24.0 : eventEnd.getHour() + (eventEnd.getMinute() / 60.0);
-            double durationInADay = endTimeToUse - startTimeToUse;
+    public List<EventInADay> convertToDayEvents(List<Event> allEvents, LocalDate currentDate, String userIds, String roomIds, String userTags, String roomTags, String eventTags) {
+        return convertToDays(allEvents, currentDate, 1, userIds, roomIds, roomTags, eventTags, userTags).getFirst();
+    }
 
-            // 9. Add to result
-            result.add(new EventInADay(event.getId(), event.getTitle(), event.getDescription(), event.getRoom(), event.getUser(), event.isRecurring(), event.getRecurrenceEndDate(), durationInADay, startTimeToUse, endTimeToUse, eventStart, eventEnd));
-        }
-        logger.debug("\n--- Event conversion finished. Total events in result: {} ---", result.size());
-        return result;
+    /**
+     * Expands the events once for the whole range and splits the occurrences into the filtered events of each day.
+     *
+     * @return the events of each day from firstDay on, one list per day
+     */
+    @Override
+    public List<List<EventInADay>> convertToDays(List<Event> allEvents, LocalDate firstDay, int days, String userIds, String roomIds, String roomTags, String eventTags, String userTags) {
+        List<Occurrence> occurrences = OccurrenceExpander.expandAll(allEvents, recurrenceRuleCache, firstDay.atStartOfDay(), firstDay.plusDays(days).atStartOfDay());
+        return new DayRangeBuilder(tagIndex, userIds, roomIds, roomTags, eventTags, userTags).build(occurrences, firstDay, days);
     }
 
     public List<EventInADay> convertToDayEvents(List<Event> allEvents, LocalDate currentDate, String userIds, String roomIds) {
         return convertToDayEvents(allEvents, currentDate, userIds, roomIds, null, null, null);
     }
 
-    public static void AddRepositories(Model model, EventRepository eventRepository, UserRepository userRepository, RoomRepository roomRepository) {
-        List<Event> eventList = eventRepository.findAll();
-        List<User> userList = userRepository.findAll();
-        List<Room> roomList = roomRepository.findAll();
-
-        model.addAttribute("events", eventList);
-        model.addAttribute("rooms", roomList);
-        model.addAttribute("users", userList);
+    /**
+     * Adds the rooms and users for the pickers of the calendar views and the role information of the current user.
+     */
+    public void addReferenceData(Model model) {
+        model.addAttribute("rooms", referenceDataService.getRooms());
+        model.addAttribute("users", referenceDataService.getUsers());
 
         // Add user role information for frontend conditional rendering
         addUserRoleInfo(model);
@@ -601,143 +509,4 @@ public class CalendarServiceImpl implements ICalendarService {
 
         model.addAttribute("canManageEvents", canManageEvents);
     }
-
-    // Helper for exdate exclusion
-    private boolean isExcludedByExdate(Event event, LocalDate date) {
-        if (event.getExdate() == null || event.getExdate().isEmpty()) return false;
-        Set<LocalDate> exdates = Arrays.stream(event.getExdate().split(",")).map(d -> LocalDate.parse(d, DateTimeFormatter.ofPattern("yyyyMMdd"))).collect(Collectors.toSet());
-        return exdates.contains(date);
-    }
-
-    private boolean isEventOnDate(Event event, LocalDate date) {
-        LocalDate eventStartDate = event.getStartTime().toLocalDate();
-        LocalDate eventEndDate = event.getEndTime().toLocalDate();
-
-        return !eventStartDate.isAfter(date) && !eventEndDate.isBefore(date);
-    }
-
-    private boolean isRecurringEventOnDate(Event event, LocalDate date) {
-        // Basic validation
-        if (!isValidRecurringEvent(event)) {
-            return false;
-        }
-
-        // Check end date and exclusions
-        if (isAfterEndDate(event, date) || isExcludedDate(event, date)) {
-            return false;
-        }
-
-        // Parse recurrence rule
-        RecurrenceRule rule = parseRecurrenceRule(event.getRrule());
-
-        // Check if date matches the recurrence pattern
-        return switch (rule.frequency()) {
-            case "DAILY" -> isDailyRecurrence(event, date, rule.interval());
-            case "WEEKLY" -> isWeeklyRecurrence(event, date, rule);
-            case "MONTHLY" -> isMonthlyRecurrence(event, date, rule.interval());
-            case "YEARLY" -> isYearlyRecurrence(event, date, rule.interval());
-            default -> false;
-        };
-    }
-
-    private record RecurrenceRule(String frequency, int interval, String[] byDay, LocalDateTime until) {
-    }
-
-    private boolean isValidRecurringEvent(Event event) {
-        return event.isRecurring() && event.getRrule() != null;
-    }
-
-    private boolean isAfterEndDate(Event event, LocalDate date) {
-        // First check recurrenceEndDate
-        if (event.getRecurrenceEndDate() != null && date.isAfter(event.getRecurrenceEndDate().toLocalDate())) {
-            return true;
-        }
-
-        // Then check UNTIL in RRULE if it exists
-        if (event.getRrule() != null) {
-            RecurrenceRule rule = parseRecurrenceRule(event.getRrule());
-            return rule.until() != null && date.isAfter(rule.until().toLocalDate());
-        }
-
-        return false;
-    }
-
-    private boolean isExcludedDate(Event event, LocalDate date) {
-        if (event.getExdate() == null || event.getExdate().isEmpty()) {
-            return false;
-        }
-        Set<LocalDate> exdates = Arrays.stream(event.getExdate().split(",")).map(d -> LocalDate.parse(d, DateTimeFormatter.ofPattern("yyyyMMdd"))).collect(Collectors.toSet());
-        return exdates.contains(date);
-    }
-
-    private RecurrenceRule parseRecurrenceRule(String rrule) {
-        String[] parts = rrule.split(";");
-        String frequency = "";
-        int interval = 1;
-        String[] byDay = null;
-        LocalDateTime until = null;
-
-        for (String part : parts) {
-            if (part.startsWith("FREQ=")) {
-                frequency = part.substring(5);
-            } else if (part.startsWith("INTERVAL=")) {
-                interval = Integer.parseInt(part.substring(9));
-            } else if (part.startsWith("BYDAY=")) {
-                byDay = part.substring(6).split(",");
-            } else if (part.startsWith("UNTIL=")) {
-                String untilStr = part.substring(6);
-                // Parse the UNTIL date in format yyyyMMddTHHmmssZ
-                until = LocalDateTime.parse(untilStr.substring(0, 8) + "T" + untilStr.substring(9, 15), DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss"));
-            }
-        }
-
-        return new RecurrenceRule(frequency, interval, byDay, until);
-    }
-
-    private boolean isDailyRecurrence(Event event, LocalDate date, int interval) {
-        long daysBetween = java.time.temporal.ChronoUnit.DAYS.between(event.getStartTime().toLocalDate(), date);
-        return daysBetween % interval == 0;
-    }
-
-    private boolean isWeeklyRecurrence(Event event, LocalDate date, RecurrenceRule rule) {
-        long daysBetween = java.time.temporal.ChronoUnit.DAYS.between(event.getStartTime().toLocalDate(), date);
-
-        // If specific days are specified, check if current day matches
-        if (rule.byDay() != null) {
-            String targetDay = getDayOfWeekCode(date.getDayOfWeek());
-            return Arrays.asList(rule.byDay()).contains(targetDay) && (daysBetween / 7) % rule.interval() == 0;
-        }
-
-        // Otherwise, check if it's the right week
-        return daysBetween % (7L * rule.interval()) == 0;
-    }
-
-    private boolean isMonthlyRecurrence(Event event, LocalDate date, int interval) {
-        // Check if day of month matches
-        if (event.getStartTime().getDayOfMonth() != date.getDayOfMonth()) {
-            return false;
-        }
-
-        // Calculate total months between dates
-        int monthDiff = (date.getYear() - event.getStartTime().getYear()) * 12 + (date.getMonthValue() - event.getStartTime().getMonthValue());
-
-        return monthDiff % interval == 0;
-    }
-
-    private boolean isYearlyRecurrence(Event event, LocalDate date, int interval) {
-        return event.getStartTime().getDayOfMonth() == date.getDayOfMonth() && event.getStartTime().getMonth() == date.getMonth() && (date.getYear() - event.getStartTime().getYear()) % interval == 0;
-    }
-
-    private String getDayOfWeekCode(java.time.DayOfWeek dayOfWeek) {
-        return switch (dayOfWeek) {
-            case MONDAY -> "MO";
-            case TUESDAY -> "TU";
-            case WEDNESDAY -> "WE";
-            case THURSDAY -> "TH";
-            case FRIDAY -> "FR";
-            case SATURDAY -> "SA";
-            case SUNDAY -> "SU";
-        };
-    }
 }
-
@@ -0,0 +1,152 @@
+package com.borodkir.teamjob.services.implementations;
+
+import com.borodkir.teamjob.data.EventWindowVersion;
+import com.borodkir.teamjob.data.repositories.EventRepository;
+import com.borodkir.teamjob.services.ICalendarVersionService;
+import com.borodkir.teamjob.services.IReferenceDataService;
+import com.borodkir.teamjob.services.ITagCatalogService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.HexFormat;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Computes the ETags of the week and day views, so a reload of an unchanged calendar is answered with 304
+ * before any event is loaded.
+ * <p>
+ * An ETag covers everything the page is rendered from:
+ * <ul>
+ *   <li>the latest lastModifiedDate and the number of the events overlapping the shown days, restricted to the
+ *   filtered rooms or users like the events loaded for the page, see {@link EventWindowVersion}</li>
+ *   <li>the number of deleted events, increased by {@link com.borodkir.teamjob.data.CalendarVersionListener}</li>
+ *   <li>the versions of the room and user pickers and the tag catalog</li>
+ *   <li>the request parameters, the current day and the role and CSRF token of the current user</li>
+ * </ul>
+ * The counters live in memory, a random instance id keeps ETags of an earlier run from matching after a restart.
+ */
+@Service
+public class CalendarVersionServiceImpl implements ICalendarVersionService {
+
+    private final EventRepository eventRepository;
+    private final IReferenceDataService referenceDataService;
+    private final ITagCatalogService tagCatalogService;
+
+    private final long instanceId = ThreadLocalRandom.current().nextLong();
+    private final AtomicLong deletedEvents = new AtomicLong();
+
+    @Value("${testing.app.calendar-etag.enabled:true}")
+    private boolean enabled = true;
+
+    public CalendarVersionServiceImpl(EventRepository eventRepository, IReferenceDataService referenceDataService, ITagCatalogService tagCatalogService) {
+        this.eventRepository = eventRepository;
+        this.referenceDataService = referenceDataService;
+        this.tagCatalogService = tagCatalogService;
+    }
+
+    /**
+     * @param date the requested day, null for today, the week view shows the whole week containing it
+     * @return the weak ETag of the week view, or null if ETags are disabled
+     */
+    @Override
+    public String getWeekETag(LocalDate date, String userIds, String roomIds, String roomTags, String eventTags, String userTags, String csrfToken) {
+        LocalDate today = LocalDate.now();
+        LocalDate targetDate = date != null ? date : today;
+        LocalDate firstDayOfWeek = targetDate.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        // The week view highlights today
+        return eTag("week|" + targetDate + "|" + today, firstDayOfWeek, 7, userIds, roomIds, roomTags, eventTags, userTags, csrfToken);
+    }
+
+    /**
+     * @return the weak ETag of the day view, or null if ETags are disabled
+     */
+    @Override
+    public String getDayETag(LocalDate date, String userIds, String roomIds, String roomTags, String eventTags, String userTags, String csrfToken) {
+        return eTag("day|" + date, date, 1, userIds, roomIds, roomTags, eventTags, userTags, csrfToken);
+    }
+
+    /**
+     * Called after an event is deleted, which neither raises the latest modification nor is visible to a query.
+     */
+    @Override
+    public void eventDeleted() {
+        deletedEvents.incrementAndGet();
+    }
+
+    private String eTag(String view, LocalDate firstDay, int days, String userIds, String roomIds, String roomTags, String eventTags, String userTags, String csrfToken) {
+        if (!enabled) {
+            return null;
+        }
+        // Read the counters before the events, a change made meanwhile only causes an unneeded re-render next time
+        long deleted = deletedEvents.get();
+        long referenceData = referenceDataService.getVersion();
+        long tags = tagCatalogService.getVersion();
+        EventWindowVersion events = findWindowVersion(firstDay.atStartOfDay(), firstDay.plusDays(days).atStartOfDay(), roomIds, userIds);
+
+        String state = String.join("|", view, String.valueOf(instanceId),
+                String.valueOf(events.lastModified()), String.valueOf(events.count()),
+                String.valueOf(deleted), String.valueOf(referenceData), String.valueOf(tags),
+                String.valueOf(userIds), String.valueOf(roomIds), String.valueOf(roomTags), String.valueOf(eventTags), String.valueOf(userTags),
+                String.valueOf(canManageEvents()), String.valueOf(csrfToken));
+        return "W/\"" + hash(state) + "\"";
+    }
+
+    /**
+     * Uses the same room or user restriction as {@link CalendarServiceImpl} when loading the events of the page.
+     */
+    private EventWindowVersion findWindowVersion(LocalDateTime startTime, LocalDateTime endTime, String roomIds, String userIds) {
+        Set<Long> rooms = parseIds(roomIds);
+        if (rooms != null) {
+            return eventRepository.findWindowVersionInRooms(rooms, startTime, endTime);
+        }
+        Set<Long> users = parseIds(userIds);
+        if (users != null) {
+            return eventRepository.findWindowVersionOfUsers(users, startTime, endTime);
+        }
+        return eventRepository.findWindowVersion(startTime, endTime);
+    }
+
+    private static Set<Long> parseIds(String input) {
+        if (input == null || input.isBlank()) {
+            return null;
+        }
+        try {
+            Set<Long> ids = Stream.of(input.split(",")).map(String::trim).filter(s -> !s.isEmpty()).map(Long::valueOf).collect(Collectors.toSet());
+            return ids.isEmpty() ? null : ids;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static boolean canManageEvents() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.isAuthenticated() &&
+                authentication.getAuthorities().stream()
+                        .map(GrantedAuthority::getAuthority)
+                        .anyMatch(Set.of("ROLE_CONFIG", "ROLE_ADMIN")::contains);
+    }
+
+    private static String hash(String state) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(state.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform supports SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.borodkir.teamjob.services.implementations;
+
+import com.borodkir.teamjob.RequestTrace;
+import com.borodkir.teamjob.data.Event;
+import com.borodkir.teamjob.data.EventInADay;
+import com.borodkir.teamjob.data.Occurrence;
+import com.borodkir.teamjob.data.Room;
+import com.borodkir.teamjob.data.RoomSummary;
+import com.borodkir.teamjob.data.User;
+import com.borodkir.teamjob.data.UserSummary;
+import com.borodkir.teamjob.services.ITagIndex;
+import org.slf4j.Logger;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Splits occurrences into the filtered events of each day of a range of days, e.g. the seven days of the week view.
+ * <ul>
+ *   <li>The filters are parsed, and the tag filters resolved with the tag index, once per builder.</li>
+ *   <li>Every occurrence is filtered once and then added to the days it touches, so the work grows with the number
+ *   of occurrences and not with occurrences &times; days.</li>
+ *   <li>Within a day the events keep the order of the occurrences.</li>
+ * </ul>
+ */
+final class DayRangeBuilder {
+    private static final Logger traceLogger = RequestTrace.logger(DayRangeBuilder.class);
+
+    private final Set<String> userIdSet;
+    private final Set<String> roomIdSet;
+    private final Set<String> userTagSet;
+    private final Set<String> roomTagSet;
+    private final Set<String> eventTagSet;
+    private final BitSet taggedUsers;
+    private final BitSet taggedRooms;
+    private final BitSet taggedEvents;
+
+    DayRangeBuilder(ITagIndex tagIndex, String userIds, String roomIds, String roomTags, String eventTags, String userTags) {
+        this.userIdSet = CalendarServiceImpl.parseCommaDelimitedString(userIds);
+        this.roomIdSet = CalendarServiceImpl.parseCommaDelimitedString(roomIds);
+        this.userTagSet = parseTags(userTags);
+        this.roomTagSet = parseTags(roomTags);
+        this.eventTagSet = parseTags(eventTags);
+        // Resolve the tag filters to owner ids once, before any event is looked at
+        this.taggedUsers = userTagSet != null ? tagIndex.findAnyTag(ITagIndex.Kind.USER, userTagSet) : null;
+        this.taggedRooms = roomTagSet != null ? tagIndex.findAnyTag(ITagIndex.Kind.ROOM, roomTagSet) : null;
+        this.taggedEvents = eventTagSet != null ? tagIndex.findAnyTag(ITagIndex.Kind.EVENT, eventTagSet) : null;
+    }
+
+    /**
+     * @return the tags, or null if there are none and the tag filter does not apply
+     */
+    private static Set<String> parseTags(String tags) {
+        Set<String> parsed = CalendarServiceImpl.parseCommaDelimitedString(tags);
+        return parsed != null && !parsed.isEmpty() ? parsed : null;
+    }
+
+    /**
+     * @param occurrences the occurrences overlapping the range, in the order the events of a day are listed in
+     * @param firstDay    the first day of the range
+     * @param dayCount    the number of days
+     * @return the events of each day, one list per day
+     */
+    List<List<EventInADay>> build(List<Occurrence> occurrences, LocalDate firstDay, int dayCount) {
+        // Per-event lines only for traced requests, they would dominate the time of a week view otherwise
+        boolean trace = RequestTrace.isActive();
+        if (trace) {
+            traceLogger.info("--- Starting event conversion for {} days from {} ---", dayCount, firstDay);
+            traceLogger.info("[FILTERS] User IDs: {}, Room IDs: {}, User Tags: {}, Room Tags: {}, Event Tags: {}",
+                    userIdSet, roomIdSet, userTagSet, roomTagSet, eventTagSet);
+        }
+
+        List<List<EventInADay>> days = new ArrayList<>(dayCount);
+        for (int i = 0; i < dayCount; i++) {
+            days.add(new ArrayList<>());
+        }
+        LocalDate lastDay = firstDay.plusDays(dayCount - 1L);
+
+        for (Occurrence occurrence : occurrences) {
+            Event event = occurrence.event();
+            if (trace) {
+                traceLogger.info("[PROCESSING] Event ID: {} ('{}') at {}", event.getId(), event.getTitle(), occurrence.start());
+            }
+            if (!matches(event, trace)) {
+                continue;
+            }
+
+            // Only the days between the start and the end day can overlap the occurrence
+            LocalDate from = occurrence.start().toLocalDate();
+            LocalDate to = occurrence.end().toLocalDate();
+            if (from.isBefore(firstDay)) {
+                from = firstDay;
+            }
+            if (to.isAfter(lastDay)) {
+                to = lastDay;
+            }
+            RoomSummary room = event.getRoom() != null ? new RoomSummary(event.getRoom().getId(), event.getRoom().getName()) : null;
+            UserSummary user = event.getUser() != null ? new UserSummary(event.getUser().getId(), event.getUser().getUsername()) : null;
+            boolean added = false;
+            for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+                if (!OccurrenceExpander.overlaps(occurrence.start(), occurrence.end(), date.atStartOfDay(), date.plusDays(1).atStartOfDay())) {
+                    continue;
+                }
+                days.get((int) ChronoUnit.DAYS.between(firstDay, date)).add(toDayEvent(event, occurrence, date, room, user));
+                added = true;
+            }
+            if (trace) {
+                if (added) {
+                    traceLogger.info("[SUCCESS] Event ID {} passed all filters. Adding to results.", event.getId());
+                } else {
+                    traceLogger.info("[FILTER] Skipping Event ID {}: Event does not occur between {} and {}", event.getId(), firstDay, lastDay);
+                }
+            }
+        }
+        if (trace) {
+            traceLogger.info("--- Event conversion finished. Total events in result: {} ---", days.stream().mapToInt(List::size).sum());
+        }
+        return days;
+    }
+
+    private boolean matches(Event event, boolean trace) {
+        if (userIdSet != null && (event.getUser() == null || !userIdSet.contains(String.valueOf(event.getUser().getId())))) {
+            if (trace) {
+                traceLogger.info("[FILTER] Skipping Event ID {} due to User ID mismatch. Filter: {}, Event's User ID: {}", event.getId(), userIdSet,
+                        event.getUser() != null ? event.getUser().getId() : null);
+            }
+            return false;
+        }
+        if (roomIdSet != null && (event.getRoom() == null || !roomIdSet.contains(String.valueOf(event.getRoom().getId())))) {
+            if (trace) {
+                traceLogger.info("[FILTER] Skipping Event ID {} due to Room ID mismatch. Filter: {}, Event's Room ID: {}", event.getId(), roomIdSet,
+                        event.getRoom() != null ? event.getRoom().getId() : null);
+            }
+            return false;
+        }
+        if (roomTagSet != null) {
+            Room room = event.getRoom();
+            if (!CalendarServiceImpl.hasAnyTag(room != null ? room.getId() : null, room != null ? room.getTags() : null, taggedRooms, roomTagSet)) {
+                if (trace) {
+                    traceLogger.info("[FILTER] Skipping Event ID {} due to Room Tag mismatch. Filter: {}", event.getId(), roomTagSet);
+                }
+                return false;
+            }
+        }
+        if (eventTagSet != null && !CalendarServiceImpl.hasAnyTag(event.getId(), event.getTags(), taggedEvents, eventTagSet)) {
+            if (trace) {
+                traceLogger.info("[FILTER] Skipping Event ID {} due to Event Tag mismatch. Filter: {}", event.getId(), eventTagSet);
+            }
+            return false;
+        }
+        if (userTagSet != null) {
+            User user = event.getUser();
+            if (!CalendarServiceImpl.hasAnyTag(user != null ? user.getId() : null, user != null ? user.getTags() : null, taggedUsers, userTagSet)) {
+                if (trace) {
+                    traceLogger.info("[FILTER] Skipping Event ID {} due to User Tag mismatch. Filter: {}", event.getId(), userTagSet);
+                }
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The part of the occurrence on the given day, in hours from midnight.
+     */
+    private static EventInADay toDayEvent(Event event, Occurrence occurrence, LocalDate date, RoomSummary room, UserSummary user) {
+        LocalDateTime eventStart = occurrence.start();
+        LocalDateTime eventEnd = occurrence.end();
+
+        double startTimeToUse = eventStart.toLocalDate().isBefore(date) ? 0.0 : eventStart.getHour() + (eventStart.getMinute() / 60.0);
+        double endTimeToUse = eventEnd.toLocalDate().isAfter(date) ? 24.0 : eventEnd.getHour() + (eventEnd.getMinute() / 60.0);
+        double durationInADay = endTimeToUse - startTimeToUse;
+
+        return new EventInADay(event.getId(), event.getTitle(), event.getDescription(), room, user, event.isRecurring(), event.getRecurrenceEndDate(), durationInADay, startTimeToUse, endTimeToUse, eventStart, eventEnd);
+    }
+}
@@ -0,0 +1,170 @@
+package com.borodkir.teamjob.services.implementations;
+
+import com.borodkir.teamjob.data.EventExportRow;
+import com.borodkir.teamjob.data.TagAssignment;
+import com.borodkir.teamjob.data.repositories.EventRepository;
+import com.borodkir.teamjob.services.IEventExportService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Writes the events overlapping a time range as NDJSON or CSV, one event per line.
+ * <p>
+ * Events and their tags are read with two database cursors ordered by event id and merged while writing,
+ * so only the current event is held in memory, however many are exported. Rows are projections and never
+ * enter the persistence context. The output is flushed every {@link #FLUSH_EVERY} events.
+ */
+@Service
+public class EventExportServiceImpl implements IEventExportService {
+
+    static final int FLUSH_EVERY = 1000;
+
+    private static final String[] CSV_HEADER = {"id", "title", "description", "startTime", "endTime", "recurring",
+            "rrule", "exdate", "rdate", "roomId", "roomName", "userId", "username", "tags"};
+
+    @FunctionalInterface
+    private interface RowWriter {
+        void write(EventExportRow row, List<String> tags) throws IOException;
+    }
+
+    private final EventRepository eventRepository;
+    private final ObjectMapper objectMapper;
+
+    public EventExportServiceImpl(EventRepository eventRepository, ObjectMapper objectMapper) {
+        this.eventRepository = eventRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * @return the number of exported events
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public long writeNdjson(LocalDateTime from, LocalDateTime to, OutputStream out) throws IOException {
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+            json.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+            // Lines are separated by the newline written after every event, not by the default space
+            json.setRootValueSeparator(null);
+            return export(from, to, json, (row, tags) -> {
+                json.writeStartObject();
+                json.writeNumberField("id", row.id());
+                json.writeStringField("title", row.title());
+                json.writeStringField("description", row.description());
+                json.writeStringField("startTime", format(row.startTime()));
+                json.writeStringField("endTime", format(row.endTime()));
+                json.writeBooleanField("recurring", row.recurring());
+                json.writeStringField("rrule", row.rrule());
+                json.writeStringField("exdate", row.exdate());
+                json.writeStringField("rdate", row.rdate());
+                writeNumberOrNull(json, "roomId", row.roomId());
+                json.writeStringField("roomName", row.roomName());
+                writeNumberOrNull(json, "userId", row.userId());
+                json.writeStringField("username", row.username());
+                json.writeArrayFieldStart("tags");
+                for (String tag : tags) {
+                    json.writeString(tag);
+                }
+                json.writeEndArray();
+                json.writeEndObject();
+                json.writeRaw('\n');
+            });
+        }
+    }
+
+    /**
+     * Writes a header line and one line per event, tags are separated by ';'.
+     *
+     * @return the number of exported events
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public long writeCsv(LocalDateTime from, LocalDateTime to, OutputStream out) throws IOException {
+        Writer csv = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writeCsvLine(csv, CSV_HEADER);
+        long count = export(from, to, csv, (row, tags) -> writeCsvLine(csv, new String[]{
+                String.valueOf(row.id()), row.title(), row.description(), format(row.startTime()), format(row.endTime()),
+                String.valueOf(row.recurring()), row.rrule(), row.exdate(), row.rdate(),
+                row.roomId() != null ? String.valueOf(row.roomId()) : null, row.roomName(),
+                row.userId() != null ? String.valueOf(row.userId()) : null, row.username(),
+                String.join(";", tags)}));
+        csv.flush();
+        return count;
+    }
+
+    private long export(LocalDateTime from, LocalDateTime to, Flushable flush, RowWriter writer) throws IOException {
+        long count = 0;
+        try (Stream<EventExportRow> rows = eventRepository.streamExportRows(from, to);
+             Stream<TagAssignment> tagStream = eventRepository.streamTagAssignments(from, to)) {
+            Iterator<EventExportRow> rowIterator = rows.iterator();
+            Iterator<TagAssignment> tagIterator = tagStream.iterator();
+            TagAssignment nextTag = tagIterator.hasNext() ? tagIterator.next() : null;
+            while (rowIterator.hasNext()) {
+                EventExportRow row = rowIterator.next();
+                List<String> tags = new ArrayList<>();
+                // Both cursors are ordered by event id, skip tags of events that were not exported
+                while (nextTag != null && nextTag.ownerId() <= row.id()) {
+                    if (nextTag.ownerId().equals(row.id())) {
+                        tags.add(nextTag.tag());
+                    }
+                    nextTag = tagIterator.hasNext() ? tagIterator.next() : null;
+                }
+                writer.write(row, tags);
+                if (++count % FLUSH_EVERY == 0) {
+                    flush.flush();
+                }
+            }
+        }
+        flush.flush();
+        return count;
+    }
+
+    private static void writeNumberOrNull(JsonGenerator json, String field, Long value) throws IOException {
+        if (value != null) {
+            json.writeNumberField(field, value);
+        } else {
+            json.writeNullField(field);
+        }
+    }
+
+    private static String format(LocalDateTime time) {
+        return time != null ? time.toString() : null;
+    }
+
+    private static void writeCsvLine(Writer csv, String[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                csv.write(',');
+            }
+            csv.write(escapeCsv(values[i]));
+        }
+        csv.write("\r\n");
+    }
+
+    /**
+     * Quotes a value containing a separator, quote or line break as described in RFC 4180.
+     */
+    static String escapeCsv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
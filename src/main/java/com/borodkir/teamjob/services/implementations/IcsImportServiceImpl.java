@@ -0,0 +1,232 @@
+package com.borodkir.teamjob.services.implementations;
+
+import com.borodkir.teamjob.data.Event;
+import com.borodkir.teamjob.data.IcsImportReport;
+import com.borodkir.teamjob.data.RecurrenceRule;
+import com.borodkir.teamjob.data.Room;
+import com.borodkir.teamjob.data.User;
+import com.borodkir.teamjob.data.repositories.RoomRepository;
+import com.borodkir.teamjob.data.repositories.UserRepository;
+import com.borodkir.teamjob.services.IBookingService;
+import com.borodkir.teamjob.services.IIcsImportService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Imports the VEVENTs of an iCalendar file, e.g. an exported room calendar, for '/api/v1/events/import'.
+ * <ul>
+ *   <li>The file is parsed incrementally by {@link IcsReader}, only the current batch of events is held in memory.</li>
+ *   <li>A recurring event ends where its RRULE ends: COUNT, which the calendar does not evaluate, is replaced by the
+ *   UNTIL of its last instance, and recurrenceEndDate is set from UNTIL, so the series span stays bounded.</li>
+ *   <li>LOCATION is matched against the room names, ORGANIZER against the emails and then the usernames of the users.
+ *   Events without an ORGANIZER belong to the uploader. Every distinct location and organizer is looked up once.</li>
+ *   <li>Every {@code testing.app.ics-import.batch-size} events are booked by {@link IBookingService#bookAll}, which checks
+ *   them for conflicts and inserts them in JDBC batches. The file is only read further once a batch is committed,
+ *   so a slow database slows down the upload instead of filling the memory.</li>
+ * </ul>
+ */
+@Service
+public class IcsImportServiceImpl implements IIcsImportService {
+    private static final Logger logger = LoggerFactory.getLogger(IcsImportServiceImpl.class);
+
+    private static final DateTimeFormatter UNTIL_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+
+    private final RoomRepository roomRepository;
+    private final UserRepository userRepository;
+    private final IBookingService bookingService;
+
+    @Value("${testing.app.ics-import.batch-size:500}")
+    private int batchSize = 500;
+
+    public IcsImportServiceImpl(RoomRepository roomRepository, UserRepository userRepository, IBookingService bookingService) {
+        this.roomRepository = roomRepository;
+        this.userRepository = userRepository;
+        this.bookingService = bookingService;
+    }
+
+    /**
+     * @param ics      the iCalendar file, read as UTF-8
+     * @param uploader the username of the user importing the file
+     * @return the counts of read, created and rejected events
+     */
+    @Override
+    public IcsImportReport importIcs(InputStream ics, String uploader) throws IOException {
+        long started = System.nanoTime();
+        IcsImportReport report = new IcsImportReport();
+        Map<String, Optional<Room>> rooms = new HashMap<>();
+        Map<String, Optional<User>> organizers = new HashMap<>();
+        Optional<User> uploadingUser = uploader != null ? userRepository.findByUsername(uploader) : Optional.empty();
+
+        List<Event> batch = new ArrayList<>(batchSize);
+        List<IcsReader.VEvent> sources = new ArrayList<>(batchSize);
+        try (IcsReader reader = new IcsReader(new InputStreamReader(ics, StandardCharsets.UTF_8), ZoneId.systemDefault())) {
+            IcsReader.VEvent vEvent;
+            while ((vEvent = reader.next()) != null) {
+                report.setRead(report.getRead() + 1);
+                if (vEvent.error() != null) {
+                    report.reject(vEvent.number(), vEvent.uid(), vEvent.error());
+                    continue;
+                }
+                Optional<Room> room = vEvent.location() != null
+                        ? rooms.computeIfAbsent(vEvent.location().trim(), roomRepository::findByName)
+                        : Optional.empty();
+                if (room.isEmpty()) {
+                    report.reject(vEvent.number(), vEvent.uid(), "Room not found: " + vEvent.location());
+                    continue;
+                }
+                Optional<User> user = vEvent.organizerEmail() != null
+                        ? organizers.computeIfAbsent(vEvent.organizerEmail().trim(), this::findOrganizer)
+                        : uploadingUser;
+                if (user.isEmpty()) {
+                    report.reject(vEvent.number(), vEvent.uid(), "User not found: " + vEvent.organizerEmail());
+                    continue;
+                }
+
+                Event event = toEvent(vEvent, room.get(), user.get());
+                String error = limitSeries(event);
+                if (error != null) {
+                    report.reject(vEvent.number(), vEvent.uid(), error);
+                    continue;
+                }
+                batch.add(event);
+                sources.add(vEvent);
+                if (batch.size() >= batchSize) {
+                    book(batch, sources, report);
+                }
+            }
+        }
+        book(batch, sources, report);
+
+        report.setDurationMillis((System.nanoTime() - started) / 1_000_000);
+        report.setEventsPerSecond(report.getRead() * 1000.0 / Math.max(1, report.getDurationMillis()));
+        logger.info("Imported {} of {} VEVENTs in {} ms ({} per second), {} conflicts, {} rejected", report.getCreated(), report.getRead(),
+                report.getDurationMillis(), Math.round(report.getEventsPerSecond()), report.getConflicts(), report.getRejected());
+        return report;
+    }
+
+    private void book(List<Event> batch, List<IcsReader.VEvent> sources, IcsImportReport report) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<Optional<Event>> booked = bookingService.bookAll(batch);
+        for (int i = 0; i < booked.size(); i++) {
+            if (booked.get(i).isPresent()) {
+                report.setCreated(report.getCreated() + 1);
+            } else {
+                report.setConflicts(report.getConflicts() + 1);
+                report.reject(sources.get(i).number(), sources.get(i).uid(), "Room is already booked for requested time slot");
+            }
+        }
+        logger.debug("Imported batch of {} events, {} read so far", batch.size(), report.getRead());
+        batch.clear();
+        sources.clear();
+    }
+
+    private Optional<User> findOrganizer(String organizer) {
+        Optional<User> user = userRepository.findByEmail(organizer);
+        return user.isPresent() ? user : userRepository.findByUsername(organizer);
+    }
+
+    private static Event toEvent(IcsReader.VEvent vEvent, Room room, User user) {
+        Event event = new Event();
+        event.setTitle(vEvent.summary() != null && !vEvent.summary().isBlank() ? vEvent.summary() : "Imported event");
+        event.setDescription(vEvent.description());
+        event.setStartTime(vEvent.start());
+        event.setEndTime(vEvent.end());
+        event.setRoom(room);
+        event.setUser(user);
+        event.setRecurring(vEvent.rrule() != null);
+        if (event.isRecurring()) {
+            event.setRrule(vEvent.rrule());
+            event.setExdate(vEvent.exdate());
+            event.setRdate(vEvent.rdate());
+        }
+        // Same convention as the tags of the default data
+        event.setTags(new HashSet<>(vEvent.categories().stream()
+                .map(category -> category.startsWith("event_") ? category : "event_" + category)
+                .toList()));
+        return event;
+    }
+
+    /**
+     * Replaces COUNT of the RRULE of a recurring event with the UNTIL of its last instance and sets recurrenceEndDate
+     * to the day of UNTIL.
+     *
+     * @param event the event to import
+     * @return the reason the RRULE cannot be imported, or null
+     */
+    static String limitSeries(Event event) {
+        if (!event.isRecurring() || event.getRrule() == null) {
+            return null;
+        }
+        List<String> parts = new ArrayList<>();
+        String count = null;
+        String until = null;
+        for (String part : event.getRrule().split(";")) {
+            String trimmed = part.trim();
+            if (trimmed.startsWith("COUNT=")) {
+                count = trimmed.substring(6);
+            } else if (trimmed.startsWith("UNTIL=")) {
+                until = trimmed.substring(6);
+            } else if (!trimmed.isEmpty()) {
+                parts.add(trimmed);
+            }
+        }
+
+        LocalDateTime lastStart = null;
+        if (until != null) {
+            try {
+                // Only the day of UNTIL limits the rule, see RecurrenceRule
+                lastStart = LocalDate.parse(until.substring(0, 8), DateTimeFormatter.BASIC_ISO_DATE).atTime(event.getStartTime().toLocalTime());
+            } catch (DateTimeException | IndexOutOfBoundsException e) {
+                return "Invalid UNTIL in RRULE: " + until;
+            }
+        }
+        if (count != null) {
+            long instances;
+            try {
+                instances = Long.parseLong(count);
+            } catch (NumberFormatException e) {
+                instances = 0;
+            }
+            if (instances < 1) {
+                return "Invalid COUNT in RRULE: " + count;
+            }
+            String withoutCount = String.join(";", parts) + (until != null ? ";UNTIL=" + until : "");
+            RecurrenceRule rule;
+            try {
+                rule = RecurrenceRule.parse(withoutCount, null, null, null);
+            } catch (NumberFormatException e) {
+                return "Invalid RRULE: " + event.getRrule();
+            }
+            LocalDateTime counted = OccurrenceExpander.lastCountedStart(event, rule, instances);
+            if (counted != null) {
+                lastStart = counted;
+                parts.add("UNTIL=" + counted.format(UNTIL_FORMAT));
+                event.setRrule(String.join(";", parts));
+            }
+        }
+        if (lastStart != null) {
+            event.setRecurrenceEndDate(lastStart);
+        }
+        return null;
+    }
+}
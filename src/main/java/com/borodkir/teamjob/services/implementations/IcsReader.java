@@ -0,0 +1,296 @@
+package com.borodkir.teamjob.services.implementations;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads the VEVENT components of an iCalendar (RFC 5545) file one at a time, so files of any size can be imported
+ * with only the current event in memory.
+ * <ul>
+ *   <li>Folded lines are unfolded, text values are unescaped.</li>
+ *   <li>Times in UTC or with a TZID are converted to local times of the given zone, floating times are kept as they are.
+ *   A DATE start is read as midnight.</li>
+ *   <li>RRULE, EXDATE and RDATE are kept as strings in the format stored on {@link com.borodkir.teamjob.data.Event}.</li>
+ *   <li>Components nested in a VEVENT, e.g. VALARM, and all other components are skipped.</li>
+ * </ul>
+ * An event that cannot be read is returned with an error instead of failing the whole file.
+ */
+public class IcsReader implements Closeable {
+
+    private static final int MAX_LINE_LENGTH = 1 << 20;
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+
+    /**
+     * One VEVENT, numbered from 1 in the order of the file.
+     *
+     * @param error why the event cannot be imported, or null
+     */
+    public record VEvent(int number, String uid, String summary, String description, String location,
+                         String organizerEmail, String organizerName, LocalDateTime start, LocalDateTime end,
+                         String rrule, String exdate, String rdate, List<String> categories, String error) {
+    }
+
+    private record Property(String name, Map<String, String> parameters, String value) {
+    }
+
+    private final BufferedReader reader;
+    private final ZoneId zone;
+    private String lookahead;
+    private int eventCount;
+
+    public IcsReader(Reader reader, ZoneId zone) {
+        this.reader = reader instanceof BufferedReader buffered ? buffered : new BufferedReader(reader);
+        this.zone = zone;
+    }
+
+    /**
+     * @return the next VEVENT, or null at the end of the input
+     */
+    public VEvent next() throws IOException {
+        String line;
+        while ((line = readLine()) != null) {
+            if (line.equalsIgnoreCase("BEGIN:VEVENT")) {
+                return readEvent(++eventCount);
+            }
+        }
+        return null;
+    }
+
+    private VEvent readEvent(int number) throws IOException {
+        List<Property> properties = new ArrayList<>();
+        int nested = 0;
+        String line;
+        while ((line = readLine()) != null) {
+            if (line.regionMatches(true, 0, "BEGIN:", 0, 6)) {
+                nested++;
+            } else if (line.regionMatches(true, 0, "END:", 0, 4)) {
+                if (nested == 0) {
+                    break;
+                }
+                nested--;
+            } else if (nested == 0 && !line.isEmpty()) {
+                properties.add(parseProperty(line));
+            }
+        }
+        if (line == null) {
+            return failed(number, properties, "VEVENT is not closed by END:VEVENT");
+        }
+        try {
+            return toEvent(number, properties);
+        } catch (DateTimeException | IllegalArgumentException e) {
+            return failed(number, properties, e.getMessage());
+        }
+    }
+
+    private VEvent toEvent(int number, List<Property> properties) {
+        String uid = null, summary = null, description = null, location = null, organizerEmail = null, organizerName = null;
+        String rrule = null;
+        Property dtStart = null, dtEnd = null;
+        String duration = null;
+        List<String> exdates = new ArrayList<>();
+        List<String> rdates = new ArrayList<>();
+        List<String> categories = new ArrayList<>();
+        for (Property property : properties) {
+            switch (property.name()) {
+                case "UID" -> uid = property.value();
+                case "SUMMARY" -> summary = unescape(property.value());
+                case "DESCRIPTION" -> description = unescape(property.value());
+                case "LOCATION" -> location = unescape(property.value());
+                case "ORGANIZER" -> {
+                    String value = property.value();
+                    organizerEmail = value.regionMatches(true, 0, "mailto:", 0, 7) ? value.substring(7) : value;
+                    organizerName = property.parameters().get("CN");
+                }
+                case "DTSTART" -> dtStart = property;
+                case "DTEND" -> dtEnd = property;
+                case "DURATION" -> duration = property.value();
+                case "RRULE" -> rrule = property.value();
+                case "EXDATE" -> exdates.add(property.value());
+                case "RDATE" -> rdates.add(property.value());
+                case "CATEGORIES" -> {
+                    for (String category : property.value().split("(?<!\\\\),")) {
+                        if (!category.isBlank()) {
+                            categories.add(unescape(category.trim()));
+                        }
+                    }
+                }
+                default -> {
+                    // Not imported
+                }
+            }
+        }
+        if (dtStart == null) {
+            throw new IllegalArgumentException("Missing DTSTART");
+        }
+        LocalDateTime start = toDateTime(dtStart);
+        LocalDateTime end;
+        if (dtEnd != null) {
+            end = toDateTime(dtEnd);
+        } else if (duration != null) {
+            end = start.plus(parseDuration(duration));
+        } else {
+            // RFC 5545: a whole day for a DATE start, otherwise the event ends when it starts
+            end = isDate(dtStart) ? start.plusDays(1) : start;
+        }
+        if (end.isBefore(start)) {
+            throw new IllegalArgumentException("DTEND is before DTSTART");
+        }
+        return new VEvent(number, uid, summary, description, location, organizerEmail, organizerName, start, end, rrule,
+                exdates.isEmpty() ? null : String.join(",", exdates), rdates.isEmpty() ? null : String.join(",", rdates),
+                categories, null);
+    }
+
+    private static VEvent failed(int number, List<Property> properties, String error) {
+        String uid = properties.stream().filter(p -> p.name().equals("UID")).map(Property::value).findFirst().orElse(null);
+        return new VEvent(number, uid, null, null, null, null, null, null, null, null, null, null, List.of(), error);
+    }
+
+    private LocalDateTime toDateTime(Property property) {
+        String value = property.value().trim();
+        if (isDate(property)) {
+            return LocalDate.parse(value.substring(0, 8), DateTimeFormatter.BASIC_ISO_DATE).atStartOfDay();
+        }
+        if (value.endsWith("Z") || value.endsWith("z")) {
+            LocalDateTime utc = LocalDateTime.parse(value.substring(0, value.length() - 1), DATE_TIME);
+            return utc.atOffset(ZoneOffset.UTC).atZoneSameInstant(zone).toLocalDateTime();
+        }
+        LocalDateTime local = LocalDateTime.parse(value, DATE_TIME);
+        String tzid = property.parameters().get("TZID");
+        if (tzid == null) {
+            return local;
+        }
+        try {
+            return local.atZone(ZoneId.of(tzid)).withZoneSameInstant(zone).toLocalDateTime();
+        } catch (DateTimeException e) {
+            // Non-standard zone names, e.g. of Windows, are read as floating times
+            return local;
+        }
+    }
+
+    private static boolean isDate(Property property) {
+        return "DATE".equalsIgnoreCase(property.parameters().get("VALUE")) || property.value().trim().length() == 8;
+    }
+
+    /**
+     * Parses a DURATION value, which unlike {@link Duration#parse} may be given in weeks.
+     */
+    static Duration parseDuration(String value) {
+        String trimmed = value.trim();
+        boolean negative = trimmed.startsWith("-");
+        if (trimmed.startsWith("-") || trimmed.startsWith("+")) {
+            trimmed = trimmed.substring(1);
+        }
+        Duration duration;
+        if (trimmed.endsWith("W")) {
+            duration = Duration.ofDays(7L * Long.parseLong(trimmed.substring(1, trimmed.length() - 1)));
+        } else {
+            duration = Duration.parse(trimmed);
+        }
+        return negative ? duration.negated() : duration;
+    }
+
+    private static Property parseProperty(String line) {
+        int colon = -1;
+        boolean quoted = false;
+        for (int i = 0; i < line.length() && colon < 0; i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (c == ':' && !quoted) {
+                colon = i;
+            }
+        }
+        if (colon < 0) {
+            return new Property(line.toUpperCase(), Map.of(), "");
+        }
+        String[] nameAndParameters = splitUnquoted(line.substring(0, colon));
+        Map<String, String> parameters = new HashMap<>();
+        for (int i = 1; i < nameAndParameters.length; i++) {
+            int equals = nameAndParameters[i].indexOf('=');
+            if (equals > 0) {
+                String parameterValue = nameAndParameters[i].substring(equals + 1);
+                if (parameterValue.length() >= 2 && parameterValue.startsWith("\"") && parameterValue.endsWith("\"")) {
+                    parameterValue = parameterValue.substring(1, parameterValue.length() - 1);
+                }
+                parameters.put(nameAndParameters[i].substring(0, equals).toUpperCase(), parameterValue);
+            }
+        }
+        return new Property(nameAndParameters[0].toUpperCase(), parameters, line.substring(colon + 1));
+    }
+
+    private static String[] splitUnquoted(String value) {
+        List<String> parts = new ArrayList<>();
+        boolean quoted = false;
+        int from = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (c == ';' && !quoted) {
+                parts.add(value.substring(from, i));
+                from = i + 1;
+            }
+        }
+        parts.add(value.substring(from));
+        return parts.toArray(String[]::new);
+    }
+
+    static String unescape(String value) {
+        if (value.indexOf('\\') < 0) {
+            return value;
+        }
+        StringBuilder result = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' && i + 1 < value.length()) {
+                char next = value.charAt(++i);
+                result.append(next == 'n' || next == 'N' ? '\n' : next);
+            } else {
+                result.append(c);
+            }
+        }
+        return result.toString();
+    }
+
+    /**
+     * @return the next unfolded content line, or null at the end of the input
+     */
+    private String readLine() throws IOException {
+        String line = lookahead != null ? lookahead : reader.readLine();
+        lookahead = null;
+        if (line == null) {
+            return null;
+        }
+        StringBuilder unfolded = null;
+        String next;
+        while ((next = reader.readLine()) != null && !next.isEmpty() && (next.charAt(0) == ' ' || next.charAt(0) == '\t')) {
+            if (unfolded == null) {
+                unfolded = new StringBuilder(line);
+            }
+            if (unfolded.length() + next.length() > MAX_LINE_LENGTH) {
+                throw new IOException("Line " + line.substring(0, Math.min(20, line.length())) + "... is longer than " + MAX_LINE_LENGTH + " characters");
+            }
+            unfolded.append(next, 1, next.length());
+        }
+        lookahead = next;
+        return unfolded != null ? unfolded.toString() : line;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,184 @@
+package com.borodkir.teamjob.services.implementations;
+
+/**
+ * Augmented AVL tree of closed intervals {@code [start, end]}, ordered by start and id.
+ * Every node stores the largest end in its subtree, so an overlap query visits a single path
+ * and insertions and removals stay O(log n). Intervals may overlap each other.
+ * <p>
+ * Not thread safe, callers synchronize on the tree.
+ */
+public class IntervalTree {
+
+    private static final class Node {
+        final long id;
+        final long start;
+        final long end;
+        long maxEnd;
+        int height = 1;
+        Node left;
+        Node right;
+
+        Node(long id, long start, long end) {
+            this.id = id;
+            this.start = start;
+            this.end = end;
+            this.maxEnd = end;
+        }
+    }
+
+    private Node root;
+    private int size;
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Adds an interval. Adding the same id, start and end twice stores it once.
+     */
+    public void insert(long id, long start, long end) {
+        root = insert(root, id, start, end);
+    }
+
+    /**
+     * Removes the interval with exactly the given id and start.
+     *
+     * @return true if the interval was present
+     */
+    public boolean remove(long id, long start) {
+        int before = size;
+        root = remove(root, id, start);
+        return size < before;
+    }
+
+    /**
+     * Checks if any stored interval {@code [s, e]} satisfies {@code s <= to && e >= from}.
+     */
+    public boolean overlaps(long from, long to) {
+        Node node = root;
+        while (node != null && node.maxEnd >= from) {
+            // If the left subtree reaches far enough it contains an overlap or there is none at all,
+            // since every interval further right starts even later
+            if (node.left != null && node.left.maxEnd >= from) {
+                node = node.left;
+                continue;
+            }
+            if (node.start > to) {
+                return false;
+            }
+            if (node.end >= from) {
+                return true;
+            }
+            node = node.right;
+        }
+        return false;
+    }
+
+    private static int compare(long id, long start, Node node) {
+        int byStart = Long.compare(start, node.start);
+        return byStart != 0 ? byStart : Long.compare(id, node.id);
+    }
+
+    private Node insert(Node node, long id, long start, long end) {
+        if (node == null) {
+            size++;
+            return new Node(id, start, end);
+        }
+        int cmp = compare(id, start, node);
+        if (cmp < 0) {
+            node.left = insert(node.left, id, start, end);
+        } else if (cmp > 0) {
+            node.right = insert(node.right, id, start, end);
+        } else {
+            return node;
+        }
+        return balance(node);
+    }
+
+    private Node remove(Node node, long id, long start) {
+        if (node == null) {
+            return null;
+        }
+        int cmp = compare(id, start, node);
+        if (cmp < 0) {
+            node.left = remove(node.left, id, start);
+        } else if (cmp > 0) {
+            node.right = remove(node.right, id, start);
+        } else {
+            size--;
+            if (node.left == null) {
+                return node.right;
+            }
+            if (node.right == null) {
+                return node.left;
+            }
+            Node successor = node.right;
+            while (successor.left != null) {
+                successor = successor.left;
+            }
+            Node replacement = new Node(successor.id, successor.start, successor.end);
+            // The successor is removed from the right subtree below, which decrements the size once more
+            size++;
+            replacement.right = remove(node.right, successor.id, successor.start);
+            replacement.left = node.left;
+            return balance(replacement);
+        }
+        return balance(node);
+    }
+
+    private static int height(Node node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static void update(Node node) {
+        node.height = 1 + Math.max(height(node.left), height(node.right));
+        long maxEnd = node.end;
+        if (node.left != null) {
+            maxEnd = Math.max(maxEnd, node.left.maxEnd);
+        }
+        if (node.right != null) {
+            maxEnd = Math.max(maxEnd, node.right.maxEnd);
+        }
+        node.maxEnd = maxEnd;
+    }
+
+    private static Node rotateRight(Node node) {
+        Node pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private static Node balance(Node node) {
+        update(node);
+        int balance = height(node.left) - height(node.right);
+        if (balance > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (balance < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+}
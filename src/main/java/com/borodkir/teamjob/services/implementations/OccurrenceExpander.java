@@ -0,0 +1,259 @@
+package com.borodkir.teamjob.services.implementations;
+
+import com.borodkir.teamjob.data.Event;
+import com.borodkir.teamjob.data.Occurrence;
+import com.borodkir.teamjob.data.RecurrenceRule;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.Period;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Expands events into the occurrences that overlap a {@code [from, to)} window.
+ * <p>
+ * Instead of asking "does the event occur on day D?" for every day, the first candidate instance inside the
+ * window is computed arithmetically from the series start and only the instances inside the window are generated,
+ * so the cost is proportional to the number of occurrences in the window and not to its length.
+ * <ul>
+ *   <li>The series start (DTSTART) is always an occurrence.</li>
+ *   <li>DAILY, WEEKLY, MONTHLY and YEARLY rules honour INTERVAL. Monthly and yearly instances that fall on a day
+ *   missing in the month (e.g. the 31st) are skipped.</li>
+ *   <li>WEEKLY rules with BYDAY produce every listed day of each matching Monday based week, counted from the week
+ *   that contains the series start, but no day before the series start.</li>
+ *   <li>UNTIL and recurrenceEndDate limit the rule, RDATE adds dates, EXDATE removes dates of all of them.
+ *   COUNT is not evaluated, imported rules with COUNT are converted to UNTIL with {@link #lastCountedStart}.</li>
+ * </ul>
+ */
+public final class OccurrenceExpander {
+
+    private static final int MAX_COUNTED_YEAR = 9999;
+
+    private OccurrenceExpander() {
+    }
+
+    /**
+     * Expands a single event into its occurrences overlapping the window, ordered by start.
+     *
+     * @param event the event to expand
+     * @param rule  the compiled recurrence rule of the event
+     * @param from  the inclusive start of the window
+     * @param to    the exclusive end of the window
+     * @return the occurrences that overlap the window
+     */
+    public static List<Occurrence> expand(Event event, RecurrenceRule rule, LocalDateTime from, LocalDateTime to) {
+        if (event.getStartTime() == null || event.getEndTime() == null || !to.isAfter(from)) {
+            return List.of();
+        }
+        LocalDateTime seriesStart = event.getStartTime();
+        Duration duration = Duration.between(seriesStart, event.getEndTime());
+        if (duration.isNegative()) {
+            duration = Duration.ZERO;
+        }
+
+        // An instance starting before this day ends before the window starts, one starting after the last day begins after it
+        long firstDay = from.minus(duration).toLocalDate().toEpochDay();
+        long lastDay = to.toLocalDate().toEpochDay();
+
+        long[] days = candidateDays(event, rule, seriesStart.toLocalDate().toEpochDay(), firstDay, lastDay);
+
+        LocalTime timeOfDay = seriesStart.toLocalTime();
+        List<Occurrence> occurrences = new ArrayList<>(days.length);
+        for (long day : days) {
+            if (rule.isExcluded(day)) {
+                continue;
+            }
+            LocalDateTime start = LocalDate.ofEpochDay(day).atTime(timeOfDay);
+            LocalDateTime end = start.plus(duration);
+            if (overlaps(start, end, from, to)) {
+                occurrences.add(new Occurrence(event, start, end));
+            }
+        }
+        return occurrences;
+    }
+
+    /**
+     * Expands all events into their occurrences overlapping the window.
+     * Occurrences are grouped by event in the order of the given list.
+     *
+     * @param events the events to expand
+     * @param cache  the cache providing the compiled recurrence rules
+     * @param from   the inclusive start of the window
+     * @param to     the exclusive end of the window
+     * @return the occurrences that overlap the window
+     */
+    public static List<Occurrence> expandAll(List<Event> events, RecurrenceRuleCache cache, LocalDateTime from, LocalDateTime to) {
+        List<Occurrence> occurrences = new ArrayList<>();
+        for (Event event : events) {
+            occurrences.addAll(expand(event, cache.get(event), from, to));
+        }
+        return occurrences;
+    }
+
+    /**
+     * Finds the start of the count-th instance of a rule with COUNT, counted from the series start like RFC 5545 does:
+     * the series start is the first instance, EXDATE and RDATE of the rule neither count nor are applied.
+     * Instances are generated window by window, each about as long as count instances take without skipped months.
+     *
+     * @param event the recurring event, its rrule without COUNT compiled into rule
+     * @param rule  the compiled recurrence rule
+     * @param count the COUNT of the rule, at least 1
+     * @return the start of the last counted instance, or null if the rule is not valid
+     */
+    public static LocalDateTime lastCountedStart(Event event, RecurrenceRule rule, long count) {
+        if (!rule.isValid() || event.getStartTime() == null || event.getEndTime() == null || count < 1) {
+            return null;
+        }
+        RecurrenceRule counted = new RecurrenceRule(rule.frequency(), rule.interval(), rule.byDayMask(), rule.untilEpochDay(), new long[0], new long[0]);
+        int units = (int) Math.min(count * rule.interval() + 1, 10_000);
+        Period window = switch (rule.frequency()) {
+            case DAILY -> Period.ofDays(units);
+            case WEEKLY -> Period.ofWeeks(units);
+            case MONTHLY -> Period.ofMonths(units);
+            default -> Period.ofYears(units);
+        };
+        LocalDateTime from = event.getStartTime();
+        LocalDateTime last = null;
+        long remaining = count;
+        // Stops at UNTIL, which may end the series before count instances
+        while (remaining > 0 && from.getYear() <= MAX_COUNTED_YEAR && from.toLocalDate().toEpochDay() <= counted.untilEpochDay()) {
+            LocalDateTime to = from.plus(window);
+            for (Occurrence occurrence : expand(event, counted, from, to)) {
+                // Instances crossing the window start were counted in the previous window
+                if (occurrence.start().isBefore(from)) {
+                    continue;
+                }
+                last = occurrence.start();
+                if (--remaining == 0) {
+                    break;
+                }
+            }
+            from = to;
+        }
+        return last;
+    }
+
+    /**
+     * Checks whether an instance overlaps the half-open window. Zero length instances overlap if they start inside it.
+     */
+    public static boolean overlaps(LocalDateTime start, LocalDateTime end, LocalDateTime from, LocalDateTime to) {
+        if (!start.isBefore(to)) {
+            return false;
+        }
+        return end.isAfter(from) || (end.isEqual(start) && !start.isBefore(from));
+    }
+
+    /**
+     * Collects the sorted, distinct epoch days in {@code [firstDay, lastDay]} on which an instance of the event starts,
+     * before EXDATE is applied.
+     */
+    private static long[] candidateDays(Event event, RecurrenceRule rule, long startDay, long firstDay, long lastDay) {
+        DayBuffer days = new DayBuffer();
+        days.addIfInRange(startDay, firstDay, lastDay);
+
+        if (event.isRecurring() && rule.isValid()) {
+            // UNTIL only limits the rule, neither the series start nor RDATE
+            long ruleLastDay = Math.min(lastDay, rule.untilEpochDay());
+            switch (rule.frequency()) {
+                case DAILY -> addStepped(days, startDay, rule.interval(), firstDay, ruleLastDay);
+                case WEEKLY -> {
+                    if (rule.hasByDay()) {
+                        addWeeklyByDay(days, rule, startDay, firstDay, ruleLastDay);
+                    } else {
+                        addStepped(days, startDay, 7L * rule.interval(), firstDay, ruleLastDay);
+                    }
+                }
+                case MONTHLY -> addMonthly(days, startDay, rule.interval(), firstDay, ruleLastDay);
+                case YEARLY -> addMonthly(days, startDay, 12L * rule.interval(), firstDay, ruleLastDay);
+                case NONE -> {
+                }
+            }
+        }
+
+        if (event.isRecurring()) {
+            for (long rdate : rule.rdates()) {
+                days.addIfInRange(rdate, firstDay, lastDay);
+            }
+        }
+        return days.sortedDistinct();
+    }
+
+    /**
+     * Adds startDay + k * step for every k >= 0 inside the range, jumping directly to the first one.
+     */
+    private static void addStepped(DayBuffer days, long startDay, long step, long firstDay, long lastDay) {
+        long k = Math.max(0, Math.ceilDiv(firstDay - startDay, step));
+        for (long day = startDay + k * step; day <= lastDay; day += step) {
+            days.add(day);
+        }
+    }
+
+    private static void addWeeklyByDay(DayBuffer days, RecurrenceRule rule, long startDay, long firstDay, long lastDay) {
+        // Listed days of the first week before the series start are not instances
+        long fromDay = Math.max(firstDay, startDay);
+        long firstWeekStart = startDay - (LocalDate.ofEpochDay(startDay).getDayOfWeek().getValue() - 1);
+        long period = 7L * rule.interval();
+        long k = Math.max(0, Math.floorDiv(fromDay - firstWeekStart, period));
+        for (long weekStart = firstWeekStart + k * period; weekStart <= lastDay; weekStart += period) {
+            for (int i = 0; i < 7; i++) {
+                if ((rule.byDayMask() & (1 << i)) != 0) {
+                    days.addIfInRange(weekStart + i, fromDay, lastDay);
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds the day of month of the series start in every stepMonths-th month, skipping months that are too short.
+     */
+    private static void addMonthly(DayBuffer days, long startDay, long stepMonths, long firstDay, long lastDay) {
+        LocalDate startDate = LocalDate.ofEpochDay(startDay);
+        LocalDate firstDate = LocalDate.ofEpochDay(firstDay);
+        int dayOfMonth = startDate.getDayOfMonth();
+        LocalDate startMonth = startDate.withDayOfMonth(1);
+
+        long monthsToFirst = (firstDate.getYear() - startDate.getYear()) * 12L + (firstDate.getMonthValue() - startDate.getMonthValue());
+        long k = Math.max(0, Math.floorDiv(monthsToFirst, stepMonths));
+        for (LocalDate month = startMonth.plusMonths(k * stepMonths); month.toEpochDay() <= lastDay; month = month.plusMonths(stepMonths)) {
+            if (dayOfMonth <= month.lengthOfMonth()) {
+                days.addIfInRange(month.withDayOfMonth(dayOfMonth).toEpochDay(), firstDay, lastDay);
+            }
+        }
+    }
+
+    /**
+     * Growable primitive buffer of epoch days.
+     */
+    private static final class DayBuffer {
+        private long[] values = new long[8];
+        private int size;
+
+        void add(long day) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = day;
+        }
+
+        void addIfInRange(long day, long firstDay, long lastDay) {
+            if (day >= firstDay && day <= lastDay) {
+                add(day);
+            }
+        }
+
+        long[] sortedDistinct() {
+            Arrays.sort(values, 0, size);
+            int distinct = 0;
+            for (int i = 0; i < size; i++) {
+                if (distinct == 0 || values[distinct - 1] != values[i]) {
+                    values[distinct++] = values[i];
+                }
+            }
+            return Arrays.copyOf(values, distinct);
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.borodkir.teamjob.services.implementations;
+
+import com.borodkir.teamjob.data.AfterCommit;
+import com.borodkir.teamjob.data.Event;
+import com.borodkir.teamjob.data.EventOccurrence;
+import com.borodkir.teamjob.data.Occurrence;
+import com.borodkir.teamjob.data.repositories.EventOccurrenceRepository;
+import com.borodkir.teamjob.data.repositories.EventRepository;
+import com.borodkir.teamjob.services.IOccurrenceService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maintains the 'event_occurrences' table, which holds every occurrence of every event up to a rolling horizon.
+ * With it the calendar views read occurrences with indexed range scans instead of evaluating recurrence rules
+ * on every page view. The whole feature, writing and reading, is switched by {@code testing.app.occurrences.materialized}.
+ * The table is complete up to {@link #getMaterializedHorizon()}, windows reaching beyond it have to be expanded from the events.
+ */
+@Service
+public class OccurrenceServiceImpl implements IOccurrenceService {
+    private static final Logger logger = LoggerFactory.getLogger(OccurrenceServiceImpl.class);
+
+    private final EventRepository eventRepository;
+    private final EventOccurrenceRepository eventOccurrenceRepository;
+    private final RecurrenceRuleCache recurrenceRuleCache;
+
+    @Value("${testing.app.occurrences.materialized:false}")
+    private boolean enabled;
+
+    @Value("${testing.app.occurrences.horizon-months:18}")
+    private int horizonMonths;
+
+    /**
+     * The horizon of the last committed roll forward, null before the first one.
+     */
+    private volatile LocalDateTime materializedHorizon;
+
+    public OccurrenceServiceImpl(EventRepository eventRepository, EventOccurrenceRepository eventOccurrenceRepository, RecurrenceRuleCache recurrenceRuleCache) {
+        this.eventRepository = eventRepository;
+        this.eventOccurrenceRepository = eventOccurrenceRepository;
+        this.recurrenceRuleCache = recurrenceRuleCache;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return the exclusive end up to which recurring events are materialized
+     */
+    @Override
+    public LocalDateTime getHorizon() {
+        return LocalDate.now().plusMonths(horizonMonths).atStartOfDay();
+    }
+
+    /**
+     * The horizon moves with the current day, the stored occurrences only once they are rolled forward.
+     *
+     * @return the exclusive end up to which all occurrences are stored, null if they have not been rolled forward yet
+     */
+    @Override
+    public LocalDateTime getMaterializedHorizon() {
+        return materializedHorizon;
+    }
+
+    /**
+     * Replaces the stored occurrences of the event with its occurrences up to the horizon.
+     *
+     * @param event the saved event
+     */
+    @Override
+    @Transactional
+    public void materialize(Event event) {
+        if (!enabled) {
+            return;
+        }
+        eventOccurrenceRepository.deleteByEventId(event.getId());
+        eventOccurrenceRepository.saveAll(expand(event, null, getHorizon()));
+    }
+
+    /**
+     * Removes the stored occurrences of a deleted event.
+     *
+     * @param eventId the id of the deleted event
+     */
+    @Override
+    @Transactional
+    public void remove(Long eventId) {
+        if (!enabled) {
+            return;
+        }
+        eventOccurrenceRepository.deleteByEventId(eventId);
+    }
+
+    /**
+     * Materializes all events that have no stored occurrences yet, e.g. events created before the feature was enabled,
+     * and rolls the other events forward to the current horizon.
+     */
+    @Override
+    @Transactional
+    @EventListener(ApplicationReadyEvent.class)
+    public void materializeMissing() {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime horizon = getHorizon();
+        List<Event> events = eventRepository.findAllWithoutOccurrences();
+        List<EventOccurrence> occurrences = new ArrayList<>();
+        for (Event event : events) {
+            occurrences.addAll(expand(event, null, horizon));
+        }
+        eventOccurrenceRepository.saveAll(occurrences);
+        logger.info("Materialized {} occurrences of {} events", occurrences.size(), events.size());
+        rollForwardTo(horizon);
+    }
+
+    /**
+     * Extends every recurring series that is still running to the current horizon and removes occurrences
+     * of events that no longer exist. Runs nightly.
+     */
+    @Override
+    @Transactional
+    @Scheduled(cron = "${testing.app.occurrences.roll-cron:0 30 2 * * *}")
+    public void rollForward() {
+        if (!enabled) {
+            return;
+        }
+        rollForwardTo(getHorizon());
+    }
+
+    private void rollForwardTo(LocalDateTime horizon) {
+        int removed = eventOccurrenceRepository.deleteOrphans();
+
+        Map<Long, LocalDateTime> lastStarts = new HashMap<>();
+        for (Object[] row : eventOccurrenceRepository.findLastMaterializedStarts()) {
+            lastStarts.put((Long) row[0], (LocalDateTime) row[1]);
+        }
+
+        List<EventOccurrence> occurrences = new ArrayList<>();
+        for (Event event : eventRepository.findOverlappingEvents(LocalDate.now().atStartOfDay(), horizon)) {
+            if (event.isRecurring()) {
+                occurrences.addAll(expand(event, lastStarts.get(event.getId()), horizon));
+            }
+        }
+        eventOccurrenceRepository.saveAll(occurrences);
+        logger.info("Rolled occurrences forward to {}: added {}, removed {} orphaned", horizon, occurrences.size(), removed);
+        // Readers only rely on the new horizon once the rolled forward rows are visible to them
+        AfterCommit.run(() -> materializedHorizon = horizon);
+    }
+
+    /**
+     * Expands the event into rows, only keeping occurrences that start after the given start.
+     * Single events are always stored, recurring events only up to the horizon.
+     */
+    private List<EventOccurrence> expand(Event event, LocalDateTime after, LocalDateTime horizon) {
+        if (!event.isRecurring()) {
+            return after != null ? List.of() : List.of(new EventOccurrence(new Occurrence(event, event.getStartTime(), event.getEndTime())));
+        }
+        LocalDateTime from = after != null && after.isAfter(event.getStartTime()) ? after : event.getStartTime();
+        List<EventOccurrence> rows = new ArrayList<>();
+        for (Occurrence occurrence : OccurrenceExpander.expand(event, recurrenceRuleCache.get(event), from, horizon)) {
+            if (after == null || occurrence.start().isAfter(after)) {
+                rows.add(new EventOccurrence(occurrence));
+            }
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,85 @@
+package com.borodkir.teamjob.services.implementations;
+
+import com.borodkir.teamjob.data.Event;
+import com.borodkir.teamjob.data.RecurrenceRule;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Caches compiled {@link RecurrenceRule}s per event.
+ * An entry is only reused while the event id and its lastModifiedDate match the version the rule was compiled from,
+ * so parsing happens once per saved version of an event instead of once per rendered day.
+ * At most {@code testing.app.rule-cache.max-size} rules are kept, the least recently used one is evicted first.
+ */
+@Component
+public class RecurrenceRuleCache {
+
+    private record Entry(LocalDateTime version, RecurrenceRule rule) {
+    }
+
+    private final int maxSize;
+    /**
+     * In access order, guarded by this.
+     */
+    private final LinkedHashMap<Long, Entry> rules;
+
+    public RecurrenceRuleCache(@Value("${testing.app.rule-cache.max-size:10000}") int maxSize) {
+        this.maxSize = maxSize;
+        this.rules = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                return size() > RecurrenceRuleCache.this.maxSize;
+            }
+        };
+    }
+
+    /**
+     * Returns the compiled rule of the event, compiling and caching it if the cached version is missing or outdated.
+     * Events that have not been persisted yet are compiled without being cached.
+     *
+     * @param event the event to get the rule for
+     * @return the compiled recurrence rule
+     */
+    public RecurrenceRule get(Event event) {
+        if (event.getId() == null || maxSize <= 0) {
+            return RecurrenceRule.compile(event);
+        }
+        Entry entry;
+        synchronized (this) {
+            entry = rules.get(event.getId());
+        }
+        if (entry != null && Objects.equals(entry.version(), event.getLastModifiedDate())) {
+            return entry.rule();
+        }
+        // compiled outside the lock, two threads compiling the same version store equal rules
+        RecurrenceRule rule = RecurrenceRule.compile(event);
+        synchronized (this) {
+            rules.put(event.getId(), new Entry(event.getLastModifiedDate(), rule));
+        }
+        return rule;
+    }
+
+    /**
+     * Removes the cached rule of the event with the given id.
+     *
+     * @param eventId the id of the saved or deleted event
+     */
+    public synchronized void evict(Long eventId) {
+        if (eventId != null) {
+            rules.remove(eventId);
+        }
+    }
+
+    public synchronized void clear() {
+        rules.clear();
+    }
+
+    public synchronized int size() {
+        return rules.size();
+    }
+}
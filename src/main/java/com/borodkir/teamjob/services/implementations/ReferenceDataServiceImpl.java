@@ -0,0 +1,109 @@
+package com.borodkir.teamjob.services.implementations;
+
+import com.borodkir.teamjob.data.RoomSummary;
+import com.borodkir.teamjob.data.TagAssignment;
+import com.borodkir.teamjob.data.UserSummary;
+import com.borodkir.teamjob.data.repositories.RoomRepository;
+import com.borodkir.teamjob.data.repositories.UserRepository;
+import com.borodkir.teamjob.services.IReferenceDataService;
+import org.springframework.stereotype.Service;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Provides the rooms and users listed in the pickers of the calendar views.
+ * <p>
+ * Only the id and name columns and the tag tables are selected, so no password hashes, roles or entities are loaded.
+ * The tags let the pickers filter by tag without loading the rooms and users.
+ * The lists are cached together with the version they were read at. Every saved or deleted room or user
+ * increases the version, see {@link com.borodkir.teamjob.data.ReferenceDataListener}, and the next request reads them again.
+ */
+@Service
+public class ReferenceDataServiceImpl implements IReferenceDataService {
+
+    private record Snapshot(long version, List<RoomSummary> rooms, List<UserSummary> users) {
+    }
+
+    private final RoomRepository roomRepository;
+    private final UserRepository userRepository;
+
+    private final AtomicLong version = new AtomicLong();
+    private volatile Snapshot cached;
+
+    public ReferenceDataServiceImpl(RoomRepository roomRepository, UserRepository userRepository) {
+        this.roomRepository = roomRepository;
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * @return all rooms ordered by id
+     */
+    @Override
+    public List<RoomSummary> getRooms() {
+        return snapshot().rooms();
+    }
+
+    /**
+     * @return all users ordered by id
+     */
+    @Override
+    public List<UserSummary> getUsers() {
+        return snapshot().users();
+    }
+
+    /**
+     * Marks the cached rooms and users as outdated.
+     */
+    @Override
+    public void invalidate() {
+        version.incrementAndGet();
+    }
+
+    /**
+     * @return a number that changes whenever the cached data is outdated
+     */
+    @Override
+    public long getVersion() {
+        return version.get();
+    }
+
+    private Snapshot snapshot() {
+        long current = version.get();
+        Snapshot snapshot = cached;
+        if (snapshot != null && snapshot.version() == current) {
+            return snapshot;
+        }
+        // Read with the version from before the queries, a change made meanwhile causes another read next time
+        Map<Long, Set<String>> roomTags = groupTags(roomRepository.findAllTagAssignments());
+        Map<Long, Set<String>> userTags = groupTags(userRepository.findAllTagAssignments());
+        snapshot = new Snapshot(current,
+                roomRepository.findAllNames().stream()
+                        .map(room -> new RoomSummary(room.getId(), room.getName(), roomTags.getOrDefault(room.getId(), Set.of())))
+                        .toList(),
+                userRepository.findAllNames().stream()
+                        .map(user -> new UserSummary(user.getId(), user.getUsername(), userTags.getOrDefault(user.getId(), Set.of())))
+                        .toList());
+        cached = snapshot;
+        return snapshot;
+    }
+
+    /**
+     * @return the sorted tags per owner id
+     */
+    private static Map<Long, Set<String>> groupTags(List<TagAssignment> assignments) {
+        Map<Long, SortedSet<String>> grouped = new HashMap<>();
+        for (TagAssignment assignment : assignments) {
+            grouped.computeIfAbsent(assignment.ownerId(), id -> new TreeSet<>()).add(assignment.tag());
+        }
+        Map<Long, Set<String>> tags = new HashMap<>(grouped.size() * 2);
+        grouped.forEach((id, ownerTags) -> tags.put(id, Collections.unmodifiableSortedSet(ownerTags)));
+        return tags;
+    }
+}
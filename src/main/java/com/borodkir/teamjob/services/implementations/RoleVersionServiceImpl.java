@@ -0,0 +1,108 @@
+package com.borodkir.teamjob.services.implementations;
+
+import com.borodkir.teamjob.data.repositories.UserRepository;
+import com.borodkir.teamjob.services.IRoleVersionService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Knows the current role version of every user, so with {@code testing.app.jwt.stateless} the token filter can trust
+ * the roles in a token without loading the user.
+ * <ul>
+ *   <li>Only users whose roles were changed are kept, all others are at version 0.</li>
+ *   <li>Role changes of this instance apply after the transaction commits, see
+ *   {@link com.borodkir.teamjob.data.RoleVersionListener}. Changes of other instances are read every
+ *   {@code testing.app.jwt.role-version-refresh-ms}, only of the users modified since the previous read.</li>
+ *   <li>A deleted user is never current again on this instance. Other instances accept its tokens until they expire.</li>
+ *   <li>No token is current until the versions were read once after startup.</li>
+ * </ul>
+ */
+@Service
+public class RoleVersionServiceImpl implements IRoleVersionService {
+    private static final Logger logger = LoggerFactory.getLogger(RoleVersionServiceImpl.class);
+
+    /**
+     * Users modified shortly before the previous read are read again, in case the clocks of the instances differ.
+     */
+    private static final long CLOCK_SKEW_SECONDS = 60;
+
+    private final UserRepository userRepository;
+    private final boolean stateless;
+    private final Map<Long, Integer> versions = new ConcurrentHashMap<>();
+    private final ReentrantLock refreshLock = new ReentrantLock();
+    private volatile boolean loaded;
+    private LocalDateTime lastRead;
+
+    public RoleVersionServiceImpl(UserRepository userRepository,
+                                  @Value("${testing.app.jwt.stateless:false}") boolean stateless) {
+        this.userRepository = userRepository;
+        this.stateless = stateless;
+    }
+
+    /**
+     * @return true if requests are authenticated by the claims of their token
+     */
+    @Override
+    public boolean isStateless() {
+        return stateless;
+    }
+
+    /**
+     * @return true if the roles of a token with this role version are still the roles of the user
+     */
+    @Override
+    public boolean isCurrent(Long userId, int roleVersion) {
+        return loaded && userId != null && roleVersion >= versions.getOrDefault(userId, 0);
+    }
+
+    @Override
+    public void roleVersionChanged(Long userId, int roleVersion) {
+        if (userId != null) {
+            versions.merge(userId, roleVersion, Math::max);
+        }
+    }
+
+    @Override
+    public void userRemoved(Long userId) {
+        if (userId != null) {
+            versions.put(userId, Integer.MAX_VALUE);
+        }
+    }
+
+    /**
+     * Reads the role versions changed by any instance.
+     */
+    @Scheduled(fixedDelayString = "${testing.app.jwt.role-version-refresh-ms:30000}")
+    public void refresh() {
+        if (!stateless) {
+            return;
+        }
+        // Not synchronized, a monitor held during the query would pin a virtual thread
+        refreshLock.lock();
+        try {
+            LocalDateTime started = LocalDateTime.now();
+            List<UserRepository.RoleVersionView> changed = lastRead == null
+                    ? userRepository.findAllRoleVersions()
+                    : userRepository.findRoleVersionsModifiedSince(lastRead.minusSeconds(CLOCK_SKEW_SECONDS));
+            for (UserRepository.RoleVersionView view : changed) {
+                roleVersionChanged(view.getId(), view.getRoleVersion());
+            }
+            if (!loaded) {
+                logger.info("Read the role versions of {} users", changed.size());
+            }
+            lastRead = started;
+            loaded = true;
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package com.borodkir.teamjob.services.implementations;
+
+import com.borodkir.teamjob.data.RoomInterval;
+import com.borodkir.teamjob.data.repositories.EventRepository;
+import com.borodkir.teamjob.services.IRoomIntervalIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory index of the booked time of every room, answering the conflict checks of
+ * '/api/v1/checkavailability' and '/api/v1/addevents' without a database round trip.
+ * <ul>
+ *   <li>The index is loaded from the database once the application is ready. Until then, and if it is disabled
+ *   with {@code testing.app.room-index.enabled}, conflicts are checked by the repository query.</li>
+ *   <li>Saved and deleted events are applied after their transaction commits, see
+ *   {@link com.borodkir.teamjob.data.RoomIntervalIndexListener}.</li>
+ *   <li>The index is periodically compared with the database and rebuilt if they differ.</li>
+ * </ul>
+ * A conflict has the same meaning as in {@link EventRepository#existsBookingInRoom}: an event of the room
+ * with {@code startTime <= endTime && endTime >= startTime}.
+ */
+@Service
+public class RoomIntervalIndexImpl implements IRoomIntervalIndex {
+    private static final Logger logger = LoggerFactory.getLogger(RoomIntervalIndexImpl.class);
+
+    private record Snapshot(Map<Long, IntervalTree> rooms, Map<Long, RoomInterval> events) {
+    }
+
+    private final EventRepository eventRepository;
+
+    /**
+     * Serializes writes and rebuilds, queries only lock the tree of their room.
+     * A lock rather than a monitor, rebuilds query the database while holding it, which would pin a virtual thread.
+     */
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private volatile Snapshot snapshot = new Snapshot(new ConcurrentHashMap<>(), new ConcurrentHashMap<>());
+    private volatile boolean ready;
+
+    @Value("${testing.app.room-index.enabled:true}")
+    private boolean enabled;
+
+    public RoomIntervalIndexImpl(EventRepository eventRepository) {
+        this.eventRepository = eventRepository;
+    }
+
+    @Override
+    public boolean isReady() {
+        return enabled && ready;
+    }
+
+    /**
+     * Checks if the room is booked at any time between startTime and endTime.
+     *
+     * @return true if an event of the room overlaps the time range
+     */
+    @Override
+    public boolean hasConflict(Long roomId, LocalDateTime startTime, LocalDateTime endTime) {
+        if (roomId == null || startTime == null || endTime == null) {
+            return false;
+        }
+        if (!isReady()) {
+            return eventRepository.existsBookingInRoom(roomId, startTime, endTime);
+        }
+        IntervalTree tree = snapshot.rooms().get(roomId);
+        if (tree == null) {
+            return false;
+        }
+        synchronized (tree) {
+            return tree.overlaps(toKey(startTime), toKey(endTime));
+        }
+    }
+
+    /**
+     * Adds or replaces the booked time of an event.
+     */
+    @Override
+    public void put(RoomInterval interval) {
+        if (interval.eventId() == null) {
+            return;
+        }
+        writeLock.lock();
+        try {
+            Snapshot current = snapshot;
+            RoomInterval previous = current.events().remove(interval.eventId());
+            if (previous != null) {
+                removeFromTree(current.rooms(), previous);
+            }
+            if (interval.roomId() != null && interval.start() != null && interval.end() != null) {
+                current.events().put(interval.eventId(), interval);
+                IntervalTree tree = current.rooms().computeIfAbsent(interval.roomId(), id -> new IntervalTree());
+                synchronized (tree) {
+                    tree.insert(interval.eventId(), toKey(interval.start()), toKey(interval.end()));
+                }
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Removes the booked time of a deleted event.
+     */
+    @Override
+    public void remove(Long eventId) {
+        if (eventId == null) {
+            return;
+        }
+        writeLock.lock();
+        try {
+            Snapshot current = snapshot;
+            RoomInterval previous = current.events().remove(eventId);
+            if (previous != null) {
+                removeFromTree(current.rooms(), previous);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Replaces the index with the booked times currently stored in the database.
+     */
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        writeLock.lock();
+        try {
+            List<RoomInterval> intervals = eventRepository.findAllRoomIntervals();
+            Map<Long, IntervalTree> rooms = new ConcurrentHashMap<>();
+            Map<Long, RoomInterval> events = new ConcurrentHashMap<>();
+            for (RoomInterval interval : intervals) {
+                if (interval.start() == null || interval.end() == null) {
+                    continue;
+                }
+                events.put(interval.eventId(), interval);
+                rooms.computeIfAbsent(interval.roomId(), id -> new IntervalTree())
+                        .insert(interval.eventId(), toKey(interval.start()), toKey(interval.end()));
+            }
+            snapshot = new Snapshot(rooms, events);
+            ready = true;
+            logger.info("Indexed {} bookings in {} rooms", events.size(), rooms.size());
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Compares the index with the database.
+     *
+     * @return true if the index holds exactly the booked times stored in the database
+     */
+    @Override
+    public boolean isConsistent() {
+        writeLock.lock();
+        try {
+            Map<Long, RoomInterval> stored = new HashMap<>();
+            for (RoomInterval interval : eventRepository.findAllRoomIntervals()) {
+                if (interval.start() != null && interval.end() != null) {
+                    stored.put(interval.eventId(), interval);
+                }
+            }
+            Map<Long, RoomInterval> indexed = snapshot.events();
+            if (stored.size() != indexed.size()) {
+                return false;
+            }
+            for (RoomInterval interval : stored.values()) {
+                RoomInterval other = indexed.get(interval.eventId());
+                // Compare by value, timestamps read back from the database can differ in precision
+                if (other == null || !Objects.equals(other.roomId(), interval.roomId())
+                        || toKey(other.start()) != toKey(interval.start()) || toKey(other.end()) != toKey(interval.end())) {
+                    return false;
+                }
+            }
+            return true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Rebuilds the index if it has drifted from the database, e.g. because events were changed by another instance.
+     */
+    @Scheduled(fixedDelayString = "${testing.app.room-index.verify-interval-ms:600000}", initialDelayString = "${testing.app.room-index.verify-interval-ms:600000}")
+    public void verify() {
+        if (!isReady()) {
+            return;
+        }
+        if (!isConsistent()) {
+            logger.warn("Room booking index differs from the database, rebuilding");
+            rebuild();
+        }
+    }
+
+    private static void removeFromTree(Map<Long, IntervalTree> rooms, RoomInterval interval) {
+        IntervalTree tree = rooms.get(interval.roomId());
+        if (tree == null) {
+            return;
+        }
+        synchronized (tree) {
+            tree.remove(interval.eventId(), toKey(interval.start()));
+        }
+    }
+
+    private static long toKey(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,84 @@
+package com.borodkir.teamjob.services.implementations;
+
+import com.borodkir.teamjob.data.TagCatalog;
+import com.borodkir.teamjob.data.TagUsage;
+import com.borodkir.teamjob.data.repositories.EventRepository;
+import com.borodkir.teamjob.data.repositories.RoomRepository;
+import com.borodkir.teamjob.data.repositories.UserRepository;
+import com.borodkir.teamjob.services.ITagCatalogService;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Provides the distinct tags of rooms, users and events for the filter dropdowns.
+ * <p>
+ * The tags are read with grouped projection queries on the tag tables, so no room, user or event is loaded.
+ * The result is cached together with the version it was read at. Every change to the tags of a room, user or event
+ * increases the version, see {@link com.borodkir.teamjob.data.TagIndexListener}, and the next request reads the tags again.
+ */
+@Service
+public class TagCatalogServiceImpl implements ITagCatalogService {
+
+    private final RoomRepository roomRepository;
+    private final UserRepository userRepository;
+    private final EventRepository eventRepository;
+
+    private final AtomicLong version = new AtomicLong();
+    private volatile TagCatalog cached;
+
+    public TagCatalogServiceImpl(RoomRepository roomRepository, UserRepository userRepository, EventRepository eventRepository) {
+        this.roomRepository = roomRepository;
+        this.userRepository = userRepository;
+        this.eventRepository = eventRepository;
+    }
+
+    /**
+     * @return the current tags with their usage counts, read from the database only if they changed
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public TagCatalog getCatalog() {
+        long current = version.get();
+        TagCatalog catalog = cached;
+        if (catalog != null && catalog.version() == current) {
+            return catalog;
+        }
+        // Read with the version from before the queries, a change made meanwhile causes another read next time
+        catalog = new TagCatalog(current,
+                toMap(roomRepository.findTagUsage()),
+                toMap(userRepository.findTagUsage()),
+                toMap(eventRepository.findTagUsage()));
+        cached = catalog;
+        return catalog;
+    }
+
+    /**
+     * Marks the cached tags as outdated.
+     */
+    @Override
+    public void invalidate() {
+        version.incrementAndGet();
+    }
+
+    /**
+     * @return a number that changes whenever the cached data is outdated
+     */
+    @Override
+    public long getVersion() {
+        return version.get();
+    }
+
+    private static Map<String, Long> toMap(List<TagUsage> usages) {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (TagUsage usage : usages) {
+            counts.put(usage.tag(), usage.count());
+        }
+        return Collections.unmodifiableMap(counts);
+    }
+}
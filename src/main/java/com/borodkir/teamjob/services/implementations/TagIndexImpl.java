@@ -0,0 +1,251 @@
+package com.borodkir.teamjob.services.implementations;
+
+import com.borodkir.teamjob.data.TagAssignment;
+import com.borodkir.teamjob.data.repositories.EventRepository;
+import com.borodkir.teamjob.data.repositories.RoomRepository;
+import com.borodkir.teamjob.data.repositories.UserRepository;
+import com.borodkir.teamjob.services.ITagIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Inverted index from tags to the rooms, users and events carrying them.
+ * <p>
+ * Every distinct tag string is interned to an int id once. For every kind of owner a {@link BitSet} per tag id
+ * holds the ids of its owners, so an any-match tag filter is an OR of a few bitsets and candidates are checked
+ * with a single bit lookup instead of comparing string sets.
+ * <ul>
+ *   <li>The index is rebuilt from the 'room_tags', 'user_tags' and 'event_tags' tables once the application is ready
+ *   and patched on every write by {@link com.borodkir.teamjob.data.TagIndexListener}.</li>
+ *   <li>{@link #findAnyTag} returns null while the index is not ready or if an owner id does not fit in a bitset,
+ *   callers then compare the tags of the entities themselves.</li>
+ * </ul>
+ */
+@Service
+public class TagIndexImpl implements ITagIndex {
+    private static final Logger logger = LoggerFactory.getLogger(TagIndexImpl.class);
+
+    /**
+     * Tag ids and owner ids of one kind of owner.
+     */
+    private static final class Postings {
+        final Map<Integer, BitSet> ownersByTag = new HashMap<>();
+        final Map<Long, int[]> tagsByOwner = new HashMap<>();
+
+        /**
+         * @param tagIds the sorted, distinct tag ids of the owner
+         * @return true if the tags of the owner changed
+         */
+        boolean put(long ownerId, int[] tagIds) {
+            int[] previous = tagsByOwner.get(ownerId);
+            if (previous != null ? Arrays.equals(previous, tagIds) : tagIds.length == 0) {
+                return false;
+            }
+            remove(ownerId);
+            if (tagIds.length > 0) {
+                tagsByOwner.put(ownerId, tagIds);
+                for (int tagId : tagIds) {
+                    ownersByTag.computeIfAbsent(tagId, id -> new BitSet()).set((int) ownerId);
+                }
+            }
+            return true;
+        }
+
+        boolean remove(long ownerId) {
+            int[] previous = tagsByOwner.remove(ownerId);
+            if (previous == null) {
+                return false;
+            }
+            for (int tagId : previous) {
+                BitSet owners = ownersByTag.get(tagId);
+                if (owners != null) {
+                    owners.clear((int) ownerId);
+                }
+            }
+            return true;
+        }
+    }
+
+    private final RoomRepository roomRepository;
+    private final UserRepository userRepository;
+    private final EventRepository eventRepository;
+
+    private final Map<String, Integer> tagIds = new ConcurrentHashMap<>();
+    private final List<String> tagNames = new ArrayList<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Map<Kind, Postings> postings = emptyPostings();
+    private volatile boolean ready;
+    private volatile boolean overflow;
+
+    public TagIndexImpl(RoomRepository roomRepository, UserRepository userRepository, EventRepository eventRepository) {
+        this.roomRepository = roomRepository;
+        this.userRepository = userRepository;
+        this.eventRepository = eventRepository;
+    }
+
+    @Override
+    public boolean isReady() {
+        return ready && !overflow;
+    }
+
+    /**
+     * Returns the id of the tag, assigning the next free id to tags seen for the first time.
+     */
+    @Override
+    public int intern(String tag) {
+        Integer id = tagIds.get(tag);
+        if (id != null) {
+            return id;
+        }
+        synchronized (tagNames) {
+            return tagIds.computeIfAbsent(tag, key -> {
+                tagNames.add(key);
+                return tagNames.size() - 1;
+            });
+        }
+    }
+
+    /**
+     * Finds the owners carrying at least one of the tags.
+     *
+     * @param kind the kind of owners to search
+     * @param tags the tags to match
+     * @return a new bitset of the matching owner ids, or null if the index cannot answer
+     */
+    @Override
+    public BitSet findAnyTag(Kind kind, Set<String> tags) {
+        if (!isReady()) {
+            return null;
+        }
+        BitSet result = new BitSet();
+        lock.readLock().lock();
+        try {
+            Postings ofKind = postings.get(kind);
+            for (String tag : tags) {
+                Integer tagId = tagIds.get(tag);
+                BitSet owners = tagId != null ? ofKind.ownersByTag.get(tagId) : null;
+                if (owners != null) {
+                    result.or(owners);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+
+    /**
+     * Replaces the tags of an owner.
+     *
+     * @return true if the tags of the owner changed or could not be compared
+     */
+    @Override
+    public boolean put(Kind kind, Long ownerId, Collection<String> tags) {
+        if (ownerId == null) {
+            return false;
+        }
+        if (ownerId > Integer.MAX_VALUE) {
+            markOverflow(ownerId);
+            return true;
+        }
+        int[] ids = internAll(tags);
+        lock.writeLock().lock();
+        try {
+            return postings.get(kind).put(ownerId, ids);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes all tags of a deleted owner.
+     *
+     * @return true if the owner had tags
+     */
+    @Override
+    public boolean remove(Kind kind, Long ownerId) {
+        if (ownerId == null) {
+            return false;
+        }
+        if (ownerId > Integer.MAX_VALUE) {
+            return true;
+        }
+        lock.writeLock().lock();
+        try {
+            return postings.get(kind).remove(ownerId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces the index with the tags currently stored in the database.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            Map<Kind, Postings> rebuilt = emptyPostings();
+            overflow = false;
+            load(rebuilt.get(Kind.ROOM), roomRepository.findAllTagAssignments());
+            load(rebuilt.get(Kind.USER), userRepository.findAllTagAssignments());
+            load(rebuilt.get(Kind.EVENT), eventRepository.findAllTagAssignments());
+            postings = rebuilt;
+            ready = true;
+            logger.info("Indexed {} distinct tags of {} rooms, {} users and {} events", tagIds.size(),
+                    rebuilt.get(Kind.ROOM).tagsByOwner.size(), rebuilt.get(Kind.USER).tagsByOwner.size(), rebuilt.get(Kind.EVENT).tagsByOwner.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void load(Postings target, List<TagAssignment> assignments) {
+        Map<Long, List<String>> tagsByOwner = new HashMap<>();
+        for (TagAssignment assignment : assignments) {
+            if (assignment.ownerId() > Integer.MAX_VALUE) {
+                markOverflow(assignment.ownerId());
+                continue;
+            }
+            tagsByOwner.computeIfAbsent(assignment.ownerId(), id -> new ArrayList<>()).add(assignment.tag());
+        }
+        tagsByOwner.forEach((ownerId, tags) -> target.put(ownerId, internAll(tags)));
+    }
+
+    private int[] internAll(Collection<String> tags) {
+        return tags.stream().filter(tag -> tag != null).mapToInt(this::intern).distinct().sorted().toArray();
+    }
+
+    private void markOverflow(long ownerId) {
+        if (!overflow) {
+            logger.warn("Id {} does not fit in the tag index, tag filters fall back to comparing tags", ownerId);
+        }
+        overflow = true;
+    }
+
+    private static Map<Kind, Postings> emptyPostings() {
+        Map<Kind, Postings> postings = new EnumMap<>(Kind.class);
+        for (Kind kind : Kind.values()) {
+            postings.put(kind, new Postings());
+        }
+        return postings;
+    }
+}
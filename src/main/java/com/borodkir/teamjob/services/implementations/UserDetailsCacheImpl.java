@@ -0,0 +1,122 @@
+package com.borodkir.teamjob.services.implementations;
+
+import com.borodkir.teamjob.UserDetailsImpl;
+import com.borodkir.teamjob.services.IUserDetailsCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Caches the {@link UserDetails} the token filter authenticates every request with, keyed by username.
+ * <ul>
+ *   <li>An entry is reused for {@code testing.app.user-cache.ttl-seconds}, at most {@code testing.app.user-cache.max-size}
+ *   users are kept. When full, expired entries are dropped, and if all are still fresh the cache starts over.</li>
+ *   <li>A saved or deleted user is removed after the transaction commits, by username and by id so a renamed user
+ *   is not found under the old name, see {@link com.borodkir.teamjob.data.UserDetailsCacheListener}.
+ *   A change to any role removes all users.</li>
+ *   <li>A user loaded while any user or role was written is not stored, it might miss the write.</li>
+ * </ul>
+ * Hits and misses are published as {@code cache.gets}, the hit ratio as {@code cache.hit.ratio} and the time of the
+ * database lookups as {@code cache.load.duration}, all with the tag {@code cache=userDetails}.
+ */
+@Service
+public class UserDetailsCacheImpl implements IUserDetailsCache {
+
+    private static final String CACHE_NAME = "userDetails";
+
+    private record Entry(UserDetails details, long loadedAtNanos) {
+    }
+
+    private final long ttlNanos;
+    private final int maxSize;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong writes = new AtomicLong();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Timer loads;
+
+    public UserDetailsCacheImpl(MeterRegistry meterRegistry,
+                                @Value("${testing.app.user-cache.ttl-seconds:60}") long ttlSeconds,
+                                @Value("${testing.app.user-cache.max-size:10000}") int maxSize) {
+        this.ttlNanos = ttlSeconds * 1_000_000_000L;
+        this.maxSize = maxSize;
+        this.hits = Counter.builder("cache.gets").tag("cache", CACHE_NAME).tag("result", "hit")
+                .description("Users authenticated from the cache").register(meterRegistry);
+        this.misses = Counter.builder("cache.gets").tag("cache", CACHE_NAME).tag("result", "miss")
+                .description("Users loaded from the database").register(meterRegistry);
+        this.loads = Timer.builder("cache.load.duration").tag("cache", CACHE_NAME)
+                .description("Time to load a user from the database").register(meterRegistry);
+        Gauge.builder("cache.hit.ratio", this, UserDetailsCacheImpl::hitRatio).tag("cache", CACHE_NAME)
+                .description("Share of users authenticated from the cache").register(meterRegistry);
+        Gauge.builder("cache.size", entries, Map::size).tag("cache", CACHE_NAME)
+                .description("Users in the cache").register(meterRegistry);
+    }
+
+    /**
+     * @param loader loads the user if not cached or expired, may throw if the user does not exist, which is not cached
+     */
+    @Override
+    public UserDetails get(String username, Function<String, UserDetails> loader) {
+        if (maxSize <= 0 || ttlNanos <= 0) {
+            return loader.apply(username);
+        }
+        long now = System.nanoTime();
+        Entry entry = entries.get(username);
+        if (entry != null && now - entry.loadedAtNanos() < ttlNanos) {
+            hits.increment();
+            return entry.details();
+        }
+        misses.increment();
+
+        long writesBefore = writes.get();
+        UserDetails details = loads.record(() -> loader.apply(username));
+        if (details == null) {
+            return null;
+        }
+        if (entries.size() >= maxSize) {
+            entries.values().removeIf(e -> now - e.loadedAtNanos() >= ttlNanos);
+            if (entries.size() >= maxSize) {
+                entries.clear();
+            }
+        }
+        entries.put(username, new Entry(details, now));
+        // Drop it again if a write committed meanwhile, the loader may have read the user before it
+        if (writes.get() != writesBefore) {
+            entries.remove(username);
+        }
+        return details;
+    }
+
+    @Override
+    public void invalidateUser(Long userId, String username) {
+        writes.incrementAndGet();
+        if (username != null) {
+            entries.remove(username);
+        }
+        if (userId != null) {
+            entries.values().removeIf(e -> e.details() instanceof UserDetailsImpl user && Objects.equals(user.getId(), userId));
+        }
+    }
+
+    @Override
+    public void invalidateAll() {
+        writes.incrementAndGet();
+        entries.clear();
+    }
+
+    private double hitRatio() {
+        double total = hits.count() + misses.count();
+        return total > 0 ? hits.count() / total : 0;
+    }
+}
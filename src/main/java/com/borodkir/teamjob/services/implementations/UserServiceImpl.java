@@ -3,24 +3,61 @@ package com.borodkir.teamjob.services.implementations;
 import com.borodkir.teamjob.UserDetailsImpl;
 import com.borodkir.teamjob.data.User;
 import com.borodkir.teamjob.data.repositories.UserRepository;
+import com.borodkir.teamjob.services.IUserDetailsCache;
 import com.borodkir.teamjob.services.IUserService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
-public class UserServiceImpl implements IUserService, UserDetailsService {
+public class UserServiceImpl implements IUserService, UserDetailsService, UserDetailsPasswordService {
+    private static final Logger logger = LoggerFactory.getLogger(UserServiceImpl.class);
+
     UserRepository userRepository;
+    IUserDetailsCache userDetailsCache;
 
     @Autowired
     public void setUserRepository(UserRepository userRepository) {
         this.userRepository = userRepository;
     }
 
+    @Autowired
+    public void setUserDetailsCache(IUserDetailsCache userDetailsCache) {
+        this.userDetailsCache = userDetailsCache;
+    }
+
+    /**
+     * Loads the user with its roles, from the cache if it was loaded recently.
+     */
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        return userDetailsCache.get(username, this::findUser);
+    }
+
+    /**
+     * Stores the password of a user re-hashed at login because its hash has a lower cost than the current one.
+     * The hash is unchanged if re-hashing was rejected while the hashing threads were busy, then nothing is stored.
+     */
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        if (newPassword.equals(userDetails.getPassword())) {
+            return userDetails;
+        }
+        User user = userRepository.findByUsername(userDetails.getUsername()).orElseThrow(() -> new UsernameNotFoundException(String.format("User %s not found", userDetails.getUsername())));
+        user.setPassword(newPassword);
+        userRepository.save(user);
+        logger.info("Re-hashed the password of user {} with the current cost", user.getUsername());
+        return UserDetailsImpl.build(user);
+    }
+
+    private UserDetails findUser(String username) {
         User user = userRepository.findByUsername(username).orElseThrow(() -> new UsernameNotFoundException(String.format("User %s not found", username)));
         return UserDetailsImpl.build(user);
     }
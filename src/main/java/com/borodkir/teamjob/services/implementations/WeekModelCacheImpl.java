@@ -0,0 +1,199 @@
+package com.borodkir.teamjob.services.implementations;
+
+import com.borodkir.teamjob.data.Event;
+import com.borodkir.teamjob.data.EventInADay;
+import com.borodkir.teamjob.data.RecurrenceRule;
+import com.borodkir.teamjob.services.IWeekModelCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Caches the events of the seven days of the week view, keyed by the first day of the week and the filters.
+ * <ul>
+ *   <li>Filters are normalized, so the same filters in a different order or with different spacing share an entry.</li>
+ *   <li>At most {@code testing.app.week-cache.max-weeks} weeks are kept, the least recently viewed one is evicted first.
+ *   0 disables the cache.</li>
+ *   <li>A saved or deleted event invalidates only the weeks that showed it or in which one of its occurrences lies now,
+ *   a saved or deleted room or user only the weeks that showed it or are filtered by room or user tags,
+ *   see {@link com.borodkir.teamjob.data.WeekModelCacheListener}.</li>
+ *   <li>A week computed while any event was written is not stored, it might miss the write.</li>
+ *   <li>The listeners only see the writes of this instance. With several instances a week is reused for at most
+ *   {@code testing.app.week-cache.ttl-seconds}, which bounds how long a write of another instance is missed.
+ *   0 keeps weeks until they are invalidated, which is only correct for a single instance.</li>
+ * </ul>
+ * The cached days hold {@link EventInADay}s with room and user summaries, never entities.
+ * Hits, misses, evictions, invalidations and the size are published as the {@code cache.*} metrics with the tag
+ * {@code cache=calendarWeeks}, see '/actuator/metrics'.
+ */
+@Service
+public class WeekModelCacheImpl implements IWeekModelCache {
+
+    private static final String CACHE_NAME = "calendarWeeks";
+
+    private record Key(LocalDate weekStart, String userIds, String roomIds, String roomTags, String eventTags, String userTags) {
+    }
+
+    private record Entry(List<List<EventInADay>> days, Set<Long> eventIds, Set<Long> roomIds, Set<Long> userIds, long loadedAtNanos) {
+    }
+
+    private final int maxWeeks;
+    private final long ttlNanos;
+    /**
+     * In access order, guarded by this.
+     */
+    private final LinkedHashMap<Key, Entry> entries;
+    private final AtomicLong eventWrites = new AtomicLong();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+    private final Counter invalidations;
+
+    public WeekModelCacheImpl(MeterRegistry meterRegistry,
+                              @Value("${testing.app.week-cache.max-weeks:256}") int maxWeeks,
+                              @Value("${testing.app.week-cache.ttl-seconds:30}") long ttlSeconds) {
+        this.maxWeeks = maxWeeks;
+        this.ttlNanos = ttlSeconds * 1_000_000_000L;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                if (size() > WeekModelCacheImpl.this.maxWeeks) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+        this.hits = Counter.builder("cache.gets").tag("cache", CACHE_NAME).tag("result", "hit")
+                .description("Week views served from the cache").register(meterRegistry);
+        this.misses = Counter.builder("cache.gets").tag("cache", CACHE_NAME).tag("result", "miss")
+                .description("Week views computed from the events").register(meterRegistry);
+        this.evictions = Counter.builder("cache.evictions").tag("cache", CACHE_NAME)
+                .description("Weeks evicted because the cache was full").register(meterRegistry);
+        this.invalidations = Counter.builder("cache.removals").tag("cache", CACHE_NAME)
+                .description("Weeks invalidated by a write").register(meterRegistry);
+        Gauge.builder("cache.size", this, WeekModelCacheImpl::size).tag("cache", CACHE_NAME)
+                .description("Weeks in the cache").register(meterRegistry);
+    }
+
+    /**
+     * @param weekStart the Monday of the week
+     * @param loader    computes the events of the seven days if the week is not cached
+     * @return the events of each day of the week, unmodifiable
+     */
+    @Override
+    public List<List<EventInADay>> getWeek(LocalDate weekStart, String userIds, String roomIds, String roomTags, String eventTags, String userTags, Supplier<List<List<EventInADay>>> loader) {
+        if (maxWeeks <= 0) {
+            return loader.get();
+        }
+        Key key = new Key(weekStart, normalize(userIds), normalize(roomIds), normalize(roomTags), normalize(eventTags), normalize(userTags));
+        long now = System.nanoTime();
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null && (ttlNanos <= 0 || now - entry.loadedAtNanos() < ttlNanos)) {
+                hits.increment();
+                return entry.days();
+            }
+        }
+        misses.increment();
+
+        long writesBefore = eventWrites.get();
+        List<List<EventInADay>> days = loader.get().stream().map(List::copyOf).toList();
+        Entry entry = new Entry(days,
+                collectIds(days, EventInADay::getId),
+                collectIds(days, event -> event.getRoom() != null ? event.getRoom().getId() : null),
+                collectIds(days, event -> event.getUser() != null ? event.getUser().getId() : null),
+                now);
+        synchronized (this) {
+            if (eventWrites.get() == writesBefore) {
+                entries.put(key, entry);
+            }
+        }
+        return days;
+    }
+
+    /**
+     * Invalidates the weeks that showed the event before, and the weeks an occurrence of it overlaps now.
+     *
+     * @param eventId the id of the saved or deleted event
+     * @param event   the event as saved, null if it was deleted
+     */
+    @Override
+    public void invalidateEvent(Long eventId, Event event) {
+        eventWrites.incrementAndGet();
+        RecurrenceRule rule = event != null ? RecurrenceRule.compile(event) : null;
+        invalidate((key, entry) -> entry.eventIds().contains(eventId) || (event != null && occursInWeek(event, rule, key.weekStart())));
+    }
+
+    /**
+     * Invalidates the weeks showing the room, and the weeks filtered by room tags, which the room might match now.
+     */
+    @Override
+    public void invalidateRoom(Long roomId) {
+        invalidate((key, entry) -> entry.roomIds().contains(roomId) || key.roomTags() != null);
+    }
+
+    /**
+     * Invalidates the weeks showing the user, and the weeks filtered by user tags, which the user might match now.
+     */
+    @Override
+    public void invalidateUser(Long userId) {
+        invalidate((key, entry) -> entry.userIds().contains(userId) || key.userTags() != null);
+    }
+
+    private synchronized void invalidate(BiPredicate<Key, Entry> affected) {
+        int before = entries.size();
+        entries.entrySet().removeIf(e -> affected.test(e.getKey(), e.getValue()));
+        invalidations.increment(before - entries.size());
+    }
+
+    private static boolean occursInWeek(Event event, RecurrenceRule rule, LocalDate weekStart) {
+        LocalDateTime from = weekStart.atStartOfDay();
+        LocalDateTime to = weekStart.plusDays(7).atStartOfDay();
+        if (event.getSeriesStart() != null && event.getSeriesStart().isAfter(to)) {
+            return false;
+        }
+        if (event.getSeriesEnd() != null && event.getSeriesEnd().isBefore(from)) {
+            return false;
+        }
+        return !OccurrenceExpander.expand(event, rule, from, to).isEmpty();
+    }
+
+    private synchronized int size() {
+        return entries.size();
+    }
+
+    private static Set<Long> collectIds(List<List<EventInADay>> days, Function<EventInADay, Long> id) {
+        return days.stream().flatMap(List::stream).map(id).filter(Objects::nonNull).collect(Collectors.toUnmodifiableSet());
+    }
+
+    /**
+     * @return the distinct values of the comma delimited filter in sorted order, or null if there are none
+     */
+    static String normalize(String filter) {
+        if (filter == null) {
+            return null;
+        }
+        Set<String> values = Stream.of(filter.split(",")).map(String::trim).filter(s -> !s.isEmpty())
+                .collect(Collectors.toCollection(TreeSet::new));
+        return values.isEmpty() ? null : String.join(",", values);
+    }
+}
@@ -0,0 +1,123 @@
+package com.borodkir.teamjob;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedPasswordEncoderTest {
+
+    /**
+     * Hashes only once released, to keep the hashing threads busy.
+     */
+    private static final class BlockingEncoder implements PasswordEncoder {
+        final CountDownLatch release = new CountDownLatch(1);
+        boolean upgrade;
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "hash:" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return encode(rawPassword).equals(encodedPassword);
+        }
+
+        @Override
+        public boolean upgradeEncoding(String encodedPassword) {
+            return upgrade;
+        }
+    }
+
+    @Test
+    void encodeAndMatches_HashOnTheHashingThreads() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        try (BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(4), meterRegistry, 2, 8, 5_000)) {
+            String hash = encoder.encode("secret");
+
+            assertTrue(encoder.matches("secret", hash));
+            assertFalse(encoder.matches("wrong", hash));
+            assertEquals(1, meterRegistry.get("password.hashing.duration").tag("operation", "encode").timer().count());
+            assertEquals(2, meterRegistry.get("password.hashing.duration").tag("operation", "matches").timer().count());
+        }
+    }
+
+    @Test
+    void encode_RejectsAtOnceWhenTheQueueIsFull() throws Exception {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        BlockingEncoder blocking = new BlockingEncoder();
+        ExecutorService requests = Executors.newFixedThreadPool(2);
+        try (BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(blocking, meterRegistry, 1, 1, 10_000)) {
+            // One password on the hashing thread, one in the queue
+            Future<String> first = requests.submit(() -> encoder.encode("a"));
+            Future<String> second = requests.submit(() -> encoder.encode("b"));
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (encoder.queueSize() < 1 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+            assertEquals(1, encoder.queueSize());
+            assertEquals(1.0, meterRegistry.get("password.hashing.queue.size").gauge().value());
+
+            long started = System.nanoTime();
+            assertThrows(PasswordHashingRejectedException.class, () -> encoder.encode("c"));
+            assertTrue(System.nanoTime() - started < TimeUnit.SECONDS.toNanos(1));
+            assertEquals(1, meterRegistry.get("password.hashing.rejected").counter().count());
+            // No re-hashing while the queue is this full
+            assertFalse(encoder.upgradeEncoding("$2a$04$abcdefghijklmnopqrstuu"));
+
+            blocking.release.countDown();
+            assertEquals("hash:a", first.get(5, TimeUnit.SECONDS));
+            assertEquals("hash:b", second.get(5, TimeUnit.SECONDS));
+        } finally {
+            requests.shutdown();
+        }
+    }
+
+    @Test
+    void encode_RejectsWhenWaitingLongerThanTheTimeout() {
+        BlockingEncoder blocking = new BlockingEncoder();
+        try (BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(blocking, new SimpleMeterRegistry(), 1, 4, 100)) {
+            assertThrows(PasswordHashingRejectedException.class, () -> encoder.encode("a"));
+            blocking.release.countDown();
+        }
+    }
+
+    @Test
+    void upgradeEncoding_ReportsHashesOfALowerCost() {
+        try (BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(5), new SimpleMeterRegistry(), 1, 4, 5_000)) {
+            String cheap = new BCryptPasswordEncoder(4).encode("secret");
+
+            assertTrue(encoder.upgradeEncoding(cheap));
+            assertFalse(encoder.upgradeEncoding(encoder.encode("secret")));
+            assertTrue(encoder.matches("secret", cheap));
+        }
+    }
+
+    @Test
+    void encode_KeepsTheCurrentHashWhenTheUpgradeIsRejected() {
+        BlockingEncoder blocking = new BlockingEncoder();
+        blocking.upgrade = true;
+        try (BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(blocking, new SimpleMeterRegistry(), 1, 4, 100)) {
+            assertTrue(encoder.upgradeEncoding("hash:old"));
+            // The login re-hashes the password on the same thread, the hashing thread is busy until released
+            assertEquals("hash:old", encoder.encode("secret"));
+            // Only the re-hash following upgradeEncoding falls back to the current hash
+            assertThrows(PasswordHashingRejectedException.class, () -> encoder.encode("secret"));
+            blocking.release.countDown();
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.borodkir.teamjob;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Load benchmark of the week view with {@value #VIEWERS} concurrent viewers, once on the platform thread pool of
+ * Tomcat and once on virtual threads with the {@link ConnectionPoolLimitFilter}, each against its own H2 database
+ * with the generated test data. Every viewer requests a random week around today again and again, the week cache
+ * and the ETags are off so every request reaches the database. Logs throughput and latency percentiles of both.
+ * <p>
+ * Takes about a minute and needs {@code ulimit -n} of at least 8192, so it only runs with the environment variable
+ * {@code BENCHMARK} set, e.g. {@code BENCHMARK=1 ./gradlew test --tests '*CalendarLoadBenchmarkTest'}.
+ */
+@EnabledIfEnvironmentVariable(named = "BENCHMARK", matches = ".+")
+class CalendarLoadBenchmarkTest {
+    private static final Logger logger = LoggerFactory.getLogger(CalendarLoadBenchmarkTest.class);
+
+    private static final int VIEWERS = 2_000;
+    private static final Duration WARM_UP = Duration.ofSeconds(5);
+    private static final Duration MEASUREMENT = Duration.ofSeconds(20);
+
+    private record Result(String mode, long requests, long failures, double perSecond, double p50Millis, double p99Millis) {
+        @Override
+        public String toString() {
+            return String.format("%-16s %8d requests %6d failed %8.1f/s  p50 %7.1f ms  p99 %7.1f ms",
+                    mode, requests, failures, perSecond, p50Millis, p99Millis);
+        }
+    }
+
+    @Test
+    void weekView_PlatformThreadsVersusVirtualThreads() throws Exception {
+        Result platform = run("platform threads", false);
+        Result virtual = run("virtual threads", true);
+
+        logger.info("Week view with {} concurrent viewers:\n{}\n{}", VIEWERS, platform, virtual);
+        assertTrue(platform.requests() > 0, platform.toString());
+        assertTrue(virtual.requests() > 0, virtual.toString());
+    }
+
+    private Result run(String mode, boolean virtualThreads) throws Exception {
+        // Command line arguments, so they override application-test.properties, which logs warnings only
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(TeamJobApplication.class)
+                .profiles("test")
+                .run("--server.port=0",
+                        "--spring.threads.virtual.enabled=" + virtualThreads,
+                        "--spring.datasource.url=jdbc:h2:mem:benchmark-" + virtualThreads + ";DB_CLOSE_DELAY=-1",
+                        "--testing.app.week-cache.max-weeks=0",
+                        "--testing.app.calendar-etag.enabled=false",
+                        "--logging.level.com.borodkir.teamjob.CalendarLoadBenchmarkTest=INFO")) {
+            int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+            UserDetailsImpl user = (UserDetailsImpl) context.getBean(UserDetailsService.class).loadUserByUsername("useruser");
+            String token = context.getBean(JwtCore.class).generateToken(user);
+
+            measure(port, token, WARM_UP, new ArrayList<>(), new AtomicLong());
+            List<Long> latencies = new ArrayList<>();
+            AtomicLong failures = new AtomicLong();
+            long elapsedNanos = measure(port, token, MEASUREMENT, latencies, failures);
+
+            long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+            return new Result(mode, sorted.length, failures.get(), sorted.length * 1e9 / elapsedNanos,
+                    percentile(sorted, 0.50) / 1e6, percentile(sorted, 0.99) / 1e6);
+        }
+    }
+
+    /**
+     * Lets every viewer request weeks until the duration is over.
+     *
+     * @return the nanoseconds taken
+     */
+    private static long measure(int port, String token, Duration duration, List<Long> latencies, AtomicLong failures) throws Exception {
+        LocalDate today = LocalDate.now();
+        long started = System.nanoTime();
+        long end = started + duration.toNanos();
+        try (ExecutorService viewers = Executors.newVirtualThreadPerTaskExecutor();
+             HttpClient client = HttpClient.newBuilder()
+                     .version(HttpClient.Version.HTTP_1_1)
+                     .connectTimeout(Duration.ofSeconds(30))
+                     .executor(viewers)
+                     .build()) {
+            List<Future<List<Long>>> futures = new ArrayList<>(VIEWERS);
+            for (int i = 0; i < VIEWERS; i++) {
+                futures.add(viewers.submit(() -> {
+                    List<Long> own = new ArrayList<>();
+                    while (System.nanoTime() < end) {
+                        LocalDate date = today.plusWeeks(ThreadLocalRandom.current().nextInt(-1, 2));
+                        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/calendar?date=" + date))
+                                .header("Authorization", "Bearer " + token)
+                                .timeout(Duration.ofSeconds(60))
+                                .build();
+                        long requested = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() == 200) {
+                                own.add(System.nanoTime() - requested);
+                            } else {
+                                failures.incrementAndGet();
+                            }
+                        } catch (Exception e) {
+                            failures.incrementAndGet();
+                        }
+                    }
+                    return own;
+                }));
+            }
+            for (Future<List<Long>> future : futures) {
+                latencies.addAll(future.get());
+            }
+        }
+        return System.nanoTime() - started;
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(quantile * sorted.length) - 1)];
+    }
+}
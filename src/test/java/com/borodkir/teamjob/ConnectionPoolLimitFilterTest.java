@@ -0,0 +1,76 @@
+package com.borodkir.teamjob;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConnectionPoolLimitFilterTest {
+
+    private static MockHttpServletRequest request(String path) {
+        return new MockHttpServletRequest("GET", path);
+    }
+
+    @Test
+    void doFilter_DoesNotLimitPlatformThreads() throws Exception {
+        ConnectionPoolLimitFilter filter = new ConnectionPoolLimitFilter(new SimpleMeterRegistry(), false, 1, 1, 0);
+        AtomicInteger passed = new AtomicInteger();
+
+        // Nested requests would need two permits
+        filter.doFilter(request("/calendar"), new MockHttpServletResponse(),
+                (req, res) -> filter.doFilter(request("/api/v1/rooms"), new MockHttpServletResponse(),
+                        (req2, res2) -> passed.incrementAndGet()));
+
+        assertEquals(1, passed.get());
+    }
+
+    @Test
+    void doFilter_RejectsRequestsBeyondThePermitsAfterTheTimeout() throws Exception {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ConnectionPoolLimitFilter filter = new ConnectionPoolLimitFilter(meterRegistry, true, 1, 1, 50);
+        CountDownLatch inChain = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> holding = executor.submit(() -> {
+                filter.doFilter(request("/calendar"), new MockHttpServletResponse(), (req, res) -> {
+                    inChain.countDown();
+                    try {
+                        release.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+                return null;
+            });
+            assertTrue(inChain.await(5, TimeUnit.SECONDS));
+            assertEquals(0.0, meterRegistry.get("db.request.limit.available").gauge().value());
+
+            MockHttpServletResponse rejected = new MockHttpServletResponse();
+            filter.doFilter(request("/calendar"), rejected, (req, res) -> fail("Must not pass without a permit"));
+            assertEquals(503, rejected.getStatus());
+            assertEquals("1", rejected.getHeader("Retry-After"));
+            assertEquals(1, meterRegistry.get("db.request.limit.rejected").counter().count());
+
+            // Static resources do not need a permit
+            AtomicInteger passed = new AtomicInteger();
+            filter.doFilter(request("/css/calendar.css"), new MockHttpServletResponse(), (req, res) -> passed.incrementAndGet());
+            assertEquals(1, passed.get());
+
+            release.countDown();
+            holding.get(5, TimeUnit.SECONDS);
+            assertEquals(1.0, meterRegistry.get("db.request.limit.available").gauge().value());
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.borodkir.teamjob;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtCoreTest {
+
+    private static final String SECRET = "WHATEVERPLEASEWORKIBEGYOUWHATEVERPLEASEWORKIBEGYOU";
+    private static final SecretKey KEY = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+
+    private static String token(String subject, long validMillis) {
+        long now = System.currentTimeMillis();
+        return Jwts.builder()
+                .subject(subject)
+                .issuedAt(new Date(now))
+                .expiration(new Date(now + validMillis))
+                .signWith(KEY)
+                .compact();
+    }
+
+    @Test
+    void generateToken_IsAcceptedByTheVerifier() {
+        JwtCore jwtCore = new JwtCore(SECRET, 60, 100);
+        UserDetailsImpl user = new UserDetailsImpl(1L, "alice", "alice@example.com", "hash", List.of(new SimpleGrantedAuthority("ROLE_USER")));
+
+        String token = jwtCore.generateToken(new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+
+        assertEquals("alice", jwtCore.getNameFromJwtToken(token));
+        assertEquals("alice", new JwtCore(SECRET, 60, 100).getNameFromJwtToken(token));
+    }
+
+    @Test
+    void generateToken_CarriesTheUserIdRolesAndRoleVersion() {
+        JwtCore jwtCore = new JwtCore(SECRET, 60, 100);
+        UserDetailsImpl user = new UserDetailsImpl(7L, "alice", "alice@example.com", "hash",
+                List.of(new SimpleGrantedAuthority("ROLE_USER"), new SimpleGrantedAuthority("ROLE_CONFIG")), 3);
+
+        String token = jwtCore.generateToken(user);
+
+        // Once from the tokens issued by this instance, once parsed by another instance
+        for (JwtCore verifier : List.of(jwtCore, new JwtCore(SECRET, 60, 100))) {
+            JwtCore.TokenClaims claims = verifier.verify(token);
+            assertNotNull(claims);
+            assertEquals("alice", claims.subject());
+            assertEquals(7L, claims.userId());
+            assertEquals(List.of("ROLE_USER", "ROLE_CONFIG"), claims.roles());
+            assertEquals(3, claims.roleVersion());
+
+            UserDetailsImpl details = claims.toUserDetails();
+            assertEquals(7L, details.getId());
+            assertEquals("alice", details.getUsername());
+            assertNull(details.getPassword());
+            assertEquals(List.of("ROLE_USER", "ROLE_CONFIG"),
+                    details.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList());
+        }
+    }
+
+    @Test
+    void verify_ReadsTokensWithoutTheUserClaims() {
+        JwtCore.TokenClaims claims = new JwtCore(SECRET, 60, 100).verify(token("alice", 60_000));
+
+        assertNotNull(claims);
+        assertEquals("alice", claims.subject());
+        assertNull(claims.userId());
+        assertEquals(List.of(), claims.roles());
+        assertEquals(0, claims.roleVersion());
+    }
+
+    @Test
+    void getNameFromJwtToken_RejectsForgedAndExpiredTokens() {
+        JwtCore jwtCore = new JwtCore(SECRET, 60, 100);
+        String token = token("alice", 60_000);
+        assertEquals("alice", jwtCore.getNameFromJwtToken(token));
+
+        // A cached token must not make a token with a different signature pass
+        String forged = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+        assertNull(jwtCore.getNameFromJwtToken(forged));
+        SecretKey otherKey = Keys.hmacShaKeyFor("ANOTHERSECRETANOTHERSECRETANOTHERSECRETANOTHERSECRET".getBytes(StandardCharsets.UTF_8));
+        assertNull(jwtCore.getNameFromJwtToken(Jwts.builder().subject("alice").expiration(new Date(System.currentTimeMillis() + 60_000)).signWith(otherKey).compact()));
+        assertNull(jwtCore.getNameFromJwtToken(token("alice", -1_000)));
+        assertNull(jwtCore.getNameFromJwtToken("not a token"));
+        assertNull(jwtCore.getNameFromJwtToken(null));
+    }
+
+    @Test
+    void getNameFromJwtToken_ForgetsTokensOnceTheyExpire() throws Exception {
+        JwtCore jwtCore = new JwtCore(SECRET, 60, 100);
+        // Expiry is stored in whole seconds
+        String token = token("alice", 2_000);
+        assertEquals("alice", jwtCore.getNameFromJwtToken(token));
+        assertEquals(1, jwtCore.cachedTokens());
+
+        Thread.sleep(2_500);
+
+        assertNull(jwtCore.getNameFromJwtToken(token));
+        assertEquals(0, jwtCore.cachedTokens());
+    }
+
+    @Test
+    void getNameFromJwtToken_StaysWithinTheCacheSize() {
+        JwtCore jwtCore = new JwtCore(SECRET, 60, 10);
+        for (int i = 0; i < 25; i++) {
+            assertEquals("user" + i, jwtCore.getNameFromJwtToken(token("user" + i, 60_000)));
+            assertTrue(jwtCore.cachedTokens() <= 10);
+        }
+    }
+
+    @Test
+    void getNameFromJwtToken_IsThreadSafe() throws Exception {
+        JwtCore jwtCore = new JwtCore(SECRET, 60, 50);
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            tokens.add(token("user" + i, 60_000));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < 8; thread++) {
+                futures.add(executor.submit(() -> {
+                    for (int round = 0; round < 20; round++) {
+                        for (int i = 0; i < tokens.size(); i++) {
+                            assertEquals("user" + i, jwtCore.getNameFromJwtToken(tokens.get(i)));
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Microbenchmark of the verification of a token arriving again, with and without the cache.
+     */
+    @Test
+    void getNameFromJwtToken_CachedVerificationIsFaster() {
+        JwtCore cached = new JwtCore(SECRET, 60, 100);
+        JwtCore uncached = new JwtCore(SECRET, 60, 0);
+        String token = token("alice", 60_000);
+        int iterations = 20_000;
+
+        // Warm up both paths for the JIT
+        measure(cached, token, iterations);
+        measure(uncached, token, iterations);
+
+        long cachedNanos = measure(cached, token, iterations);
+        long uncachedNanos = measure(uncached, token, iterations);
+
+        assertTrue(cachedNanos * 2 < uncachedNanos,
+                "cached: " + cachedNanos / iterations + " ns, uncached: " + uncachedNanos / iterations + " ns");
+    }
+
+    private static long measure(JwtCore jwtCore, String token, int iterations) {
+        long started = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            if (jwtCore.getNameFromJwtToken(token) == null) {
+                fail("Token rejected");
+            }
+        }
+        return System.nanoTime() - started;
+    }
+}
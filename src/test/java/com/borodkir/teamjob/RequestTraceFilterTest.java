@@ -0,0 +1,59 @@
+package com.borodkir.teamjob;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestTraceFilterTest {
+
+    private static MockHttpServletRequest request(String traceHeader) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/calendar/week");
+        if (traceHeader != null) {
+            request.addHeader(RequestTraceFilter.TRACE_HEADER, traceHeader);
+        }
+        return request;
+    }
+
+    @Test
+    void isTraced_SamplesOneInNRequests() {
+        assertFalse(new RequestTraceFilter(0, "").isTraced(request(null)));
+        assertTrue(new RequestTraceFilter(1, "").isTraced(request(null)));
+
+        RequestTraceFilter filter = new RequestTraceFilter(10, "");
+        int traced = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (filter.isTraced(request(null))) {
+                traced++;
+            }
+        }
+        assertTrue(traced > 700 && traced < 1300, "traced " + traced + " of 10000");
+    }
+
+    @Test
+    void isTraced_OnlyAcceptsTheConfiguredHeaderToken() {
+        assertFalse(new RequestTraceFilter(0, "").isTraced(request("")));
+        assertFalse(new RequestTraceFilter(0, "").isTraced(request("anything")));
+
+        RequestTraceFilter filter = new RequestTraceFilter(0, "s3cret");
+        assertTrue(filter.isTraced(request("s3cret")));
+        assertFalse(filter.isTraced(request("wrong")));
+        assertFalse(filter.isTraced(request(null)));
+    }
+
+    @Test
+    void doFilter_TracesOnlyWhileTheRequestIsProcessed() throws Exception {
+        AtomicBoolean activeInChain = new AtomicBoolean();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        new RequestTraceFilter(1, "").doFilter(request(null), response,
+                (req, res) -> activeInChain.set(RequestTrace.isActive()));
+
+        assertTrue(activeInChain.get());
+        assertFalse(RequestTrace.isActive());
+        assertNotNull(response.getHeader(RequestTraceFilter.TRACE_HEADER));
+    }
+}
@@ -0,0 +1,106 @@
+package com.borodkir.teamjob.data;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntervalSetTest {
+
+    private static IntervalSet set(long... bounds) {
+        IntervalSet.Builder builder = IntervalSet.builder();
+        for (int i = 0; i < bounds.length; i += 2) {
+            builder.add(bounds[i], bounds[i + 1]);
+        }
+        return builder.build();
+    }
+
+    @Test
+    void builder_MergesOverlappingNestedAndTouchingIntervals() {
+        assertEquals(set(0, 30, 40, 50), set(20, 30, 0, 10, 5, 8, 10, 20, 40, 50, 45, 45));
+    }
+
+    @Test
+    void union_Intersect_Complement() {
+        IntervalSet a = set(0, 10, 20, 30);
+        IntervalSet b = set(5, 25);
+
+        assertEquals(set(0, 30), a.union(b));
+        assertEquals(set(5, 10, 20, 25), a.intersect(b));
+        assertEquals(set(-5, 0, 10, 20, 30, 35), a.complement(-5, 35));
+        assertEquals(set(12, 18), a.complement(set(12, 18)));
+        assertTrue(a.complement(0, 10).isEmpty());
+    }
+
+    @Test
+    void withMinLength_DropsShortIntervals() {
+        IntervalSet set = set(0, 10, 20, 50);
+
+        assertEquals(set(20, 50), set.withMinLength(11));
+        assertSame(set, set.withMinLength(10));
+        assertEquals(40, set.totalMinutes());
+    }
+
+    @Test
+    void within_RoundsInwardsAndBuilderRoundsOutwards() {
+        LocalDateTime start = LocalDateTime.of(2025, 5, 16, 10, 0, 30);
+        LocalDateTime end = LocalDateTime.of(2025, 5, 16, 11, 0, 30);
+
+        IntervalSet window = IntervalSet.within(start, end);
+        IntervalSet busy = IntervalSet.builder().add(start, end).build();
+
+        assertEquals(LocalDateTime.of(2025, 5, 16, 10, 1), IntervalSet.toDateTime(window.start(0)));
+        assertEquals(LocalDateTime.of(2025, 5, 16, 11, 0), IntervalSet.toDateTime(window.end(0)));
+        assertEquals(LocalDateTime.of(2025, 5, 16, 10, 0), IntervalSet.toDateTime(busy.start(0)));
+        assertEquals(LocalDateTime.of(2025, 5, 16, 11, 1), IntervalSet.toDateTime(busy.end(0)));
+    }
+
+    @Test
+    void operations_MatchMinuteByMinuteModel() {
+        Random random = new Random(7);
+        int length = 200;
+        for (int round = 0; round < 500; round++) {
+            boolean[] inA = new boolean[length];
+            boolean[] inB = new boolean[length];
+            IntervalSet a = randomSet(random, inA);
+            IntervalSet b = randomSet(random, inB);
+
+            boolean[] union = new boolean[length];
+            boolean[] intersection = new boolean[length];
+            boolean[] complement = new boolean[length];
+            for (int m = 0; m < length; m++) {
+                union[m] = inA[m] || inB[m];
+                intersection[m] = inA[m] && inB[m];
+                complement[m] = !inA[m];
+            }
+            assertEquals(toSet(union), a.union(b));
+            assertEquals(toSet(intersection), a.intersect(b));
+            assertEquals(toSet(complement), a.complement(0, length));
+        }
+    }
+
+    private static IntervalSet randomSet(Random random, boolean[] minutes) {
+        IntervalSet.Builder builder = IntervalSet.builder();
+        for (int i = random.nextInt(8); i > 0; i--) {
+            int start = random.nextInt(minutes.length);
+            int end = Math.min(minutes.length, start + random.nextInt(40));
+            builder.add(start, end);
+            for (int m = start; m < end; m++) {
+                minutes[m] = true;
+            }
+        }
+        return builder.build();
+    }
+
+    private static IntervalSet toSet(boolean[] minutes) {
+        IntervalSet.Builder builder = IntervalSet.builder();
+        for (int m = 0; m < minutes.length; m++) {
+            if (minutes[m]) {
+                builder.add(m, m + 1);
+            }
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,73 @@
+package com.borodkir.teamjob.data;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecurrenceRuleTest {
+
+    private static long epochDay(int year, int month, int day) {
+        return LocalDate.of(year, month, day).toEpochDay();
+    }
+
+    @Test
+    void parse_FrequencyIntervalAndByDay() {
+        RecurrenceRule rule = RecurrenceRule.parse("FREQ=WEEKLY;INTERVAL=2;BYDAY=MO,WE,-1FR", null, null, null);
+
+        assertEquals(RecurrenceRule.Frequency.WEEKLY, rule.frequency());
+        assertEquals(2, rule.interval());
+        assertTrue(rule.hasByDay());
+        assertTrue(rule.includesDay(DayOfWeek.MONDAY));
+        assertTrue(rule.includesDay(DayOfWeek.WEDNESDAY));
+        assertTrue(rule.includesDay(DayOfWeek.FRIDAY));
+        assertFalse(rule.includesDay(DayOfWeek.TUESDAY));
+        assertEquals(Long.MAX_VALUE, rule.untilEpochDay());
+        assertTrue(rule.isValid());
+    }
+
+    @Test
+    void parse_MissingOrUnknownFrequency_IsInvalid() {
+        assertFalse(RecurrenceRule.parse(null, null, null, null).isValid());
+        assertFalse(RecurrenceRule.parse("FREQ=HOURLY", null, null, null).isValid());
+        assertEquals(1, RecurrenceRule.parse("FREQ=DAILY;INTERVAL=0", null, null, null).interval());
+    }
+
+    @Test
+    void parse_UntilAndRecurrenceEndDate_EarlierOneWins() {
+        RecurrenceRule untilFirst = RecurrenceRule.parse("FREQ=DAILY;UNTIL=20250601T120000Z", null, null,
+                LocalDateTime.of(2025, 7, 1, 0, 0));
+        RecurrenceRule endDateFirst = RecurrenceRule.parse("FREQ=DAILY;UNTIL=20250601", null, null,
+                LocalDateTime.of(2025, 5, 20, 0, 0));
+
+        assertEquals(epochDay(2025, 6, 1), untilFirst.untilEpochDay());
+        assertTrue(untilFirst.isAfterUntil(epochDay(2025, 6, 2)));
+        assertFalse(untilFirst.isAfterUntil(epochDay(2025, 6, 1)));
+        assertEquals(epochDay(2025, 5, 20), endDateFirst.untilEpochDay());
+    }
+
+    @Test
+    void parse_ExdatesAndRdates_SortedAndDistinct() {
+        RecurrenceRule rule = RecurrenceRule.parse("FREQ=DAILY", "20250520T100000, 20250518,20250520", "20250601,", null);
+
+        assertArrayEquals(new long[]{epochDay(2025, 5, 18), epochDay(2025, 5, 20)}, rule.exdates());
+        assertArrayEquals(new long[]{epochDay(2025, 6, 1)}, rule.rdates());
+        assertTrue(rule.isExcluded(epochDay(2025, 5, 18)));
+        assertFalse(rule.isExcluded(epochDay(2025, 5, 19)));
+        assertEquals(0, RecurrenceRule.parseDates(" ").length);
+    }
+
+    @Test
+    void equals_ComparesDatesByContent() {
+        RecurrenceRule a = RecurrenceRule.parse("FREQ=DAILY", "20250518", "20250601", null);
+        RecurrenceRule b = RecurrenceRule.parse("FREQ=DAILY", "20250518", "20250601", null);
+        RecurrenceRule c = RecurrenceRule.parse("FREQ=DAILY", "20250519", "20250601", null);
+
+        assertEquals(a, b);
+        assertEquals(a.hashCode(), b.hashCode());
+        assertNotEquals(a, c);
+    }
+}
@@ -0,0 +1,123 @@
+package com.borodkir.teamjob.data.repositories;
+
+import com.borodkir.teamjob.data.Event;
+import com.borodkir.teamjob.data.Role;
+import com.borodkir.teamjob.data.Room;
+import com.borodkir.teamjob.data.User;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.security.test.context.support.WithMockUser;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that loading the events of a calendar window takes the same number of statements however many events,
+ * rooms and users it contains.
+ */
+@WithMockUser
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class EventFetchPlanTest {
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Role role;
+
+    final LocalDateTime baseTime = LocalDateTime.now()
+            .withHour(9)
+            .withMinute(0)
+            .withSecond(0)
+            .withNano(0);
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        role = new Role();
+        role.setName("ROLE_FETCH_PLAN_TEST");
+        entityManager.persist(role);
+    }
+
+    private void createEvents(String prefix, int count, LocalDateTime start) {
+        for (int i = 0; i < count; i++) {
+            Room room = new Room();
+            room.setName(prefix + " room " + i);
+            room.setTags(Set.of("rooms_" + prefix));
+            room.setCreatedBy("testUser");
+            room.setCreatedDate(baseTime);
+            entityManager.persist(room);
+
+            User user = new User();
+            user.setUsername(prefix + "user" + i);
+            user.setEmail(prefix + "user" + i + "@example.com");
+            user.setTags(Set.of("users_" + prefix));
+            user.addRole(role);
+            user.setCreatedBy("testUser");
+            user.setCreatedDate(baseTime);
+            entityManager.persist(user);
+
+            Event event = new Event();
+            event.setTitle(prefix + " event " + i);
+            event.setStartTime(start.plusMinutes(i));
+            event.setEndTime(start.plusMinutes(i + 30));
+            event.setRoom(room);
+            event.setUser(user);
+            event.setTags(Set.of("event_" + prefix, "event_" + i));
+            event.setCreatedBy("testUser");
+            event.setCreatedDate(baseTime);
+            entityManager.persist(event);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    /**
+     * Loads the window and touches everything the calendar views read.
+     *
+     * @return the number of prepared statements
+     */
+    private long countStatements(LocalDateTime start, int expectedEvents) {
+        statistics.clear();
+        List<Event> events = eventRepository.findOverlappingEvents(start, start.plusHours(2));
+        assertThat(events).hasSize(expectedEvents);
+        for (Event event : events) {
+            assertThat(event.getTags()).hasSize(2);
+            assertThat(event.getRoom().getTags()).hasSize(1);
+            assertThat(event.getUser().getTags()).hasSize(1);
+            assertThat(event.getUser().getRoles()).hasSize(1);
+        }
+        long statements = statistics.getPrepareStatementCount();
+        entityManager.clear();
+        return statements;
+    }
+
+    @Test
+    void findOverlappingEvents_StatementCountDoesNotGrowWithEvents() {
+        LocalDateTime smallWindow = baseTime.minusDays(10);
+        LocalDateTime largeWindow = baseTime.plusDays(10);
+        createEvents("small", 3, smallWindow);
+        createEvents("large", 60, largeWindow);
+
+        long small = countStatements(smallWindow, 3);
+        long large = countStatements(largeWindow, 60);
+
+        assertThat(large).isEqualTo(small);
+        assertThat(large).isLessThanOrEqualTo(5);
+    }
+}
@@ -0,0 +1,141 @@
+package com.borodkir.teamjob.data.repositories;
+
+import com.borodkir.teamjob.data.Event;
+import com.borodkir.teamjob.data.EventOccurrence;
+import com.borodkir.teamjob.data.Occurrence;
+import com.borodkir.teamjob.data.Room;
+import com.borodkir.teamjob.data.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.security.test.context.support.WithMockUser;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@WithMockUser
+@DataJpaTest
+class EventOccurrenceRepositoryTest {
+
+    @Autowired
+    private EventOccurrenceRepository eventOccurrenceRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private final LocalDateTime baseTime = LocalDateTime.of(2025, 9, 1, 9, 0);
+
+    private Room roomA;
+    private Room roomB;
+    private User user;
+    private Event inRoomA;
+    private Event inRoomB;
+
+    @BeforeEach
+    void setUp() {
+        roomA = room("Room A");
+        roomB = room("Room B");
+        user = user("occurrenceuser");
+
+        inRoomA = event("Daily stand-up", roomA, user("standupuser"));
+        inRoomB = event("Review", roomB, user);
+        // Three daily occurrences in room A, one in room B of the queried user
+        for (int day = 0; day < 3; day++) {
+            store(inRoomA, baseTime.plusDays(day), baseTime.plusDays(day).plusMinutes(15));
+        }
+        store(inRoomB, baseTime.plusHours(1), baseTime.plusHours(2));
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private Room room(String name) {
+        Room room = new Room();
+        room.setName(name);
+        room.setCreatedBy("testUser");
+        room.setCreatedDate(baseTime);
+        return entityManager.persist(room);
+    }
+
+    private User user(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        user.setCreatedBy("testUser");
+        user.setCreatedDate(baseTime);
+        return entityManager.persist(user);
+    }
+
+    private Event event(String title, Room room, User user) {
+        Event event = new Event();
+        event.setTitle(title);
+        event.setStartTime(baseTime);
+        event.setEndTime(baseTime.plusMinutes(15));
+        event.setRoom(room);
+        event.setUser(user);
+        event.setTags(Set.of("event_Test"));
+        event.setCreatedBy("testUser");
+        event.setCreatedDate(baseTime);
+        return entityManager.persist(event);
+    }
+
+    private void store(Event event, LocalDateTime start, LocalDateTime end) {
+        entityManager.persist(new EventOccurrence(new Occurrence(event, start, end)));
+    }
+
+    private static List<String> describe(List<Occurrence> occurrences) {
+        return occurrences.stream().map(o -> o.event().getTitle() + "@" + o.start()).toList();
+    }
+
+    @Test
+    void findOccurrences_ReturnsOverlappingOccurrencesOrderedByStart() {
+        List<Occurrence> firstDay = eventOccurrenceRepository.findOccurrences(baseTime, baseTime.plusDays(1));
+
+        assertThat(describe(firstDay)).containsExactly(
+                "Daily stand-up@" + baseTime,
+                "Review@" + baseTime.plusHours(1));
+        // An occurrence ending exactly at the window start does not overlap it
+        assertThat(eventOccurrenceRepository.findOccurrences(baseTime.plusMinutes(15), baseTime.plusHours(1))).isEmpty();
+    }
+
+    @Test
+    void findOccurrencesInRoomsAndOfUsers_RestrictToTheGivenIds() {
+        LocalDateTime end = baseTime.plusDays(3);
+
+        assertThat(describe(eventOccurrenceRepository.findOccurrencesInRooms(Set.of(roomA.getId()), baseTime, end)))
+                .containsExactly("Daily stand-up@" + baseTime, "Daily stand-up@" + baseTime.plusDays(1),
+                        "Daily stand-up@" + baseTime.plusDays(2));
+        assertThat(describe(eventOccurrenceRepository.findOccurrencesOfUsers(Set.of(user.getId()), baseTime, end)))
+                .containsExactly("Review@" + baseTime.plusHours(1));
+    }
+
+    @Test
+    void findLastMaterializedStarts_ReturnsTheLatestStartPerEvent() {
+        Map<Long, LocalDateTime> lastStarts = new HashMap<>();
+        for (Object[] row : eventOccurrenceRepository.findLastMaterializedStarts()) {
+            lastStarts.put((Long) row[0], (LocalDateTime) row[1]);
+        }
+
+        assertThat(lastStarts).containsOnly(
+                Map.entry(inRoomA.getId(), baseTime.plusDays(2)),
+                Map.entry(inRoomB.getId(), baseTime.plusHours(1)));
+    }
+
+    @Test
+    void deleteByEventIdAndDeleteOrphans_RemoveOnlyTheirRows() {
+        assertThat(eventOccurrenceRepository.deleteByEventId(inRoomA.getId())).isEqualTo(3);
+        assertThat(eventOccurrenceRepository.deleteOrphans()).isZero();
+
+        entityManager.remove(entityManager.find(Event.class, inRoomB.getId()));
+        entityManager.flush();
+
+        assertThat(eventOccurrenceRepository.deleteOrphans()).isEqualTo(1);
+        assertThat(eventOccurrenceRepository.count()).isZero();
+    }
+}
@@ -11,6 +11,7 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.security.test.context.support.WithMockUser;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Optional;
 import java.util.Set;
 import java.util.List;
@@ -164,6 +165,62 @@ class EventRepositoryTest {
         assertThat(found).isTrue();
     }
 
+    @Test
+    void existsBookingInRoom() {
+        // Without PostgreSQL the check falls back to comparing start and end time, touching bookings overlap
+        assertThat(eventRepository.existsBookingInRoom(testRoom.getId(), testEvent.getEndTime(), testEvent.getEndTime().plusHours(1))).isTrue();
+        assertThat(eventRepository.existsBookingInRoom(testRoom.getId(), testEvent.getEndTime().plusMinutes(1), testEvent.getEndTime().plusHours(1))).isFalse();
+        assertThat(eventRepository.existsBookingInRoom(testRoom.getId() + 1, testEvent.getStartTime(), testEvent.getEndTime())).isFalse();
+    }
+
+    @Test
+    void findRoomIntervalsBetween() {
+        // Same overlap rule as existsBookingInRoom, touching bookings overlap
+        assertThat(eventRepository.findRoomIntervalsBetween(testEvent.getEndTime(), testEvent.getEndTime().plusHours(1)))
+                .singleElement()
+                .satisfies(interval -> {
+                    assertThat(interval.eventId()).isEqualTo(testEvent.getId());
+                    assertThat(interval.roomId()).isEqualTo(testRoom.getId());
+                });
+        assertThat(eventRepository.findRoomIntervalsBetween(testEvent.getEndTime().plusMinutes(1), testEvent.getEndTime().plusHours(1))).isEmpty();
+    }
+
+    @Test
+    void findWindowVersion() {
+        var version = eventRepository.findWindowVersion(baseTime.minusHours(1), baseTime.plusHours(2));
+        assertThat(version.count()).isEqualTo(1);
+        assertThat(version.lastModified()).isNotNull();
+
+        assertThat(eventRepository.findWindowVersionInRooms(Set.of(testRoom.getId() + 1), baseTime.minusHours(1), baseTime.plusHours(2)).count()).isZero();
+        assertThat(eventRepository.findWindowVersionOfUsers(Set.of(testEvent.getUser().getId()), baseTime.minusHours(1), baseTime.plusHours(2)).count()).isEqualTo(1);
+        var empty = eventRepository.findWindowVersion(baseTime.plusDays(1), baseTime.plusDays(2));
+        assertThat(empty.count()).isZero();
+        assertThat(empty.lastModified()).isNull();
+    }
+
+    @Test
+    void insertAll() {
+        List<Event> events = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            Event event = new Event();
+            event.setTitle("Bulk event " + i);
+            event.setStartTime(baseTime.plusDays(1).plusMinutes(i));
+            event.setEndTime(baseTime.plusDays(1).plusMinutes(i + 1));
+            event.setRoom(testRoom);
+            event.setUser(testEvent.getUser());
+            event.setTags(Set.of("tag" + i % 3));
+            event.setCreatedBy("testUser");
+            event.setCreatedDate(baseTime);
+            events.add(event);
+        }
+
+        eventRepository.insertAll(events, 100);
+
+        assertThat(events).allSatisfy(event -> assertThat(event.getId()).isNotNull());
+        assertThat(eventRepository.count()).isEqualTo(1001);
+        assertThat(eventRepository.findRoomIntervalsBetween(baseTime.plusDays(1), baseTime.plusDays(1).plusMinutes(9))).hasSize(10);
+    }
+
     @Test
     void findAllOverlappingEventsInRoom() {
         // Act
@@ -187,4 +244,52 @@ class EventRepositoryTest {
             assertThat(e.getRoom()).isEqualTo(testRoom);
         });
     }
-}
\ No newline at end of file
+
+    @Test
+    void findOverlappingEvents_ReturnsSeriesStartedBeforeTheWindow() {
+        // Arrange
+        Event series = new Event();
+        series.setTitle("Weekly series");
+        series.setStartTime(baseTime.minusYears(1));
+        series.setEndTime(baseTime.minusYears(1).plusHours(1));
+        series.setRoom(testRoom);
+        series.setUser(testEvent.getUser());
+        series.setRecurring(true);
+        series.setRrule("FREQ=WEEKLY");
+        series.setCreatedBy("testUser");
+        series.setCreatedDate(baseTime);
+        eventRepository.save(series);
+
+        // Act
+        var found = eventRepository.findOverlappingEvents(baseTime.plusDays(7), baseTime.plusDays(8));
+
+        // Assert
+        assertThat(series.getSeriesStart()).isEqualTo(series.getStartTime());
+        assertThat(series.getSeriesEnd()).isNull();
+        assertThat(found).isNotNull().hasSize(1).first().satisfies(e -> assertThat(e.getTitle()).isEqualTo("Weekly series"));
+    }
+
+    @Test
+    void findOverlappingEvents_SkipsSeriesEndedBeforeTheWindow() {
+        // Arrange
+        Event series = new Event();
+        series.setTitle("Finished series");
+        series.setStartTime(baseTime.minusYears(1));
+        series.setEndTime(baseTime.minusYears(1).plusHours(1));
+        series.setRoom(testRoom);
+        series.setUser(testEvent.getUser());
+        series.setRecurring(true);
+        series.setRrule("FREQ=DAILY");
+        series.setRecurrenceEndDate(baseTime.minusMonths(6));
+        series.setCreatedBy("testUser");
+        series.setCreatedDate(baseTime);
+        eventRepository.save(series);
+
+        // Act
+        var found = eventRepository.findOverlappingEvents(baseTime.plusDays(7), baseTime.plusDays(8));
+
+        // Assert
+        assertThat(series.getSeriesEnd()).isEqualTo(baseTime.minusMonths(6).toLocalDate().atTime(baseTime.toLocalTime()).plusHours(1));
+        assertThat(found).isEmpty();
+    }
+}
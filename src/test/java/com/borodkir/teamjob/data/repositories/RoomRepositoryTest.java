@@ -111,4 +111,12 @@ class RoomRepositoryTest {
         assertEquals(1, foundRooms.size());
         assertTrue(foundRooms.contains(testRoom));
     }
-}
\ No newline at end of file
+
+    @Test
+    void findAllNames() {
+        List<RoomRepository.NameView> names = roomRepository.findAllNames();
+        assertEquals(1, names.size());
+        assertEquals(testRoom.getId(), names.get(0).getId());
+        assertEquals(testRoom.getName(), names.get(0).getName());
+    }
+}
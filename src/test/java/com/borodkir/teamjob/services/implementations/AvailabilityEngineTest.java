@@ -0,0 +1,87 @@
+package com.borodkir.teamjob.services.implementations;
+
+import com.borodkir.teamjob.data.Event;
+import com.borodkir.teamjob.data.IntervalSet;
+import com.borodkir.teamjob.data.Occurrence;
+import com.borodkir.teamjob.data.TimeFromTo;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AvailabilityEngineTest {
+
+    private static final LocalDateTime windowStart = LocalDateTime.of(2025, 5, 16, 8, 0);
+    private static final LocalDateTime windowEnd = LocalDateTime.of(2025, 5, 16, 18, 0);
+
+    private static Occurrence occurrence(long resourceId, int startHour, int endHour) {
+        Event event = new Event();
+        event.setId(resourceId);
+        return new Occurrence(event, windowStart.withHour(startHour), windowStart.withHour(endHour));
+    }
+
+    /**
+     * The free time of resource 1, computed like the availability search of the calendar service.
+     */
+    private static ArrayList<TimeFromTo> freeTimes(List<Occurrence> occurrences, int durationInMinutes) {
+        Map<Long, IntervalSet> busyTimes = AvailabilityEngine.groupByResource(occurrences, Event::getId);
+        return AvailabilityEngine.freeTime(busyTimes.get(1L), IntervalSet.within(windowStart, windowEnd), durationInMinutes).toTimeFromTo();
+    }
+
+    @Test
+    void noOccurrences_WholeWindowIsFree() {
+        ArrayList<TimeFromTo> free = freeTimes(List.of(), 60);
+
+        assertEquals(1, free.size());
+        assertEquals(windowStart, free.getFirst().getStartTime());
+        assertEquals(windowEnd, free.getFirst().getEndTime());
+    }
+
+    @Test
+    void nestedOccurrence_DoesNotShortenTheBusyTime() {
+        ArrayList<TimeFromTo> free = freeTimes(List.of(occurrence(1, 9, 14), occurrence(1, 10, 11)), 0);
+
+        assertEquals(2, free.size());
+        assertEquals(windowStart.withHour(9), free.get(0).getEndTime());
+        assertEquals(windowStart.withHour(14), free.get(1).getStartTime());
+    }
+
+    @Test
+    void touchingOccurrences_LeaveNoEmptyGap() {
+        ArrayList<TimeFromTo> free = freeTimes(List.of(occurrence(1, 10, 11), occurrence(1, 11, 12)), 0);
+
+        assertEquals(2, free.size());
+        assertEquals(windowStart.withHour(10), free.get(0).getEndTime());
+        assertEquals(windowStart.withHour(12), free.get(1).getStartTime());
+    }
+
+    @Test
+    void occurrencesOutsideTheWindowEdges_AreClamped() {
+        ArrayList<TimeFromTo> free = freeTimes(List.of(occurrence(1, 7, 9), occurrence(1, 17, 19)), 0);
+
+        assertEquals(1, free.size());
+        assertEquals(windowStart.withHour(9), free.getFirst().getStartTime());
+        assertEquals(windowStart.withHour(17), free.getFirst().getEndTime());
+    }
+
+    @Test
+    void gapsShorterThanTheDuration_AreDropped() {
+        // Free: 8-9 (60 min), 11-18 (420 min)
+        ArrayList<TimeFromTo> free = freeTimes(List.of(occurrence(1, 9, 10), occurrence(1, 10, 11)), 61);
+
+        assertEquals(1, free.size());
+        assertEquals(windowStart.withHour(11), free.getFirst().getStartTime());
+    }
+
+    @Test
+    void otherResources_DoNotAffectTheResult() {
+        ArrayList<TimeFromTo> free = freeTimes(List.of(occurrence(2, 8, 18)), 60);
+
+        assertEquals(1, free.size());
+        assertEquals(600, free.getFirst().getDurationInMinutes());
+    }
+}
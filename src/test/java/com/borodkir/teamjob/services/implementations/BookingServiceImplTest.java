@@ -0,0 +1,225 @@
+package com.borodkir.teamjob.services.implementations;
+
+import com.borodkir.teamjob.data.Event;
+import com.borodkir.teamjob.data.Room;
+import com.borodkir.teamjob.data.RoomInterval;
+import com.borodkir.teamjob.data.repositories.EventRepository;
+import com.borodkir.teamjob.services.IOccurrenceService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Stress test of the booking path: many threads book the same slots at once, the repository stands in for the database
+ * and takes a few milliseconds per insert, the room booking index is the real one.
+ */
+class BookingServiceImplTest {
+
+    private static final int THREADS = 8;
+    private static final long SAVE_MILLIS = 2;
+
+    private final LocalDateTime baseTime = LocalDateTime.of(2025, 9, 1, 8, 0);
+
+    private final Queue<Event> stored = new ConcurrentLinkedQueue<>();
+    /**
+     * Saves running at the moment and the most that ever ran at once.
+     */
+    private final AtomicInteger savesInFlight = new AtomicInteger();
+    private final AtomicInteger maxSavesInFlight = new AtomicInteger();
+    /**
+     * If set, the first saves wait for each other until it is counted down, so a second save must run
+     * while the first one is still inside if bookings are not serialized.
+     */
+    private volatile CountDownLatch saveRendezvous;
+    private EventRepository eventRepository;
+    private BookingServiceImpl bookingService;
+
+    @BeforeEach
+    void setUp() {
+        eventRepository = mock(EventRepository.class);
+        when(eventRepository.findAllRoomIntervals()).thenReturn(List.of());
+
+        RoomIntervalIndexImpl roomIntervalIndex = new RoomIntervalIndexImpl(eventRepository);
+        ReflectionTestUtils.setField(roomIntervalIndex, "enabled", true);
+        roomIntervalIndex.rebuild();
+
+        AtomicLong ids = new AtomicLong();
+        when(eventRepository.save(any(Event.class))).thenAnswer(invocation -> {
+            Event event = invocation.getArgument(0);
+            maxSavesInFlight.accumulateAndGet(savesInFlight.incrementAndGet(), Math::max);
+            try {
+                CountDownLatch rendezvous = saveRendezvous;
+                if (rendezvous != null) {
+                    rendezvous.countDown();
+                    rendezvous.await(10, TimeUnit.SECONDS);
+                }
+                // Leaves a wide window between check and insert, in which an unguarded booking would slip through
+                Thread.sleep(SAVE_MILLIS);
+                event.setId(ids.incrementAndGet());
+                stored.add(event);
+                // What the entity listener does on commit
+                roomIntervalIndex.put(RoomInterval.of(event));
+                return event;
+            } finally {
+                savesInFlight.decrementAndGet();
+            }
+        });
+
+        bookingService = new BookingServiceImpl(eventRepository, roomIntervalIndex, new RecurrenceRuleCache(1000),
+                mock(IOccurrenceService.class), mock(PlatformTransactionManager.class), 64);
+    }
+
+    private Event newEvent(long roomId, LocalDateTime start) {
+        Room room = new Room();
+        room.setId(roomId);
+        Event event = new Event();
+        event.setTitle("Booking");
+        event.setRoom(room);
+        event.setStartTime(start);
+        event.setEndTime(start.plusMinutes(30));
+        return event;
+    }
+
+    /**
+     * Runs the bookings on {@link #THREADS} threads, all starting at the same time.
+     *
+     * @return the number of successful bookings
+     */
+    private int bookConcurrently(List<List<Event>> bookingsPerThread) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger booked = new AtomicInteger();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (List<Event> bookings : bookingsPerThread) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (Event event : bookings) {
+                        Optional<Event> result = bookingService.book(event);
+                        if (result.isPresent()) {
+                            booked.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        return booked.get();
+    }
+
+    @Test
+    void book_ConcurrentRequestsForTheSameSlots_NeverDoubleBook() throws Exception {
+        int rooms = 4;
+        int slots = 25;
+        List<List<Event>> bookingsPerThread = new ArrayList<>();
+        for (int thread = 0; thread < THREADS; thread++) {
+            List<Event> bookings = new ArrayList<>();
+            for (int slot = 0; slot < slots; slot++) {
+                for (long room = 1; room <= rooms; room++) {
+                    bookings.add(newEvent(room, baseTime.plusHours(slot)));
+                }
+            }
+            bookingsPerThread.add(bookings);
+        }
+
+        int booked = bookConcurrently(bookingsPerThread);
+
+        assertEquals(rooms * slots, booked);
+        assertEquals(rooms * slots, stored.size());
+        List<Event> events = new ArrayList<>(stored);
+        for (int i = 0; i < events.size(); i++) {
+            for (int j = i + 1; j < events.size(); j++) {
+                Event a = events.get(i);
+                Event b = events.get(j);
+                boolean overlap = a.getRoom().getId().equals(b.getRoom().getId())
+                        && !a.getStartTime().isAfter(b.getEndTime()) && !a.getEndTime().isBefore(b.getStartTime());
+                assertFalse(overlap, "Double booking of room " + a.getRoom().getId() + " at " + a.getStartTime());
+            }
+        }
+    }
+
+    @Test
+    void book_DifferentRooms_ProceedInParallel() throws Exception {
+        int bookingsPerThread = 8;
+
+        // Every thread books its own free slots, first all in one room, then each thread in its own room
+        List<List<Event>> oneRoom = new ArrayList<>();
+        List<List<Event>> roomPerThread = new ArrayList<>();
+        for (int thread = 0; thread < THREADS; thread++) {
+            List<Event> shared = new ArrayList<>();
+            List<Event> own = new ArrayList<>();
+            for (int i = 0; i < bookingsPerThread; i++) {
+                LocalDateTime start = baseTime.plusHours((long) thread * bookingsPerThread + i);
+                shared.add(newEvent(1, start));
+                own.add(newEvent(100 + thread, start));
+            }
+            oneRoom.add(shared);
+            roomPerThread.add(own);
+        }
+
+        // One room serializes all inserts
+        assertEquals(THREADS * bookingsPerThread, bookConcurrently(oneRoom));
+        assertEquals(1, maxSavesInFlight.get());
+
+        // Separate rooms insert at the same time, the first two saves only continue once both are inside
+        maxSavesInFlight.set(0);
+        saveRendezvous = new CountDownLatch(2);
+        assertEquals(THREADS * bookingsPerThread, bookConcurrently(roomPerThread));
+        assertTrue(maxSavesInFlight.get() > 1, "no second save ran while the first one was inside");
+    }
+
+    @Test
+    void bookAll_ChecksStoredBookingsAndTheBatchItself() {
+        when(eventRepository.findRoomIntervalsBetween(any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(List.of(new RoomInterval(1000L, 1L, baseTime, baseTime.plusMinutes(30))));
+        AtomicLong ids = new AtomicLong(2000);
+        doAnswer(invocation -> {
+            List<Event> events = invocation.getArgument(0);
+            events.forEach(event -> event.setId(ids.incrementAndGet()));
+            stored.addAll(events);
+            return null;
+        }).when(eventRepository).insertAll(anyList(), anyInt());
+
+        List<Optional<Event>> results = bookingService.bookAll(List.of(
+                newEvent(1, baseTime.plusMinutes(15)),   // overlaps the stored booking
+                newEvent(1, baseTime.plusHours(1)),
+                newEvent(1, baseTime.plusHours(1)),      // overlaps the previous event of the batch
+                newEvent(2, baseTime)));
+
+        assertTrue(results.get(0).isEmpty());
+        assertTrue(results.get(1).isPresent());
+        assertTrue(results.get(2).isEmpty());
+        assertTrue(results.get(3).isPresent());
+        assertEquals(2, stored.size());
+        assertEquals(2001L, results.get(1).get().getId());
+    }
+}
@@ -0,0 +1,179 @@
+package com.borodkir.teamjob.services.implementations;
+
+import com.borodkir.teamjob.data.BulkEventResult;
+import com.borodkir.teamjob.data.Event;
+import com.borodkir.teamjob.data.EventRequest;
+import com.borodkir.teamjob.data.Room;
+import com.borodkir.teamjob.data.User;
+import com.borodkir.teamjob.data.repositories.RoomRepository;
+import com.borodkir.teamjob.data.repositories.UserRepository;
+import com.borodkir.teamjob.services.IBookingService;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BulkEventServiceImplTest {
+
+    @Mock
+    private RoomRepository roomRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private IBookingService bookingService;
+
+    private BulkEventServiceImpl bulkEventService;
+
+    private final LocalDateTime baseTime = LocalDateTime.of(2025, 9, 1, 8, 0);
+
+    @BeforeEach
+    void setUp() {
+        bulkEventService = new BulkEventServiceImpl(roomRepository, userRepository, bookingService,
+                JsonMapper.builder().findAndAddModules().build());
+    }
+
+    /**
+     * Finds room 1 and user 5 and books every event, numbering them from 100.
+     */
+    private void stubRoomUserAndBooking() {
+        Room room = new Room();
+        room.setId(1L);
+        User user = new User();
+        user.setId(5L);
+        when(roomRepository.findAllById(anyCollection())).thenReturn(List.of(room));
+        when(userRepository.findAllById(anyCollection())).thenReturn(List.of(user));
+        AtomicLong ids = new AtomicLong(100);
+        when(bookingService.bookAll(anyList())).thenAnswer(invocation -> {
+            List<Event> events = invocation.getArgument(0);
+            List<Optional<Event>> results = new ArrayList<>();
+            for (Event event : events) {
+                event.setId(ids.getAndIncrement());
+                results.add(Optional.of(event));
+            }
+            return results;
+        });
+    }
+
+    private String ndjsonLine(LocalDateTime start) {
+        return "{\"title\":\"Lecture\",\"startTime\":\"" + start + "\",\"endTime\":\"" + start.plusHours(1)
+                + "\",\"roomId\":1,\"userId\":5}\n";
+    }
+
+    private static InputStream ndjson(String... lines) {
+        return new ByteArrayInputStream(String.join("", lines).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private EventRequest request(Long roomId, Long userId, LocalDateTime start) {
+        EventRequest request = new EventRequest();
+        request.setTitle("Lecture");
+        request.setRoomId(roomId);
+        request.setUserId(userId);
+        request.setStartTime(start);
+        request.setEndTime(start.plusHours(1));
+        request.setTags("event_Lecture,event_Term");
+        return request;
+    }
+
+    @Test
+    void importEvents_ReturnsOneResultPerRequest() {
+        Room room = new Room();
+        room.setId(1L);
+        User user = new User();
+        user.setId(5L);
+        when(roomRepository.findAllById(anyCollection())).thenReturn(List.of(room));
+        when(userRepository.findAllById(anyCollection())).thenReturn(List.of(user));
+        when(bookingService.bookAll(anyList())).thenAnswer(invocation -> {
+            List<Event> events = invocation.getArgument(0);
+            List<Optional<Event>> results = new ArrayList<>();
+            for (int i = 0; i < events.size(); i++) {
+                Event event = events.get(i);
+                event.setId(100L + i);
+                // The second valid event is reported as conflicting
+                results.add(i == 1 ? Optional.empty() : Optional.of(event));
+            }
+            return results;
+        });
+
+        EventRequest withoutTitle = request(1L, 5L, baseTime);
+        withoutTitle.setTitle(null);
+        List<BulkEventResult> results = bulkEventService.importEvents(List.of(
+                request(1L, 5L, baseTime),
+                request(2L, 5L, baseTime),
+                request(1L, 5L, baseTime),
+                withoutTitle,
+                request(1L, 5L, baseTime.plusHours(2))));
+
+        assertEquals(5, results.size());
+        assertEquals(BulkEventResult.created(0, 100L), results.get(0));
+        assertEquals(BulkEventResult.Status.INVALID, results.get(1).getStatus());
+        assertEquals(BulkEventResult.conflict(2), results.get(2));
+        assertEquals(BulkEventResult.Status.INVALID, results.get(3).getStatus());
+        assertEquals(BulkEventResult.created(4, 102L), results.get(4));
+
+        // One lookup per chunk, one booking for all events
+        verify(roomRepository, times(1)).findAllById(anyCollection());
+        verify(userRepository, times(1)).findAllById(anyCollection());
+        verify(bookingService, times(1)).bookAll(anyList());
+    }
+
+    @Test
+    void importNdjson_BooksEveryChunkSeparately() throws Exception {
+        ReflectionTestUtils.setField(bulkEventService, "chunkSize", 2);
+        stubRoomUserAndBooking();
+
+        List<BulkEventResult> results = bulkEventService.importNdjson(ndjson(
+                ndjsonLine(baseTime), ndjsonLine(baseTime.plusHours(1)), ndjsonLine(baseTime.plusHours(2)),
+                ndjsonLine(baseTime.plusHours(3)), ndjsonLine(baseTime.plusHours(4))));
+
+        assertEquals(5, results.size());
+        for (int i = 0; i < results.size(); i++) {
+            assertEquals(BulkEventResult.created(i, 100L + i), results.get(i));
+        }
+        // Chunks of 2, 2 and 1 events, each looked up and booked on its own
+        verify(roomRepository, times(3)).findAllById(anyCollection());
+        verify(bookingService, times(3)).bookAll(anyList());
+    }
+
+    @Test
+    void importNdjson_StopsAtAnUnreadableLine() throws Exception {
+        stubRoomUserAndBooking();
+
+        List<BulkEventResult> results = bulkEventService.importNdjson(ndjson(
+                ndjsonLine(baseTime), ndjsonLine(baseTime.plusHours(1)), "{not json}\n", ndjsonLine(baseTime.plusHours(2))));
+
+        assertEquals(3, results.size());
+        assertEquals(BulkEventResult.created(0, 100L), results.get(0));
+        assertEquals(BulkEventResult.created(1, 101L), results.get(1));
+        assertEquals(BulkEventResult.Status.INVALID, results.get(2).getStatus());
+        assertEquals(2, results.get(2).getIndex());
+    }
+
+    @Test
+    void importNdjson_EmptyBody_ImportsNothing() throws Exception {
+        assertTrue(bulkEventService.importNdjson(ndjson()).isEmpty());
+        verifyNoInteractions(bookingService);
+    }
+}
@@ -1,17 +1,25 @@
 package com.borodkir.teamjob.services.implementations;
 
 import com.borodkir.teamjob.data.*;
+import com.borodkir.teamjob.data.repositories.EventOccurrenceRepository;
 import com.borodkir.teamjob.data.repositories.EventRepository;
 import com.borodkir.teamjob.data.repositories.RoomRepository;
 import com.borodkir.teamjob.data.repositories.UserRepository;
+import com.borodkir.teamjob.services.IOccurrenceService;
+import com.borodkir.teamjob.services.IReferenceDataService;
+import com.borodkir.teamjob.services.ITagCatalogService;
+import com.borodkir.teamjob.services.ITagIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.ui.Model;
 import org.springframework.ui.ExtendedModelMap;
 
@@ -35,6 +43,27 @@ public class CalendarServiceImplTest {
     @Mock
     private RoomRepository roomRepository;
 
+    @Mock
+    private EventOccurrenceRepository eventOccurrenceRepository;
+
+    @Mock
+    private IOccurrenceService occurrenceService;
+
+    @Mock
+    private ITagIndex tagIndex;
+
+    @Mock
+    private ITagCatalogService tagCatalogService;
+
+    @Mock
+    private IReferenceDataService referenceDataService;
+
+    @Spy
+    private RecurrenceRuleCache recurrenceRuleCache = new RecurrenceRuleCache(1000);
+
+    @Spy
+    private WeekModelCacheImpl weekModelCache = new WeekModelCacheImpl(new SimpleMeterRegistry(), 16, 0);
+
     @InjectMocks
     private CalendarServiceImpl calendarService;
     private static final Logger logger = LoggerFactory.getLogger(CalendarServiceImplTest.class);
@@ -185,6 +214,19 @@ public class CalendarServiceImplTest {
         return events;
     }
 
+    private void stubTagCatalog() {
+        when(tagCatalogService.getCatalog()).thenReturn(new TagCatalog(0,
+                countTags(testRooms.stream().map(Room::getTags).toList()),
+                countTags(testUsers.stream().map(User::getTags).toList()),
+                countTags(testEvents.stream().map(Event::getTags).toList())));
+    }
+
+    private static Map<String, Long> countTags(List<Set<String>> tagSets) {
+        Map<String, Long> counts = new TreeMap<>();
+        tagSets.forEach(tags -> tags.forEach(tag -> counts.merge(tag, 1L, Long::sum)));
+        return counts;
+    }
+
     @Test
     void convertToDayEvents() {
         // Test all events on the base date (May 16, 2025)
@@ -276,11 +318,12 @@ public class CalendarServiceImplTest {
         // Test weekly event on different days
         Event event = testEvents.get(3); // Weekly Standup event
 
-        // Get dates for different days of the week
-        LocalDate monday = baseDate.with(java.time.DayOfWeek.MONDAY);
-        LocalDate wednesday = baseDate.with(java.time.DayOfWeek.WEDNESDAY);
-        LocalDate friday = baseDate.with(java.time.DayOfWeek.FRIDAY);
-        LocalDate tuesday = baseDate.with(java.time.DayOfWeek.TUESDAY);
+        // Get dates for different days of the week after the series start
+        LocalDate nextWeek = baseDate.plusWeeks(1);
+        LocalDate monday = nextWeek.with(java.time.DayOfWeek.MONDAY);
+        LocalDate wednesday = nextWeek.with(java.time.DayOfWeek.WEDNESDAY);
+        LocalDate friday = nextWeek.with(java.time.DayOfWeek.FRIDAY);
+        LocalDate tuesday = nextWeek.with(java.time.DayOfWeek.TUESDAY);
 
         // Should appear on Monday, Wednesday, and Friday
         assertFalse(calendarService.convertToDayEvents(Collections.singletonList(event), monday, null, null).isEmpty());
@@ -289,6 +332,8 @@ public class CalendarServiceImplTest {
 
         // Should not appear on Tuesday
         assertTrue(calendarService.convertToDayEvents(Collections.singletonList(event), tuesday, null, null).isEmpty());
+        // Nor before the series start on Friday
+        assertTrue(calendarService.convertToDayEvents(Collections.singletonList(event), monday.minusWeeks(1), null, null).isEmpty());
     }
 
     @Test
@@ -311,17 +356,19 @@ public class CalendarServiceImplTest {
     }
 
     @Test
-    void addRepositories() {
-        when(eventRepository.findAll()).thenReturn(testEvents);
-        when(userRepository.findAll()).thenReturn(testUsers);
-        when(roomRepository.findAll()).thenReturn(testRooms);
+    void addReferenceData() {
+        when(referenceDataService.getRooms()).thenReturn(List.of(new RoomSummary(1L, "Room 1")));
+        when(referenceDataService.getUsers()).thenReturn(List.of(new UserSummary(1L, "user1")));
         Model model = new ExtendedModelMap();
-        CalendarServiceImpl.AddRepositories(model, eventRepository, userRepository, roomRepository);
-
-        // Verify the model attributes were set
-        assertNotNull(model.getAttribute("events"));
-        assertNotNull(model.getAttribute("rooms"));
-        assertNotNull(model.getAttribute("users"));
+        calendarService.addReferenceData(model);
+
+        // Verify the model attributes were set from the summaries without loading entities
+        assertEquals(List.of(new RoomSummary(1L, "Room 1")), model.getAttribute("rooms"));
+        assertEquals(List.of(new UserSummary(1L, "user1")), model.getAttribute("users"));
+        assertNull(model.getAttribute("events"));
+        verify(eventRepository, never()).findAll();
+        verify(roomRepository, never()).findAll();
+        verify(userRepository, never()).findAll();
     }
 
     @Test
@@ -418,8 +465,49 @@ public class CalendarServiceImplTest {
                 "invalid", startTime, endTime, 60, tags));
     }
 
+    @Test
+    void generateAvailableTimeRequest_Materialized_ReadsStoredOccurrencesBeforeTheHorizon() {
+        LocalDateTime startTime = baseTime.plusHours(2);
+        LocalDateTime endTime = baseTime.plusHours(6);
+        ReflectionTestUtils.setField(calendarService, "readMaterializedOccurrences", true);
+        when(occurrenceService.getMaterializedHorizon()).thenReturn(endTime);
+        when(eventOccurrenceRepository.findOccurrences(startTime, endTime)).thenReturn(List.of());
+        when(roomRepository.findAll()).thenReturn(testRooms);
+
+        calendarService.generateAvailableTimeRequest("rooms", startTime, endTime, 60, new HashSet<>());
+
+        verify(eventOccurrenceRepository).findOccurrences(startTime, endTime);
+        verifyNoInteractions(eventRepository);
+    }
+
+    @Test
+    void generateAvailableTimeRequest_Materialized_ExpandsWindowsPastTheHorizon() {
+        // The weekly event occurs on Friday at 10:00, one hour after the horizon
+        LocalDateTime startTime = baseTime.plusHours(8);
+        LocalDateTime endTime = baseTime.plusHours(12);
+        ReflectionTestUtils.setField(calendarService, "readMaterializedOccurrences", true);
+        when(occurrenceService.getMaterializedHorizon()).thenReturn(baseTime.plusHours(9), (LocalDateTime) null);
+        when(eventRepository.findOverlappingEvents(startTime, endTime)).thenReturn(testEvents);
+        when(roomRepository.findAll()).thenReturn(testRooms);
+
+        AvailableTimeRequest crossing = calendarService.generateAvailableTimeRequest("rooms", startTime, endTime, 60, new HashSet<>());
+        AvailableTimeRequest notRolledYet = calendarService.generateAvailableTimeRequest("rooms", startTime, endTime, 60, new HashSet<>());
+
+        verifyNoInteractions(eventOccurrenceRepository);
+        verify(eventRepository, times(2)).findOverlappingEvents(startTime, endTime);
+        Event weekly = testEvents.get(3);
+        for (AvailableTimeRequest result : List.of(crossing, notRolledYet)) {
+            RoomAvailability weeklyRoom = result.getRoomAvailabilities().stream()
+                    .filter(availability -> availability.getRoom().getId().equals(weekly.getRoom().getId()))
+                    .findFirst().orElseThrow();
+            assertEquals(List.of(new TimeFromTo(startTime, weekly.getStartTime()), new TimeFromTo(weekly.getEndTime(), endTime)),
+                    weeklyRoom.getUnoccupiedTimesFromTo());
+        }
+    }
+
     @Test
     void setupModelForWeekCalendar() {
+        stubTagCatalog();
         Model model = new ExtendedModelMap();
 
         calendarService.setupModelForWeekCalendar(model, baseDate, "1", "1", "tag1", "tag2", "tag3");
@@ -433,7 +521,7 @@ public class CalendarServiceImplTest {
         assertNotNull(model.getAttribute("hours"));
         assertNotNull(model.getAttribute("userIds"));
         assertNotNull(model.getAttribute("roomIds"));
-        assertNotNull(model.getAttribute("events"));
+        assertNull(model.getAttribute("events"));
         assertNotNull(model.getAttribute("rooms"));
         assertNotNull(model.getAttribute("users"));
         assertNotNull(model.getAttribute("roomTags"));
@@ -448,8 +536,33 @@ public class CalendarServiceImplTest {
         verify(eventRepository, atLeastOnce()).findOverlappingEvents(any(LocalDateTime.class), any(LocalDateTime.class));
     }
 
+    @Test
+    void setupModelForWeekCalendar_ReusesTheCachedWeek() {
+        stubTagCatalog();
+        when(eventRepository.findOverlappingEvents(any(LocalDateTime.class), any(LocalDateTime.class))).thenReturn(testEvents);
+
+        Model first = new ExtendedModelMap();
+        calendarService.setupModelForWeekCalendar(first, baseDate, null, null, null, null, null);
+        // Another day of the same week, with an empty filter
+        Model second = new ExtendedModelMap();
+        calendarService.setupModelForWeekCalendar(second, baseDate.minusDays(2), null, " ", null, null, null);
+
+        verify(eventRepository, times(1)).findOverlappingEvents(any(LocalDateTime.class), any(LocalDateTime.class));
+        @SuppressWarnings("unchecked")
+        List<WeekDay> firstDays = (List<WeekDay>) first.getAttribute("weekDays");
+        @SuppressWarnings("unchecked")
+        List<WeekDay> secondDays = (List<WeekDay>) second.getAttribute("weekDays");
+        assertNotNull(firstDays);
+        assertNotNull(secondDays);
+        for (int i = 0; i < 7; i++) {
+            assertEquals(firstDays.get(i).getEvents(), secondDays.get(i).getEvents());
+        }
+        assertEquals(baseDate.minusDays(2), second.getAttribute("selectedDate"));
+    }
+
     @Test
     void setupModelForWeekCalendar_NullDate() {
+        stubTagCatalog();
         Model model = new ExtendedModelMap();
 
         calendarService.setupModelForWeekCalendar(model, null, null, null, null, null, null);
@@ -461,6 +574,7 @@ public class CalendarServiceImplTest {
 
     @Test
     void setupModelForDayCalendar() {
+        stubTagCatalog();
         Model model = new ExtendedModelMap();
         LocalDate testDate = baseDate;
 
@@ -475,7 +589,7 @@ public class CalendarServiceImplTest {
         assertNotNull(model.getAttribute("hours"));
         assertNotNull(model.getAttribute("userIds"));
         assertNotNull(model.getAttribute("roomIds"));
-        assertNotNull(model.getAttribute("events"));
+        assertNull(model.getAttribute("events"));
         assertNotNull(model.getAttribute("rooms"));
         assertNotNull(model.getAttribute("users"));
 
@@ -486,8 +600,43 @@ public class CalendarServiceImplTest {
         verify(eventRepository).findOverlappingEvents(testDate.atStartOfDay(), testDate.plusDays(1).atStartOfDay());
     }
 
+    @Test
+    void setupModelForDayCalendar_AgreesWithTheWeekOfTheSeriesStart() {
+        stubTagCatalog();
+        // Like the repository, only series starting before the end of the window
+        when(eventRepository.findOverlappingEvents(any(LocalDateTime.class), any(LocalDateTime.class))).thenAnswer(invocation -> {
+            LocalDateTime endTime = invocation.getArgument(1);
+            return testEvents.stream().filter(event -> !event.getStartTime().isAfter(endTime)).toList();
+        });
+        LocalDate monday = baseDate.minusDays(4);
+
+        Model weekModel = new ExtendedModelMap();
+        calendarService.setupModelForWeekCalendar(weekModel, monday, null, null, null, null, null);
+
+        @SuppressWarnings("unchecked")
+        List<WeekDay> weekDays = (List<WeekDay>) weekModel.getAttribute("weekDays");
+        assertNotNull(weekDays);
+        for (int i = 0; i < 7; i++) {
+            LocalDate date = monday.plusDays(i);
+            Model dayModel = new ExtendedModelMap();
+            calendarService.setupModelForDayCalendar(dayModel, date, null, null, null, null, null);
+
+            @SuppressWarnings("unchecked")
+            List<RoomDay> roomDays = (List<RoomDay>) dayModel.getAttribute("roomDays");
+            assertNotNull(roomDays);
+            List<Long> dayIds = roomDays.stream().flatMap(roomDay -> roomDay.getEvents().stream()).map(EventInADay::getId).sorted().toList();
+            List<Long> weekIds = weekDays.get(i).getEvents().stream().map(EventInADay::getId).sorted().toList();
+            assertEquals(weekIds, dayIds, "events on " + date);
+        }
+        // The weekly series starts on Friday, Monday and Wednesday of that week have no instance
+        assertTrue(weekDays.get(0).getEvents().isEmpty());
+        assertTrue(weekDays.get(2).getEvents().isEmpty());
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), weekDays.get(4).getEvents().stream().map(EventInADay::getId).toList());
+    }
+
     @Test
     void setupModelForFindAvailable_DefaultValues() {
+        stubTagCatalog();
         Model model = new ExtendedModelMap();
 
         calendarService.setupModelForFindAvailable(model, null, null, null, null, null, null);
@@ -504,6 +653,7 @@ public class CalendarServiceImplTest {
 
     @Test
     void setupModelForFindAvailable_Rooms() {
+        stubTagCatalog();
         Model model = new ExtendedModelMap();
         LocalDate testDate = baseDate;
         LocalTime startTime = LocalTime.of(9, 0);
@@ -521,6 +671,7 @@ public class CalendarServiceImplTest {
 
     @Test
     void setupModelForFindAvailable_Users() {
+        stubTagCatalog();
         Model model = new ExtendedModelMap();
         LocalTime startTime = LocalTime.of(9, 0);
         LocalTime endTime = LocalTime.of(17, 0);
@@ -533,9 +684,7 @@ public class CalendarServiceImplTest {
 
     @Test
     void gatherAllTags() {
-        when(roomRepository.findAll()).thenReturn(testRooms);
-        when(userRepository.findAll()).thenReturn(testUsers);
-        when(eventRepository.findAll()).thenReturn(testEvents);
+        stubTagCatalog();
         Model model = new ExtendedModelMap();
         calendarService.gatherAllTags(model);
 
@@ -557,9 +706,15 @@ public class CalendarServiceImplTest {
         assertNotNull(eventTags);
         assertFalse(eventTags.isEmpty());
 
-        verify(roomRepository, atLeastOnce()).findAll();
-        verify(userRepository, atLeastOnce()).findAll();
-        verify(eventRepository, atLeastOnce()).findAll();
+        @SuppressWarnings("unchecked")
+        Map<String, Long> eventTagCounts = (Map<String, Long>) model.getAttribute("eventTagCounts");
+        assertNotNull(eventTagCounts);
+        assertEquals(eventTags, eventTagCounts.keySet());
+
+        // Tags are read from the catalog, not by loading every room, user and event
+        verify(roomRepository, never()).findAll();
+        verify(userRepository, never()).findAll();
+        verify(eventRepository, never()).findAll();
     }
 
     @Test
@@ -668,4 +823,68 @@ public class CalendarServiceImplTest {
         assertEquals(4.0, eventInDay.getEndTimeToUse()); // Should end at 4:00
         assertEquals(4.0, eventInDay.getDurationInADay());
     }
-}
\ No newline at end of file
+
+    @Test
+    void convertToDays_SplitsARangeIntoTheEventsOfEachDay() {
+        Event multiDayEvent = new Event();
+        multiDayEvent.setId(11L);
+        multiDayEvent.setTitle("Conference");
+        multiDayEvent.setStartTime(baseDate.atTime(15, 0));
+        multiDayEvent.setEndTime(baseDate.plusDays(2).atTime(12, 30));
+        multiDayEvent.setRoom(testRooms.getFirst());
+        multiDayEvent.setRecurring(false);
+        Event overnightEvent = new Event();
+        overnightEvent.setId(12L);
+        overnightEvent.setTitle("Night Shift");
+        overnightEvent.setStartTime(baseDate.plusDays(2).atTime(22, 0));
+        overnightEvent.setEndTime(baseDate.plusDays(3).atTime(2, 0));
+        overnightEvent.setRoom(testRooms.get(2));
+        overnightEvent.setRecurring(false);
+        Event endingAtMidnight = new Event();
+        endingAtMidnight.setId(13L);
+        endingAtMidnight.setTitle("Late Call");
+        endingAtMidnight.setStartTime(baseDate.minusDays(1).atTime(23, 0));
+        endingAtMidnight.setEndTime(baseTime);
+        endingAtMidnight.setRoom(testRooms.get(1));
+        endingAtMidnight.setRecurring(false);
+        List<Event> events = new ArrayList<>(testEvents);
+        events.addAll(List.of(multiDayEvent, overnightEvent, endingAtMidnight));
+
+        // Thursday to Monday, the weekly event is on Friday and Monday, the monthly one on the 16th
+        List<List<EventInADay>> days = calendarService.convertToDays(events, baseDate.minusDays(1), 5, null, null, null, null, null);
+
+        assertEquals(List.of(
+                List.of(13L),
+                List.of(1L, 2L, 3L, 4L, 5L, 11L),
+                List.of(11L),
+                List.of(11L, 12L),
+                List.of(4L, 12L)), ids(days));
+        List<EventInADay> conference = days.stream().flatMap(List::stream).filter(event -> event.getId().equals(11L)).toList();
+        assertEquals(3, conference.size());
+        assertEquals(15.0, conference.get(0).getStartTimeToUse());
+        assertEquals(24.0, conference.get(0).getEndTimeToUse());
+        assertEquals(24.0, conference.get(1).getDurationInADay());
+        assertEquals(12.5, conference.get(2).getEndTimeToUse());
+        assertEquals(22.0, days.get(3).get(1).getStartTimeToUse());
+        assertEquals(24.0, days.get(3).get(1).getEndTimeToUse());
+        assertEquals(0.0, days.get(4).get(1).getStartTimeToUse());
+        assertEquals(2.0, days.get(4).get(1).getEndTimeToUse());
+        assertEquals(24.0, days.get(0).getFirst().getEndTimeToUse());
+
+        // Events in room 3 are filtered out on every day they touch
+        List<List<EventInADay>> filtered = calendarService.convertToDays(events, baseDate.minusDays(1), 5, null, "1,2", null, null, null);
+
+        assertEquals(List.of(
+                List.of(13L),
+                List.of(1L, 2L, 4L, 5L, 11L),
+                List.of(11L),
+                List.of(11L),
+                List.of(4L)), ids(filtered));
+        // A single day gives the same events as the range
+        assertEquals(List.of(List.of(4L)), ids(List.of(calendarService.convertToDayEvents(events, baseDate.plusDays(3), null, "1,2"))));
+    }
+
+    private static List<List<Long>> ids(List<List<EventInADay>> days) {
+        return days.stream().map(day -> day.stream().map(EventInADay::getId).toList()).toList();
+    }
+}
@@ -0,0 +1,87 @@
+package com.borodkir.teamjob.services.implementations;
+
+import com.borodkir.teamjob.data.EventWindowVersion;
+import com.borodkir.teamjob.data.repositories.EventRepository;
+import com.borodkir.teamjob.services.IReferenceDataService;
+import com.borodkir.teamjob.services.ITagCatalogService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CalendarVersionServiceImplTest {
+
+    // A Wednesday, the week view covers Monday 2025-09-01 to Sunday 2025-09-07
+    private final LocalDate date = LocalDate.of(2025, 9, 3);
+    private final LocalDateTime monday = LocalDateTime.of(2025, 9, 1, 0, 0);
+    private final LocalDateTime modified = LocalDateTime.of(2025, 8, 20, 12, 0);
+
+    private EventRepository eventRepository;
+    private IReferenceDataService referenceDataService;
+    private CalendarVersionServiceImpl versionService;
+
+    @BeforeEach
+    void setUp() {
+        eventRepository = mock(EventRepository.class);
+        referenceDataService = mock(IReferenceDataService.class);
+        versionService = new CalendarVersionServiceImpl(eventRepository, referenceDataService, mock(ITagCatalogService.class));
+        when(eventRepository.findWindowVersion(any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(new EventWindowVersion(modified, 3));
+    }
+
+    private String weekETag() {
+        return versionService.getWeekETag(date, null, null, null, null, null, "token");
+    }
+
+    @Test
+    void getWeekETag_StaysTheSameWhileNothingChanges() {
+        String eTag = weekETag();
+
+        assertTrue(eTag.startsWith("W/\""));
+        assertEquals(eTag, weekETag());
+        assertEquals(eTag, versionService.getWeekETag(date, null, null, null, null, null, "token"));
+        verify(eventRepository, times(3)).findWindowVersion(monday, monday.plusDays(7));
+    }
+
+    @Test
+    void getWeekETag_ChangesWithEveryWriteAndParameter() {
+        String eTag = weekETag();
+
+        when(eventRepository.findWindowVersion(any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(new EventWindowVersion(modified.plusSeconds(1), 3));
+        String afterUpdate = weekETag();
+        assertNotEquals(eTag, afterUpdate);
+
+        versionService.eventDeleted();
+        String afterDelete = weekETag();
+        assertNotEquals(afterUpdate, afterDelete);
+
+        when(referenceDataService.getVersion()).thenReturn(1L);
+        String afterRoomChange = weekETag();
+        assertNotEquals(afterDelete, afterRoomChange);
+
+        assertNotEquals(afterRoomChange, versionService.getWeekETag(date, null, null, "rooms_Lab", null, null, "token"));
+        assertNotEquals(afterRoomChange, versionService.getWeekETag(date, null, null, null, null, null, "other token"));
+        assertNotEquals(afterRoomChange, versionService.getWeekETag(date.plusDays(1), null, null, null, null, null, "token"));
+        assertNotEquals(afterRoomChange, versionService.getDayETag(date, null, null, null, null, null, "token"));
+    }
+
+    @Test
+    void getWeekETag_ScopesToFilteredRooms() {
+        when(eventRepository.findWindowVersionInRooms(Set.of(1L, 2L), monday, monday.plusDays(7)))
+                .thenReturn(new EventWindowVersion(null, 0));
+
+        assertNotNull(versionService.getWeekETag(date, "5", "2, 1", null, null, null, "token"));
+
+        verify(eventRepository).findWindowVersionInRooms(Set.of(1L, 2L), monday, monday.plusDays(7));
+    }
+}
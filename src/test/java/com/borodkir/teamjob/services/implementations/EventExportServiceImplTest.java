@@ -0,0 +1,78 @@
+package com.borodkir.teamjob.services.implementations;
+
+import com.borodkir.teamjob.data.EventExportRow;
+import com.borodkir.teamjob.data.TagAssignment;
+import com.borodkir.teamjob.data.repositories.EventRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class EventExportServiceImplTest {
+
+    private final LocalDateTime from = LocalDateTime.of(2025, 9, 1, 0, 0);
+    private final LocalDateTime to = LocalDateTime.of(2025, 9, 8, 0, 0);
+
+    private EventRepository eventRepository;
+    private EventExportServiceImpl exportService;
+
+    @BeforeEach
+    void setUp() {
+        eventRepository = mock(EventRepository.class);
+        exportService = new EventExportServiceImpl(eventRepository, new ObjectMapper());
+
+        when(eventRepository.streamExportRows(from, to)).thenReturn(Stream.of(
+                new EventExportRow(1L, "Standup", null, from.plusHours(9), from.plusHours(10), false,
+                        null, null, null, 3L, "Room 3", 5L, "user5"),
+                new EventExportRow(4L, "Review, final", "Say \"hi\"", from.plusHours(11), from.plusHours(12), true,
+                        "FREQ=WEEKLY", null, null, 3L, "Room 3", 5L, "user5")));
+        // Tags of event 2 belong to an event outside the range and must be skipped
+        when(eventRepository.streamTagAssignments(from, to)).thenReturn(Stream.of(
+                new TagAssignment(1L, "event_Meeting"),
+                new TagAssignment(1L, "event_Team"),
+                new TagAssignment(2L, "event_Other"),
+                new TagAssignment(4L, "event_Review")));
+    }
+
+    @Test
+    void writeNdjson_WritesOneObjectPerLineWithItsTags() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertEquals(2, exportService.writeNdjson(from, to, out));
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        ObjectMapper mapper = new ObjectMapper();
+        JsonNode first = mapper.readTree(lines[0]);
+        assertEquals(1L, first.get("id").asLong());
+        assertEquals("2025-09-01T09:00", first.get("startTime").asText());
+        assertTrue(first.get("description").isNull());
+        assertEquals(2, first.get("tags").size());
+        JsonNode second = mapper.readTree(lines[1]);
+        assertEquals("Review, final", second.get("title").asText());
+        assertEquals("event_Review", second.get("tags").get(0).asText());
+        assertEquals(1, second.get("tags").size());
+    }
+
+    @Test
+    void writeCsv_QuotesValuesWithSeparators() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertEquals(2, exportService.writeCsv(from, to, out));
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertEquals(3, lines.length);
+        assertTrue(lines[0].startsWith("id,title,description"));
+        assertEquals("1,Standup,,2025-09-01T09:00,2025-09-01T10:00,false,,,,3,Room 3,5,user5,event_Meeting;event_Team", lines[1]);
+        assertTrue(lines[2].startsWith("4,\"Review, final\",\"Say \"\"hi\"\"\","));
+    }
+}
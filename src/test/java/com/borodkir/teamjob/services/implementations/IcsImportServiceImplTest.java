@@ -0,0 +1,160 @@
+package com.borodkir.teamjob.services.implementations;
+
+import com.borodkir.teamjob.data.Event;
+import com.borodkir.teamjob.data.IcsImportReport;
+import com.borodkir.teamjob.data.RecurrenceRule;
+import com.borodkir.teamjob.data.Room;
+import com.borodkir.teamjob.data.User;
+import com.borodkir.teamjob.data.repositories.RoomRepository;
+import com.borodkir.teamjob.data.repositories.UserRepository;
+import com.borodkir.teamjob.services.IBookingService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class IcsImportServiceImplTest {
+
+    private RoomRepository roomRepository;
+    private UserRepository userRepository;
+    private IcsImportServiceImpl importService;
+    private final List<Integer> batchSizes = new ArrayList<>();
+    private final List<Event> booked = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        roomRepository = mock(RoomRepository.class);
+        userRepository = mock(UserRepository.class);
+        IBookingService bookingService = mock(IBookingService.class);
+        importService = new IcsImportServiceImpl(roomRepository, userRepository, bookingService);
+        ReflectionTestUtils.setField(importService, "batchSize", 2);
+
+        Room room = new Room();
+        room.setId(1L);
+        room.setName("Room 101");
+        User uploader = new User();
+        uploader.setUsername("uploader");
+        User jane = new User();
+        jane.setUsername("jane");
+        when(roomRepository.findByName(anyString())).thenReturn(Optional.empty());
+        when(roomRepository.findByName("Room 101")).thenReturn(Optional.of(room));
+        when(userRepository.findByUsername(anyString())).thenReturn(Optional.empty());
+        when(userRepository.findByUsername("uploader")).thenReturn(Optional.of(uploader));
+        when(userRepository.findByEmail(anyString())).thenReturn(Optional.empty());
+        when(userRepository.findByEmail("jane@example.com")).thenReturn(Optional.of(jane));
+
+        // Every second event of a batch conflicts
+        when(bookingService.bookAll(anyList())).thenAnswer(invocation -> {
+            List<Event> events = invocation.getArgument(0);
+            batchSizes.add(events.size());
+            List<Optional<Event>> results = new ArrayList<>();
+            for (int i = 0; i < events.size(); i++) {
+                results.add(i % 2 == 0 ? Optional.of(events.get(i)) : Optional.empty());
+                if (i % 2 == 0) {
+                    booked.add(events.get(i));
+                }
+            }
+            return results;
+        });
+    }
+
+    private static String event(String uid, String location, String organizer) {
+        return "BEGIN:VEVENT\r\nUID:" + uid + "\r\nSUMMARY:" + uid + "\r\nDTSTART:20250901T090000\r\nDTEND:20250901T100000\r\n"
+                + (location != null ? "LOCATION:" + location + "\r\n" : "")
+                + (organizer != null ? "ORGANIZER:mailto:" + organizer + "\r\n" : "")
+                + "CATEGORIES:Lecture,event_Term\r\nEND:VEVENT\r\n";
+    }
+
+    private static String recurringEvent(String uid, String rrule) {
+        return "BEGIN:VEVENT\r\nUID:" + uid + "\r\nSUMMARY:" + uid + "\r\nDTSTART:20250901T090000\r\nDTEND:20250901T100000\r\n"
+                + "RRULE:" + rrule + "\r\nLOCATION:Room 101\r\nEND:VEVENT\r\n";
+    }
+
+    @Test
+    void importIcs_BooksInBatchesAndReportsRejections() throws Exception {
+        String ics = "BEGIN:VCALENDAR\r\n"
+                + event("a", "Room 101", "jane@example.com")
+                + event("b", "Room 101", null)
+                + event("unknown-room", "Room 999", null)
+                + event("unknown-user", "Room 101", "nobody@example.com")
+                + event("c", "Room 101", "jane@example.com")
+                + "BEGIN:VEVENT\r\nUID:broken\r\nEND:VEVENT\r\n"
+                + "END:VCALENDAR\r\n";
+
+        IcsImportReport report = importService.importIcs(new ByteArrayInputStream(ics.getBytes(StandardCharsets.UTF_8)), "uploader");
+
+        assertEquals(6, report.getRead());
+        assertEquals(List.of(2, 1), batchSizes);
+        assertEquals(2, report.getCreated());
+        assertEquals(1, report.getConflicts());
+        assertEquals(4, report.getRejected());
+        assertTrue(report.getRejections().contains("VEVENT 3 (unknown-room): Room not found: Room 999"));
+        assertTrue(report.getRejections().contains("VEVENT 6 (broken): Missing DTSTART"));
+
+        Event first = booked.get(0);
+        assertEquals("jane", first.getUser().getUsername());
+        assertEquals(Set.of("event_Lecture", "event_Term"), first.getTags());
+        // Every distinct location and organizer is looked up once
+        verify(roomRepository, times(1)).findByName("Room 101");
+        verify(userRepository, times(1)).findByEmail("jane@example.com");
+    }
+
+    @Test
+    void importIcs_RecurrenceWithCountOrUntil_EndsTheSeries() throws Exception {
+        ReflectionTestUtils.setField(importService, "batchSize", 10);
+        // Monday, September 1, 2025
+        String ics = "BEGIN:VCALENDAR\r\n"
+                + recurringEvent("weekly", "FREQ=WEEKLY;COUNT=10")
+                + recurringEvent("skipped", "FREQ=WEEKLY;COUNT=0")
+                + recurringEvent("conflict-1", "FREQ=DAILY;COUNT=1")
+                + recurringEvent("byday", "FREQ=WEEKLY;BYDAY=MO,WE;COUNT=5")
+                + recurringEvent("conflict-2", "FREQ=DAILY;COUNT=1")
+                + recurringEvent("until", "FREQ=DAILY;UNTIL=20250910T235959Z")
+                + "END:VCALENDAR\r\n";
+
+        IcsImportReport report = importService.importIcs(new ByteArrayInputStream(ics.getBytes(StandardCharsets.UTF_8)), "uploader");
+
+        assertEquals(List.of(5), batchSizes);
+        assertEquals(2, report.getConflicts());
+        assertTrue(report.getRejections().contains("VEVENT 2 (skipped): Invalid COUNT in RRULE: 0"));
+        // Every second event of a batch is reported as conflicting
+        assertEquals(List.of("weekly", "byday", "until"), booked.stream().map(Event::getTitle).toList());
+
+        Event weekly = booked.get(0);
+        assertEquals("FREQ=WEEKLY;UNTIL=20251103T090000", weekly.getRrule());
+        assertEquals(LocalDateTime.of(2025, 11, 3, 9, 0), weekly.getRecurrenceEndDate());
+        weekly.updateSeriesSpan();
+        assertEquals(LocalDateTime.of(2025, 11, 3, 10, 0), weekly.getSeriesEnd());
+        List<LocalDate> days = OccurrenceExpander.expand(weekly, RecurrenceRule.compile(weekly),
+                        LocalDateTime.of(2025, 1, 1, 0, 0), LocalDateTime.of(2027, 1, 1, 0, 0)).stream()
+                .map(occurrence -> occurrence.start().toLocalDate()).toList();
+        assertEquals(10, days.size());
+        assertEquals(LocalDate.of(2025, 11, 3), days.get(9));
+
+        Event byDay = booked.get(1);
+        assertEquals("FREQ=WEEKLY;BYDAY=MO,WE;UNTIL=20250915T090000", byDay.getRrule());
+        assertEquals(LocalDateTime.of(2025, 9, 15, 9, 0), byDay.getRecurrenceEndDate());
+
+        Event until = booked.get(2);
+        assertEquals("FREQ=DAILY;UNTIL=20250910T235959Z", until.getRrule());
+        assertEquals(LocalDateTime.of(2025, 9, 10, 9, 0), until.getRecurrenceEndDate());
+        until.updateSeriesSpan();
+        assertEquals(LocalDateTime.of(2025, 9, 10, 10, 0), until.getSeriesEnd());
+    }
+}
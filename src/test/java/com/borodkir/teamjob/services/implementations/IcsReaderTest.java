@@ -0,0 +1,122 @@
+package com.borodkir.teamjob.services.implementations;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IcsReaderTest {
+
+    private static final ZoneId BERLIN = ZoneId.of("Europe/Berlin");
+
+    private static IcsReader reader(String... lines) {
+        return new IcsReader(new StringReader(String.join("\r\n", lines) + "\r\n"), BERLIN);
+    }
+
+    @Test
+    void next_ReadsEventsOneByOne() throws IOException {
+        IcsReader reader = reader(
+                "BEGIN:VCALENDAR",
+                "VERSION:2.0",
+                "BEGIN:VEVENT",
+                "UID:lecture-1",
+                "SUMMARY:Algorithms\\, Lecture",
+                "DESCRIPTION:First line\\nsecond",
+                "  line",
+                "LOCATION:Room 101",
+                "ORGANIZER;CN=\"Doe; Jane\":mailto:jane@example.com",
+                "DTSTART;TZID=Europe/Berlin:20250901T090000",
+                "DTEND;TZID=Europe/Berlin:20250901T103000",
+                "RRULE:FREQ=WEEKLY;BYDAY=MO;UNTIL=20251215T000000Z",
+                "EXDATE;TZID=Europe/Berlin:20250908T090000",
+                "EXDATE;TZID=Europe/Berlin:20250915T090000",
+                "CATEGORIES:Lecture,Term",
+                "BEGIN:VALARM",
+                "DESCRIPTION:Reminder",
+                "END:VALARM",
+                "END:VEVENT",
+                "BEGIN:VEVENT",
+                "UID:holiday",
+                "SUMMARY:Holiday",
+                "DTSTART;VALUE=DATE:20251003",
+                "END:VEVENT",
+                "END:VCALENDAR");
+
+        IcsReader.VEvent lecture = reader.next();
+        assertNotNull(lecture);
+        assertNull(lecture.error());
+        assertEquals(1, lecture.number());
+        assertEquals("Algorithms, Lecture", lecture.summary());
+        assertEquals("First line\nsecond line", lecture.description());
+        assertEquals("Room 101", lecture.location());
+        assertEquals("jane@example.com", lecture.organizerEmail());
+        assertEquals("Doe; Jane", lecture.organizerName());
+        assertEquals(LocalDateTime.of(2025, 9, 1, 9, 0), lecture.start());
+        assertEquals(LocalDateTime.of(2025, 9, 1, 10, 30), lecture.end());
+        assertEquals("FREQ=WEEKLY;BYDAY=MO;UNTIL=20251215T000000Z", lecture.rrule());
+        assertEquals("20250908T090000,20250915T090000", lecture.exdate());
+        assertEquals(List.of("Lecture", "Term"), lecture.categories());
+
+        IcsReader.VEvent holiday = reader.next();
+        assertNotNull(holiday);
+        assertEquals(2, holiday.number());
+        assertEquals(LocalDateTime.of(2025, 10, 3, 0, 0), holiday.start());
+        assertEquals(LocalDateTime.of(2025, 10, 4, 0, 0), holiday.end());
+
+        assertNull(reader.next());
+    }
+
+    @Test
+    void next_ConvertsUtcAndDuration() throws IOException {
+        IcsReader reader = reader(
+                "BEGIN:VEVENT",
+                "DTSTART:20250901T070000Z",
+                "DURATION:PT45M",
+                "END:VEVENT");
+
+        IcsReader.VEvent event = reader.next();
+        assertNotNull(event);
+        assertEquals(LocalDateTime.of(2025, 9, 1, 9, 0), event.start());
+        assertEquals(LocalDateTime.of(2025, 9, 1, 9, 45), event.end());
+    }
+
+    @Test
+    void next_ReturnsBrokenEventsWithAnError() throws IOException {
+        IcsReader reader = reader(
+                "BEGIN:VEVENT",
+                "UID:no-start",
+                "SUMMARY:Broken",
+                "END:VEVENT",
+                "BEGIN:VEVENT",
+                "UID:bad-time",
+                "DTSTART:2025-09-01",
+                "END:VEVENT",
+                "BEGIN:VEVENT",
+                "UID:ok",
+                "DTSTART:20250901T090000",
+                "END:VEVENT");
+
+        IcsReader.VEvent noStart = reader.next();
+        assertEquals("no-start", noStart.uid());
+        assertEquals("Missing DTSTART", noStart.error());
+        IcsReader.VEvent badTime = reader.next();
+        assertEquals("bad-time", badTime.uid());
+        assertNotNull(badTime.error());
+        IcsReader.VEvent ok = reader.next();
+        assertNull(ok.error());
+        assertEquals(ok.start(), ok.end());
+    }
+
+    @Test
+    void parseDuration_AcceptsWeeks() {
+        assertEquals(Duration.ofDays(14), IcsReader.parseDuration("P2W"));
+        assertEquals(Duration.ofMinutes(-15), IcsReader.parseDuration("-PT15M"));
+        assertEquals(Duration.ofHours(25), IcsReader.parseDuration("P1DT1H"));
+    }
+}
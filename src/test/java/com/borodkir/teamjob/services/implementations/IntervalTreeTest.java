@@ -0,0 +1,78 @@
+package com.borodkir.teamjob.services.implementations;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntervalTreeTest {
+
+    @Test
+    void overlaps_ClosedIntervals() {
+        IntervalTree tree = new IntervalTree();
+        tree.insert(1, 10, 20);
+
+        assertTrue(tree.overlaps(20, 30), "Touching the end should count as a conflict like the repository query");
+        assertTrue(tree.overlaps(0, 10), "Touching the start should count as a conflict like the repository query");
+        assertTrue(tree.overlaps(12, 15));
+        assertFalse(tree.overlaps(21, 30));
+        assertFalse(tree.overlaps(0, 9));
+    }
+
+    @Test
+    void overlaps_FindsLongIntervalHiddenInLeftSubtree() {
+        IntervalTree tree = new IntervalTree();
+        tree.insert(1, 0, 1000);
+        for (int i = 2; i < 50; i++) {
+            tree.insert(i, i * 10L, i * 10L + 1);
+        }
+
+        assertTrue(tree.overlaps(995, 996));
+        assertFalse(tree.overlaps(1001, 1002));
+    }
+
+    @Test
+    void insertAndRemove_KeepSize() {
+        IntervalTree tree = new IntervalTree();
+        tree.insert(1, 10, 20);
+        tree.insert(1, 10, 20);
+        tree.insert(2, 10, 25);
+
+        assertEquals(2, tree.size());
+        assertTrue(tree.remove(1, 10));
+        assertFalse(tree.remove(1, 10));
+        assertEquals(1, tree.size());
+        assertTrue(tree.overlaps(22, 30));
+        assertTrue(tree.remove(2, 10));
+        assertTrue(tree.isEmpty());
+        assertFalse(tree.overlaps(Long.MIN_VALUE, Long.MAX_VALUE));
+    }
+
+    @Test
+    void overlaps_MatchesLinearScan() {
+        Random random = new Random(42);
+        IntervalTree tree = new IntervalTree();
+        List<long[]> intervals = new ArrayList<>();
+
+        for (int round = 0; round < 5000; round++) {
+            if (!intervals.isEmpty() && random.nextInt(3) == 0) {
+                long[] removed = intervals.remove(random.nextInt(intervals.size()));
+                assertTrue(tree.remove(removed[0], removed[1]));
+            } else {
+                long start = random.nextInt(10_000);
+                long[] interval = {round, start, start + random.nextInt(200)};
+                intervals.add(interval);
+                tree.insert(interval[0], interval[1], interval[2]);
+            }
+
+            long from = random.nextInt(10_000);
+            long to = from + random.nextInt(100);
+            boolean expected = intervals.stream().anyMatch(i -> i[1] <= to && i[2] >= from);
+            assertEquals(expected, tree.overlaps(from, to), "Query [" + from + ", " + to + "] in round " + round);
+            assertEquals(intervals.size(), tree.size());
+        }
+    }
+}
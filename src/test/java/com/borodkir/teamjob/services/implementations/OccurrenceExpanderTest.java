@@ -0,0 +1,162 @@
+package com.borodkir.teamjob.services.implementations;
+
+import com.borodkir.teamjob.data.Event;
+import com.borodkir.teamjob.data.Occurrence;
+import com.borodkir.teamjob.data.RecurrenceRule;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OccurrenceExpanderTest {
+
+    // Friday, May 16, 2025
+    private static final LocalDateTime seriesStart = LocalDateTime.of(2025, 5, 16, 10, 0);
+
+    private static Event recurringEvent(String rrule) {
+        Event event = new Event();
+        event.setId(1L);
+        event.setTitle("Series");
+        event.setStartTime(seriesStart);
+        event.setEndTime(seriesStart.plusMinutes(30));
+        event.setRecurring(true);
+        event.setRrule(rrule);
+        return event;
+    }
+
+    private static List<Occurrence> expand(Event event, LocalDate from, LocalDate toExclusive) {
+        return OccurrenceExpander.expand(event, RecurrenceRule.compile(event), from.atStartOfDay(), toExclusive.atStartOfDay());
+    }
+
+    private static List<LocalDate> dates(List<Occurrence> occurrences) {
+        return occurrences.stream().map(o -> o.start().toLocalDate()).toList();
+    }
+
+    @Test
+    void singleEvent_InsideAndOutsideWindow() {
+        Event event = new Event();
+        event.setStartTime(seriesStart);
+        event.setEndTime(seriesStart.plusHours(1));
+        event.setRecurring(false);
+
+        assertEquals(1, expand(event, seriesStart.toLocalDate(), seriesStart.toLocalDate().plusDays(1)).size());
+        assertTrue(expand(event, seriesStart.toLocalDate().plusDays(1), seriesStart.toLocalDate().plusDays(2)).isEmpty());
+    }
+
+    @Test
+    void daily_WithInterval_JumpsToFirstInstanceInWindow() {
+        Event event = recurringEvent("FREQ=DAILY;INTERVAL=3");
+        LocalDate from = LocalDate.of(2026, 1, 1);
+
+        // 2026-01-02 is 231 days after the series start, the first multiple of 3 in the window
+        assertEquals(List.of(LocalDate.of(2026, 1, 2), LocalDate.of(2026, 1, 5)),
+                dates(expand(event, from, from.plusDays(7))));
+        // A window starting on an instance includes it, as well as the instance on its last day
+        assertEquals(List.of(LocalDate.of(2026, 1, 2), LocalDate.of(2026, 1, 5), LocalDate.of(2026, 1, 8)),
+                dates(expand(event, LocalDate.of(2026, 1, 2), LocalDate.of(2026, 1, 9))));
+        // A window ending just before an instance excludes it
+        assertEquals(List.of(LocalDate.of(2026, 1, 2)),
+                dates(expand(event, LocalDate.of(2026, 1, 2), LocalDate.of(2026, 1, 5))));
+    }
+
+    @Test
+    void weekly_ByDay_WithInterval() {
+        Event event = recurringEvent("FREQ=WEEKLY;INTERVAL=2;BYDAY=MO,WE,FR");
+
+        // Week of the series start, Monday and Wednesday are before it, and the week two weeks later
+        assertEquals(List.of(LocalDate.of(2025, 5, 16)),
+                dates(expand(event, LocalDate.of(2025, 5, 12), LocalDate.of(2025, 5, 19))));
+        assertTrue(expand(event, LocalDate.of(2025, 5, 19), LocalDate.of(2025, 5, 26)).isEmpty());
+        assertEquals(3, expand(event, LocalDate.of(2025, 5, 26), LocalDate.of(2025, 6, 2)).size());
+    }
+
+    @Test
+    void weekly_NoOccurrencesBeforeTheFirstWeek() {
+        Event event = recurringEvent("FREQ=WEEKLY;BYDAY=MO,WE,FR");
+
+        assertTrue(expand(event, LocalDate.of(2025, 5, 5), LocalDate.of(2025, 5, 12)).isEmpty());
+    }
+
+    @Test
+    void monthly_SkipsMonthsWithoutTheDay() {
+        Event event = recurringEvent("FREQ=MONTHLY");
+        event.setStartTime(LocalDateTime.of(2025, 1, 31, 10, 0));
+        event.setEndTime(LocalDateTime.of(2025, 1, 31, 11, 0));
+
+        List<LocalDate> found = dates(expand(event, LocalDate.of(2025, 1, 1), LocalDate.of(2025, 6, 1)));
+
+        assertEquals(List.of(LocalDate.of(2025, 1, 31), LocalDate.of(2025, 3, 31), LocalDate.of(2025, 5, 31)), found);
+    }
+
+    @Test
+    void yearly_WithInterval() {
+        Event event = recurringEvent("FREQ=YEARLY;INTERVAL=2");
+
+        List<LocalDate> found = dates(expand(event, LocalDate.of(2025, 1, 1), LocalDate.of(2031, 1, 1)));
+
+        assertEquals(List.of(LocalDate.of(2025, 5, 16), LocalDate.of(2027, 5, 16), LocalDate.of(2029, 5, 16)), found);
+    }
+
+    @Test
+    void untilExdateAndRdate() {
+        Event event = recurringEvent("FREQ=DAILY;UNTIL=20250520T000000Z");
+        event.setExdate("20250518");
+        event.setRdate("20250601");
+
+        List<LocalDate> found = dates(expand(event, LocalDate.of(2025, 5, 1), LocalDate.of(2025, 7, 1)));
+
+        assertEquals(List.of(LocalDate.of(2025, 5, 16), LocalDate.of(2025, 5, 17), LocalDate.of(2025, 5, 19),
+                LocalDate.of(2025, 5, 20), LocalDate.of(2025, 6, 1)), found);
+    }
+
+    @Test
+    void recurrenceEndDate_LimitsTheRule() {
+        Event event = recurringEvent("FREQ=DAILY");
+        event.setRecurrenceEndDate(LocalDateTime.of(2025, 5, 17, 0, 0));
+
+        assertEquals(2, expand(event, LocalDate.of(2025, 5, 1), LocalDate.of(2025, 6, 1)).size());
+    }
+
+    @Test
+    void occurrenceStartingTheDayBefore_OverlapsWindow() {
+        Event event = recurringEvent("FREQ=DAILY");
+        event.setStartTime(LocalDateTime.of(2025, 5, 16, 22, 0));
+        event.setEndTime(LocalDateTime.of(2025, 5, 17, 2, 0));
+
+        List<Occurrence> found = expand(event, LocalDate.of(2025, 5, 20), LocalDate.of(2025, 5, 21));
+
+        assertEquals(2, found.size());
+        assertEquals(LocalDateTime.of(2025, 5, 19, 22, 0), found.getFirst().start());
+        assertEquals(LocalDateTime.of(2025, 5, 21, 2, 0), found.get(1).end());
+    }
+
+    @Test
+    void lastCountedStart_CountsFromTheSeriesStart() {
+        Event biweekly = recurringEvent("FREQ=WEEKLY;INTERVAL=2");
+        assertEquals(LocalDateTime.of(2025, 6, 13, 10, 0), OccurrenceExpander.lastCountedStart(biweekly, RecurrenceRule.compile(biweekly), 3));
+        assertEquals(seriesStart, OccurrenceExpander.lastCountedStart(biweekly, RecurrenceRule.compile(biweekly), 1));
+
+        // Skipped months do not count, the window is longer than count months
+        Event monthly = recurringEvent("FREQ=MONTHLY");
+        monthly.setStartTime(LocalDateTime.of(2025, 1, 31, 10, 0));
+        monthly.setEndTime(LocalDateTime.of(2025, 1, 31, 11, 0));
+        assertEquals(LocalDateTime.of(2025, 5, 31, 10, 0), OccurrenceExpander.lastCountedStart(monthly, RecurrenceRule.compile(monthly), 3));
+
+        // An instance spanning midnight is counted once
+        Event overnight = recurringEvent("FREQ=DAILY");
+        overnight.setStartTime(LocalDateTime.of(2025, 5, 16, 22, 0));
+        overnight.setEndTime(LocalDateTime.of(2025, 5, 17, 2, 0));
+        assertEquals(LocalDateTime.of(2025, 5, 25, 22, 0), OccurrenceExpander.lastCountedStart(overnight, RecurrenceRule.compile(overnight), 10));
+    }
+
+    @Test
+    void lastCountedStart_StopsAtUntil() {
+        Event event = recurringEvent("FREQ=DAILY;UNTIL=20250520T235959Z");
+
+        assertEquals(LocalDateTime.of(2025, 5, 20, 10, 0), OccurrenceExpander.lastCountedStart(event, RecurrenceRule.compile(event), 10));
+        assertNull(OccurrenceExpander.lastCountedStart(recurringEvent("FREQ=HOURLY"), RecurrenceRule.compile(recurringEvent("FREQ=HOURLY")), 10));
+    }
+}
@@ -0,0 +1,126 @@
+package com.borodkir.teamjob.services.implementations;
+
+import com.borodkir.teamjob.data.Event;
+import com.borodkir.teamjob.data.EventOccurrence;
+import com.borodkir.teamjob.data.repositories.EventOccurrenceRepository;
+import com.borodkir.teamjob.data.repositories.EventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OccurrenceServiceImplTest {
+
+    @Mock
+    private EventRepository eventRepository;
+
+    @Mock
+    private EventOccurrenceRepository eventOccurrenceRepository;
+
+    @Captor
+    private ArgumentCaptor<List<EventOccurrence>> saved;
+
+    private OccurrenceServiceImpl occurrenceService;
+
+    private final LocalDate today = LocalDate.now();
+
+    @BeforeEach
+    void setUp() {
+        occurrenceService = new OccurrenceServiceImpl(eventRepository, eventOccurrenceRepository, new RecurrenceRuleCache(100));
+        ReflectionTestUtils.setField(occurrenceService, "enabled", true);
+        ReflectionTestUtils.setField(occurrenceService, "horizonMonths", 1);
+    }
+
+    private static Event event(long id, LocalDateTime start, String rrule) {
+        Event event = new Event();
+        event.setId(id);
+        event.setTitle("Event " + id);
+        event.setStartTime(start);
+        event.setEndTime(start.plusMinutes(30));
+        event.setRecurring(rrule != null);
+        event.setRrule(rrule);
+        return event;
+    }
+
+    @Test
+    void materialize_ReplacesOccurrencesUpToTheHorizon() {
+        Event daily = event(1, today.atTime(10, 0), "FREQ=DAILY");
+
+        occurrenceService.materialize(daily);
+
+        verify(eventOccurrenceRepository).deleteByEventId(1L);
+        verify(eventOccurrenceRepository).saveAll(saved.capture());
+        List<EventOccurrence> rows = saved.getValue();
+        LocalDateTime horizon = occurrenceService.getHorizon();
+        assertEquals(ChronoUnit.DAYS.between(today, horizon.toLocalDate()), rows.size());
+        assertEquals(today.atTime(10, 0), rows.get(0).getStartTime());
+        assertEquals(horizon.toLocalDate().minusDays(1).atTime(10, 0), rows.get(rows.size() - 1).getStartTime());
+        assertTrue(rows.stream().allMatch(row -> row.getEventId() == 1L));
+    }
+
+    @Test
+    void materialize_SingleEventBeyondTheHorizon_IsStored() {
+        Event single = event(2, today.plusYears(3).atTime(9, 0), null);
+
+        occurrenceService.materialize(single);
+
+        verify(eventOccurrenceRepository).saveAll(saved.capture());
+        assertEquals(1, saved.getValue().size());
+        assertEquals(single.getStartTime(), saved.getValue().get(0).getStartTime());
+    }
+
+    @Test
+    void remove_DeletesOccurrencesOfTheEvent() {
+        occurrenceService.remove(3L);
+
+        verify(eventOccurrenceRepository).deleteByEventId(3L);
+    }
+
+    @Test
+    void disabled_WritesNothing() {
+        ReflectionTestUtils.setField(occurrenceService, "enabled", false);
+
+        occurrenceService.materialize(event(1, today.atTime(10, 0), "FREQ=DAILY"));
+        occurrenceService.remove(1L);
+        occurrenceService.rollForward();
+
+        verifyNoInteractions(eventOccurrenceRepository, eventRepository);
+        assertNull(occurrenceService.getMaterializedHorizon());
+    }
+
+    @Test
+    void rollForward_AddsOccurrencesAfterTheLastStoredOneAndRemovesOrphans() {
+        Event daily = event(1, today.minusDays(10).atTime(10, 0), "FREQ=DAILY");
+        Event single = event(2, today.plusDays(1).atTime(9, 0), null);
+        LocalDateTime lastStored = today.plusDays(5).atTime(10, 0);
+        when(eventOccurrenceRepository.findLastMaterializedStarts()).thenReturn(List.<Object[]>of(new Object[]{1L, lastStored}));
+        when(eventRepository.findOverlappingEvents(any(), any())).thenReturn(List.of(daily, single));
+        assertNull(occurrenceService.getMaterializedHorizon());
+
+        occurrenceService.rollForward();
+
+        LocalDateTime horizon = occurrenceService.getHorizon();
+        verify(eventOccurrenceRepository).deleteOrphans();
+        verify(eventRepository).findOverlappingEvents(today.atStartOfDay(), horizon);
+        verify(eventOccurrenceRepository).saveAll(saved.capture());
+        List<EventOccurrence> rows = saved.getValue();
+        assertEquals(ChronoUnit.DAYS.between(today.plusDays(6), horizon.toLocalDate()), rows.size());
+        assertEquals(today.plusDays(6).atTime(10, 0), rows.get(0).getStartTime());
+        assertTrue(rows.stream().allMatch(row -> row.getEventId() == 1L), "single events are not rolled forward");
+        assertEquals(horizon, occurrenceService.getMaterializedHorizon());
+    }
+}
@@ -0,0 +1,46 @@
+package com.borodkir.teamjob.services.implementations;
+
+import com.borodkir.teamjob.data.Event;
+import com.borodkir.teamjob.data.RecurrenceRule;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecurrenceRuleCacheTest {
+
+    private static Event event(long id, String rrule) {
+        Event event = new Event();
+        event.setId(id);
+        event.setRrule(rrule);
+        event.setLastModifiedDate(LocalDateTime.of(2025, 5, 16, 10, 0));
+        return event;
+    }
+
+    @Test
+    void get_ReusesRuleUntilTheEventChanges() {
+        RecurrenceRuleCache cache = new RecurrenceRuleCache(10);
+        Event event = event(1, "FREQ=DAILY");
+
+        RecurrenceRule first = cache.get(event);
+        assertSame(first, cache.get(event));
+
+        event.setRrule("FREQ=WEEKLY");
+        event.setLastModifiedDate(event.getLastModifiedDate().plusMinutes(1));
+        assertEquals(RecurrenceRule.Frequency.WEEKLY, cache.get(event).frequency());
+    }
+
+    @Test
+    void get_EvictsLeastRecentlyUsedBeyondMaxSize() {
+        RecurrenceRuleCache cache = new RecurrenceRuleCache(2);
+        Event first = event(1, "FREQ=DAILY");
+        RecurrenceRule firstRule = cache.get(first);
+        cache.get(event(2, "FREQ=DAILY"));
+        cache.get(first);
+        cache.get(event(3, "FREQ=DAILY"));
+
+        assertEquals(2, cache.size());
+        assertSame(firstRule, cache.get(first), "recently used rule is kept");
+    }
+}
@@ -0,0 +1,86 @@
+package com.borodkir.teamjob.services.implementations;
+
+import com.borodkir.teamjob.data.RoomSummary;
+import com.borodkir.teamjob.data.TagAssignment;
+import com.borodkir.teamjob.data.UserSummary;
+import com.borodkir.teamjob.data.repositories.RoomRepository;
+import com.borodkir.teamjob.data.repositories.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ReferenceDataServiceImplTest {
+
+    private RoomRepository roomRepository;
+    private UserRepository userRepository;
+    private ReferenceDataServiceImpl referenceDataService;
+
+    private static RoomRepository.NameView room(long id, String name) {
+        return new RoomRepository.NameView() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getName() {
+                return name;
+            }
+        };
+    }
+
+    private static UserRepository.NameView user(long id, String username) {
+        return new UserRepository.NameView() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getUsername() {
+                return username;
+            }
+        };
+    }
+
+    @BeforeEach
+    void setUp() {
+        roomRepository = mock(RoomRepository.class);
+        userRepository = mock(UserRepository.class);
+        referenceDataService = new ReferenceDataServiceImpl(roomRepository, userRepository);
+
+        when(roomRepository.findAllNames()).thenReturn(List.of(room(1L, "Room 1"), room(2L, "Room 2")));
+        when(roomRepository.findAllTagAssignments()).thenReturn(List.of(
+                new TagAssignment(1L, "rooms_Projector"), new TagAssignment(1L, "rooms_Meeting Room")));
+        when(userRepository.findAllNames()).thenReturn(List.of(user(1L, "user1")));
+        when(userRepository.findAllTagAssignments()).thenReturn(List.of(new TagAssignment(1L, "users_Developer")));
+    }
+
+    @Test
+    void getRoomsAndUsers_CarryTheirTags() {
+        assertEquals(List.of(new RoomSummary(1L, "Room 1", Set.of("rooms_Meeting Room", "rooms_Projector")),
+                new RoomSummary(2L, "Room 2")), referenceDataService.getRooms());
+        assertEquals(List.of(new UserSummary(1L, "user1", Set.of("users_Developer"))), referenceDataService.getUsers());
+    }
+
+    @Test
+    void getRooms_ReadsAgainOnlyAfterInvalidate() {
+        referenceDataService.getRooms();
+        referenceDataService.getUsers();
+        verify(roomRepository, times(1)).findAllTagAssignments();
+
+        referenceDataService.invalidate();
+        referenceDataService.getRooms();
+
+        verify(roomRepository, times(2)).findAllNames();
+        verify(userRepository, times(2)).findAllTagAssignments();
+    }
+}
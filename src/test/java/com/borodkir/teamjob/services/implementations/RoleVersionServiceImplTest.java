@@ -0,0 +1,110 @@
+package com.borodkir.teamjob.services.implementations;
+
+import com.borodkir.teamjob.data.Role;
+import com.borodkir.teamjob.data.User;
+import com.borodkir.teamjob.data.repositories.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class RoleVersionServiceImplTest {
+
+    private UserRepository userRepository;
+    private RoleVersionServiceImpl roleVersionService;
+
+    private static UserRepository.RoleVersionView view(long id, int roleVersion) {
+        return new UserRepository.RoleVersionView() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Integer getRoleVersion() {
+                return roleVersion;
+            }
+        };
+    }
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        roleVersionService = new RoleVersionServiceImpl(userRepository, true);
+    }
+
+    @Test
+    void isCurrent_NothingIsCurrentBeforeTheVersionsWereRead() {
+        assertFalse(roleVersionService.isCurrent(1L, 0));
+
+        when(userRepository.findAllRoleVersions()).thenReturn(List.of());
+        roleVersionService.refresh();
+
+        assertTrue(roleVersionService.isCurrent(1L, 0));
+        assertFalse(roleVersionService.isCurrent(null, 0));
+    }
+
+    @Test
+    void isCurrent_RejectsTokensIssuedBeforeARoleChange() {
+        when(userRepository.findAllRoleVersions()).thenReturn(List.of(view(1, 2)));
+        roleVersionService.refresh();
+
+        assertFalse(roleVersionService.isCurrent(1L, 1));
+        assertTrue(roleVersionService.isCurrent(1L, 2));
+
+        // Changed by this instance
+        roleVersionService.roleVersionChanged(1L, 3);
+        assertFalse(roleVersionService.isCurrent(1L, 2));
+        // An older version read afterwards does not win
+        roleVersionService.roleVersionChanged(1L, 2);
+        assertTrue(roleVersionService.isCurrent(1L, 3));
+
+        roleVersionService.userRemoved(1L);
+        assertFalse(roleVersionService.isCurrent(1L, 3));
+    }
+
+    @Test
+    void refresh_ReadsOnlyUsersModifiedSinceThePreviousRead() {
+        when(userRepository.findAllRoleVersions()).thenReturn(List.of(view(1, 1)));
+        when(userRepository.findRoleVersionsModifiedSince(any(LocalDateTime.class))).thenReturn(List.of(view(2, 4)));
+
+        roleVersionService.refresh();
+        roleVersionService.refresh();
+
+        verify(userRepository, times(1)).findAllRoleVersions();
+        verify(userRepository, times(1)).findRoleVersionsModifiedSince(any(LocalDateTime.class));
+        assertTrue(roleVersionService.isCurrent(1L, 1));
+        assertFalse(roleVersionService.isCurrent(2L, 3));
+    }
+
+    @Test
+    void refresh_DoesNothingWithoutStatelessTokens() {
+        RoleVersionServiceImpl disabled = new RoleVersionServiceImpl(userRepository, false);
+
+        disabled.refresh();
+
+        verifyNoInteractions(userRepository);
+        assertFalse(disabled.isStateless());
+    }
+
+    @Test
+    void user_ChangingTheRolesIncrementsTheRoleVersion() {
+        User user = new User();
+        assertEquals(0, user.getRoleVersion());
+        Role role = new Role();
+        role.setName("ROLE_USER");
+
+        user.addRole(role);
+        assertEquals(1, user.getRoleVersion());
+        user.addRole(role);
+        assertEquals(1, user.getRoleVersion());
+        user.setRoles(Set.of());
+        assertEquals(2, user.getRoleVersion());
+    }
+}
@@ -0,0 +1,146 @@
+package com.borodkir.teamjob.services.implementations;
+
+import com.borodkir.teamjob.data.RoomInterval;
+import com.borodkir.teamjob.data.repositories.EventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RoomIntervalIndexImplTest {
+
+    @Mock
+    private EventRepository eventRepository;
+
+    private RoomIntervalIndexImpl roomIntervalIndex;
+
+    private final LocalDateTime baseTime = LocalDateTime.of(2025, 9, 1, 8, 0);
+
+    @BeforeEach
+    void setUp() {
+        roomIntervalIndex = new RoomIntervalIndexImpl(eventRepository);
+        ReflectionTestUtils.setField(roomIntervalIndex, "enabled", true);
+    }
+
+    private RoomInterval booking(long eventId, long roomId, int startHour, int endHour) {
+        return new RoomInterval(eventId, roomId, baseTime.plusHours(startHour), baseTime.plusHours(endHour));
+    }
+
+    @Test
+    void hasConflict_BeforeWarmUp_AsksTheDatabase() {
+        when(eventRepository.existsBookingInRoom(1L, baseTime, baseTime.plusHours(1))).thenReturn(true);
+
+        assertFalse(roomIntervalIndex.isReady());
+        assertTrue(roomIntervalIndex.hasConflict(1L, baseTime, baseTime.plusHours(1)));
+        verify(eventRepository).existsBookingInRoom(1L, baseTime, baseTime.plusHours(1));
+    }
+
+    @Test
+    void hasConflict_Disabled_AlwaysAsksTheDatabase() {
+        ReflectionTestUtils.setField(roomIntervalIndex, "enabled", false);
+        when(eventRepository.existsBookingInRoom(any(), any(), any())).thenReturn(false);
+
+        roomIntervalIndex.rebuild();
+
+        assertFalse(roomIntervalIndex.isReady());
+        assertFalse(roomIntervalIndex.hasConflict(1L, baseTime, baseTime.plusHours(1)));
+        verify(eventRepository, never()).findAllRoomIntervals();
+        verify(eventRepository).existsBookingInRoom(1L, baseTime, baseTime.plusHours(1));
+    }
+
+    @Test
+    void hasConflict_AfterWarmUp_AnswersFromTheIndex() {
+        when(eventRepository.findAllRoomIntervals()).thenReturn(List.of(booking(1, 1, 9, 10)));
+
+        roomIntervalIndex.rebuild();
+
+        assertTrue(roomIntervalIndex.isReady());
+        assertTrue(roomIntervalIndex.hasConflict(1L, baseTime.plusHours(9).plusMinutes(30), baseTime.plusHours(11)));
+        // Touching bookings conflict, like in the repository query
+        assertTrue(roomIntervalIndex.hasConflict(1L, baseTime.plusHours(10), baseTime.plusHours(11)));
+        assertFalse(roomIntervalIndex.hasConflict(1L, baseTime.plusHours(11), baseTime.plusHours(12)));
+        assertFalse(roomIntervalIndex.hasConflict(2L, baseTime.plusHours(9), baseTime.plusHours(10)));
+        verify(eventRepository, never()).existsBookingInRoom(anyLong(), any(), any());
+    }
+
+    @Test
+    void putAndRemove_UpdateTheIndex() {
+        when(eventRepository.findAllRoomIntervals()).thenReturn(List.of());
+        roomIntervalIndex.rebuild();
+
+        roomIntervalIndex.put(booking(1, 1, 9, 10));
+        assertTrue(roomIntervalIndex.hasConflict(1L, baseTime.plusHours(9), baseTime.plusHours(9)));
+
+        // Moving the event to another room frees the old one
+        roomIntervalIndex.put(booking(1, 2, 9, 10));
+        assertFalse(roomIntervalIndex.hasConflict(1L, baseTime.plusHours(9), baseTime.plusHours(10)));
+        assertTrue(roomIntervalIndex.hasConflict(2L, baseTime.plusHours(9), baseTime.plusHours(10)));
+
+        roomIntervalIndex.remove(1L);
+        assertFalse(roomIntervalIndex.hasConflict(2L, baseTime.plusHours(9), baseTime.plusHours(10)));
+    }
+
+    @Test
+    void verify_Consistent_KeepsTheIndex() {
+        when(eventRepository.findAllRoomIntervals()).thenReturn(List.of(booking(1, 1, 9, 10)));
+        roomIntervalIndex.rebuild();
+        roomIntervalIndex.put(booking(2, 1, 11, 12));
+        when(eventRepository.findAllRoomIntervals()).thenReturn(List.of(booking(1, 1, 9, 10), booking(2, 1, 11, 12)));
+
+        assertTrue(roomIntervalIndex.isConsistent());
+        roomIntervalIndex.verify();
+
+        // One load for the warm-up, one for each comparison, none for a rebuild
+        verify(eventRepository, times(3)).findAllRoomIntervals();
+    }
+
+    @Test
+    void verify_DetectsDriftAndRebuilds() {
+        when(eventRepository.findAllRoomIntervals()).thenReturn(List.of(booking(1, 1, 9, 10), booking(2, 1, 11, 12)));
+        roomIntervalIndex.rebuild();
+
+        // Another instance added event 3, moved event 2 and deleted event 1
+        List<RoomInterval> stored = List.of(booking(2, 1, 13, 14), booking(3, 2, 9, 10));
+        when(eventRepository.findAllRoomIntervals()).thenReturn(stored);
+        assertFalse(roomIntervalIndex.isConsistent());
+        assertFalse(roomIntervalIndex.hasConflict(2L, baseTime.plusHours(9), baseTime.plusHours(10)), "index is stale");
+
+        roomIntervalIndex.verify();
+
+        // Comparison and the rebuild after it
+        verify(eventRepository, times(4)).findAllRoomIntervals();
+        assertTrue(roomIntervalIndex.isConsistent());
+        assertFalse(roomIntervalIndex.hasConflict(1L, baseTime.plusHours(9), baseTime.plusHours(10)));
+        assertFalse(roomIntervalIndex.hasConflict(1L, baseTime.plusHours(11), baseTime.plusHours(12)));
+        assertTrue(roomIntervalIndex.hasConflict(1L, baseTime.plusHours(13), baseTime.plusHours(14)));
+        assertTrue(roomIntervalIndex.hasConflict(2L, baseTime.plusHours(9), baseTime.plusHours(10)));
+    }
+
+    @Test
+    void isConsistent_DetectsChangedTimeOfTheSameEvent() {
+        when(eventRepository.findAllRoomIntervals()).thenReturn(List.of(booking(1, 1, 9, 10)));
+        roomIntervalIndex.rebuild();
+
+        when(eventRepository.findAllRoomIntervals()).thenReturn(List.of(booking(1, 1, 9, 11)));
+
+        assertFalse(roomIntervalIndex.isConsistent());
+    }
+
+    @Test
+    void verify_BeforeWarmUp_DoesNothing() {
+        roomIntervalIndex.verify();
+
+        verifyNoInteractions(eventRepository);
+    }
+}
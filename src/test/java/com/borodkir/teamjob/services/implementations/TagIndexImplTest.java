@@ -0,0 +1,93 @@
+package com.borodkir.teamjob.services.implementations;
+
+import com.borodkir.teamjob.data.TagAssignment;
+import com.borodkir.teamjob.data.repositories.EventRepository;
+import com.borodkir.teamjob.data.repositories.RoomRepository;
+import com.borodkir.teamjob.data.repositories.UserRepository;
+import com.borodkir.teamjob.services.ITagIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TagIndexImplTest {
+
+    @Mock
+    private RoomRepository roomRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private EventRepository eventRepository;
+
+    @InjectMocks
+    private TagIndexImpl tagIndex;
+
+    @BeforeEach
+    void setUp() {
+        when(roomRepository.findAllTagAssignments()).thenReturn(List.of(
+                new TagAssignment(1L, "rooms_Projector"),
+                new TagAssignment(1L, "rooms_Large"),
+                new TagAssignment(2L, "rooms_Small")));
+        when(userRepository.findAllTagAssignments()).thenReturn(List.of(new TagAssignment(5L, "users_Developer")));
+        when(eventRepository.findAllTagAssignments()).thenReturn(List.of());
+        tagIndex.rebuild();
+    }
+
+    private static BitSet bits(int... ids) {
+        BitSet bits = new BitSet();
+        for (int id : ids) {
+            bits.set(id);
+        }
+        return bits;
+    }
+
+    @Test
+    void findAnyTag_ReturnsOwnersOfAnyTag() {
+        assertTrue(tagIndex.isReady());
+        assertEquals(bits(1, 2), tagIndex.findAnyTag(ITagIndex.Kind.ROOM, Set.of("rooms_Large", "rooms_Small")));
+        assertEquals(bits(), tagIndex.findAnyTag(ITagIndex.Kind.ROOM, Set.of("rooms_Unknown")));
+        assertEquals(bits(5), tagIndex.findAnyTag(ITagIndex.Kind.USER, Set.of("users_Developer")));
+        assertEquals(bits(), tagIndex.findAnyTag(ITagIndex.Kind.USER, Set.of("rooms_Large")));
+    }
+
+    @Test
+    void putAndRemove_PatchTheIndex() {
+        tagIndex.put(ITagIndex.Kind.ROOM, 1L, List.of("rooms_Small"));
+        tagIndex.put(ITagIndex.Kind.EVENT, 7L, List.of("event_Meeting"));
+
+        assertEquals(bits(), tagIndex.findAnyTag(ITagIndex.Kind.ROOM, Set.of("rooms_Large")));
+        assertEquals(bits(1, 2), tagIndex.findAnyTag(ITagIndex.Kind.ROOM, Set.of("rooms_Small")));
+        assertEquals(bits(7), tagIndex.findAnyTag(ITagIndex.Kind.EVENT, Set.of("event_Meeting")));
+
+        tagIndex.remove(ITagIndex.Kind.ROOM, 2L);
+        assertEquals(bits(1), tagIndex.findAnyTag(ITagIndex.Kind.ROOM, Set.of("rooms_Small")));
+    }
+
+    @Test
+    void intern_ReturnsStableIds() {
+        int id = tagIndex.intern("rooms_Projector");
+
+        assertEquals(id, tagIndex.intern("rooms_Projector"));
+        assertNotEquals(id, tagIndex.intern("rooms_Brand New"));
+    }
+
+    @Test
+    void idsTooLargeForBitset_DisableTheIndex() {
+        tagIndex.put(ITagIndex.Kind.EVENT, Integer.MAX_VALUE + 1L, List.of("event_Meeting"));
+
+        assertFalse(tagIndex.isReady());
+        assertNull(tagIndex.findAnyTag(ITagIndex.Kind.EVENT, Set.of("event_Meeting")));
+    }
+}
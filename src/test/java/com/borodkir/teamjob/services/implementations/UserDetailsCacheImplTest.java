@@ -0,0 +1,103 @@
+package com.borodkir.teamjob.services.implementations;
+
+import com.borodkir.teamjob.UserDetailsImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserDetailsCacheImplTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private UserDetailsCacheImpl cache;
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private final Function<String, UserDetails> loader = username -> {
+        loads.incrementAndGet();
+        if (username.startsWith("unknown")) {
+            throw new UsernameNotFoundException("User " + username + " not found");
+        }
+        return new UserDetailsImpl((long) username.length(), username, username + "@example.com", "hash",
+                List.of(new SimpleGrantedAuthority("ROLE_USER")));
+    };
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new UserDetailsCacheImpl(meterRegistry, 60, 100);
+    }
+
+    @Test
+    void get_LoadsEachUserOnce() {
+        UserDetails first = cache.get("alice", loader);
+        for (int i = 0; i < 9; i++) {
+            assertSame(first, cache.get("alice", loader));
+        }
+
+        assertEquals(1, loads.get());
+        assertEquals(0.9, meterRegistry.get("cache.hit.ratio").tag("cache", "userDetails").gauge().value(), 1e-9);
+        assertEquals(1, meterRegistry.get("cache.load.duration").tag("cache", "userDetails").timer().count());
+    }
+
+    @Test
+    void get_DoesNotCacheUnknownUsers() {
+        assertThrows(UsernameNotFoundException.class, () -> cache.get("unknown", loader));
+        assertThrows(UsernameNotFoundException.class, () -> cache.get("unknown", loader));
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void get_ReloadsAfterTheTimeToLive() throws Exception {
+        cache = new UserDetailsCacheImpl(new SimpleMeterRegistry(), 1, 100);
+        cache.get("alice", loader);
+
+        Thread.sleep(1_100);
+        cache.get("alice", loader);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void invalidateUser_RemovesTheUserUnderItsOldName() {
+        // Ids are the length of the name
+        cache.get("alice", loader);
+        cache.get("bob", loader);
+
+        // User 5, now renamed
+        cache.invalidateUser(5L, "alicia");
+        cache.get("alice", loader);
+        cache.get("bob", loader);
+
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void get_DoesNotStoreAUserLoadedDuringAWrite() {
+        cache.get("alice", username -> {
+            cache.invalidateAll();
+            return loader.apply(username);
+        });
+        cache.get("alice", loader);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void get_StaysWithinTheMaximumSize() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new UserDetailsCacheImpl(meterRegistry, 60, 5);
+        for (int i = 0; i < 20; i++) {
+            cache.get("user" + i, loader);
+            assertTrue(meterRegistry.get("cache.size").tag("cache", "userDetails").gauge().value() <= 5);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.borodkir.teamjob.services.implementations;
+
+import com.borodkir.teamjob.data.Event;
+import com.borodkir.teamjob.data.EventInADay;
+import com.borodkir.teamjob.data.RoomSummary;
+import com.borodkir.teamjob.data.UserSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WeekModelCacheImplTest {
+
+    private final LocalDate week1 = LocalDate.of(2025, 9, 1);
+    private final LocalDate week2 = week1.plusWeeks(1);
+    private final LocalDate week3 = week1.plusWeeks(2);
+
+    private SimpleMeterRegistry meterRegistry;
+    private WeekModelCacheImpl cache;
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new WeekModelCacheImpl(meterRegistry, 2, 0);
+    }
+
+    /**
+     * A week with one event on Monday.
+     */
+    private Supplier<List<List<EventInADay>>> weekWith(long eventId, long roomId, long userId, LocalDate weekStart) {
+        return () -> {
+            loads.incrementAndGet();
+            LocalDateTime start = weekStart.atTime(9, 0);
+            List<List<EventInADay>> days = new ArrayList<>();
+            days.add(List.of(new EventInADay(eventId, "Event " + eventId, null, new RoomSummary(roomId, "Room " + roomId),
+                    new UserSummary(userId, "user" + userId), false, null, 1, 9, 10, start, start.plusHours(1))));
+            for (int i = 1; i < 7; i++) {
+                days.add(List.of());
+            }
+            return days;
+        };
+    }
+
+    private double count(String name, String... tags) {
+        return meterRegistry.get(name).tags(tags).counter().count();
+    }
+
+    @Test
+    void getWeek_ServesNormalizedFiltersFromTheCache() {
+        List<List<EventInADay>> first = cache.getWeek(week1, "2,1", null, " rooms_Lab ", null, null, weekWith(1, 1, 1, week1));
+        List<List<EventInADay>> second = cache.getWeek(week1, "1, 2,", "", "rooms_Lab", null, null, weekWith(1, 1, 1, week1));
+
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+        assertEquals(1, count("cache.gets", "result", "hit"));
+        assertEquals(1, count("cache.gets", "result", "miss"));
+        assertThrows(UnsupportedOperationException.class, () -> first.get(0).clear());
+    }
+
+    @Test
+    void getWeek_ComputesTheWeekAgainAfterTheTtl() throws Exception {
+        WeekModelCacheImpl expiring = new WeekModelCacheImpl(meterRegistry, 2, 1);
+
+        expiring.getWeek(week1, null, null, null, null, null, weekWith(1, 1, 1, week1));
+        expiring.getWeek(week1, null, null, null, null, null, weekWith(1, 1, 1, week1));
+        assertEquals(1, loads.get());
+
+        // A write of another instance is not seen by the listeners, only the TTL ends the week
+        Thread.sleep(1_100);
+        expiring.getWeek(week1, null, null, null, null, null, weekWith(1, 1, 1, week1));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void getWeek_EvictsTheLeastRecentlyViewedWeek() {
+        cache.getWeek(week1, null, null, null, null, null, weekWith(1, 1, 1, week1));
+        cache.getWeek(week2, null, null, null, null, null, weekWith(2, 1, 1, week2));
+        cache.getWeek(week1, null, null, null, null, null, weekWith(1, 1, 1, week1));
+        cache.getWeek(week3, null, null, null, null, null, weekWith(3, 1, 1, week3));
+        assertEquals(3, loads.get());
+
+        cache.getWeek(week1, null, null, null, null, null, weekWith(1, 1, 1, week1));
+        assertEquals(3, loads.get());
+        cache.getWeek(week2, null, null, null, null, null, weekWith(2, 1, 1, week2));
+        assertEquals(4, loads.get());
+        assertEquals(2, count("cache.evictions"));
+        assertEquals(2.0, meterRegistry.get("cache.size").gauge().value());
+    }
+
+    @Test
+    void invalidateEvent_OnlyTouchesWeeksThatShowedItOrShowItNow() {
+        cache.getWeek(week1, null, null, null, null, null, weekWith(1, 1, 1, week1));
+        cache.getWeek(week2, null, null, null, null, null, weekWith(2, 1, 1, week2));
+
+        // Event 1 moved from week 1 to week 3, neither cached week 2 nor any other week is affected
+        Event moved = new Event();
+        moved.setStartTime(week3.atTime(9, 0));
+        moved.setEndTime(week3.atTime(10, 0));
+        moved.updateSeriesSpan();
+        cache.invalidateEvent(1L, moved);
+
+        cache.getWeek(week2, null, null, null, null, null, weekWith(2, 1, 1, week2));
+        assertEquals(2, loads.get());
+        cache.getWeek(week1, null, null, null, null, null, weekWith(1, 1, 1, week1));
+        assertEquals(3, loads.get());
+
+        // A new weekly series starting in week 1 shows up in week 2 as well
+        Event series = new Event();
+        series.setStartTime(week1.atTime(12, 0));
+        series.setEndTime(week1.atTime(13, 0));
+        series.setRecurring(true);
+        series.setRrule("FREQ=WEEKLY");
+        series.updateSeriesSpan();
+        cache.invalidateEvent(5L, series);
+
+        cache.getWeek(week2, null, null, null, null, null, weekWith(2, 1, 1, week2));
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    void invalidateRoom_TouchesWeeksShowingItOrFilteredByRoomTags() {
+        cache.getWeek(week1, null, null, null, null, null, weekWith(1, 1, 1, week1));
+        cache.getWeek(week2, null, null, null, null, null, weekWith(2, 2, 1, week2));
+
+        cache.invalidateRoom(2L);
+
+        cache.getWeek(week1, null, null, null, null, null, weekWith(1, 1, 1, week1));
+        assertEquals(2, loads.get());
+        cache.getWeek(week2, null, null, null, null, null, weekWith(2, 2, 1, week2));
+        assertEquals(3, loads.get());
+        assertEquals(1, count("cache.removals"));
+    }
+
+    @Test
+    void getWeek_DoesNotStoreAWeekComputedDuringAWrite() {
+        Supplier<List<List<EventInADay>>> loader = weekWith(1, 1, 1, week1);
+        cache.getWeek(week1, null, null, null, null, null, () -> {
+            cache.invalidateEvent(9L, null);
+            return loader.get();
+        });
+
+        cache.getWeek(week1, null, null, null, null, null, loader);
+        assertEquals(2, loads.get());
+    }
+}